@@ -0,0 +1,105 @@
+package org.kohsuke.github;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The recorded responses the benchmarks parse, read from the WireMock fixtures of the tests.
+ */
+final class BenchmarkFixtures {
+
+    /**
+     * A response with a body held in memory, so that parsing it does not read from a connection.
+     */
+    static final class FixtureResponse extends GitHubConnectorResponse {
+
+        private final byte[] body;
+
+        /**
+         * Instantiates a new fixture response.
+         *
+         * @param request
+         *            the request
+         * @param body
+         *            the body
+         */
+        FixtureResponse(@Nonnull GitHubConnectorRequest request, @Nonnull byte[] body) {
+            super(request, 200, Collections.emptyMap());
+            this.body = body;
+        }
+
+        @Override
+        protected InputStream rawBodyStream() {
+            return new ByteArrayInputStream(body);
+        }
+    }
+
+    /** A comparison of two commits, with 250 commits and their files. */
+    static final String COMPARE = "GHRepositoryTest/wiremock/getCommitsBetweenOver250/__files/"
+            + "4-r_h_g_compare_4261c42949915816a9f246eb14c3dfd21a637bc294ff.json";
+
+    /** A {@code pull_request} webhook payload. */
+    static final String PULL_REQUEST_EVENT = "GHEventPayloadTest/pull_request.json";
+
+    /** A page of pull requests. */
+    static final String PULL_REQUESTS = "GHPullRequestTest/wiremock/queryPullRequestsUnqualifiedHead/__files/"
+            + "8-r_h_g_pulls.json";
+
+    /** A page of 100 repositories. */
+    static final String REPOSITORIES = "AppTest/wiremock/testOrgRepositories/__files/"
+            + "21-organizations_107424_repos.json";
+
+    private static final Path DIRECTORY = Paths
+            .get(System.getProperty("github-api.fixtures", "src/test/resources/org/kohsuke/github"));
+
+    /**
+     * Reads a fixture.
+     *
+     * @param fixture
+     *            the path of the fixture, relative to the test resources of this package
+     * @return the content
+     * @throws IOException
+     *             if the fixture could not be read
+     */
+    @Nonnull
+    static byte[] read(@Nonnull String fixture) throws IOException {
+        return Files.readAllBytes(DIRECTORY.resolve(fixture));
+    }
+
+    /**
+     * Reads a fixture holding an array and repeats its items, to get a page of a given size.
+     *
+     * @param fixture
+     *            the path of the fixture, relative to the test resources of this package
+     * @param size
+     *            the number of items of the page
+     * @return the content
+     * @throws IOException
+     *             if the fixture could not be read
+     */
+    @Nonnull
+    static byte[] readPage(@Nonnull String fixture, int size) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        ArrayNode items = (ArrayNode) mapper.readTree(read(fixture));
+        ArrayNode page = mapper.createArrayNode();
+        for (int i = 0; i < size; i++) {
+            page.add(items.get(i % items.size()).deepCopy());
+        }
+        return mapper.writeValueAsBytes(page);
+    }
+
+    private BenchmarkFixtures() {
+    }
+}
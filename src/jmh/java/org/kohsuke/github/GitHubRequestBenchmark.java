@@ -0,0 +1,74 @@
+package org.kohsuke.github;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks building {@link GitHubRequest}s, including the encoding of their path and query.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GitHubRequestBenchmark {
+
+    private GitHub github;
+
+    /**
+     * Create default GitHubRequestBenchmark instance
+     */
+    public GitHubRequestBenchmark() {
+    }
+
+    /**
+     * Builds a request for the contents of a file, with a path that needs encoding and a query.
+     *
+     * @return the URL of the request
+     */
+    @Benchmark
+    public URL contentRequest() {
+        return github.createRequest()
+                .withUrlPath("/repos/hub4j/github-api/contents", "src/main/java/org/kohsuke/github/GH Content.java")
+                .with("ref", "feature/some branch")
+                .build()
+                .url();
+    }
+
+    /**
+     * Builds a request for a page of pull requests, as {@link PagedIterable}s do.
+     *
+     * @return the URL of the request
+     */
+    @Benchmark
+    public URL pagedRequest() {
+        return github.createRequest()
+                .withUrlPath("/repos/hub4j/github-api/pulls")
+                .with("state", "open")
+                .with("sort", "updated")
+                .with("direction", "desc")
+                .with("per_page", 100)
+                .build()
+                .url();
+    }
+
+    /**
+     * Creates the {@link GitHub} instance the requests are built from.
+     */
+    @Setup
+    public void setup() {
+        github = GitHub.offline();
+    }
+}
@@ -0,0 +1,94 @@
+package org.kohsuke.github;
+
+import com.fasterxml.jackson.databind.InjectableValues;
+import org.kohsuke.github.BenchmarkFixtures.FixtureResponse;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks reading small responses, where creating the {@link com.fasterxml.jackson.databind.ObjectReader} is a
+ * large part of the work. Run with {@code -prof gc} to compare the allocations of the cached readers to those of a
+ * reader built for each response.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ObjectReaderBenchmark {
+
+    private static final String LABEL = "{\"id\":208045946,\"node_id\":\"MDU6TGFiZWwyMDgwNDU5NDY=\","
+            + "\"url\":\"https://api.github.com/repos/hub4j/github-api/labels/bug\",\"name\":\"bug\","
+            + "\"description\":\"Something isn't working\",\"color\":\"f29513\",\"default\":true}";
+
+    private byte[] body;
+
+    private GitHubRequest request;
+
+    /**
+     * Create default ObjectReaderBenchmark instance
+     */
+    public ObjectReaderBenchmark() {
+    }
+
+    /**
+     * Reads a label with the cached reader of its type.
+     *
+     * @return the label
+     * @throws IOException
+     *             the io exception
+     */
+    @Benchmark
+    public GHLabel cachedReader() throws IOException {
+        return GitHubResponse.parseBody(new FixtureResponse(request, body), GHLabel.class);
+    }
+
+    /**
+     * Reads a label with a reader built for the response, copying the injected values into a new
+     * {@link InjectableValues.Std}, as was done before readers were cached.
+     *
+     * @return the label
+     * @throws IOException
+     *             the io exception
+     */
+    @Benchmark
+    public GHLabel readerPerResponse() throws IOException {
+        GitHubConnectorResponse response = new FixtureResponse(request, body);
+        Map<String, Object> injected = new HashMap<>();
+        injected.put(GitHubConnectorResponse.class.getName(), response);
+        injected.put(GitHub.class.getName(), null);
+        injected.putAll(request.injectedMappingValues());
+        try (InputStream inputStream = response.bodyStream()) {
+            return GitHubClient.getMappingObjectReader((GitHubConnectorResponse) null)
+                    .with(new InjectableValues.Std(injected))
+                    .forType(GHLabel.class)
+                    .readValue(inputStream);
+        }
+    }
+
+    /**
+     * Creates the request the responses are read for.
+     */
+    @Setup
+    public void setup() {
+        request = GitHub.offline().createRequest().withUrlPath("/repos/hub4j/github-api/labels/bug").build();
+        body = LABEL.getBytes(StandardCharsets.UTF_8);
+    }
+}
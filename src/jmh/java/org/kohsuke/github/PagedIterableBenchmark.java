@@ -0,0 +1,121 @@
+package org.kohsuke.github;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks iterating over all the items of a {@link PagedIterable}, with pages served by a local stub server from
+ * the recorded fixtures.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PagedIterableBenchmark {
+
+    private static final int PAGES = 5;
+
+    private GitHub github;
+
+    private byte[] page;
+
+    /** The number of pages requested ahead of the one being iterated over. */
+    @Param({ "0", "2" })
+    public int prefetch;
+
+    private HttpServer server;
+
+    /**
+     * Create default PagedIterableBenchmark instance
+     */
+    public PagedIterableBenchmark() {
+    }
+
+    /**
+     * Iterates over all the repositories of an organization.
+     *
+     * @return the number of repositories
+     */
+    @Benchmark
+    public int iterate() {
+        int count = 0;
+        for (GHRepository repository : github.createRequest()
+                .withUrlPath("/orgs/hub4j/repos")
+                .toIterable(GHRepository[].class, null)
+                .withPrefetch(prefetch)) {
+            if (repository != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Starts the stub server.
+     *
+     * @throws IOException
+     *             if the fixtures could not be read or the server not started
+     */
+    @Setup
+    public void setup() throws IOException {
+        page = BenchmarkFixtures.readPage(BenchmarkFixtures.REPOSITORIES, 100);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::respond);
+        server.start();
+        github = new GitHubBuilder()
+                .withEndpoint("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort())
+                .build();
+    }
+
+    /**
+     * Stops the stub server.
+     */
+    @TearDown
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getRawQuery();
+        int number = 1;
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                if (parameter.startsWith("page=")) {
+                    number = Integer.parseInt(parameter.substring("page=".length()));
+                }
+            }
+        }
+        String url = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort()
+                + exchange.getRequestURI().getRawPath() + "?page=";
+        if (number < PAGES) {
+            exchange.getResponseHeaders()
+                    .add("Link",
+                            "<" + url + (number + 1) + ">; rel=\"next\", <" + url + PAGES + ">; rel=\"last\"");
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, page.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(page);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.kohsuke.github;
+
+import org.kohsuke.github.BenchmarkFixtures.FixtureResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link GitHubResponse#parseBody(org.kohsuke.github.connector.GitHubConnectorResponse, Class)} on large
+ * recorded responses, and the parsing of webhook payloads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseBodyBenchmark {
+
+    private byte[] compare;
+
+    private GitHubRequest compareRequest;
+
+    private GitHub github;
+
+    private byte[] pullRequestEvent;
+
+    private byte[] pullRequests;
+
+    private byte[] repositories;
+
+    private GitHubRequest request;
+
+    /**
+     * Create default ParseBodyBenchmark instance
+     */
+    public ParseBodyBenchmark() {
+    }
+
+    /**
+     * Parses a comparison of two commits.
+     *
+     * @return the comparison
+     * @throws IOException
+     *             the io exception
+     */
+    @Benchmark
+    public GHCompare compare() throws IOException {
+        return GitHubResponse.parseBody(new FixtureResponse(compareRequest, compare), GHCompare.class);
+    }
+
+    /**
+     * Parses a {@code pull_request} webhook payload.
+     *
+     * @return the payload
+     * @throws IOException
+     *             the io exception
+     */
+    @Benchmark
+    public GHEventPayload.PullRequest pullRequestEvent() throws IOException {
+        return github.parseEventPayload(
+                new InputStreamReader(new ByteArrayInputStream(pullRequestEvent), StandardCharsets.UTF_8),
+                GHEventPayload.PullRequest.class);
+    }
+
+    /**
+     * Parses a page of 100 pull requests.
+     *
+     * @return the pull requests
+     * @throws IOException
+     *             the io exception
+     */
+    @Benchmark
+    public GHPullRequest[] pullRequests() throws IOException {
+        return GitHubResponse.parseBody(new FixtureResponse(request, pullRequests), GHPullRequest[].class);
+    }
+
+    /**
+     * Parses a page of 100 repositories.
+     *
+     * @return the repositories
+     * @throws IOException
+     *             the io exception
+     */
+    @Benchmark
+    public GHRepository[] repositories() throws IOException {
+        return GitHubResponse.parseBody(new FixtureResponse(request, repositories), GHRepository[].class);
+    }
+
+    /**
+     * Reads the fixtures.
+     *
+     * @throws IOException
+     *             if the fixtures could not be read
+     */
+    @Setup
+    public void setup() throws IOException {
+        compare = BenchmarkFixtures.read(BenchmarkFixtures.COMPARE);
+        pullRequestEvent = BenchmarkFixtures.read(BenchmarkFixtures.PULL_REQUEST_EVENT);
+        pullRequests = BenchmarkFixtures.readPage(BenchmarkFixtures.PULL_REQUESTS, 100);
+        repositories = BenchmarkFixtures.readPage(BenchmarkFixtures.REPOSITORIES, 100);
+        github = GitHub.offline();
+        request = github.createRequest().withUrlPath("/repos/hub4j/github-api/pulls").build();
+        compareRequest = github.createRequest()
+                .injectMappingValue("GHCompare_usePaginatedCommits", false)
+                .withUrlPath("/repos/hub4j/github-api/compare/main...feature")
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+package org.kohsuke.github;
+
+import org.kohsuke.github.BenchmarkFixtures.FixtureResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks parsing the timestamps of objects, and sorting objects by one, which calls its getter many times.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimestampBenchmark {
+
+    private static final String TIMESTAMP = "2024-02-29T23:59:59Z";
+
+    private GHRepository[] repositories;
+
+    /**
+     * Create default TimestampBenchmark instance
+     */
+    public TimestampBenchmark() {
+    }
+
+    /**
+     * Parses a timestamp in the usual format of GitHub.
+     *
+     * @return the instant
+     */
+    @Benchmark
+    public Instant parseInstant() {
+        return GitHubClient.parseInstant(TIMESTAMP);
+    }
+
+    /**
+     * Parses a timestamp with the formatter, as was done for all timestamps before the fast path.
+     *
+     * @return the instant
+     */
+    @Benchmark
+    public Instant parseWithFormatter() {
+        return Instant.from(DateTimeFormatter.ISO_OFFSET_DATE_TIME.parse(TIMESTAMP));
+    }
+
+    /**
+     * Sorts a page of repositories by the time they were last updated.
+     *
+     * @return the sorted repositories
+     */
+    @Benchmark
+    public GHRepository[] sortByUpdatedAt() {
+        GHRepository[] sorted = repositories.clone();
+        Arrays.sort(sorted, Comparator.comparing(repository -> {
+            try {
+                return repository.getUpdatedAt();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        return sorted;
+    }
+
+    /**
+     * Reads the repositories.
+     *
+     * @throws IOException
+     *             if the fixture could not be read
+     */
+    @Setup
+    public void setup() throws IOException {
+        GitHubRequest request = GitHub.offline().createRequest().withUrlPath("/orgs/hub4j/repos").build();
+        repositories = GitHubResponse.parseBody(
+                new FixtureResponse(request, BenchmarkFixtures.readPage(BenchmarkFixtures.REPOSITORIES, 100)),
+                GHRepository[].class);
+    }
+}
@@ -0,0 +1,36 @@
+package org.kohsuke.github;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Thrown instead of sending a request while the {@link GitHubCircuitBreaker} of its host is open.
+ *
+ * @see GitHubBuilder#withCircuitBreaker(GitHubCircuitBreaker)
+ */
+public class CircuitOpenException extends GHIOException {
+
+    private final String host;
+
+    /**
+     * Instantiates a new circuit open exception.
+     *
+     * @param host
+     *            the host the request was for
+     * @param message
+     *            the message
+     */
+    public CircuitOpenException(@Nonnull String host, String message) {
+        super(message);
+        this.host = host;
+    }
+
+    /**
+     * Gets the host the request was for.
+     *
+     * @return the host
+     */
+    @Nonnull
+    public String getHost() {
+        return host;
+    }
+}
@@ -37,7 +37,11 @@ class GHAppInstallationsIterable extends PagedIterable<GHAppInstallation> {
     public PagedIterator<GHAppInstallation> _iterator(int pageSize) {
         final GitHubRequest request = root.createRequest().withUrlPath(APP_INSTALLATIONS_URL).build();
         return new PagedIterator<>(
-                adapt(GitHubPageIterator.create(root.getClient(), GHAppInstallationsPage.class, request, pageSize)),
+                adapt(GitHubPageIterator.create(root.getClient(),
+                        GHAppInstallationsPage.class,
+                        applyDeadline(request),
+                        pageSize,
+                        getPrefetchDepth())),
                 null);
     }
 
@@ -38,7 +38,11 @@ class GHArtifactsIterable extends PagedIterable<GHArtifact> {
     @Override
     public PagedIterator<GHArtifact> _iterator(int pageSize) {
         return new PagedIterator<>(
-                adapt(GitHubPageIterator.create(owner.root().getClient(), GHArtifactsPage.class, request, pageSize)),
+                adapt(GitHubPageIterator.create(owner.root().getClient(),
+                        GHArtifactsPage.class,
+                        applyDeadline(request),
+                        pageSize,
+                        getPrefetchDepth())),
                 null);
     }
 
@@ -189,6 +189,7 @@ public class GHCheckRun extends GHObject {
     private GHApp app;
     private GHCheckSuite checkSuite;
     private String completedAt;
+    private transient GitHubParsedValue<Instant> parsedCompletedAt;
     private String conclusion;
     private String detailsUrl;
     private String externalId;
@@ -201,6 +202,8 @@ public class GHCheckRun extends GHObject {
 
     private String startedAt;
 
+    private transient GitHubParsedValue<Instant> parsedStartedAt;
+
     private String status;
 
     /** The owner. */
@@ -240,7 +243,11 @@ public class GHCheckRun extends GHObject {
      */
     @WithBridgeMethods(value = Date.class, adapterMethod = "instantToDate")
     public Instant getCompletedAt() {
-        return GitHubClient.parseInstant(completedAt);
+        GitHubParsedValue<Instant> parsed = GitHubParsedValue.of(parsedCompletedAt,
+                completedAt,
+                GitHubClient::parseInstant);
+        parsedCompletedAt = parsed;
+        return parsed.get();
     }
 
     /**
@@ -344,7 +351,11 @@ public class GHCheckRun extends GHObject {
      */
     @WithBridgeMethods(value = Date.class, adapterMethod = "instantToDate")
     public Instant getStartedAt() {
-        return GitHubClient.parseInstant(startedAt);
+        GitHubParsedValue<Instant> parsed = GitHubParsedValue.of(parsedStartedAt,
+                startedAt,
+                GitHubClient::parseInstant);
+        parsedStartedAt = parsed;
+        return parsed.get();
     }
 
     /**
@@ -67,7 +67,11 @@ class GHCommitFileIterable extends PagedIterable<GHCommit.File> {
                     .build();
 
             pageIterator = adapt(
-                    GitHubPageIterator.create(owner.root().getClient(), GHCommitFilesPage.class, request, pageSize));
+                    GitHubPageIterator.create(owner.root().getClient(),
+                            GHCommitFilesPage.class,
+                            applyDeadline(request),
+                            pageSize,
+                            getPrefetchDepth()));
         }
 
         return new PagedIterator<>(pageIterator, null);
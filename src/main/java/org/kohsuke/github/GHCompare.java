@@ -192,7 +192,11 @@ public class GHCompare {
                 pageSize = 10;
             }
             return new PagedIterator<>(
-                    adapt(GitHubPageIterator.create(owner.root().getClient(), GHCompare.class, request, pageSize)),
+                    adapt(GitHubPageIterator.create(owner.root().getClient(),
+                            GHCompare.class,
+                            applyDeadline(request),
+                            pageSize,
+                            getPrefetchDepth())),
                     item -> item.wrapUp(owner));
         }
 
@@ -43,7 +43,11 @@ class GHExternalGroupIterable extends PagedIterable<GHExternalGroup> {
     public PagedIterator<GHExternalGroup> _iterator(int pageSize) {
         return new PagedIterator<>(
                 adapt(GitHubPageIterator
-                        .create(owner.root().getClient(), GHExternalGroupPage.class, request, pageSize)),
+                        .create(owner.root().getClient(),
+                                GHExternalGroupPage.class,
+                                applyDeadline(request),
+                                pageSize,
+                                getPrefetchDepth())),
                 null);
     }
 
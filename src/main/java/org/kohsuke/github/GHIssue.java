@@ -128,6 +128,8 @@ public class GHIssue extends GHObject implements Reactable {
     /** The closed at. */
     protected String closedAt;
 
+    private transient GitHubParsedValue<Instant> parsedClosedAt;
+
     /** The closed by. */
     protected GHUser closedBy;
 
@@ -365,7 +367,9 @@ public class GHIssue extends GHObject implements Reactable {
      */
     @WithBridgeMethods(value = Date.class, adapterMethod = "instantToDate")
     public Instant getClosedAt() {
-        return GitHubClient.parseInstant(closedAt);
+        GitHubParsedValue<Instant> parsed = GitHubParsedValue.of(parsedClosedAt, closedAt, GitHubClient::parseInstant);
+        parsedClosedAt = parsed;
+        return parsed.get();
     }
 
     /**
@@ -49,6 +49,10 @@ public abstract class GHObject extends GitHubInteractiveObject {
 
     private long id;
     private String nodeId;
+    private transient GitHubParsedValue<Instant> parsedCreatedAt;
+    private transient GitHubParsedValue<Instant> parsedUpdatedAt;
+    private transient GitHubParsedValue<URL> parsedUrl;
+
     private String updatedAt;
     private String url;
 
@@ -72,7 +76,11 @@ public abstract class GHObject extends GitHubInteractiveObject {
      */
     @WithBridgeMethods(value = Date.class, adapterMethod = "instantToDate")
     public Instant getCreatedAt() throws IOException {
-        return GitHubClient.parseInstant(createdAt);
+        GitHubParsedValue<Instant> parsed = GitHubParsedValue.of(parsedCreatedAt,
+                createdAt,
+                GitHubClient::parseInstant);
+        parsedCreatedAt = parsed;
+        return parsed.get();
     }
 
     /**
@@ -121,7 +129,11 @@ public abstract class GHObject extends GitHubInteractiveObject {
      */
     @WithBridgeMethods(value = Date.class, adapterMethod = "instantToDate")
     public Instant getUpdatedAt() throws IOException {
-        return GitHubClient.parseInstant(updatedAt);
+        GitHubParsedValue<Instant> parsed = GitHubParsedValue.of(parsedUpdatedAt,
+                updatedAt,
+                GitHubClient::parseInstant);
+        parsedUpdatedAt = parsed;
+        return parsed.get();
     }
 
     /**
@@ -130,7 +142,9 @@ public abstract class GHObject extends GitHubInteractiveObject {
      * @return API URL of this object.
      */
     public URL getUrl() {
-        return GitHubClient.parseURL(url);
+        GitHubParsedValue<URL> parsed = GitHubParsedValue.of(parsedUrl, url, GitHubClient::parseURL);
+        parsedUrl = parsed;
+        return parsed.get();
     }
 
     /**
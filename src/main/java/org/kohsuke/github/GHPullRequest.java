@@ -128,6 +128,7 @@ public class GHPullRequest extends GHIssue implements Refreshable {
     private String mergeableState;
     private boolean merged, maintainerCanModify;
     private String mergedAt;
+    private transient GitHubParsedValue<Instant> parsedMergedAt;
     // details that are only available when obtained from ID
     private GHUser mergedBy;
     private String patchUrl, diffUrl, issueUrl;
@@ -397,7 +398,9 @@ public class GHPullRequest extends GHIssue implements Refreshable {
      */
     @WithBridgeMethods(value = Date.class, adapterMethod = "instantToDate")
     public Instant getMergedAt() {
-        return GitHubClient.parseInstant(mergedAt);
+        GitHubParsedValue<Instant> parsed = GitHubParsedValue.of(parsedMergedAt, mergedAt, GitHubClient::parseInstant);
+        parsedMergedAt = parsed;
+        return parsed.get();
     }
 
     /**
@@ -111,6 +111,7 @@ public class GHWorkflowJob extends GHObject {
     private String checkRunUrl;
 
     private String completedAt;
+    private transient GitHubParsedValue<Instant> parsedCompletedAt;
 
     private String conclusion;
 
@@ -132,6 +133,7 @@ public class GHWorkflowJob extends GHObject {
     private int runnerId;
     private String runnerName;
     private String startedAt;
+    private transient GitHubParsedValue<Instant> parsedStartedAt;
 
     private String status;
 
@@ -178,7 +180,11 @@ public class GHWorkflowJob extends GHObject {
      */
     @WithBridgeMethods(value = Date.class, adapterMethod = "instantToDate")
     public Instant getCompletedAt() {
-        return GitHubClient.parseInstant(completedAt);
+        GitHubParsedValue<Instant> parsed = GitHubParsedValue.of(parsedCompletedAt,
+                completedAt,
+                GitHubClient::parseInstant);
+        parsedCompletedAt = parsed;
+        return parsed.get();
     }
 
     /**
@@ -299,7 +305,11 @@ public class GHWorkflowJob extends GHObject {
      */
     @WithBridgeMethods(value = Date.class, adapterMethod = "instantToDate")
     public Instant getStartedAt() {
-        return GitHubClient.parseInstant(startedAt);
+        GitHubParsedValue<Instant> parsed = GitHubParsedValue.of(parsedStartedAt,
+                startedAt,
+                GitHubClient::parseInstant);
+        parsedStartedAt = parsed;
+        return parsed.get();
     }
 
     /**
@@ -232,6 +232,7 @@ public class GHWorkflowRun extends GHObject {
 
     private long runNumber;
     private String runStartedAt;
+    private transient GitHubParsedValue<Instant> parsedRunStartedAt;
     private String status;
 
     private GHUser triggeringActor;
@@ -501,7 +502,11 @@ public class GHWorkflowRun extends GHObject {
      */
     @WithBridgeMethods(value = Date.class, adapterMethod = "instantToDate")
     public Instant getRunStartedAt() {
-        return GitHubClient.parseInstant(runStartedAt);
+        GitHubParsedValue<Instant> parsed = GitHubParsedValue.of(parsedRunStartedAt,
+                runStartedAt,
+                GitHubClient::parseInstant);
+        parsedRunStartedAt = parsed;
+        return parsed.get();
     }
 
     /**
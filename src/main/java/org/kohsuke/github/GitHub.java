@@ -27,14 +27,14 @@ import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.kohsuke.github.authorization.AuthorizationProvider;
+import org.kohsuke.github.authorization.CredentialPoolAuthorizationProvider;
 import org.kohsuke.github.authorization.ImmutableAuthorizationProvider;
 import org.kohsuke.github.authorization.UserAuthorizationProvider;
 import org.kohsuke.github.connector.GitHubConnector;
 
 import java.io.*;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.function.Supplier;
 import java.util.logging.Logger;
 
@@ -325,16 +325,16 @@ public class GitHub {
     @CheckForNull
     private GHMyself myself;
 
-    private final ConcurrentMap<String, GHOrganization> orgs;
+    private final GitHubObjectCache<GHOrganization> orgs;
 
     @Nonnull
     private final GitHubSanityCachedValue<GHMeta> sanityCachedMeta = new GitHubSanityCachedValue<>();
 
-    private final ConcurrentMap<String, GHUser> users;
+    private final GitHubObjectCache<GHUser> users;
 
     private GitHub(GitHubClient client) {
-        users = new ConcurrentHashMap<>();
-        orgs = new ConcurrentHashMap<>();
+        users = new GitHubObjectCache<>(0, null);
+        orgs = new GitHubObjectCache<>(0, null);
         this.client = client;
     }
 
@@ -379,6 +379,28 @@ public class GitHub {
      *            rateLimitChecker
      * @param authorizationProvider
      *            a authorization provider
+     * @param objectCacheMaximumSize
+     *            the maximum number of users and of organizations to cache, {@code 0} for no limit
+     * @param objectCacheTimeToLive
+     *            how long cached users and organizations are kept, {@code null} for no limit
+     * @param coalesceRequests
+     *            whether identical concurrent {@code GET} requests are sent only once
+     * @param pauseCoordinator
+     *            holds requests while a secondary rate limit is waited out, {@code null} for one of its own
+     * @param concurrencyLimiter
+     *            limits the number of requests in flight, {@code null} for no limit
+     * @param rateLimitLedger
+     *            shares the observed rate limits with other processes, {@code null} to not share them
+     * @param requestScheduler
+     *            schedules requests by priority, {@code null} to send them in order
+     * @param retryPolicy
+     *            retries requests that failed for transient reasons, {@code null} to not retry them
+     * @param circuitBreaker
+     *            fails requests fast while their host is failing, {@code null} to always send them
+     * @param requestHedger
+     *            sends {@code GET} requests again when their response is late, {@code null} to not hedge them
+     * @param requestListener
+     *            receives the steps of each request, {@code null} for none
      * @throws IOException
      *             Signals that an I/O exception has occurred.
      */
@@ -388,9 +410,27 @@ public class GitHub {
             GitHubRateLimitHandler rateLimitHandler,
             GitHubAbuseLimitHandler abuseLimitHandler,
             GitHubRateLimitChecker rateLimitChecker,
-            AuthorizationProvider authorizationProvider) throws IOException {
+            AuthorizationProvider authorizationProvider,
+            int objectCacheMaximumSize,
+            Duration objectCacheTimeToLive,
+            boolean coalesceRequests,
+            GitHubPauseCoordinator pauseCoordinator,
+            GitHubConcurrencyLimiter concurrencyLimiter,
+            GitHubRateLimitLedger rateLimitLedger,
+            GitHubRequestScheduler requestScheduler,
+            GitHubRetryPolicy retryPolicy,
+            GitHubCircuitBreaker circuitBreaker,
+            GitHubRequestHedger requestHedger,
+            GitHubRequestListener requestListener) throws IOException {
         if (authorizationProvider instanceof DependentAuthorizationProvider) {
             ((DependentAuthorizationProvider) authorizationProvider).bind(this);
+        } else if (authorizationProvider instanceof CredentialPoolAuthorizationProvider) {
+            for (AuthorizationProvider provider : ((CredentialPoolAuthorizationProvider) authorizationProvider)
+                    .getProviders()) {
+                if (provider instanceof DependentAuthorizationProvider) {
+                    ((DependentAuthorizationProvider) provider).bind(this);
+                }
+            }
         } else if (authorizationProvider instanceof ImmutableAuthorizationProvider
                 && authorizationProvider instanceof UserAuthorizationProvider) {
             UserAuthorizationProvider provider = (UserAuthorizationProvider) authorizationProvider;
@@ -400,15 +440,24 @@ public class GitHub {
             }
         }
 
-        users = new ConcurrentHashMap<>();
-        orgs = new ConcurrentHashMap<>();
+        users = new GitHubObjectCache<>(objectCacheMaximumSize, objectCacheTimeToLive);
+        orgs = new GitHubObjectCache<>(objectCacheMaximumSize, objectCacheTimeToLive);
 
         this.client = new GitHubClient(apiUrl,
                 connector,
                 rateLimitHandler,
                 abuseLimitHandler,
                 rateLimitChecker,
-                authorizationProvider);
+                authorizationProvider,
+                coalesceRequests,
+                pauseCoordinator,
+                concurrencyLimiter,
+                rateLimitLedger,
+                requestScheduler,
+                retryPolicy,
+                circuitBreaker,
+                requestHedger,
+                requestListener);
 
         // Ensure we have the login if it is available
         // This preserves previously existing behavior. Consider removing in future.
@@ -808,6 +857,28 @@ public class GitHub {
         return o;
     }
 
+    /**
+     * Gets the statistics of the cache of organizations retrieved by {@link #getOrganization(String)}.
+     *
+     * @return the cache statistics
+     * @see GitHubBuilder#withObjectCacheLimits(int, Duration)
+     */
+    public GitHubCacheStatistics getOrganizationCacheStatistics() {
+        return orgs.getStatistics();
+    }
+
+    /**
+     * Gets the coordinator that holds requests while a secondary rate limit is waited out. It reports how often and
+     * for how long requests were held.
+     *
+     * @return the pause coordinator
+     * @see GitHubBuilder#withPauseCoordinator(GitHubPauseCoordinator)
+     */
+    @Nonnull
+    public GitHubPauseCoordinator getPauseCoordinator() {
+        return client.getPauseCoordinator();
+    }
+
     /**
      * Gets project.
      *
@@ -915,6 +986,17 @@ public class GitHub {
         return u;
     }
 
+    /**
+     * Gets the statistics of the cache of users retrieved by {@link #getUser(String)} or shared between the objects
+     * returned by this instance.
+     *
+     * @return the cache statistics
+     * @see GitHubBuilder#withObjectCacheLimits(int, Duration)
+     */
+    public GitHubCacheStatistics getUserCacheStatistics() {
+        return users.getStatistics();
+    }
+
     /**
      * List public events for a user
      * <a href="https://docs.github.com/en/rest/activity/events?apiVersion=2022-11-28#list-public-events-for-a-user">see
@@ -1125,7 +1207,7 @@ public class GitHub {
      *             the io exception
      */
     public <T extends GHEventPayload> T parseEventPayload(Reader r, Class<T> type) throws IOException {
-        T t = GitHubClient.getMappingObjectReader(this).forType(type).readValue(r);
+        T t = GitHubClient.getMappingObjectReader(this, type).readValue(r);
         t.lateBind();
         return t;
     }
@@ -1267,9 +1349,8 @@ public class GitHub {
      * @return the user
      */
     protected GHUser getUser(GHUser orig) {
-        GHUser u = users.get(orig.getLogin());
+        GHUser u = users.putIfAbsent(orig.getLogin(), orig);
         if (u == null) {
-            users.put(orig.getLogin(), orig);
             return orig;
         }
         return u;
@@ -50,6 +50,11 @@ public abstract class GitHubAbuseLimitHandler extends GitHubConnectorResponseErr
                 throw (InterruptedIOException) new InterruptedIOException().initCause(ex);
             }
         }
+
+        @Override
+        public Duration retryAfter(GitHubConnectorResponse connectorResponse) {
+            return Duration.ofMillis(parseWaitTime(connectorResponse));
+        }
     };
 
     /**
@@ -117,6 +122,29 @@ public abstract class GitHubAbuseLimitHandler extends GitHubConnectorResponseErr
      */
     public abstract void onError(@Nonnull GitHubConnectorResponse connectorResponse) throws IOException;
 
+    /**
+     * Called when the library encounters HTTP error indicating that the API abuse limit is reached, to decide how long
+     * to wait before the request is sent again.
+     *
+     * <p>
+     * Unlike {@link #onError(GitHubConnectorResponse)}, this method should not wait itself: the library waits for the
+     * returned time, on a timer for asynchronous requests, and holds the other requests with the same credential
+     * meanwhile. Any exception thrown from this method will cause the request to fail. The default implementation
+     * calls {@link #onError(GitHubConnectorResponse)} and retries right after it returns, so that existing handlers
+     * keep working.
+     *
+     * @param connectorResponse
+     *            Response information for this request.
+     * @return the time to wait before sending the request again
+     * @throws IOException
+     *             on failure
+     */
+    @Nonnull
+    public Duration retryAfter(@Nonnull GitHubConnectorResponse connectorResponse) throws IOException {
+        onError(connectorResponse);
+        return Duration.ZERO;
+    }
+
     /**
      * Checks if the response contains a specific header.
      *
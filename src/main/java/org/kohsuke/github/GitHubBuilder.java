@@ -10,6 +10,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Locale;
 import java.util.Map.Entry;
 import java.util.Properties;
@@ -157,12 +158,38 @@ public class GitHubBuilder implements Cloneable {
 
     private GitHubAbuseLimitHandler abuseLimitHandler = GitHubAbuseLimitHandler.WAIT;
 
+    private GitHubCircuitBreaker circuitBreaker = null;
+
+    private boolean coalesceRequests = false;
+
+    private GitHubConcurrencyLimiter concurrencyLimiter = null;
+
     private GitHubConnector connector;
 
+    private GitHubMetrics metrics = null;
+
+    private GitHubMetricsExporter metricsExporter = null;
+
+    private int objectCacheMaximumSize = 0;
+
+    private Duration objectCacheTimeToLive = null;
+
+    private GitHubPauseCoordinator pauseCoordinator = null;
+
     private GitHubRateLimitChecker rateLimitChecker = new GitHubRateLimitChecker();
 
     private GitHubRateLimitHandler rateLimitHandler = GitHubRateLimitHandler.WAIT;
 
+    private GitHubRateLimitLedger rateLimitLedger = null;
+
+    private GitHubRequestHedger requestHedger = null;
+
+    private GitHubRequestListener requestListener = null;
+
+    private GitHubRequestScheduler requestScheduler = null;
+
+    private GitHubRetryPolicy retryPolicy = null;
+
     /** The authorization provider. */
     /* private */ AuthorizationProvider authorizationProvider = AuthorizationProvider.ANONYMOUS;
 
@@ -184,12 +211,29 @@ public class GitHubBuilder implements Cloneable {
      *             the io exception
      */
     public GitHub build() throws IOException {
+        if (metricsExporter != null) {
+            if (metrics == null) {
+                metrics = new GitHubMetrics();
+            }
+            metrics.schedule(metricsExporter);
+        }
         return new GitHub(endpoint,
                 connector,
                 rateLimitHandler,
                 abuseLimitHandler,
                 rateLimitChecker,
-                authorizationProvider);
+                authorizationProvider,
+                objectCacheMaximumSize,
+                objectCacheTimeToLive,
+                coalesceRequests,
+                pauseCoordinator,
+                concurrencyLimiter,
+                rateLimitLedger,
+                requestScheduler,
+                retryPolicy,
+                circuitBreaker,
+                requestHedger,
+                metrics != null ? metrics.listener(requestListener) : requestListener);
     }
 
     /**
@@ -250,6 +294,41 @@ public class GitHubBuilder implements Cloneable {
         return this;
     }
 
+    /**
+     * Fails requests fast while the host they are sent to is failing.
+     * <p>
+     * After a number of consecutive {@code 5xx} responses or connection failures from a host, requests to it throw a
+     * {@link CircuitOpenException} without being sent, until a probe request succeeds. By default every request is
+     * sent.
+     * </p>
+     *
+     * @param circuitBreaker
+     *            the circuit breaker, which may be shared with other {@link GitHub} instances
+     * @return the GitHubBuilder
+     */
+    public GitHubBuilder withCircuitBreaker(@Nonnull GitHubCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+        return this;
+    }
+
+    /**
+     * Limits the number of requests in flight, adapting the limit to the responses from GitHub.
+     * <p>
+     * Requests from all threads wait for a permit of the limiter before being sent. The limit grows while responses
+     * are healthy and shrinks when GitHub rejects requests with a secondary rate limit or responses slow down, so that
+     * parallel callers converge on the highest concurrency GitHub accepts. By default the number of requests in flight
+     * is not limited.
+     * </p>
+     *
+     * @param concurrencyLimiter
+     *            the limiter, which may be shared with other {@link GitHub} instances
+     * @return the GitHubBuilder
+     */
+    public GitHubBuilder withConcurrencyLimiter(@Nonnull GitHubConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+        return this;
+    }
+
     /**
      * With connector GitHubBuilder.
      *
@@ -288,6 +367,38 @@ public class GitHubBuilder implements Cloneable {
         return withAuthorizationProvider(ImmutableAuthorizationProvider.fromJwtToken(jwtToken));
     }
 
+    /**
+     * Records the latency, response sizes, statuses, retries and rate limit use of requests per endpoint.
+     * <p>
+     * The metrics can be read with {@link GitHubMetrics#snapshot()}. A listener set with
+     * {@link #withRequestListener(GitHubRequestListener)} still receives the events of the requests.
+     * </p>
+     *
+     * @param metrics
+     *            the registry, which may be shared with other {@link GitHub} instances using the same credential
+     * @return the GitHubBuilder
+     */
+    public GitHubBuilder withMetrics(@Nonnull GitHubMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Exports the metrics of requests periodically, at the exporter's {@link GitHubMetricsExporter#getInterval()}.
+     * <p>
+     * The metrics are those of the registry set with {@link #withMetrics(GitHubMetrics)}, or of a new registry shared
+     * by the instances built by this builder if none was set.
+     * </p>
+     *
+     * @param metricsExporter
+     *            the exporter
+     * @return the GitHubBuilder
+     */
+    public GitHubBuilder withMetricsExporter(@Nonnull GitHubMetricsExporter metricsExporter) {
+        this.metricsExporter = metricsExporter;
+        return this;
+    }
+
     /**
      * With o auth token GitHubBuilder.
      *
@@ -312,6 +423,54 @@ public class GitHubBuilder implements Cloneable {
         return withAuthorizationProvider(ImmutableAuthorizationProvider.fromOauthToken(oauthToken, user));
     }
 
+    /**
+     * Limits the caches of users and organizations kept by the {@link GitHub} instance.
+     * <p>
+     * {@link GitHub#getUser(String)} and {@link GitHub#getOrganization(String)} cache the objects they retrieve, and
+     * users referenced by other objects are shared through the same cache. By default these caches are unbounded and
+     * only emptied by {@link GitHub#refreshCache()}, which can use a lot of memory in long-lived processes.
+     * </p>
+     * <p>
+     * When limited, the least recently used entries are evicted once a cache holds {@code maximumSize} entries, and
+     * entries older than {@code timeToLive} are fetched again on their next lookup. See
+     * {@link GitHub#getUserCacheStatistics()} and {@link GitHub#getOrganizationCacheStatistics()}.
+     * </p>
+     *
+     * @param maximumSize
+     *            the maximum number of entries in each cache, {@code 0} for no limit
+     * @param timeToLive
+     *            how long entries are kept after being added, {@code null} for no limit
+     * @return the GitHubBuilder
+     */
+    public GitHubBuilder withObjectCacheLimits(int maximumSize, Duration timeToLive) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("Maximum size must not be negative");
+        }
+        if (timeToLive != null && timeToLive.isNegative()) {
+            throw new IllegalArgumentException("Time to live must not be negative");
+        }
+        this.objectCacheMaximumSize = maximumSize;
+        this.objectCacheTimeToLive = timeToLive;
+        return this;
+    }
+
+    /**
+     * Configures the coordinator that holds requests while a secondary rate limit is waited out.
+     * <p>
+     * By default each {@link GitHub} instance holds its own requests. Passing the same coordinator to the builders of
+     * several instances also holds the requests of the other instances that use the same credential.
+     * </p>
+     *
+     * @param pauseCoordinator
+     *            the pause coordinator
+     * @return the GitHubBuilder
+     * @see GitHub#getPauseCoordinator()
+     */
+    public GitHubBuilder withPauseCoordinator(@Nonnull GitHubPauseCoordinator pauseCoordinator) {
+        this.pauseCoordinator = pauseCoordinator;
+        return this;
+    }
+
     /**
      * Adds a {@link RateLimitChecker} for the Core API for this {@link GitHubBuilder}.
      *
@@ -380,4 +539,108 @@ public class GitHubBuilder implements Cloneable {
         this.rateLimitHandler = handler;
         return this;
     }
+
+    /**
+     * Shares the observed rate limits with other processes on the same host.
+     * <p>
+     * The rate limits reported by responses are written to the ledger, and the rate limit checked by the
+     * {@link RateLimitChecker}s is merged with the one recorded in the ledger by any process for the same credential.
+     * By default the rate limit is only tracked within this {@link GitHub} instance.
+     * </p>
+     *
+     * @param rateLimitLedger
+     *            the ledger, typically opened on the same file by every process
+     * @return the GitHubBuilder
+     */
+    public GitHubBuilder withRateLimitLedger(@Nonnull GitHubRateLimitLedger rateLimitLedger) {
+        this.rateLimitLedger = rateLimitLedger;
+        return this;
+    }
+
+    /**
+     * Configures whether identical concurrent {@code GET} requests are sent only once.
+     * <p>
+     * When enabled, a {@code GET} request sent while an identical request (same URL and headers, including
+     * credentials) is in flight on the same {@link GitHub} instance waits for that request instead of sending its own.
+     * A successful response is buffered in memory and each waiting caller parses its own copy of it. Requests that
+     * were waiting for a response that is not successful are sent separately. Disabled by default.
+     * </p>
+     *
+     * @param coalesceRequests
+     *            {@code true} to coalesce identical concurrent requests
+     * @return the GitHubBuilder
+     */
+    public GitHubBuilder withRequestCoalescing(boolean coalesceRequests) {
+        this.coalesceRequests = coalesceRequests;
+        return this;
+    }
+
+    /**
+     * Hedges {@code GET} requests whose response is late.
+     * <p>
+     * When no response arrived after a percentile of the recent response times, the request is sent again and the
+     * first response is used. The hedger limits hedges to a fraction of the requests, and only sends them when the
+     * {@link RateLimitChecker} would let a request through right away. By default requests are sent once.
+     * </p>
+     *
+     * @param requestHedger
+     *            the hedger, which may be shared with other {@link GitHub} instances
+     * @return the GitHubBuilder
+     */
+    public GitHubBuilder withRequestHedger(@Nonnull GitHubRequestHedger requestHedger) {
+        this.requestHedger = requestHedger;
+        return this;
+    }
+
+    /**
+     * Reports the steps of each request to a listener, with their timings, to trace or measure them.
+     * <p>
+     * The listener is told when a request starts, is let through by the rate limit checks, is handed to the connector,
+     * gets a response and has its body parsed, and when it is retried, redirected or fails.
+     * </p>
+     *
+     * @param requestListener
+     *            the listener, which may be shared with other {@link GitHub} instances
+     * @return the GitHubBuilder
+     */
+    public GitHubBuilder withRequestListener(@Nonnull GitHubRequestListener requestListener) {
+        this.requestListener = requestListener;
+        return this;
+    }
+
+    /**
+     * Schedules requests by {@link RequestPriority}.
+     * <p>
+     * The scheduler reserves a slice of the rate limit, and optionally of the requests in flight, for
+     * {@link RequestPriority#HIGH} requests, and lets {@link RequestPriority#BULK} requests yield first. By default
+     * requests are sent in the order they are made, whatever their priority.
+     * </p>
+     *
+     * @param requestScheduler
+     *            the scheduler, which may be shared with other {@link GitHub} instances using the same credential
+     * @return the GitHubBuilder
+     * @see Requester#priority(RequestPriority)
+     * @see RequestPriority#enter()
+     */
+    public GitHubBuilder withRequestScheduler(@Nonnull GitHubRequestScheduler requestScheduler) {
+        this.requestScheduler = requestScheduler;
+        return this;
+    }
+
+    /**
+     * Retries requests that failed for transient reasons.
+     * <p>
+     * With a policy, connection errors and {@code 502}, {@code 503} and {@code 504} responses to idempotent requests
+     * are retried with exponential backoff and jitter, as long as the retry budget of the policy allows. By default
+     * they are reported right away.
+     * </p>
+     *
+     * @param retryPolicy
+     *            the policy, which may be shared with other {@link GitHub} instances to share its retry budget
+     * @return the GitHubBuilder
+     */
+    public GitHubBuilder withRetryPolicy(@Nonnull GitHubRetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
 }
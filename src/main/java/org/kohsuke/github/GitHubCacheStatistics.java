@@ -0,0 +1,89 @@
+package org.kohsuke.github;
+
+/**
+ * A snapshot of the statistics of a cache kept by this library.
+ *
+ * @see GitHub#getUserCacheStatistics()
+ * @see GitHub#getOrganizationCacheStatistics()
+ */
+public final class GitHubCacheStatistics {
+
+    private final long evictionCount;
+    private final long hitCount;
+    private final long missCount;
+    private final long size;
+
+    /**
+     * Creates a snapshot of cache statistics.
+     *
+     * @param hitCount
+     *            the number of lookups that found a cached value
+     * @param missCount
+     *            the number of lookups that did not find a cached value
+     * @param evictionCount
+     *            the number of entries removed because the cache was full or they had expired
+     * @param size
+     *            the number of entries currently cached
+     */
+    public GitHubCacheStatistics(long hitCount, long missCount, long evictionCount, long size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+    }
+
+    /**
+     * Gets the number of entries removed because the cache was full or they had expired.
+     *
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Gets the number of lookups that found a cached value.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the ratio of lookups that found a cached value.
+     *
+     * @return the hit rate, between {@code 0.0} and {@code 1.0}. {@code 0.0} if there were no lookups.
+     */
+    public double getHitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 0.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * Gets the number of lookups that did not find a cached value.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the number of entries currently cached.
+     *
+     * @return the size
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "GitHubCacheStatistics{hitCount=" + hitCount + ", missCount=" + missCount + ", evictionCount="
+                + evictionCount + ", size=" + size + "}";
+    }
+}
@@ -0,0 +1,291 @@
+package org.kohsuke.github;
+
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Fails requests fast while the host they are sent to is failing, instead of letting each of them wait through
+ * timeouts and retries.
+ * <p>
+ * Each host has its own circuit. A circuit is {@link State#CLOSED} while requests succeed. After a number of
+ * consecutive failures it opens: for a while every request to the host throws a {@link CircuitOpenException} without
+ * being sent. Then the circuit is {@link State#HALF_OPEN} and lets a few probe requests through. A successful probe
+ * closes the circuit, a failed one opens it again.
+ * </p>
+ * <p>
+ * Responses with a {@code 5xx} status, which includes the responses reported as {@link ServiceDownException}, count as
+ * failures, as do connections that could not be established or timed out. Any other response, including rate limit
+ * and client errors, shows that the host is up. Requests given up by their caller, because their
+ * {@link RequestDeadline} passed or was cancelled or their thread was interrupted, say nothing about the host and
+ * neither count as failures nor close the circuit. One breaker can be passed to the builders of several {@link GitHub}
+ * instances, so that they share the circuits.
+ * </p>
+ *
+ * @see GitHubBuilder#withCircuitBreaker(GitHubCircuitBreaker)
+ */
+public final class GitHubCircuitBreaker {
+
+    /**
+     * The state of the circuit of a host.
+     */
+    public enum State {
+        /** Requests are sent. */
+        CLOSED,
+
+        /** Requests fail without being sent. */
+        OPEN,
+
+        /** A few probe requests are sent to find out whether the host recovered. */
+        HALF_OPEN
+    }
+
+    /**
+     * What the outcome of a request says about its host.
+     */
+    private enum Outcome {
+        /** The host answered. */
+        SUCCESS,
+
+        /** The host failed or could not be reached. */
+        FAILURE,
+
+        /** The request was given up by its caller. */
+        GIVEN_UP
+    }
+
+    private static final class Circuit {
+
+        private int failures = 0;
+
+        private long openedNanos;
+
+        private int probes = 0;
+
+        private State state = State.CLOSED;
+    }
+
+    private static Outcome outcome(@CheckForNull GitHubConnectorResponse connectorResponse,
+            @CheckForNull Throwable throwable) {
+        if (connectorResponse != null) {
+            return connectorResponse.statusCode() >= 500 ? Outcome.FAILURE : Outcome.SUCCESS;
+        }
+        // connectors and futures may wrap the error, the outermost one that is known tells what happened
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RequestCancelledException || cause instanceof CancellationException
+                    || (cause instanceof InterruptedIOException && !(cause instanceof SocketTimeoutException))
+                    || (cause instanceof IOException && "Canceled".equals(cause.getMessage()))) {
+                // connectors report an aborted exchange as "Canceled"
+                return Outcome.GIVEN_UP;
+            }
+            if (cause instanceof ConnectException || cause instanceof SocketTimeoutException
+                    || cause instanceof HttpTimeoutException) {
+                return Outcome.FAILURE;
+            }
+        }
+        return Outcome.SUCCESS;
+    }
+
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+
+    private final int failureThreshold;
+
+    private final long openNanos;
+
+    private final int probeLimit;
+
+    /**
+     * Creates a circuit breaker.
+     *
+     * @param failureThreshold
+     *            the number of consecutive failures that opens a circuit, at least {@code 1}
+     * @param openDuration
+     *            how long an open circuit fails requests before letting probes through
+     * @param probeLimit
+     *            the number of probe requests in flight while a circuit is half open, at least {@code 1}
+     */
+    public GitHubCircuitBreaker(int failureThreshold, @Nonnull Duration openDuration, int probeLimit) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Failure threshold must be at least 1");
+        }
+        if (openDuration.isNegative()) {
+            throw new IllegalArgumentException("Open duration must not be negative");
+        }
+        if (probeLimit < 1) {
+            throw new IllegalArgumentException("Probe limit must be at least 1");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.probeLimit = probeLimit;
+    }
+
+    /**
+     * Gets the number of consecutive failures of the requests to a host.
+     *
+     * @param host
+     *            the host
+     * @return the number of failures since the last success
+     */
+    public int getFailures(@Nonnull String host) {
+        Circuit circuit = circuits.get(host);
+        if (circuit == null) {
+            return 0;
+        }
+        synchronized (circuit) {
+            return circuit.failures;
+        }
+    }
+
+    /**
+     * Gets the state of the circuit of a host.
+     *
+     * @param host
+     *            the host
+     * @return the state, {@link State#CLOSED} for hosts no request was sent to
+     */
+    @Nonnull
+    public State getState(@Nonnull String host) {
+        Circuit circuit = circuits.get(host);
+        if (circuit == null) {
+            return State.CLOSED;
+        }
+        synchronized (circuit) {
+            return currentState(circuit, System.nanoTime());
+        }
+    }
+
+    /**
+     * Gets the state of the circuits of all hosts requests were sent to.
+     *
+     * @return the states by host
+     */
+    @Nonnull
+    public Map<String, State> getStates() {
+        Map<String, State> states = new TreeMap<>();
+        for (String host : circuits.keySet()) {
+            states.put(host, getState(host));
+        }
+        return states;
+    }
+
+    /**
+     * Gets the state of a circuit, letting an open circuit become half open once its time is up.
+     */
+    private State currentState(Circuit circuit, long nowNanos) {
+        if (circuit.state == State.OPEN && nowNanos - circuit.openedNanos >= openNanos) {
+            circuit.state = State.HALF_OPEN;
+            circuit.probes = 0;
+        }
+        return circuit.state;
+    }
+
+    private void open(Circuit circuit, long nowNanos) {
+        circuit.state = State.OPEN;
+        circuit.openedNanos = nowNanos;
+        circuit.probes = 0;
+    }
+
+    /**
+     * Lets a request to a host through, unless its circuit is open.
+     *
+     * @param host
+     *            the host of the request
+     * @return {@code true} if the request is a probe of a half open circuit
+     * @throws CircuitOpenException
+     *             if the request must not be sent
+     */
+    boolean acquire(@Nonnull String host) throws CircuitOpenException {
+        Circuit circuit = circuits.computeIfAbsent(host, key -> new Circuit());
+        synchronized (circuit) {
+            long nowNanos = System.nanoTime();
+            switch (currentState(circuit, nowNanos)) {
+                case CLOSED :
+                    return false;
+                case HALF_OPEN :
+                    if (circuit.probes < probeLimit) {
+                        circuit.probes++;
+                        return true;
+                    }
+                    throw new CircuitOpenException(host, "Circuit for " + host + " is half open, probing");
+                default :
+                    long remainingMillis = TimeUnit.NANOSECONDS.toMillis(openNanos - (nowNanos - circuit.openedNanos));
+                    throw new CircuitOpenException(host,
+                            "Circuit for " + host + " is open after " + circuit.failures
+                                    + " consecutive failures, failing fast for another " + remainingMillis + " ms");
+            }
+        }
+    }
+
+    /**
+     * Records that a request let through by {@link #acquire(String)} was given up by its caller, which says nothing
+     * about the host.
+     *
+     * @param host
+     *            the host of the request
+     * @param probe
+     *            whether the request was a probe
+     */
+    void release(@Nonnull String host, boolean probe) {
+        record(host, probe, Outcome.GIVEN_UP);
+    }
+
+    /**
+     * Records the outcome of a request let through by {@link #acquire(String)}.
+     *
+     * @param host
+     *            the host of the request
+     * @param probe
+     *            whether the request was a probe
+     * @param connectorResponse
+     *            the response, or {@code null} if the request failed
+     * @param throwable
+     *            the error, if the request failed
+     */
+    void record(@Nonnull String host,
+            boolean probe,
+            @CheckForNull GitHubConnectorResponse connectorResponse,
+            @CheckForNull Throwable throwable) {
+        record(host, probe, outcome(connectorResponse, throwable));
+    }
+
+    private void record(String host, boolean probe, Outcome outcome) {
+        Circuit circuit = circuits.computeIfAbsent(host, key -> new Circuit());
+        synchronized (circuit) {
+            long nowNanos = System.nanoTime();
+            State state = currentState(circuit, nowNanos);
+            if (probe ? state != State.HALF_OPEN : state != State.CLOSED) {
+                // sent before the circuit last changed state, says nothing about the host now
+                return;
+            }
+            if (outcome == Outcome.GIVEN_UP) {
+                // lets another probe through, the circuit stays half open
+                if (probe && circuit.probes > 0) {
+                    circuit.probes--;
+                }
+                return;
+            }
+            if (outcome == Outcome.SUCCESS) {
+                circuit.failures = 0;
+                circuit.state = State.CLOSED;
+                return;
+            }
+            circuit.failures++;
+            if (probe || circuit.failures >= failureThreshold) {
+                open(circuit, nowNanos);
+            }
+        }
+    }
+}
@@ -5,7 +5,9 @@ import com.fasterxml.jackson.databind.introspect.VisibilityChecker;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.apache.commons.io.IOUtils;
 import org.kohsuke.github.authorization.AuthorizationProvider;
+import org.kohsuke.github.authorization.RateLimitAwareAuthorizationProvider;
 import org.kohsuke.github.authorization.UserAuthorizationProvider;
+import org.kohsuke.github.connector.AsyncGitHubConnector;
 import org.kohsuke.github.connector.GitHubConnector;
 import org.kohsuke.github.connector.GitHubConnectorRequest;
 import org.kohsuke.github.connector.GitHubConnectorResponse;
@@ -13,12 +15,24 @@ import org.kohsuke.github.function.FunctionThrows;
 
 import java.io.*;
 import java.net.*;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 import javax.annotation.CheckForNull;
@@ -80,11 +94,25 @@ class GitHubClient {
         /** The connector request. */
         final GitHubConnectorRequest connectorRequest;
 
+        /** The time to wait before retrying. */
+        @Nonnull
+        final Duration retryDelay;
+
         /**
          * Instantiates a new retry request exception.
          */
         RetryRequestException() {
-            this(null);
+            this(null, Duration.ZERO);
+        }
+
+        /**
+         * Instantiates a new retry request exception.
+         *
+         * @param retryDelay
+         *            the time to wait before retrying
+         */
+        RetryRequestException(@Nonnull Duration retryDelay) {
+            this(null, retryDelay);
         }
 
         /**
@@ -94,23 +122,50 @@ class GitHubClient {
          *            the connector request
          */
         RetryRequestException(GitHubConnectorRequest connectorRequest) {
+            this(connectorRequest, Duration.ZERO);
+        }
+
+        /**
+         * Instantiates a new retry request exception.
+         *
+         * @param connectorRequest
+         *            the connector request
+         * @param retryDelay
+         *            the time to wait before retrying
+         */
+        RetryRequestException(GitHubConnectorRequest connectorRequest, @Nonnull Duration retryDelay) {
             this.connectorRequest = connectorRequest;
+            this.retryDelay = retryDelay;
         }
     }
 
+    /**
+     * Runs {@link GitHubConnector#send(GitHubConnectorRequest)} for connectors that do not implement
+     * {@link AsyncGitHubConnector}. Threads are created on demand and do not keep the JVM alive.
+     */
+    private static final Executor BLOCKING_SEND_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "github-api-blocking-send");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private static final DateTimeFormatter DATE_TIME_PARSER_SLASHES = DateTimeFormatter
             .ofPattern("yyyy/MM/dd HH:mm:ss Z");
 
     /** The Constant CONNECTION_ERROR_RETRIES. */
     private static final int DEFAULT_CONNECTION_ERROR_RETRIES = 2;
 
-    /** The Constant DEFAULT_MAXIMUM_RETRY_TIMEOUT_MILLIS. */
-    private static final int DEFAULT_MAXIMUM_RETRY_MILLIS = 100;
-    /** The Constant DEFAULT_MINIMUM_RETRY_TIMEOUT_MILLIS. */
-    private static final int DEFAULT_MINIMUM_RETRY_MILLIS = DEFAULT_MAXIMUM_RETRY_MILLIS;
     private static final Logger LOGGER = Logger.getLogger(GitHubClient.class.getName());
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
+    /** The readers of each type, which only need the values injected for each call. */
+    private static final ClassValue<ObjectReader> READERS = new ClassValue<ObjectReader>() {
+        @Override
+        protected ObjectReader computeValue(Class<?> type) {
+            return MAPPER.readerFor(type);
+        }
+    };
+
     private static final ThreadLocal<String> sendRequestTraceId = new ThreadLocal<>();
 
     /** The Constant GITHUB_URL. */
@@ -124,6 +179,20 @@ class GitHubClient {
         MAPPER.setPropertyNamingStrategy(PropertyNamingStrategy.SNAKE_CASE);
     }
 
+    /**
+     * Fails if the deadline of a request passed or was cancelled.
+     *
+     * @param cause
+     *            the error the request failed with, if it was being sent
+     */
+    private static void checkDeadline(@Nonnull GitHubRequest request, @CheckForNull Throwable cause)
+            throws RequestCancelledException {
+        RequestDeadline deadline = request.deadline();
+        if (deadline != null && !(cause instanceof RequestCancelledException)) {
+            deadline.check(request.url(), cause);
+        }
+    }
+
     @Nonnull
     private static <T> GitHubResponse<T> createResponse(@Nonnull GitHubConnectorResponse connectorResponse,
             @CheckForNull BodyHandler<T> handler) throws IOException {
@@ -175,6 +244,53 @@ class GitHubClient {
         return redirectedURI;
     }
 
+    /**
+     * Parses the digits of part of a timestamp.
+     *
+     * @return the number, or {@code -1} if there is another character
+     */
+    private static int parseDigits(String timestamp, int start, int end) {
+        int number = 0;
+        for (int i = start; i < end; i++) {
+            char c = timestamp.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
+
+    /**
+     * Parses a timestamp in the {@code yyyy-MM-ddTHH:mm:ssZ} format GitHub uses for almost all of them, which is much
+     * faster than parsing it with {@link DateTimeFormatter#ISO_OFFSET_DATE_TIME}.
+     *
+     * @param timestamp
+     *            the timestamp
+     * @return the instant, or {@code null} if the timestamp is in another format or out of range and has to be parsed
+     *         by the formatter, which also reports the errors
+     */
+    @CheckForNull
+    private static Instant parseUtcInstant(String timestamp) {
+        if (timestamp.length() != 20 || timestamp.charAt(4) != '-' || timestamp.charAt(7) != '-'
+                || timestamp.charAt(10) != 'T' || timestamp.charAt(13) != ':' || timestamp.charAt(16) != ':'
+                || timestamp.charAt(19) != 'Z') {
+            return null;
+        }
+        int year = parseDigits(timestamp, 0, 4);
+        int month = parseDigits(timestamp, 5, 7);
+        int day = parseDigits(timestamp, 8, 10);
+        int hour = parseDigits(timestamp, 11, 13);
+        int minute = parseDigits(timestamp, 14, 16);
+        int second = parseDigits(timestamp, 17, 19);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return null;
+        }
+        return Instant.ofEpochSecond(
+                LocalDate.of(year, month, day).toEpochDay() * 86400L + hour * 3600L + minute * 60L + second);
+    }
+
     /**
      * Handle API error by either throwing it or by returning normally to retry.
      */
@@ -216,49 +332,31 @@ class GitHubClient {
         return e;
     }
 
+    /**
+     * Checks whether a failed request was given up because its deadline passed or was cancelled, in which case a
+     * timeout is the deadline running out rather than the host failing.
+     */
+    private static boolean isGivenUp(GitHubConnectorRequest connectorRequest) {
+        RequestDeadline deadline = RequestDeadline.of(connectorRequest);
+        return deadline != null && (deadline.isCancelled() || deadline.isExpired());
+    }
+
     // This implements the exact same rules as the ones applied in jdk.internal.net.http.RedirectFilter
     private static boolean isRedirecting(int statusCode) {
         return statusCode == HTTP_MOVED_PERM || statusCode == HTTP_MOVED_TEMP || statusCode == 303 || statusCode == 307
                 || statusCode == 308;
     }
 
-    private static void logRetryConnectionError(IOException e, URL url, int retries) throws IOException {
-        // There are a range of connection errors where we want to wait a moment and just automatically retry
-
-        // WARNING: These are unsupported environment variables.
-        // The GitHubClient class is internal and may change at any time.
-        int minRetryInterval = Math.max(DEFAULT_MINIMUM_RETRY_MILLIS,
-                Integer.getInteger(GitHubClient.class.getName() + ".minRetryInterval", DEFAULT_MINIMUM_RETRY_MILLIS));
-        int maxRetryInterval = Math.max(DEFAULT_MAXIMUM_RETRY_MILLIS,
-                Integer.getInteger(GitHubClient.class.getName() + ".maxRetryInterval", DEFAULT_MAXIMUM_RETRY_MILLIS));
-
-        long sleepTime = maxRetryInterval <= minRetryInterval
-                ? minRetryInterval
-                : ThreadLocalRandom.current().nextLong(minRetryInterval, maxRetryInterval);
-
-        LOGGER.log(INFO,
-                () -> String.format(
-                        "(%s) %s while connecting to %s: '%s'. Sleeping %d milliseconds before retrying (%d retries remaining)",
-                        sendRequestTraceId.get(),
-                        e.getClass().toString(),
-                        url.toString(),
-                        e.getMessage(),
-                        sleepTime,
-                        retries));
-        try {
-            Thread.sleep(sleepTime);
-        } catch (InterruptedException ie) {
-            throw (IOException) new InterruptedIOException().initCause(e);
-        }
-    }
-
     private static GitHubConnectorRequest prepareConnectorRequest(GitHubRequest request,
             AuthorizationProvider authorizationProvider) throws IOException {
         GitHubRequest.Builder<?> builder = request.toBuilder();
         // if the authentication is needed but no credential is given, try it anyway (so that some calls
         // that do work with anonymous access in the reduced form should still work.)
         if (!request.allHeaders().containsKey("Authorization")) {
-            String authorization = authorizationProvider.getEncodedAuthorization();
+            String authorization = authorizationProvider instanceof RateLimitAwareAuthorizationProvider
+                    ? ((RateLimitAwareAuthorizationProvider) authorizationProvider)
+                            .getEncodedAuthorization(request.rateLimitTarget())
+                    : authorizationProvider.getEncodedAuthorization();
             if (authorization != null) {
                 builder.setHeader("Authorization", authorization);
             }
@@ -287,6 +385,28 @@ class GitHubClient {
         return builder.build();
     }
 
+    /**
+     * Runs an asynchronous step after a delay, without holding a thread while waiting. Fails right away if the deadline
+     * of the request would pass while waiting.
+     */
+    private static <T> CompletableFuture<T> runAfter(@Nonnull GitHubRequest request,
+            @Nonnull Duration delay,
+            @Nonnull Supplier<CompletableFuture<T>> step) {
+        if (delay.isZero() || delay.isNegative()) {
+            return step.get();
+        }
+        RequestDeadline deadline = request.deadline();
+        if (deadline != null) {
+            try {
+                deadline.checkWait(delay, request.url());
+            } catch (RequestCancelledException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        Executor delayed = CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS);
+        return CompletableFuture.supplyAsync(step, delayed).thenCompose(future -> future);
+    }
+
     private static boolean shouldIgnoreBody(@Nonnull GitHubConnectorResponse connectorResponse) {
         if (connectorResponse.statusCode() == HTTP_NOT_MODIFIED) {
             // special case handling for 304 unmodified, as the content will be ""
@@ -309,6 +429,50 @@ class GitHubClient {
         }
     }
 
+    private static void sleepBeforeRetry(@Nonnull GitHubRequest request, @Nonnull Duration delay)
+            throws InterruptedIOException, RequestCancelledException {
+        if (delay.isZero() || delay.isNegative()) {
+            return;
+        }
+        if (request.deadline() != null) {
+            request.deadline().sleep(delay, request.url());
+            return;
+        }
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            throw (InterruptedIOException) new InterruptedIOException().initCause(e);
+        }
+    }
+
+    /**
+     * Reports a request that is sent again, which is a redirect if the response was one.
+     */
+    private static void traceRetry(@Nonnull GitHubRequestTrace trace,
+            @CheckForNull GitHubConnectorResponse connectorResponse,
+            @Nonnull Duration retryDelay) {
+        if (connectorResponse != null && isRedirecting(connectorResponse.statusCode())) {
+            trace.redirect();
+        } else {
+            trace.retry(retryDelay, null);
+        }
+    }
+
+    /**
+     * Unwraps the exception a {@link CompletableFuture} was completed with.
+     *
+     * @param throwable
+     *            the exception passed to a completion stage
+     * @return the underlying cause
+     */
+    private static Throwable unwrapCompletionException(Throwable throwable) {
+        while ((throwable instanceof CompletionException || throwable instanceof ExecutionException)
+                && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        return throwable;
+    }
+
     /**
      * Helper for {@link #getMappingObjectReader(GitHubConnectorResponse)}.
      *
@@ -318,9 +482,21 @@ class GitHubClient {
      */
     @Nonnull
     static ObjectReader getMappingObjectReader(@Nonnull GitHub root) {
-        ObjectReader reader = getMappingObjectReader((GitHubConnectorResponse) null);
-        ((InjectableValues.Std) reader.getInjectableValues()).addValue(GitHub.class, root);
-        return reader;
+        return MAPPER.reader(new GitHubInjectableValues(root, null));
+    }
+
+    /**
+     * Gets an {@link ObjectReader} for a type, injecting a root.
+     *
+     * @param root
+     *            the root GitHub object for this reader
+     * @param type
+     *            the type to read
+     * @return an {@link ObjectReader} instance that can be further configured.
+     */
+    @Nonnull
+    static ObjectReader getMappingObjectReader(@Nonnull GitHub root, @Nonnull Class<?> type) {
+        return READERS.get(type).with(new GitHubInjectableValues(root, null));
     }
 
     /**
@@ -336,24 +512,29 @@ class GitHubClient {
      *            the {@link GitHubConnectorResponse} to inject for this reader.
      *
      * @return an {@link ObjectReader} instance that can be further configured.
+     * @see GitHubInjectableValues
      */
     @Nonnull
     static ObjectReader getMappingObjectReader(@CheckForNull GitHubConnectorResponse connectorResponse) {
-        Map<String, Object> injected = new HashMap<>();
-
-        // Required or many things break
-        injected.put(GitHubConnectorResponse.class.getName(), null);
-        injected.put(GitHub.class.getName(), null);
+        return MAPPER.reader(new GitHubInjectableValues(null, connectorResponse));
+    }
 
-        if (connectorResponse != null) {
-            injected.put(GitHubConnectorResponse.class.getName(), connectorResponse);
-            GitHubConnectorRequest request = connectorResponse.request();
-            // This is cheating, but it is an acceptable cheat for now.
-            if (request instanceof GitHubRequest) {
-                injected.putAll(((GitHubRequest) connectorResponse.request()).injectedMappingValues());
-            }
-        }
-        return MAPPER.reader(new InjectableValues.Std(injected));
+    /**
+     * Gets an {@link ObjectReader} for a type.
+     *
+     * The reader of each type is created once, with its deserializer, and only the values injected from the response
+     * change between calls.
+     *
+     * @param connectorResponse
+     *            the {@link GitHubConnectorResponse} to inject for this reader.
+     * @param type
+     *            the type to read
+     * @return an {@link ObjectReader} instance that can be further configured.
+     */
+    @Nonnull
+    static ObjectReader getMappingObjectReader(@CheckForNull GitHubConnectorResponse connectorResponse,
+            @Nonnull Class<?> type) {
+        return READERS.get(type).with(new GitHubInjectableValues(null, connectorResponse));
     }
 
     /**
@@ -377,7 +558,10 @@ class GitHubClient {
         if (timestamp == null)
             return null;
 
-        if (timestamp.charAt(4) == '/') {
+        Instant instant = parseUtcInstant(timestamp);
+        if (instant != null) {
+            return instant;
+        } else if (timestamp.charAt(4) == '/') {
             // Unsure where this is used, but retained for compatibility.
             return Instant.from(DATE_TIME_PARSER_SLASHES.parse(timestamp));
         } else {
@@ -460,15 +644,41 @@ class GitHubClient {
 
     private final AuthorizationProvider authorizationProvider;
 
+    @CheckForNull
+    private final GitHubCircuitBreaker circuitBreaker;
+
+    @CheckForNull
+    private final GitHubConcurrencyLimiter concurrencyLimiter;
+
     private GitHubConnector connector;
 
+    private final GitHubPauseCoordinator pauseCoordinator;
+
     @Nonnull
     private final AtomicReference<GHRateLimit> rateLimit = new AtomicReference<>(GHRateLimit.DEFAULT);
 
+    @CheckForNull
+    private final GitHubRequestCoalescer requestCoalescer;
+
+    @CheckForNull
+    private final GitHubRequestScheduler requestScheduler;
+
+    @CheckForNull
+    private final GitHubRequestHedger requestHedger;
+
+    @CheckForNull
+    private final GitHubRequestListener requestListener;
+
     private final GitHubRateLimitChecker rateLimitChecker;
 
     private final GitHubRateLimitHandler rateLimitHandler;
 
+    @CheckForNull
+    private final GitHubRateLimitLedger rateLimitLedger;
+
+    @CheckForNull
+    private final GitHubRetryPolicy retryPolicy;
+
     @Nonnull
     private GitHubSanityCachedValue<Boolean> sanityCachedIsCredentialValid = new GitHubSanityCachedValue<>();
 
@@ -490,13 +700,40 @@ class GitHubClient {
      *            the rate limit checker
      * @param authorizationProvider
      *            the authorization provider
+     * @param coalesceRequests
+     *            whether identical concurrent {@code GET} requests are sent only once
+     * @param pauseCoordinator
+     *            holds requests while a secondary rate limit is waited out
+     * @param concurrencyLimiter
+     *            limits the number of requests in flight, {@code null} for no limit
+     * @param rateLimitLedger
+     *            shares the observed rate limits with other processes, {@code null} to not share them
+     * @param requestScheduler
+     *            schedules requests by priority, {@code null} to send them in order
+     * @param retryPolicy
+     *            retries requests that failed for transient reasons, {@code null} to not retry them
+     * @param circuitBreaker
+     *            fails requests fast while their host is failing, {@code null} to always send them
+     * @param requestHedger
+     *            sends {@code GET} requests again when their response is late, {@code null} to not hedge them
+     * @param requestListener
+     *            receives the steps of each request, {@code null} for none
      */
     GitHubClient(String apiUrl,
             GitHubConnector connector,
             GitHubRateLimitHandler rateLimitHandler,
             GitHubAbuseLimitHandler abuseLimitHandler,
             GitHubRateLimitChecker rateLimitChecker,
-            AuthorizationProvider authorizationProvider) {
+            AuthorizationProvider authorizationProvider,
+            boolean coalesceRequests,
+            GitHubPauseCoordinator pauseCoordinator,
+            GitHubConcurrencyLimiter concurrencyLimiter,
+            GitHubRateLimitLedger rateLimitLedger,
+            GitHubRequestScheduler requestScheduler,
+            GitHubRetryPolicy retryPolicy,
+            GitHubCircuitBreaker circuitBreaker,
+            GitHubRequestHedger requestHedger,
+            GitHubRequestListener requestListener) {
 
         if (apiUrl.endsWith("/")) {
             apiUrl = apiUrl.substring(0, apiUrl.length() - 1); // normalize
@@ -514,6 +751,15 @@ class GitHubClient {
         this.rateLimitHandler = rateLimitHandler;
         this.abuseLimitHandler = abuseLimitHandler;
         this.rateLimitChecker = rateLimitChecker;
+        this.requestCoalescer = coalesceRequests ? new GitHubRequestCoalescer() : null;
+        this.pauseCoordinator = pauseCoordinator == null ? new GitHubPauseCoordinator() : pauseCoordinator;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.rateLimitLedger = rateLimitLedger;
+        this.requestScheduler = requestScheduler;
+        this.retryPolicy = retryPolicy;
+        this.circuitBreaker = circuitBreaker;
+        this.requestHedger = requestHedger;
+        this.requestListener = requestListener;
     }
 
     /**
@@ -635,38 +881,15 @@ class GitHubClient {
     @Nonnull
     public <T> GitHubResponse<T> sendRequest(GitHubRequest request, @CheckForNull BodyHandler<T> handler)
             throws IOException {
-        // WARNING: This is an unsupported environment variable.
-        // The GitHubClient class is internal and may change at any time.
-        int retryCount = Math.max(DEFAULT_CONNECTION_ERROR_RETRIES,
-                Integer.getInteger(GitHubClient.class.getName() + ".retryCount", DEFAULT_CONNECTION_ERROR_RETRIES));
-
-        int retries = retryCount;
-        sendRequestTraceId.set(Integer.toHexString(request.hashCode()));
-        GitHubConnectorRequest connectorRequest = prepareConnectorRequest(request, authorizationProvider);
-        do {
-            GitHubConnectorResponse connectorResponse = null;
-            try {
-                logRequest(connectorRequest);
-                rateLimitChecker.checkRateLimit(this, request.rateLimitTarget());
-                connectorResponse = connector.send(connectorRequest);
-                logResponse(connectorResponse);
-                noteRateLimit(request.rateLimitTarget(), connectorResponse);
-                detectKnownErrors(connectorResponse, request, handler != null);
-                logResponseBody(connectorResponse);
-                return createResponse(connectorResponse, handler);
-            } catch (RetryRequestException e) {
-                // retry requested by requested by error handler (rate limit handler for example)
-                if (retries > 0 && e.connectorRequest != null) {
-                    connectorRequest = e.connectorRequest;
-                }
-            } catch (IOException e) {
-                throw interpretApiError(e, connectorRequest, connectorResponse);
-            } finally {
-                IOUtils.closeQuietly(connectorResponse);
-            }
-        } while (--retries >= 0);
-
-        throw new GHIOException("Ran out of retries for URL: " + request.url().toString());
+        GitHubRequestTrace trace = new GitHubRequestTrace(requestListener, request);
+        sendRequestTraceId.set(trace.getId());
+        trace.start();
+        try {
+            return sendTracedRequest(request, handler, trace);
+        } catch (IOException | RuntimeException e) {
+            trace.failure(e);
+            throw e;
+        }
     }
 
     /**
@@ -690,6 +913,55 @@ class GitHubClient {
         return sendRequest(builder.build(), handler);
     }
 
+    /**
+     * Sends the {@link GitHubRequest} to the server without blocking the calling thread, and uses the
+     * {@link BodyHandler} to parse the response info and response body data into an instance of {@code T}.
+     *
+     * Retries, redirects and rate limit handling behave the same as in
+     * {@link #sendRequest(GitHubRequest, BodyHandler)}. If the connector implements {@link AsyncGitHubConnector} no
+     * thread is held while waiting for the server, otherwise the connector is called from a background thread. Waits
+     * asked for by {@link GitHubRateLimitHandler#retryAfter(GitHubConnectorResponse)},
+     * {@link GitHubAbuseLimitHandler#retryAfter(GitHubConnectorResponse)} and
+     * {@link RateLimitChecker#getWaitTime(GHRateLimit.Record)} are done on a timer.
+     *
+     * @param <T>
+     *            the type of the parse body data.
+     * @param request
+     *            the request that will be sent to the server.
+     * @param handler
+     *            parse the response info and body data into a instance of {@code T}. If null, no parsing occurs and
+     *            {@link GitHubResponse#body()} will return null.
+     * @return a future that completes with a {@link GitHubResponse} containing the parsed body data as a {@code T}, or
+     *         completes exceptionally with the {@link IOException} that {@link #sendRequest(GitHubRequest, BodyHandler)}
+     *         would have thrown.
+     */
+    @Nonnull
+    public <T> CompletableFuture<GitHubResponse<T>> sendRequestAsync(GitHubRequest request,
+            @CheckForNull BodyHandler<T> handler) {
+        GitHubRequestTrace trace = new GitHubRequestTrace(requestListener, request);
+        sendRequestTraceId.set(trace.getId());
+        trace.start();
+        GitHubConnectorRequest connectorRequest;
+        CompletableFuture<GitHubResponse<T>> result;
+        try {
+            connectorRequest = prepareConnectorRequest(request, authorizationProvider);
+            if (retryPolicy != null) {
+                retryPolicy.recordRequest();
+            }
+            result = sendRequestAsync(request, connectorRequest, handler, getRetryCount(), trace);
+        } catch (IOException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        if (requestListener != null) {
+            result.whenComplete((response, throwable) -> {
+                if (throwable != null) {
+                    trace.failure(unwrapCompletionException(throwable));
+                }
+            });
+        }
+        return result;
+    }
+
     private void detectExpiredToken(GitHubConnectorResponse connectorResponse, GitHubRequest request)
             throws IOException {
         if (connectorResponse.statusCode() != HTTP_UNAUTHORIZED) {
@@ -737,23 +1009,55 @@ class GitHubClient {
 
     private void detectKnownErrors(GitHubConnectorResponse connectorResponse,
             GitHubRequest request,
-            boolean detectStatusCodeError) throws IOException {
+            boolean detectStatusCodeError,
+            int retries) throws IOException {
         detectOTPRequired(connectorResponse);
         detectInvalidCached404Response(connectorResponse, request);
         detectExpiredToken(connectorResponse, request);
         detectRedirect(connectorResponse, request);
         if (rateLimitHandler.isError(connectorResponse)) {
-            rateLimitHandler.onError(connectorResponse);
-            throw new RetryRequestException();
+            detectRateLimitFailover(connectorResponse, request);
+            throw new RetryRequestException(rateLimitHandler.retryAfter(connectorResponse));
         } else if (abuseLimitHandler.isError(connectorResponse)) {
-            abuseLimitHandler.onError(connectorResponse);
-            throw new RetryRequestException();
-        } else if (detectStatusCodeError
+            throw new RetryRequestException(pauseCoordinator.whilePaused(connectorResponse, abuseLimitHandler));
+        } else if (retryPolicy != null && retryPolicy.isRetryable(connectorResponse)) {
+            Duration retryDelay = getTransientRetryDelay(retries);
+            if (retryDelay != null) {
+                LOGGER.log(INFO,
+                        () -> String.format(
+                                "(%s) %d response from %s. Sleeping %d milliseconds before retrying (%d retries remaining)",
+                                sendRequestTraceId.get(),
+                                connectorResponse.statusCode(),
+                                connectorResponse.request().url(),
+                                retryDelay.toMillis(),
+                                retries));
+                throw new RetryRequestException(retryDelay);
+            }
+            // out of retries, report the error
+        }
+        if (detectStatusCodeError
                 && GitHubConnectorResponseErrorHandler.STATUS_HTTP_BAD_REQUEST_OR_GREATER.isError(connectorResponse)) {
             GitHubConnectorResponseErrorHandler.STATUS_HTTP_BAD_REQUEST_OR_GREATER.onError(connectorResponse);
         }
     }
 
+    private void detectRateLimitFailover(GitHubConnectorResponse connectorResponse, GitHubRequest request)
+            throws IOException {
+        if (!(authorizationProvider instanceof RateLimitAwareAuthorizationProvider)
+                || request.header("Authorization") != null) {
+            return;
+        }
+        // The provider has been told this credential is exhausted, retry right away if it offers another one
+        GitHubConnectorRequest updatedRequest = prepareConnectorRequest(request, authorizationProvider);
+        String authorization = updatedRequest.header("Authorization");
+        if (authorization != null && !authorization.equals(connectorResponse.request().header("Authorization"))) {
+            LOGGER.log(FINE,
+                    () -> String.format("(%s) Rate limit exceeded, retrying with other credentials",
+                            sendRequestTraceId.get()));
+            throw new RetryRequestException(updatedRequest);
+        }
+    }
+
     private void detectRedirect(GitHubConnectorResponse connectorResponse, GitHubRequest request) throws IOException {
         if (isRedirecting(connectorResponse.statusCode())) {
             // For redirects, GitHub expects the Authorization header to be removed.
@@ -777,6 +1081,56 @@ class GitHubClient {
         return sendRequest(request, (connectorResponse) -> GitHubResponse.parseBody(connectorResponse, type)).body();
     }
 
+    /**
+     * Gets the delay before retrying a request that failed with a connection error.
+     *
+     * @return the delay, or {@code null} if the request should not be retried
+     */
+    @CheckForNull
+    private Duration getConnectionErrorRetryDelay(@Nonnull GitHubConnectorRequest connectorRequest,
+            @Nonnull IOException e,
+            int retries) {
+        if (retryPolicy == null || !retryPolicy.isRetryable(connectorRequest, e)) {
+            return null;
+        }
+        Duration retryDelay = getTransientRetryDelay(retries);
+        if (retryDelay != null) {
+            LOGGER.log(INFO,
+                    () -> String.format(
+                            "(%s) %s while connecting to %s: '%s'. Sleeping %d milliseconds before retrying (%d retries remaining)",
+                            sendRequestTraceId.get(),
+                            e.getClass().toString(),
+                            connectorRequest.url().toString(),
+                            e.getMessage(),
+                            retryDelay.toMillis(),
+                            retries));
+        }
+        return retryDelay;
+    }
+
+    private int getRetryCount() {
+        // WARNING: This is an unsupported environment variable.
+        // The GitHubClient class is internal and may change at any time.
+        int retryCount = Math.max(DEFAULT_CONNECTION_ERROR_RETRIES,
+                Integer.getInteger(GitHubClient.class.getName() + ".retryCount", DEFAULT_CONNECTION_ERROR_RETRIES));
+        return retryPolicy == null ? retryCount : Math.max(retryCount, retryPolicy.getMaximumRetries());
+    }
+
+    /**
+     * Gets the delay before retrying a request that failed for a transient reason, taking the retry from the budget.
+     * Retries asked for by redirects and rate limits count against the maximum retries of the policy as well.
+     *
+     * @return the delay, or {@code null} if the policy allows no more retries
+     */
+    @CheckForNull
+    private Duration getTransientRetryDelay(int retries) {
+        int retry = getRetryCount() - retries;
+        if (retryPolicy == null || retry >= retryPolicy.getMaximumRetries() || !retryPolicy.acquireRetry()) {
+            return null;
+        }
+        return retryPolicy.backoff(retry);
+    }
+
     /**
      * Checks if a GitHub Enterprise server is configured in private mode.
      *
@@ -853,6 +1207,14 @@ class GitHubClient {
             int reset = connectorResponse.parseInt("X-RateLimit-Reset");
             GHRateLimit.Record observed = new GHRateLimit.Record(limit, remaining, reset, connectorResponse);
             updateRateLimit(GHRateLimit.fromRecord(observed, rateLimitTarget));
+            String authorization = connectorResponse.request().header("Authorization");
+            if (rateLimitLedger != null) {
+                rateLimitLedger.record(authorization, rateLimitTarget, observed);
+            }
+            if (authorizationProvider instanceof RateLimitAwareAuthorizationProvider && authorization != null) {
+                ((RateLimitAwareAuthorizationProvider) authorizationProvider)
+                        .noteRateLimit(authorization, rateLimitTarget, observed);
+            }
         } catch (NumberFormatException e) {
             LOGGER.log(FINER,
                     () -> String.format("(%s) Missing or malformed X-RateLimit header: %s",
@@ -895,6 +1257,413 @@ class GitHubClient {
         return prepareConnectorRequest(requestBuilder.build(), provider);
     }
 
+    /**
+     * Handles a response received from the connector. Shared by the blocking and asynchronous request paths.
+     *
+     * @throws RetryRequestException
+     *             if the request should be sent again
+     */
+    private <T> GitHubResponse<T> processResponse(@Nonnull GitHubConnectorResponse connectorResponse,
+            @Nonnull GitHubRequest request,
+            @CheckForNull BodyHandler<T> handler,
+            int retries,
+            @Nonnull GitHubRequestTrace trace) throws IOException {
+        trace.headers(connectorResponse);
+        logResponse(connectorResponse);
+        noteRateLimit(request.rateLimitTarget(), connectorResponse);
+        detectKnownErrors(connectorResponse, request, handler != null, retries);
+        logResponseBody(connectorResponse);
+        GitHubResponse<T> response = createResponse(connectorResponse, handler);
+        trace.bodyParsed(connectorResponse);
+        return response;
+    }
+
+    /**
+     * Sends a request asynchronously once the rate limit checker let it through.
+     */
+    private <T> CompletableFuture<GitHubResponse<T>> sendCheckedRequestAsync(@Nonnull GitHubRequest request,
+            @Nonnull GitHubConnectorRequest connectorRequest,
+            @CheckForNull BodyHandler<T> handler,
+            int retries,
+            @Nonnull GitHubRequestTrace trace) {
+        Duration wait;
+        Duration pause;
+        try {
+            wait = requestScheduler != null ? requestScheduler.getQuotaWait(this, request) : Duration.ZERO;
+            pause = pauseCoordinator.remainingPause(connectorRequest.header("Authorization"));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(interpretApiError(e, connectorRequest, null));
+        }
+        if (!wait.isZero() || !pause.isZero()) {
+            // other requests used the quota or hit a limit while this one waited
+            return holdAsync(request,
+                    pause.compareTo(wait) > 0 ? pause : wait,
+                    pause,
+                    () -> sendCheckedRequestAsync(request, connectorRequest, handler, retries, trace));
+        }
+        trace.rateLimitWait();
+        trace.send();
+        CompletableFuture<GitHubConnectorResponse> pending = sendScheduledRequestAsync(request.priority(),
+                connectorRequest);
+
+        return pending.handle((connectorResponse, throwable) -> {
+            sendRequestTraceId.set(trace.getId());
+            if (throwable != null) {
+                Throwable cause = unwrapCompletionException(throwable);
+                try {
+                    checkDeadline(request, cause);
+                } catch (RequestCancelledException e) {
+                    return CompletableFuture.<GitHubResponse<T>>failedFuture(e);
+                }
+                Duration retryDelay = cause instanceof IOException
+                        ? getConnectionErrorRetryDelay(connectorRequest, (IOException) cause, retries)
+                        : null;
+                if (retryDelay != null) {
+                    trace.retry(retryDelay, cause);
+                    return runAfter(request,
+                            retryDelay,
+                            () -> sendRequestAsync(request, connectorRequest, handler, retries - 1, trace));
+                }
+                return CompletableFuture.<GitHubResponse<T>>failedFuture(cause instanceof IOException
+                        ? interpretApiError((IOException) cause, connectorRequest, null)
+                        : cause);
+            }
+            try {
+                return CompletableFuture
+                        .completedFuture(processResponse(connectorResponse, request, handler, retries, trace));
+            } catch (RetryRequestException e) {
+                // retry requested by requested by error handler (rate limit handler for example)
+                if (retries > 0) {
+                    GitHubConnectorRequest nextRequest = e.connectorRequest != null
+                            ? e.connectorRequest
+                            : connectorRequest;
+                    traceRetry(trace, connectorResponse, e.retryDelay);
+                    return runAfter(request,
+                            e.retryDelay,
+                            () -> sendRequestAsync(request, nextRequest, handler, retries - 1, trace));
+                }
+                return CompletableFuture.<GitHubResponse<T>>failedFuture(
+                        new GHIOException("Ran out of retries for URL: " + request.url().toString()));
+            } catch (IOException e) {
+                return CompletableFuture.<GitHubResponse<T>>failedFuture(
+                        interpretApiError(e, connectorRequest, connectorResponse));
+            } finally {
+                IOUtils.closeQuietly(connectorResponse);
+            }
+        }).thenCompose(future -> future);
+    }
+
+    private GitHubConnectorResponse sendConnectorRequest(@Nonnull GitHubConnectorRequest connectorRequest)
+            throws IOException {
+        if (circuitBreaker == null) {
+            return sendConnectorRequestUnguarded(connectorRequest);
+        }
+        String host = connectorRequest.url().getHost();
+        boolean probe = circuitBreaker.acquire(host);
+        GitHubConnectorResponse connectorResponse;
+        try {
+            connectorResponse = sendConnectorRequestUnguarded(connectorRequest);
+        } catch (IOException | RuntimeException e) {
+            if (isGivenUp(connectorRequest)) {
+                circuitBreaker.release(host, probe);
+            } else {
+                circuitBreaker.record(host, probe, null, e);
+            }
+            throw e;
+        }
+        circuitBreaker.record(host, probe, connectorResponse, null);
+        return connectorResponse;
+    }
+
+    private CompletableFuture<GitHubConnectorResponse> sendConnectorRequestAsync(
+            @Nonnull GitHubConnectorRequest connectorRequest) {
+        if (circuitBreaker == null) {
+            return sendConnectorRequestAsyncUnguarded(connectorRequest);
+        }
+        String host = connectorRequest.url().getHost();
+        boolean probe;
+        try {
+            probe = circuitBreaker.acquire(host);
+        } catch (CircuitOpenException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return sendConnectorRequestAsyncUnguarded(connectorRequest).whenComplete((connectorResponse, throwable) -> {
+            if (throwable != null && isGivenUp(connectorRequest)) {
+                circuitBreaker.release(host, probe);
+            } else {
+                circuitBreaker.record(host, probe, connectorResponse, throwable);
+            }
+        });
+    }
+
+    private CompletableFuture<GitHubConnectorResponse> sendConnectorRequestAsyncUnguarded(
+            @Nonnull GitHubConnectorRequest connectorRequest) {
+        if (concurrencyLimiter == null) {
+            return sendConnectorRequestAsyncUnlimited(connectorRequest);
+        }
+        return concurrencyLimiter.acquireAsync(connectorRequest).thenCompose(permit -> {
+            long startNanos = System.nanoTime();
+            return sendConnectorRequestAsyncUnlimited(connectorRequest).whenComplete(
+                    (connectorResponse, throwable) -> concurrencyLimiter.release(startNanos, connectorResponse));
+        });
+    }
+
+    private CompletableFuture<GitHubConnectorResponse> sendConnectorRequestAsyncUnlimited(
+            @Nonnull GitHubConnectorRequest connectorRequest) {
+        if (connector instanceof AsyncGitHubConnector) {
+            return ((AsyncGitHubConnector) connector).sendAsync(connectorRequest);
+        }
+        CompletableFuture<GitHubConnectorResponse> result = new CompletableFuture<>();
+        BLOCKING_SEND_EXECUTOR.execute(() -> {
+            try {
+                result.complete(connector.send(connectorRequest));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    private GitHubConnectorResponse sendConnectorRequestUnguarded(@Nonnull GitHubConnectorRequest connectorRequest)
+            throws IOException {
+        if (concurrencyLimiter == null) {
+            return connector.send(connectorRequest);
+        }
+        concurrencyLimiter.acquire(connectorRequest);
+        long startNanos = System.nanoTime();
+        GitHubConnectorResponse connectorResponse = null;
+        try {
+            connectorResponse = connector.send(connectorRequest);
+            return connectorResponse;
+        } finally {
+            concurrencyLimiter.release(startNanos, connectorResponse);
+        }
+    }
+
+    private GitHubConnectorResponse sendHedgedRequest(@Nonnull GitHubConnectorRequest connectorRequest)
+            throws IOException {
+        if (requestHedger == null || !"GET".equals(connectorRequest.method())) {
+            return sendConnectorRequest(connectorRequest);
+        }
+        CompletableFuture<GitHubConnectorResponse> response = sendHedgedRequestAsync(connectorRequest);
+        try {
+            return response.get();
+        } catch (InterruptedException e) {
+            // the response is closed when it arrives
+            response.thenAccept(IOUtils::closeQuietly);
+            throw (InterruptedIOException) new InterruptedIOException().initCause(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new GHIOException("Failed to send " + connectorRequest.url(), cause);
+        }
+    }
+
+    /**
+     * Sends a {@code GET} request, and sends it again if its response is late. Completes with the first response,
+     * closing the other one, or with the last error if both fail.
+     */
+    private CompletableFuture<GitHubConnectorResponse> sendHedgedRequestAsync(
+            @Nonnull GitHubConnectorRequest connectorRequest) {
+        if (requestHedger == null || !"GET".equals(connectorRequest.method())) {
+            return sendConnectorRequestAsync(connectorRequest);
+        }
+        requestHedger.recordRequest();
+        Duration delay = requestHedger.getDelay();
+        CompletableFuture<GitHubConnectorResponse> primary = sendTimedRequestAsync(connectorRequest);
+        if (delay == null) {
+            return primary;
+        }
+
+        CompletableFuture<GitHubConnectorResponse> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        BiConsumer<GitHubConnectorResponse, Throwable> complete = (connectorResponse, throwable) -> {
+            if (throwable == null) {
+                if (!result.complete(connectorResponse)) {
+                    IOUtils.closeQuietly(connectorResponse);
+                }
+            } else if (pending.decrementAndGet() == 0) {
+                result.completeExceptionally(unwrapCompletionException(throwable));
+            }
+        };
+        primary.whenComplete(complete);
+        RateLimitTarget rateLimitTarget = connectorRequest instanceof GitHubRequest
+                ? ((GitHubRequest) connectorRequest).rateLimitTarget()
+                : RateLimitTarget.CORE;
+        CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            if (result.isDone() || !requestHedger.acquireHedge()) {
+                return;
+            }
+            if (!rateLimitChecker.canSendNow(this, rateLimitTarget)) {
+                requestHedger.releaseHedge();
+                return;
+            }
+            rateLimitChecker.reserveNow(this, rateLimitTarget);
+            LOGGER.log(FINE,
+                    () -> String.format("(%s) No response from %s after %d milliseconds, hedging",
+                            sendRequestTraceId.get(),
+                            connectorRequest.url(),
+                            delay.toMillis()));
+            pending.incrementAndGet();
+            sendTimedRequestAsync(connectorRequest).whenComplete(complete);
+        });
+        return result;
+    }
+
+    /**
+     * Runs the next step of an asynchronous request after a wait, counting the part of it spent waiting for a pause of
+     * its credentials to end in the paused time.
+     */
+    private <T> CompletableFuture<T> holdAsync(@Nonnull GitHubRequest request,
+            @Nonnull Duration wait,
+            @Nonnull Duration pause,
+            @Nonnull Supplier<CompletableFuture<T>> step) {
+        CompletableFuture<T> held = runAfter(request, wait, step);
+        if (!pause.isZero() && !held.isCompletedExceptionally()) {
+            pauseCoordinator.recordPausedTime(pause);
+        }
+        return held;
+    }
+
+    private <T> CompletableFuture<GitHubResponse<T>> sendRequestAsync(@Nonnull GitHubRequest request,
+            @Nonnull GitHubConnectorRequest connectorRequest,
+            @CheckForNull BodyHandler<T> handler,
+            int retries,
+            @Nonnull GitHubRequestTrace trace) {
+        Duration wait;
+        Duration pause;
+        trace.attempt(connectorRequest);
+        try {
+            logRequest(connectorRequest);
+            checkDeadline(request, null);
+            wait = rateLimitChecker
+                    .getWaitTime(this, request.rateLimitTarget(), connectorRequest.header("Authorization"));
+            if (requestScheduler != null) {
+                Duration quota = requestScheduler.getQuotaWait(this, request);
+                if (quota.compareTo(wait) > 0) {
+                    wait = quota;
+                }
+            }
+            pause = pauseCoordinator.remainingPause(connectorRequest.header("Authorization"));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(interpretApiError(e, connectorRequest, null));
+        }
+        if (!wait.isZero() || !pause.isZero()) {
+            // wait on a timer rather than in a thread
+            return holdAsync(request,
+                    pause.compareTo(wait) > 0 ? pause : wait,
+                    pause,
+                    () -> sendCheckedRequestAsync(request, connectorRequest, handler, retries, trace));
+        }
+        return sendCheckedRequestAsync(request, connectorRequest, handler, retries, trace);
+    }
+
+    private GitHubConnectorResponse sendScheduledRequest(@Nonnull RequestPriority priority,
+            @Nonnull GitHubConnectorRequest connectorRequest) throws IOException {
+        if (requestScheduler == null) {
+            return sendUnscheduledRequest(connectorRequest);
+        }
+        requestScheduler.acquire(priority, connectorRequest);
+        try {
+            return sendUnscheduledRequest(connectorRequest);
+        } finally {
+            requestScheduler.release();
+        }
+    }
+
+    private CompletableFuture<GitHubConnectorResponse> sendScheduledRequestAsync(@Nonnull RequestPriority priority,
+            @Nonnull GitHubConnectorRequest connectorRequest) {
+        if (requestScheduler == null) {
+            return sendHedgedRequestAsync(connectorRequest);
+        }
+        return requestScheduler.acquireAsync(priority, connectorRequest)
+                .thenCompose(permit -> sendHedgedRequestAsync(connectorRequest)
+                        .whenComplete((connectorResponse, throwable) -> requestScheduler.release()));
+    }
+
+    private CompletableFuture<GitHubConnectorResponse> sendTimedRequestAsync(
+            @Nonnull GitHubConnectorRequest connectorRequest) {
+        long startNanos = System.nanoTime();
+        return sendConnectorRequestAsync(connectorRequest).whenComplete((connectorResponse, throwable) -> {
+            if (connectorResponse != null) {
+                requestHedger.recordLatency(System.nanoTime() - startNanos);
+            }
+        });
+    }
+
+    private <T> GitHubResponse<T> sendTracedRequest(@Nonnull GitHubRequest request,
+            @CheckForNull BodyHandler<T> handler,
+            @Nonnull GitHubRequestTrace trace) throws IOException {
+        int retries = getRetryCount();
+        if (retryPolicy != null) {
+            retryPolicy.recordRequest();
+        }
+        GitHubConnectorRequest connectorRequest = prepareConnectorRequest(request, authorizationProvider);
+        do {
+            GitHubConnectorResponse connectorResponse = null;
+            trace.attempt(connectorRequest);
+            try {
+                logRequest(connectorRequest);
+                checkDeadline(request, null);
+                rateLimitChecker.checkRateLimit(this,
+                        request.rateLimitTarget(),
+                        request,
+                        connectorRequest.header("Authorization"));
+                if (requestScheduler != null) {
+                    requestScheduler.awaitQuota(this, request);
+                }
+                if (request.deadline() != null) {
+                    // wait for the pause here, where the deadline and cancellation are noticed
+                    Duration pause = pauseCoordinator.remainingPause(connectorRequest.header("Authorization"));
+                    request.deadline().sleep(pause, request.url());
+                    pauseCoordinator.recordPausedTime(pause);
+                }
+                pauseCoordinator.awaitResume(connectorRequest.header("Authorization"));
+                trace.rateLimitWait();
+                trace.send();
+                connectorResponse = sendScheduledRequest(request.priority(), connectorRequest);
+                return processResponse(connectorResponse, request, handler, retries, trace);
+            } catch (RetryRequestException e) {
+                // retry requested by requested by error handler (rate limit handler for example)
+                if (retries > 0 && e.connectorRequest != null) {
+                    connectorRequest = e.connectorRequest;
+                }
+                if (retries > 0) {
+                    traceRetry(trace, connectorResponse, e.retryDelay);
+                    sleepBeforeRetry(request, e.retryDelay);
+                }
+            } catch (IOException e) {
+                if (connectorResponse == null) {
+                    // the connector may have given up on the request because of its deadline
+                    checkDeadline(request, e);
+                }
+                Duration retryDelay = connectorResponse == null
+                        ? getConnectionErrorRetryDelay(connectorRequest, e, retries)
+                        : null;
+                if (retryDelay == null) {
+                    throw interpretApiError(e, connectorRequest, connectorResponse);
+                }
+                trace.retry(retryDelay, e);
+                sleepBeforeRetry(request, retryDelay);
+            } finally {
+                IOUtils.closeQuietly(connectorResponse);
+            }
+        } while (--retries >= 0);
+
+        throw new GHIOException("Ran out of retries for URL: " + request.url().toString());
+    }
+
+    private GitHubConnectorResponse sendUnscheduledRequest(@Nonnull GitHubConnectorRequest connectorRequest)
+            throws IOException {
+        return requestCoalescer == null
+                ? sendHedgedRequest(connectorRequest)
+                : requestCoalescer.send(connectorRequest, this::sendHedgedRequest);
+    }
+
     /**
      * Update the Rate Limit with the latest info from response header.
      *
@@ -910,6 +1679,16 @@ class GitHubClient {
         return result;
     }
 
+    /**
+     * Gets the coordinator that holds requests while a secondary rate limit is waited out.
+     *
+     * @return the pause coordinator
+     */
+    @Nonnull
+    GitHubPauseCoordinator getPauseCoordinator() {
+        return pauseCoordinator;
+    }
+
     /**
      * Gets the encoded authorization.
      *
@@ -964,11 +1743,14 @@ class GitHubClient {
                                 .withApiUrl(getApiUrl())
                                 .withUrlPath("/rate_limit")
                                 .build();
-                        result = this
-                                .sendRequest(request,
-                                        (connectorResponse) -> GitHubResponse.parseBody(connectorResponse,
-                                                JsonRateLimit.class))
-                                .body().resources;
+                        result = this.sendRequest(request, (connectorResponse) -> {
+                            JsonRateLimit body = GitHubResponse.parseBody(connectorResponse, JsonRateLimit.class);
+                            if (rateLimitLedger != null && body != null) {
+                                recordRateLimit(connectorResponse.request().header("Authorization"),
+                                        body.resources);
+                            }
+                            return body;
+                        }).body().resources;
                     } catch (FileNotFoundException e) {
                         // For some versions of GitHub Enterprise, the rate_limit endpoint returns a 404.
                         LOGGER.log(FINE, "(%s) /rate_limit returned 404 Not Found.", sendRequestTraceId.get());
@@ -983,6 +1765,14 @@ class GitHubClient {
         return updateRateLimit(output);
     }
 
+    private void recordRateLimit(@CheckForNull String authorization, @Nonnull GHRateLimit rateLimit) {
+        rateLimitLedger.record(authorization, RateLimitTarget.CORE, rateLimit.getCore());
+        rateLimitLedger.record(authorization, RateLimitTarget.SEARCH, rateLimit.getSearch());
+        rateLimitLedger.record(authorization, RateLimitTarget.GRAPHQL, rateLimit.getGraphQL());
+        rateLimitLedger
+                .record(authorization, RateLimitTarget.INTEGRATION_MANIFEST, rateLimit.getIntegrationManifest());
+    }
+
     /**
      * Returns the most recently observed rate limit data.
      *
@@ -996,6 +1786,18 @@ class GitHubClient {
     @Nonnull
     @Deprecated
     GHRateLimit lastRateLimit() {
+        return currentRateLimit();
+    }
+
+    /**
+     * Returns the most recently observed rate limit data, without requesting it, for the parts of this client that
+     * must not wait.
+     *
+     * @return the most recently observed rate limit data. This may include expired or
+     *         {@link GHRateLimit.UnknownLimitRecord} entries.
+     */
+    @Nonnull
+    GHRateLimit currentRateLimit() {
         return rateLimit.get();
     }
 
@@ -1016,7 +1818,33 @@ class GitHubClient {
      */
     @Nonnull
     GHRateLimit rateLimit(@Nonnull RateLimitTarget rateLimitTarget) throws IOException {
+        return rateLimit(rateLimitTarget, rateLimitLedger != null ? getEncodedAuthorization() : null);
+    }
+
+    /**
+     * Gets the current rate limit for an endpoint like {@link #rateLimit(RateLimitTarget)}, for a request that is
+     * about to be sent with the given credentials.
+     *
+     * @param rateLimitTarget
+     *            the endpoint to get the rate limit for.
+     * @param authorization
+     *            the {@code Authorization} header of the request, {@code null} for anonymous requests
+     *
+     * @return the current rate limit data. {@link GHRateLimit.Record}s in this instance may be expired when returned.
+     * @throws IOException
+     *             if there was an error getting current rate limit data.
+     */
+    @Nonnull
+    GHRateLimit rateLimit(@Nonnull RateLimitTarget rateLimitTarget, @CheckForNull String authorization)
+            throws IOException {
         GHRateLimit result = rateLimit.get();
+        if (rateLimitLedger != null) {
+            // Requests made by other processes count as well
+            GHRateLimit.Record shared = rateLimitLedger.read(authorization, rateLimitTarget);
+            if (shared != null) {
+                result = updateRateLimit(GHRateLimit.fromRecord(shared, rateLimitTarget));
+            }
+        }
         // Most of the time rate limit is not expired, so try to avoid locking.
         if (result.getRecord(rateLimitTarget).isExpired()) {
             // if the rate limit is expired, synchronize to ensure
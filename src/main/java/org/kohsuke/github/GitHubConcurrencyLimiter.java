@@ -0,0 +1,271 @@
+package org.kohsuke.github;
+
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import static java.net.HttpURLConnection.HTTP_FORBIDDEN;
+
+/**
+ * Limits the number of requests in flight, adapting the limit to the responses from GitHub.
+ * <p>
+ * The limit follows an additive-increase/multiplicative-decrease (AIMD) rule. Each healthy response received while
+ * the limit is being used raises the limit by {@code 1 / limit}, which adds about one request per round trip. A
+ * response rejected by a rate limit ({@code 429}, or {@code 403} with {@code Retry-After}, {@code gh-limited-by} or no
+ * remaining quota) halves the limit, and when the recent average latency grows to more than twice the long-term
+ * average the limit is lowered by ten percent. Only responses to requests sent after the last decrease can lower the
+ * limit again, so a burst of rejected requests counts once.
+ * </p>
+ * <p>
+ * Requests wait for a permit before being sent, until their {@link RequestDeadline} passes or is cancelled. One
+ * limiter can be passed to the builders of several {@link GitHub} instances, so that they share the limit.
+ * </p>
+ *
+ * @see GitHubBuilder#withConcurrencyLimiter(GitHubConcurrencyLimiter)
+ */
+public final class GitHubConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.5;
+
+    private static final double BASELINE_SMOOTHING = 0.01;
+
+    private static final double LATENCY_BACKOFF_RATIO = 0.9;
+
+    private static final double LATENCY_TOLERANCE = 2.0;
+
+    private static final double RECENT_SMOOTHING = 0.2;
+
+    private static boolean isThrottled(@Nonnull GitHubConnectorResponse response) {
+        int statusCode = response.statusCode();
+        if (statusCode == GitHubConnectorResponseErrorHandler.TOO_MANY_REQUESTS) {
+            return true;
+        }
+        return statusCode == HTTP_FORBIDDEN && (response.header("Retry-After") != null
+                || response.header("gh-limited-by") != null || "0".equals(response.header("X-RateLimit-Remaining")));
+    }
+
+    private double baselineLatencyNanos = 0;
+
+    private int inFlight = 0;
+
+    private long lastDecreaseNanos;
+
+    private double limit;
+
+    private final Object lock = new Object();
+
+    private final int maximumLimit;
+
+    private final int minimumLimit;
+
+    private double recentLatencyNanos = 0;
+
+    private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+
+    /**
+     * Creates a limiter. The limit starts at the minimum.
+     *
+     * @param minimumLimit
+     *            the lowest limit, at least {@code 1}
+     * @param maximumLimit
+     *            the highest limit, at least {@code minimumLimit}
+     */
+    public GitHubConcurrencyLimiter(int minimumLimit, int maximumLimit) {
+        if (minimumLimit < 1) {
+            throw new IllegalArgumentException("Minimum limit must be at least 1");
+        }
+        if (maximumLimit < minimumLimit) {
+            throw new IllegalArgumentException("Maximum limit must not be lower than the minimum limit");
+        }
+        this.minimumLimit = minimumLimit;
+        this.maximumLimit = maximumLimit;
+        this.limit = minimumLimit;
+        this.lastDecreaseNanos = System.nanoTime();
+    }
+
+    /**
+     * Gets the number of requests in flight.
+     *
+     * @return the number of requests holding a permit
+     */
+    public int getInFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    /**
+     * Gets the current limit.
+     *
+     * @return the number of requests allowed in flight
+     */
+    public int getLimit() {
+        synchronized (lock) {
+            return (int) limit;
+        }
+    }
+
+    /**
+     * Gets the number of requests waiting for a permit.
+     *
+     * @return the number of waiting requests
+     */
+    public int getWaiting() {
+        synchronized (lock) {
+            return waiters.size();
+        }
+    }
+
+    private void adjustLimit(long startNanos, @CheckForNull GitHubConnectorResponse response) {
+        if (response == null || response.statusCode() >= 500) {
+            // Failures say nothing about the load GitHub accepts
+            return;
+        }
+        if (isThrottled(response)) {
+            decrease(startNanos, BACKOFF_RATIO);
+            return;
+        }
+
+        double latencyNanos = System.nanoTime() - startNanos;
+        if (baselineLatencyNanos == 0) {
+            baselineLatencyNanos = latencyNanos;
+            recentLatencyNanos = latencyNanos;
+        } else {
+            baselineLatencyNanos += (latencyNanos - baselineLatencyNanos) * BASELINE_SMOOTHING;
+            recentLatencyNanos += (latencyNanos - recentLatencyNanos) * RECENT_SMOOTHING;
+        }
+
+        if (recentLatencyNanos > baselineLatencyNanos * LATENCY_TOLERANCE) {
+            decrease(startNanos, LATENCY_BACKOFF_RATIO);
+        } else if (inFlight + 1 >= limit / 2) {
+            // only grow while the limit is actually being used
+            limit = Math.min(maximumLimit, limit + 1 / limit);
+        }
+    }
+
+    private void decrease(long startNanos, double ratio) {
+        if (startNanos - lastDecreaseNanos < 0) {
+            // sent before the last decrease, which already accounted for it
+            return;
+        }
+        limit = Math.max(minimumLimit, limit * ratio);
+        lastDecreaseNanos = System.nanoTime();
+    }
+
+    /**
+     * Grants a permit right away if one is free and nobody is waiting, or adds a waiter to the queue. A waiter that is
+     * given up on leaves the queue.
+     */
+    private CompletableFuture<Void> enqueue() {
+        CompletableFuture<Void> waiter;
+        synchronized (lock) {
+            if (waiters.isEmpty() && inFlight < (int) limit) {
+                inFlight++;
+                return CompletableFuture.completedFuture(null);
+            }
+            waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+        }
+        waiter.whenComplete((permit, throwable) -> {
+            if (throwable != null) {
+                synchronized (lock) {
+                    waiters.remove(waiter);
+                }
+            }
+        });
+        return waiter;
+    }
+
+    private void grantPermits() {
+        List<CompletableFuture<Void>> granted = new ArrayList<>();
+        synchronized (lock) {
+            while (!waiters.isEmpty() && inFlight < (int) limit) {
+                granted.add(waiters.poll());
+                inFlight++;
+            }
+        }
+        for (CompletableFuture<Void> waiter : granted) {
+            if (!waiter.complete(null)) {
+                // the waiter gave up
+                releaseUnused();
+            }
+        }
+    }
+
+    /**
+     * Waits for a permit to send a request.
+     *
+     * @param request
+     *            the request, for its deadline
+     * @throws InterruptedIOException
+     *             if the thread was interrupted while waiting
+     * @throws RequestCancelledException
+     *             if the deadline of the request passed or was cancelled while waiting
+     */
+    void acquire(@Nonnull GitHubConnectorRequest request) throws InterruptedIOException, RequestCancelledException {
+        CompletableFuture<Void> permit = enqueue();
+        try {
+            RequestDeadline.await(permit, request);
+        } catch (InterruptedException e) {
+            permit.cancel(false);
+            if (!permit.isCompletedExceptionally()) {
+                releaseUnused();
+            }
+            throw (InterruptedIOException) new InterruptedIOException().initCause(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RequestCancelledException) {
+                throw (RequestCancelledException) e.getCause();
+            }
+            throw new IllegalStateException("Permits are only completed exceptionally when given up on", e);
+        }
+    }
+
+    /**
+     * Requests a permit to send a request.
+     *
+     * @param request
+     *            the request, for its deadline
+     * @return a future that completes once the permit is granted, or with a {@link RequestCancelledException} if the
+     *         deadline of the request passes or is cancelled first
+     */
+    @Nonnull
+    CompletableFuture<Void> acquireAsync(@Nonnull GitHubConnectorRequest request) {
+        return RequestDeadline.bound(enqueue(), request);
+    }
+
+    /**
+     * Returns a permit after a request was sent, adjusting the limit to the response.
+     *
+     * @param startNanos
+     *            the {@link System#nanoTime()} at which the request was sent
+     * @param response
+     *            the response, or {@code null} if the request failed
+     */
+    void release(long startNanos, @CheckForNull GitHubConnectorResponse response) {
+        synchronized (lock) {
+            adjustLimit(startNanos, response);
+            inFlight--;
+        }
+        grantPermits();
+    }
+
+    /**
+     * Returns a permit that was not used to send a request.
+     */
+    void releaseUnused() {
+        synchronized (lock) {
+            inFlight--;
+        }
+        grantPermits();
+    }
+}
@@ -0,0 +1,67 @@
+package org.kohsuke.github;
+
+import javax.annotation.CheckForNull;
+
+/**
+ * Begins JDK Flight Recorder events, if they are recorded.
+ * <p>
+ * The {@code jdk.jfr} module may be left out of custom runtime images, in which case the event classes cannot be
+ * loaded, so they are only created here once this was checked. When the events are not recorded, nothing is kept, so
+ * that they cost next to nothing.
+ * </p>
+ *
+ * @see GitHubRequestFlightEvent
+ * @see GitHubPageFlightEvent
+ */
+final class GitHubFlightRecorder {
+
+    private static final boolean AVAILABLE = isAvailable();
+
+    /**
+     * Begins the event of a page.
+     *
+     * @return the event, or {@code null} if it is not recorded
+     */
+    @CheckForNull
+    static GitHubPageFlightEvent beginPage() {
+        if (!AVAILABLE) {
+            return null;
+        }
+        GitHubPageFlightEvent event = new GitHubPageFlightEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Begins the event of a request.
+     *
+     * @return the event, or {@code null} if it is not recorded
+     */
+    @CheckForNull
+    static GitHubRequestFlightEvent beginRequest() {
+        if (!AVAILABLE) {
+            return null;
+        }
+        GitHubRequestFlightEvent event = new GitHubRequestFlightEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, GitHubFlightRecorder.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private GitHubFlightRecorder() {
+    }
+}
@@ -0,0 +1,82 @@
+package org.kohsuke.github;
+
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.InjectableValues;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.util.Map;
+
+import javax.annotation.CheckForNull;
+
+/**
+ * The values injected into the objects read by a single call, looked up from the root and the response of the call
+ * when they are needed.
+ * <p>
+ * Readers are cached by type and only this small object changes from one call to the next. Building the map of values
+ * of {@link InjectableValues.Std} for each response would copy the values of the request even when the type read does
+ * not inject any.
+ * </p>
+ * <p>
+ * As with {@link InjectableValues.Std}, the {@link GitHub} root and the {@link GitHubConnectorResponse} are always
+ * present, even if {@code null}, otherwise classes expecting those values would fail to read. The values the request
+ * injects with {@link GitHubRequest.Builder#injectMappingValue(String, Object)} take precedence.
+ * </p>
+ */
+final class GitHubInjectableValues extends InjectableValues {
+
+    private static final String CONNECTOR_RESPONSE = GitHubConnectorResponse.class.getName();
+
+    private static final String ROOT = GitHub.class.getName();
+
+    @CheckForNull
+    private final GitHubConnectorResponse connectorResponse;
+
+    @CheckForNull
+    private final GitHub root;
+
+    /**
+     * Instantiates the values injected for a call.
+     *
+     * @param root
+     *            the root to inject if the request does not inject one
+     * @param connectorResponse
+     *            the response being read, whose request may inject more values
+     */
+    GitHubInjectableValues(@CheckForNull GitHub root, @CheckForNull GitHubConnectorResponse connectorResponse) {
+        this.root = root;
+        this.connectorResponse = connectorResponse;
+    }
+
+    @Override
+    public Object findInjectableValue(Object valueId,
+            DeserializationContext ctxt,
+            BeanProperty forProperty,
+            Object beanInstance) throws JsonMappingException {
+        if (!(valueId instanceof String)) {
+            return ctxt.reportBadDefinition(valueId == null ? Object.class : valueId.getClass(),
+                    String.format("Unrecognized inject value id type (%s), expecting String",
+                            valueId == null ? "[null]" : valueId.getClass().getName()));
+        }
+        String key = (String) valueId;
+        if (connectorResponse != null) {
+            GitHubConnectorRequest request = connectorResponse.request();
+            // This is cheating, but it is an acceptable cheat for now.
+            if (request instanceof GitHubRequest) {
+                Map<String, Object> injected = ((GitHubRequest) request).injectedMappingValues();
+                if (injected.containsKey(key)) {
+                    return injected.get(key);
+                }
+            }
+        }
+        if (CONNECTOR_RESPONSE.equals(key)) {
+            return connectorResponse;
+        } else if (ROOT.equals(key)) {
+            return root;
+        }
+        throw new IllegalArgumentException("No injectable id with value '" + key + "' found (for property '"
+                + (forProperty == null ? null : forProperty.getName()) + "')");
+    }
+}
@@ -0,0 +1,628 @@
+package org.kohsuke.github;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import static java.util.logging.Level.WARNING;
+
+/**
+ * Aggregates the requests sent by {@link GitHub} instances per endpoint, to find which are slow and which use up the
+ * rate limit.
+ * <p>
+ * Requests are grouped by method and endpoint template, such as {@code GET /repos/{owner}/{repo}/pulls}. For each
+ * endpoint the registry counts requests, failures, retries and responses by status, and keeps histograms of the time
+ * requests took, retries included, and of the size of their response bodies. It also adds up the increase of the
+ * {@code X-RateLimit-Used} header from one response to the next of the same rate limit resource, which is the quota
+ * the requests of the endpoint used. Requests made by other clients sharing the credential in between are counted
+ * too, so a registry should only be shared by {@link GitHub} instances using the same credential.
+ * </p>
+ * <p>
+ * Recording takes no locks. The histograms have buckets a few percent wide, so percentiles are accurate to a few
+ * percent whatever the range of the values. Up to {@link #MAXIMUM_ENDPOINTS} endpoints are kept apart, later ones are
+ * recorded under the {@code {other}} template.
+ * </p>
+ *
+ * @see GitHubBuilder#withMetrics(GitHubMetrics)
+ * @see GitHubBuilder#withMetricsExporter(GitHubMetricsExporter)
+ */
+public final class GitHubMetrics {
+
+    /**
+     * The metrics of an endpoint at the time of a {@link GitHubMetrics#snapshot()}.
+     */
+    public static final class EndpointSnapshot {
+
+        private final HistogramSnapshot bodyBytes;
+
+        private final long failures;
+
+        private final HistogramSnapshot latency;
+
+        private final String method;
+
+        private final long rateLimitUsed;
+
+        private final long requests;
+
+        private final long retries;
+
+        private final Map<Integer, Long> statusCodes;
+
+        private final String urlTemplate;
+
+        private EndpointSnapshot(Endpoint endpoint) {
+            this.method = endpoint.method;
+            this.urlTemplate = endpoint.urlTemplate;
+            this.requests = endpoint.requests.sum();
+            this.failures = endpoint.failures.sum();
+            this.retries = endpoint.retries.sum();
+            this.rateLimitUsed = endpoint.rateLimitUsed.sum();
+            Map<Integer, Long> statusCodes = new TreeMap<>();
+            endpoint.statusCodes.forEach((statusCode, count) -> statusCodes.put(statusCode, count.sum()));
+            this.statusCodes = Collections.unmodifiableMap(statusCodes);
+            this.latency = endpoint.latency.snapshot();
+            this.bodyBytes = endpoint.bodyBytes.snapshot();
+        }
+
+        /**
+         * Gets the sizes of the bodies of the successful responses, as received from the connector.
+         *
+         * @return the histogram, in bytes
+         */
+        @Nonnull
+        public HistogramSnapshot getBodyBytes() {
+            return bodyBytes;
+        }
+
+        /**
+         * Gets the number of requests that failed.
+         *
+         * @return the number of failures
+         */
+        public long getFailures() {
+            return failures;
+        }
+
+        /**
+         * Gets the times requests took, from start to the body being parsed or the request failing, waits and retries
+         * included.
+         *
+         * @return the histogram, in nanoseconds
+         */
+        @Nonnull
+        public HistogramSnapshot getLatency() {
+            return latency;
+        }
+
+        /**
+         * Gets the method of the requests.
+         *
+         * @return the method, such as {@code GET}
+         */
+        @Nonnull
+        public String getMethod() {
+            return method;
+        }
+
+        /**
+         * Gets the quota used by the requests, from the {@code X-RateLimit-Used} header of their responses.
+         *
+         * @return the number of requests counted against the rate limit
+         */
+        public long getRateLimitUsed() {
+            return rateLimitUsed;
+        }
+
+        /**
+         * Gets the number of requests that completed, successfully or not.
+         *
+         * @return the number of requests
+         */
+        public long getRequests() {
+            return requests;
+        }
+
+        /**
+         * Gets the number of times requests were sent again after a failed attempt.
+         *
+         * @return the number of retries
+         */
+        public long getRetries() {
+            return retries;
+        }
+
+        /**
+         * Gets the number of responses by status, including those of attempts that were retried or redirected.
+         *
+         * @return the number of responses by status code, in order
+         */
+        @Nonnull
+        public Map<Integer, Long> getStatusCodes() {
+            return statusCodes;
+        }
+
+        /**
+         * Gets the template of the endpoint.
+         *
+         * @return the template, such as {@code /repos/{owner}/{repo}/pulls}
+         */
+        @Nonnull
+        public String getUrlTemplate() {
+            return urlTemplate;
+        }
+    }
+
+    /**
+     * The values recorded by a histogram at the time of a {@link GitHubMetrics#snapshot()}.
+     */
+    public static final class HistogramSnapshot {
+
+        private final long[] counts;
+
+        private final long count;
+
+        private final long max;
+
+        private final long min;
+
+        private final long total;
+
+        private HistogramSnapshot(long[] counts, long count, long min, long max, long total) {
+            this.counts = counts;
+            this.count = count;
+            this.min = min;
+            this.max = max;
+            this.total = total;
+        }
+
+        /**
+         * Gets the number of values recorded.
+         *
+         * @return the count
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Gets the largest value recorded.
+         *
+         * @return the largest value, or {@code 0} if none was recorded
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Gets the mean of the values recorded.
+         *
+         * @return the mean, or {@code 0} if none was recorded
+         */
+        public double getMean() {
+            return count == 0 ? 0 : (double) total / count;
+        }
+
+        /**
+         * Gets the smallest value recorded.
+         *
+         * @return the smallest value, or {@code 0} if none was recorded
+         */
+        public long getMin() {
+            return min;
+        }
+
+        /**
+         * Gets the sum of the values recorded.
+         *
+         * @return the sum
+         */
+        public long getTotal() {
+            return total;
+        }
+
+        /**
+         * Gets the value below which a percentage of the values recorded are, within the width of a bucket.
+         *
+         * @param percentile
+         *            the percentage, between {@code 0} and {@code 100}, for instance {@code 99}
+         * @return the value, or {@code 0} if none was recorded
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100");
+            }
+            if (count == 0) {
+                return 0;
+            } else if (percentile == 0) {
+                return min;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int index = 0; index < counts.length; index++) {
+                seen += counts[index];
+                if (seen >= rank) {
+                    return Math.max(min, Math.min(max, Histogram.highestValue(index)));
+                }
+            }
+            return max;
+        }
+    }
+
+    /**
+     * A histogram of positive values, with buckets that are exact below {@code 32} and then split each power of two
+     * in {@code 16}.
+     */
+    static final class Histogram {
+
+        private static final int SUB_BUCKET_BITS = 5;
+
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+
+        private static final int BUCKETS = SUB_BUCKETS + (64 - SUB_BUCKET_BITS) * HALF_SUB_BUCKETS;
+
+        /**
+         * Gets the largest value counted in a bucket.
+         *
+         * @param index
+         *            the index of the bucket
+         * @return the largest value
+         */
+        static long highestValue(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int shift = (index - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+            long subBucket = (index - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+            return ((subBucket + 1) << shift) - 1;
+        }
+
+        /**
+         * Gets the bucket a value is counted in.
+         *
+         * @param value
+         *            the value, not negative
+         * @return the index of the bucket
+         */
+        static int index(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+            return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + (int) (value >>> shift) - HALF_SUB_BUCKETS;
+        }
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+        private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+        private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+
+        private final LongAdder total = new LongAdder();
+
+        /**
+         * Records a value.
+         *
+         * @param value
+         *            the value, negative values are recorded as {@code 0}
+         */
+        void record(long value) {
+            value = Math.max(0, value);
+            counts.incrementAndGet(index(value));
+            total.add(value);
+            min.accumulateAndGet(value, Math::min);
+            max.accumulateAndGet(value, Math::max);
+        }
+
+        /**
+         * Copies the values recorded so far. Values recorded meanwhile may be partly included.
+         *
+         * @return the snapshot
+         */
+        @Nonnull
+        HistogramSnapshot snapshot() {
+            long[] copy = new long[BUCKETS];
+            long count = 0;
+            for (int index = 0; index < BUCKETS; index++) {
+                copy[index] = counts.get(index);
+                count += copy[index];
+            }
+            if (count == 0) {
+                return new HistogramSnapshot(copy, 0, 0, 0, 0);
+            }
+            return new HistogramSnapshot(copy, count, Math.max(0, min.get()), Math.max(0, max.get()), total.sum());
+        }
+    }
+
+    /**
+     * The metrics being recorded for an endpoint.
+     */
+    private static final class Endpoint {
+
+        private final Histogram bodyBytes = new Histogram();
+
+        private final LongAdder failures = new LongAdder();
+
+        private final Histogram latency = new Histogram();
+
+        private final String method;
+
+        private final LongAdder rateLimitUsed = new LongAdder();
+
+        private final LongAdder requests = new LongAdder();
+
+        private final LongAdder retries = new LongAdder();
+
+        private final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+
+        private final String urlTemplate;
+
+        private Endpoint(String method, String urlTemplate) {
+            this.method = method;
+            this.urlTemplate = urlTemplate;
+        }
+    }
+
+    /**
+     * The last {@code X-RateLimit-Used} seen for a rate limit resource.
+     */
+    private static final class RateLimitWindow {
+
+        private final long reset;
+
+        private final long used;
+
+        private RateLimitWindow(long reset, long used) {
+            this.reset = reset;
+            this.used = used;
+        }
+    }
+
+    /**
+     * Records the events of requests, then passes them on.
+     */
+    private final class Recorder extends GitHubRequestListener {
+
+        @CheckForNull
+        private final GitHubRequestListener next;
+
+        private Recorder(@CheckForNull GitHubRequestListener next) {
+            this.next = next;
+        }
+
+        @Override
+        public void onBodyParsed(@Nonnull GitHubRequestEvent event) {
+            Endpoint endpoint = endpoint(event);
+            endpoint.requests.increment();
+            endpoint.latency.record(event.getElapsedNanos());
+            if (event.getBodyBytes() >= 0) {
+                endpoint.bodyBytes.record(event.getBodyBytes());
+            }
+            if (next != null) {
+                next.onBodyParsed(event);
+            }
+        }
+
+        @Override
+        public void onFailure(@Nonnull GitHubRequestEvent event) {
+            Endpoint endpoint = endpoint(event);
+            endpoint.requests.increment();
+            endpoint.failures.increment();
+            endpoint.latency.record(event.getElapsedNanos());
+            if (next != null) {
+                next.onFailure(event);
+            }
+        }
+
+        @Override
+        public void onHeaders(@Nonnull GitHubRequestEvent event) {
+            Endpoint endpoint = endpoint(event);
+            endpoint.statusCodes.computeIfAbsent(event.getStatusCode(), statusCode -> new LongAdder()).increment();
+            long used = rateLimitUsed(event.getRateLimitHeaders());
+            if (used > 0) {
+                endpoint.rateLimitUsed.add(used);
+            }
+            if (next != null) {
+                next.onHeaders(event);
+            }
+        }
+
+        @Override
+        public void onRateLimitWait(@Nonnull GitHubRequestEvent event) {
+            if (next != null) {
+                next.onRateLimitWait(event);
+            }
+        }
+
+        @Override
+        public void onRedirect(@Nonnull GitHubRequestEvent event) {
+            if (next != null) {
+                next.onRedirect(event);
+            }
+        }
+
+        @Override
+        public void onRetry(@Nonnull GitHubRequestEvent event) {
+            endpoint(event).retries.increment();
+            if (next != null) {
+                next.onRetry(event);
+            }
+        }
+
+        @Override
+        public void onSend(@Nonnull GitHubRequestEvent event) {
+            if (next != null) {
+                next.onSend(event);
+            }
+        }
+
+        @Override
+        public void onStart(@Nonnull GitHubRequestEvent event) {
+            if (next != null) {
+                next.onStart(event);
+            }
+        }
+    }
+
+    /** The number of endpoints recorded apart, to bound the memory used when the templates are not recognized. */
+    public static final int MAXIMUM_ENDPOINTS = 1000;
+
+    private static final ScheduledExecutorService EXPORT_EXECUTOR = Executors
+            .newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "github-api-metrics-export");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private static final Logger LOGGER = Logger.getLogger(GitHubMetrics.class.getName());
+
+    private static final String OTHER_TEMPLATE = "{other}";
+
+    private static long parseLong(@CheckForNull String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void scheduleExport(@Nonnull WeakReference<GitHubMetrics> reference,
+            @Nonnull GitHubMetricsExporter exporter) {
+        EXPORT_EXECUTOR.schedule(() -> {
+            // stop exporting once the registry is no longer used
+            GitHubMetrics metrics = reference.get();
+            if (metrics == null) {
+                return;
+            }
+            try {
+                exporter.export(metrics.snapshot());
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(WARNING, "Metrics exporter failed", e);
+            }
+            scheduleExport(reference, exporter);
+        }, exporter.getInterval().toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    private final Set<GitHubMetricsExporter> exporters = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, RateLimitWindow> rateLimitWindows = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an empty metrics registry.
+     */
+    public GitHubMetrics() {
+    }
+
+    /**
+     * Copies the metrics recorded so far. Requests completing meanwhile may be partly included.
+     *
+     * @return the metrics of each endpoint, ordered by template and method
+     */
+    @Nonnull
+    public List<EndpointSnapshot> snapshot() {
+        List<EndpointSnapshot> snapshot = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints.values()) {
+            snapshot.add(new EndpointSnapshot(endpoint));
+        }
+        snapshot.sort(
+                Comparator.comparing(EndpointSnapshot::getUrlTemplate).thenComparing(EndpointSnapshot::getMethod));
+        return Collections.unmodifiableList(snapshot);
+    }
+
+    /**
+     * Creates a listener that records the requests in this registry.
+     *
+     * @param next
+     *            the listener the events are passed on to, if any
+     * @return the listener
+     */
+    @Nonnull
+    GitHubRequestListener listener(@CheckForNull GitHubRequestListener next) {
+        return new Recorder(next);
+    }
+
+    /**
+     * Exports the metrics periodically, until this registry is no longer used. An exporter is only scheduled once.
+     *
+     * @param exporter
+     *            the exporter
+     */
+    void schedule(@Nonnull GitHubMetricsExporter exporter) {
+        if (exporters.add(exporter)) {
+            scheduleExport(new WeakReference<>(this), exporter);
+        }
+    }
+
+    @Nonnull
+    private Endpoint endpoint(@Nonnull GitHubRequestEvent event) {
+        String key = event.getMethod() + ' ' + event.getUrlTemplate();
+        Endpoint endpoint = endpoints.get(key);
+        if (endpoint != null) {
+            return endpoint;
+        }
+        if (endpoints.size() >= MAXIMUM_ENDPOINTS) {
+            return endpoints.computeIfAbsent(event.getMethod() + ' ' + OTHER_TEMPLATE,
+                    other -> new Endpoint(event.getMethod(), OTHER_TEMPLATE));
+        }
+        return endpoints.computeIfAbsent(key, k -> new Endpoint(event.getMethod(), event.getUrlTemplate()));
+    }
+
+    /**
+     * Gets the quota used since the previous response of the same rate limit resource.
+     *
+     * @param headers
+     *            the rate limit headers of the response
+     * @return the increase of {@code X-RateLimit-Used}, {@code 1} for the first response of a rate limit window, or
+     *         {@code 0} if unknown
+     */
+    private long rateLimitUsed(@Nonnull Map<String, String> headers) {
+        long used = parseLong(headers.get("X-RateLimit-Used"));
+        long reset = parseLong(headers.get("X-RateLimit-Reset"));
+        if (used < 0 || reset < 0) {
+            return 0;
+        }
+        String resource = headers.getOrDefault("X-RateLimit-Resource", "core");
+        long[] delta = new long[1];
+        rateLimitWindows.compute(resource, (key, previous) -> {
+            if (previous != null && previous.reset == reset) {
+                if (used <= previous.used) {
+                    // a response overtaken by a later one
+                    return previous;
+                }
+                delta[0] = used - previous.used;
+            } else if (previous != null && previous.reset > reset) {
+                // a late response from the previous window
+                return previous;
+            } else {
+                // the requests made before in the window were not seen, only count this one
+                delta[0] = Math.min(used, 1);
+            }
+            return new RateLimitWindow(reset, used);
+        });
+        return delta[0];
+    }
+}
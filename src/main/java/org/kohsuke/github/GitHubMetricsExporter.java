@@ -0,0 +1,47 @@
+package org.kohsuke.github;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Exports the metrics of a {@link GitHubMetrics} registry periodically, for instance to a monitoring system or a log.
+ * <p>
+ * Exports run on a single background thread shared by all registries, so they should not block for long. Exceptions
+ * they throw are logged and the next export is still made. Exports stop once the registry and the {@link GitHub}
+ * instances recording to it are no longer used.
+ * </p>
+ *
+ * @see GitHubBuilder#withMetricsExporter(GitHubMetricsExporter)
+ */
+public abstract class GitHubMetricsExporter {
+
+    /**
+     * Create default GitHubMetricsExporter instance
+     */
+    public GitHubMetricsExporter() {
+    }
+
+    /**
+     * Exports a snapshot of the metrics. The metrics are totals since the registry was created, not since the previous
+     * export.
+     *
+     * @param snapshot
+     *            the metrics of each endpoint
+     * @throws IOException
+     *             if the metrics could not be exported
+     */
+    public abstract void export(@Nonnull List<GitHubMetrics.EndpointSnapshot> snapshot) throws IOException;
+
+    /**
+     * Gets the time between exports. The default is one minute.
+     *
+     * @return the interval
+     */
+    @Nonnull
+    public Duration getInterval() {
+        return Duration.ofMinutes(1);
+    }
+}
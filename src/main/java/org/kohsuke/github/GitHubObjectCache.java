@@ -0,0 +1,261 @@
+package org.kohsuke.github;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * GitHubObjectCache holds API objects by name, such as the users and organizations interned by {@link GitHub}.
+ * <p>
+ * The cache can be limited in size, in which case the least recently used entries are evicted first, and in age, in
+ * which case entries are dropped once they are older than the time to live and will be fetched again. Hits, misses and
+ * evictions are counted and reported by {@link #getStatistics()}.
+ * </p>
+ * <p>
+ * Caches without a maximum size are a {@link ConcurrentHashMap}, so lookups take no lock. Caches with a maximum size
+ * keep their entries in access order, which every lookup changes; large ones are split into segments by name, each
+ * with its own lock and its own share of the maximum size, so that threads looking up different names rarely wait for
+ * each other. The least recently used entry of a segment is evicted first.
+ * </p>
+ *
+ * @param <V>
+ *            the type of cached objects
+ */
+class GitHubObjectCache<V> {
+
+    private static final class CachedObject<V> {
+        private final long createdAtNanos;
+        private final V value;
+
+        CachedObject(V value, long createdAtNanos) {
+            this.value = value;
+            this.createdAtNanos = createdAtNanos;
+        }
+    }
+
+    /**
+     * A part of a cache with a maximum size, in access order so that the eldest entry is the least recently used one.
+     * Guarded by its own monitor.
+     */
+    private static final class Segment<V> extends LinkedHashMap<String, CachedObject<V>> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient LongAdder evictionCount;
+        private final int maximumSize;
+
+        Segment(int maximumSize, LongAdder evictionCount) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+            this.evictionCount = evictionCount;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedObject<V>> eldest) {
+            if (size() > maximumSize) {
+                evictionCount.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static final int MAXIMUM_SEGMENTS = 16;
+
+    /** Caches smaller than two segments of this size are not split, so their eviction order is exact. */
+    private static final int MINIMUM_SEGMENT_SIZE = 64;
+
+    private final ConcurrentHashMap<String, CachedObject<V>> entries;
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final List<Segment<V>> segments;
+    private final long timeToLiveNanos;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maximumSize
+     *            the maximum number of entries, {@code 0} for no limit
+     * @param timeToLive
+     *            how long an entry is kept after it was added, {@code null} or zero for no limit
+     */
+    GitHubObjectCache(int maximumSize, Duration timeToLive) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("Maximum size must not be negative");
+        }
+        if (timeToLive != null && timeToLive.isNegative()) {
+            throw new IllegalArgumentException("Time to live must not be negative");
+        }
+        this.timeToLiveNanos = timeToLive == null ? 0 : timeToLive.toNanos();
+        this.segments = new ArrayList<>();
+        if (maximumSize == 0) {
+            this.entries = new ConcurrentHashMap<>();
+        } else {
+            this.entries = null;
+            int count = 1;
+            while (count < MAXIMUM_SEGMENTS && count * 2 * MINIMUM_SEGMENT_SIZE <= maximumSize) {
+                count *= 2;
+            }
+            for (int i = 0; i < count; i++) {
+                // the shares add up to the maximum size
+                segments.add(new Segment<>(maximumSize / count + (i < maximumSize % count ? 1 : 0), evictionCount));
+            }
+        }
+    }
+
+    /**
+     * Removes all entries. Statistics are kept.
+     */
+    void clear() {
+        if (entries != null) {
+            entries.clear();
+        }
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Gets a cached object.
+     *
+     * @param name
+     *            the name
+     * @return the cached object, or {@code null} if there is none or it has expired
+     */
+    V get(String name) {
+        V value;
+        if (entries != null) {
+            value = lookup(name);
+        } else {
+            Segment<V> segment = segmentOf(name);
+            synchronized (segment) {
+                value = lookup(segment, name);
+            }
+        }
+        (value == null ? missCount : hitCount).increment();
+        return value;
+    }
+
+    /**
+     * Gets the current statistics of this cache.
+     *
+     * @return the statistics
+     */
+    GitHubCacheStatistics getStatistics() {
+        long size = entries == null ? 0 : entries.size();
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return new GitHubCacheStatistics(hitCount.sum(), missCount.sum(), evictionCount.sum(), size);
+    }
+
+    /**
+     * Adds an object, replacing any object cached with the same name.
+     *
+     * @param name
+     *            the name
+     * @param value
+     *            the object
+     */
+    void put(String name, V value) {
+        CachedObject<V> entry = newEntry(value);
+        if (entries != null) {
+            entries.put(name, entry);
+        } else {
+            Segment<V> segment = segmentOf(name);
+            synchronized (segment) {
+                segment.put(name, entry);
+            }
+        }
+    }
+
+    /**
+     * Adds an object unless an object with the same name is already cached.
+     *
+     * @param name
+     *            the name
+     * @param value
+     *            the object
+     * @return the object that was already cached, or {@code null} if {@code value} was added
+     */
+    V putIfAbsent(String name, V value) {
+        CachedObject<V> entry = newEntry(value);
+        if (entries != null) {
+            while (true) {
+                CachedObject<V> existing = entries.putIfAbsent(name, entry);
+                if (existing == null) {
+                    missCount.increment();
+                    return null;
+                } else if (!isExpired(existing)) {
+                    hitCount.increment();
+                    return existing.value;
+                } else if (entries.replace(name, existing, entry)) {
+                    evictionCount.increment();
+                    missCount.increment();
+                    return null;
+                }
+                // another thread replaced the expired entry first
+            }
+        }
+        Segment<V> segment = segmentOf(name);
+        synchronized (segment) {
+            V existing = lookup(segment, name);
+            if (existing != null) {
+                hitCount.increment();
+                return existing;
+            }
+            missCount.increment();
+            segment.put(name, entry);
+            return null;
+        }
+    }
+
+    private boolean isExpired(CachedObject<V> entry) {
+        return timeToLiveNanos > 0 && System.nanoTime() - entry.createdAtNanos >= timeToLiveNanos;
+    }
+
+    private V lookup(String name) {
+        CachedObject<V> entry = entries.get(name);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry)) {
+            if (entries.remove(name, entry)) {
+                evictionCount.increment();
+            }
+            return null;
+        }
+        return entry.value;
+    }
+
+    private V lookup(Segment<V> segment, String name) {
+        CachedObject<V> entry = segment.get(name);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry)) {
+            segment.remove(name);
+            evictionCount.increment();
+            return null;
+        }
+        return entry.value;
+    }
+
+    private CachedObject<V> newEntry(V value) {
+        return new CachedObject<>(value, timeToLiveNanos > 0 ? System.nanoTime() : 0);
+    }
+
+    private Segment<V> segmentOf(String name) {
+        int hash = name.hashCode();
+        // spread the high bits, as the number of segments is a small power of two
+        return segments.get((hash ^ (hash >>> 16)) & (segments.size() - 1));
+    }
+}
@@ -1,6 +1,9 @@
 package org.kohsuke.github;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
@@ -71,10 +74,37 @@ class GitHubPageContentsIterable<T> extends PagedIterable<T> {
     @Override
     @Nonnull
     public PagedIterator<T> _iterator(int pageSize) {
-        final GitHubPageIterator<T[]> iterator = GitHubPageIterator.create(client, receiverType, request, pageSize);
+        final GitHubPageIterator<T[]> iterator = GitHubPageIterator.create(client,
+                receiverType,
+                applyDeadline(request),
+                pageSize,
+                getPrefetchDepth());
         return new GitHubPageContentsIterator(iterator, itemInitializer);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Nonnull
+    public List<T> toListParallel(int concurrency) throws IOException {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be at least 1");
+        }
+        List<T[]> pages = GitHubPageIterator
+                .fetchAll(client, receiverType, applyDeadline(request), getPageSize(), concurrency);
+        List<T> items = new ArrayList<>();
+        for (T[] page : pages) {
+            for (T item : page) {
+                if (itemInitializer != null) {
+                    itemInitializer.accept(item);
+                }
+                items.add(item);
+            }
+        }
+        return Collections.unmodifiableList(items);
+    }
+
     /**
      * Eagerly walk {@link Iterable} and return the result in a {@link GitHubResponse} containing an array of {@code T}
      * items.
@@ -0,0 +1,43 @@
+package org.kohsuke.github;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JDK Flight Recorder event for a page of a {@link PagedIterable}, lasting as long as the iterator waited for it.
+ * <p>
+ * Prefetched pages may take no time at all, as they were requested while the previous page was being consumed. The
+ * requests themselves are recorded by {@link GitHubRequestFlightEvent}.
+ * </p>
+ *
+ * @see GitHubPageIterator
+ */
+@Name("org.kohsuke.github.Page")
+@Label("GitHub API Page")
+@Category({ "GitHub API" })
+@Description("A page of results the iterator waited for")
+final class GitHubPageFlightEvent extends Event {
+
+    @Label("Items")
+    @Description("Number of items in the page, -1 if it is not an array")
+    int items;
+
+    @Label("Last Page")
+    boolean lastPage;
+
+    @Label("Page")
+    @Description("Position of the page in the iteration, from 1")
+    int page;
+
+    @Label("Prefetched")
+    boolean prefetched;
+
+    @Label("URL")
+    String url;
+
+    @Label("URL Template")
+    String urlTemplate;
+}
@@ -1,10 +1,22 @@
 package org.kohsuke.github;
 
 import java.io.IOException;
+import java.lang.reflect.Array;
 import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 
 // TODO: Auto-generated Javadoc
@@ -15,7 +27,9 @@ import javax.annotation.Nonnull;
  *
  * Works for array responses, also works for search results which are single instances with an array of items inside.
  *
- * This class is not thread-safe. Any one instance should only be called from a single thread.
+ * This class is not thread-safe. Any one instance should only be called from a single thread. When prefetching is
+ * enabled, requests for following pages are sent in the background but their results are only consumed by the thread
+ * calling this iterator.
  *
  * @author Liam Newman
  * @param <T>
@@ -23,6 +37,56 @@ import javax.annotation.Nonnull;
  */
 class GitHubPageIterator<T> implements Iterator<T> {
 
+    /**
+     * Matches the page number query parameter in pagination links.
+     */
+    private static final Pattern PAGE_PARAMETER = Pattern.compile("[?&]page=(\\d+)(?=&|$)");
+
+    private static GitHubRequest firstPageRequest(GitHubRequest request, int pageSize) {
+        if (pageSize > 0) {
+            GitHubRequest.Builder<?> builder = request.toBuilder().with("per_page", pageSize);
+            request = builder.build();
+        }
+
+        if (!"GET".equals(request.method())) {
+            throw new IllegalArgumentException("Request method \"GET\" is required for page iterator.");
+        }
+        return request;
+    }
+
+    /**
+     * Lists the URLs of the pages from {@code nextUrl} to {@code lastUrl}, if both are numbered.
+     *
+     * @return the URLs, or {@code null} if the pages are not numbered
+     */
+    private static List<String> numberedPageUrls(String nextUrl, String lastUrl) {
+        if (lastUrl == null) {
+            return null;
+        }
+        Matcher next = PAGE_PARAMETER.matcher(nextUrl);
+        Matcher last = PAGE_PARAMETER.matcher(lastUrl);
+        if (!next.find() || !last.find()) {
+            return null;
+        }
+        int firstPage;
+        int lastPage;
+        try {
+            firstPage = Integer.parseInt(next.group(1));
+            lastPage = Integer.parseInt(last.group(1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (lastPage < firstPage) {
+            return null;
+        }
+
+        List<String> urls = new ArrayList<>(lastPage - firstPage + 1);
+        for (int page = firstPage; page <= lastPage; page++) {
+            urls.add(nextUrl.substring(0, next.start(1)) + page + nextUrl.substring(next.end(1)));
+        }
+        return urls;
+    }
+
     /**
      * Loads paginated resources.
      *
@@ -39,17 +103,158 @@ class GitHubPageIterator<T> implements Iterator<T> {
      * @return iterator
      */
     static <T> GitHubPageIterator<T> create(GitHubClient client, Class<T> type, GitHubRequest request, int pageSize) {
+        return create(client, type, request, pageSize, 0);
+    }
 
-        if (pageSize > 0) {
-            GitHubRequest.Builder<?> builder = request.toBuilder().with("per_page", pageSize);
-            request = builder.build();
+    /**
+     * Loads paginated resources, optionally requesting following pages in the background.
+     *
+     * @param <T>
+     *            type of each page (not the items in the page).
+     * @param client
+     *            the {@link GitHubClient} from which to request responses
+     * @param type
+     *            type of each page (not the items in the page).
+     * @param request
+     *            the request
+     * @param pageSize
+     *            the page size
+     * @param prefetchDepth
+     *            the number of pages to request ahead of the page being consumed. {@code 0} disables prefetching.
+     * @return iterator
+     */
+    static <T> GitHubPageIterator<T> create(GitHubClient client,
+            Class<T> type,
+            GitHubRequest request,
+            int pageSize,
+            int prefetchDepth) {
+        return new GitHubPageIterator<>(client, type, firstPageRequest(request, pageSize), prefetchDepth);
+    }
+
+    /**
+     * Loads all pages, requesting several pages at the same time when the pages are numbered.
+     * <p>
+     * The first page is requested on the calling thread. If its "Link" header contains numbered {@code rel="next"}
+     * and {@code rel="last"} pages, the remaining pages are requested with up to {@code concurrency} requests in
+     * flight. Otherwise the remaining pages are requested one at a time.
+     * </p>
+     *
+     * @param <T>
+     *            type of each page (not the items in the page).
+     * @param client
+     *            the {@link GitHubClient} from which to request responses
+     * @param type
+     *            type of each page (not the items in the page).
+     * @param request
+     *            the request
+     * @param pageSize
+     *            the page size
+     * @param concurrency
+     *            the maximum number of requests in flight
+     * @return all pages, in order
+     * @throws IOException
+     *             if any of the pages could not be retrieved
+     */
+    static <T> List<T> fetchAll(GitHubClient client,
+            Class<T> type,
+            GitHubRequest request,
+            int pageSize,
+            int concurrency) throws IOException {
+        GitHubRequest firstRequest = firstPageRequest(request, pageSize);
+        GitHubResponse<T> firstResponse = client.sendRequest(firstRequest,
+                (connectorResponse) -> GitHubResponse.parseBody(connectorResponse, type));
+        List<T> pages = new ArrayList<>();
+        pages.add(firstResponse.body());
+
+        String nextUrl = findLinkUrl(firstResponse, "next");
+        if (nextUrl == null) {
+            return pages;
         }
 
-        if (!"GET".equals(request.method())) {
-            throw new IllegalArgumentException("Request method \"GET\" is required for page iterator.");
+        List<String> urls = numberedPageUrls(nextUrl, findLinkUrl(firstResponse, "last"));
+        if (urls == null) {
+            // Pages are not numbered (for example cursor based), so each page is needed to find the one after it
+            GitHubPageIterator<T> remaining = new GitHubPageIterator<>(client,
+                    type,
+                    firstRequest.toBuilder().setRawUrlPath(nextUrl).build(),
+                    0);
+            try {
+                remaining.forEachRemaining(pages::add);
+            } catch (GHException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw e;
+            }
+            return pages;
         }
 
-        return new GitHubPageIterator<>(client, type, request);
+        // Each lane requests every n-th page, one after the other, so at most n requests are in flight
+        AtomicReferenceArray<T> results = new AtomicReferenceArray<>(urls.size());
+        AtomicBoolean failed = new AtomicBoolean();
+        CompletableFuture<?>[] lanes = new CompletableFuture<?>[Math.min(concurrency, urls.size())];
+        for (int lane = 0; lane < lanes.length; lane++) {
+            CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+            for (int index = lane; index < urls.size(); index += lanes.length) {
+                int position = index;
+                GitHubRequest pageRequest = firstRequest.toBuilder().setRawUrlPath(urls.get(position)).build();
+                chain = chain.thenCompose(ignored -> {
+                    if (failed.get()) {
+                        // another page failed, don't spend rate limit on a result that will be discarded
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    return client
+                            .sendRequestAsync(pageRequest,
+                                    (connectorResponse) -> GitHubResponse.parseBody(connectorResponse, type))
+                            .whenComplete((response, e) -> {
+                                if (e != null) {
+                                    failed.set(true);
+                                }
+                            })
+                            .thenAccept(response -> results.set(position, response.body()));
+                });
+            }
+            lanes[lane] = chain;
+        }
+
+        try {
+            CompletableFuture.allOf(lanes).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+
+        for (int index = 0; index < results.length(); index++) {
+            pages.add(results.get(index));
+        }
+        return pages;
+    }
+
+    /**
+     * Locate a page in the pagination "Link" header of a response.
+     *
+     * @param response
+     *            the response
+     * @param rel
+     *            the relation of the page to the response, such as {@code "next"} or {@code "last"}
+     * @return the URL of the page, or {@code null} if the response does not link to it
+     */
+    static String findLinkUrl(GitHubResponse<?> response, String rel) {
+        String link = response.header("Link");
+        if (link != null) {
+            String suffix = "rel=\"" + rel + "\"";
+            for (String token : link.split(", ")) {
+                if (token.endsWith(suffix)) {
+                    // found the page. This should look something like
+                    // <https://api.github.com/repos?page=3&per_page=100>; rel="next"
+                    int idx = token.indexOf('>');
+                    return token.substring(1, idx);
+                }
+            }
+        }
+        return null;
     }
     private final GitHubClient client;
 
@@ -77,12 +282,38 @@ class GitHubPageIterator<T> implements Iterator<T> {
      */
     private GitHubRequest nextRequest;
 
+    /**
+     * The number of pages fetched so far.
+     */
+    private int pages = 0;
+
+    /**
+     * The URL of the page the next prefetched response is for.
+     */
+    private URL prefetchedUrl;
+
+    private final int prefetchDepth;
+
+    /**
+     * Responses for the pages after {@link #next}, in order, when prefetching is enabled. Only modified by the thread
+     * calling this iterator, and never holds more than {@link #prefetchDepth} entries.
+     */
+    private final Deque<CompletableFuture<GitHubResponse<T>>> prefetched = new ArrayDeque<>();
+
+    /**
+     * The first request. Used as the template for the requests of following pages.
+     */
+    private final GitHubRequest request;
+
     private final Class<T> type;
 
-    private GitHubPageIterator(GitHubClient client, Class<T> type, GitHubRequest request) {
+    private GitHubPageIterator(GitHubClient client, Class<T> type, GitHubRequest request, int prefetchDepth) {
         this.client = client;
         this.type = type;
+        this.request = request;
         this.nextRequest = request;
+        this.prefetchedUrl = request.url();
+        this.prefetchDepth = prefetchDepth;
     }
 
     /**
@@ -137,10 +368,15 @@ class GitHubPageIterator<T> implements Iterator<T> {
     private void fetch() {
         if (next != null)
             return; // already fetched
+        if (prefetchDepth > 0) {
+            fetchPrefetched();
+            return;
+        }
         if (nextRequest == null)
             return; // no more data to fetch
 
         URL url = nextRequest.url();
+        GitHubPageFlightEvent flightEvent = GitHubFlightRecorder.beginPage();
         try {
             GitHubResponse<T> nextResponse = client.sendRequest(nextRequest,
                     (connectorResponse) -> GitHubResponse.parseBody(connectorResponse, type));
@@ -150,6 +386,7 @@ class GitHubPageIterator<T> implements Iterator<T> {
             if (nextRequest == null) {
                 finalResponse = nextResponse;
             }
+            commitFlightEvent(flightEvent, url, false);
         } catch (IOException e) {
             // Iterators do not throw IOExceptions, so we wrap any IOException
             // in a runtime GHException to bubble out if needed.
@@ -157,24 +394,113 @@ class GitHubPageIterator<T> implements Iterator<T> {
         }
     }
 
+    /**
+     * Prefetching variant of {@link #fetch()}.
+     * <p>
+     * Takes the oldest pending response and, before waiting for it, makes sure up to {@link #prefetchDepth} following
+     * pages are requested. The URL of each following page is only known once the previous response arrives, so each
+     * pending request is chained to the one before it. Requests are sent through
+     * {@link GitHubClient#sendRequestAsync(GitHubRequest, GitHubClient.BodyHandler)}, which consults the rate limit
+     * checker before each of them.
+     * </p>
+     */
+    private void fetchPrefetched() {
+        if (prefetched.isEmpty()) {
+            if (nextRequest == null)
+                return; // no more data to fetch
+            prefetched.add(sendAsync(nextRequest));
+            nextRequest = null;
+        }
+
+        GitHubPageFlightEvent flightEvent = GitHubFlightRecorder.beginPage();
+        CompletableFuture<GitHubResponse<T>> current = prefetched.remove();
+        while (prefetched.size() < prefetchDepth) {
+            CompletableFuture<GitHubResponse<T>> previous = prefetched.isEmpty() ? current : prefetched.getLast();
+            prefetched.add(previous.thenCompose(this::sendNextAsync));
+        }
+
+        GitHubResponse<T> nextResponse;
+        try {
+            nextResponse = current.join();
+        } catch (CompletionException e) {
+            prefetched.clear();
+            if (e.getCause() instanceof GHException) {
+                throw (GHException) e.getCause();
+            }
+            throw e;
+        }
+
+        if (nextResponse == null) {
+            // the previous page was the last one
+            prefetched.clear();
+            return;
+        }
+        assert nextResponse.body() != null;
+        next = nextResponse.body();
+        URL url = prefetchedUrl;
+        GitHubRequest following = findNextURL(request, nextResponse);
+        if (following == null) {
+            finalResponse = nextResponse;
+            prefetched.clear();
+        } else {
+            prefetchedUrl = following.url();
+        }
+        commitFlightEvent(flightEvent, url, true);
+    }
+
+    /**
+     * Records the page just fetched as a JDK Flight Recorder event.
+     */
+    private void commitFlightEvent(@CheckForNull GitHubPageFlightEvent flightEvent, URL url, boolean prefetched) {
+        pages++;
+        if (flightEvent == null) {
+            return;
+        }
+        flightEvent.end();
+        if (flightEvent.shouldCommit()) {
+            flightEvent.url = url.toString();
+            flightEvent.urlTemplate = GitHubUrlTemplate.of(url.getPath());
+            flightEvent.page = pages;
+            flightEvent.items = next.getClass().isArray() ? Array.getLength(next) : -1;
+            flightEvent.lastPage = finalResponse != null;
+            flightEvent.prefetched = prefetched;
+            flightEvent.commit();
+        }
+    }
+
     /**
      * Locate the next page from the pagination "Link" tag.
      */
     private GitHubRequest findNextURL(GitHubRequest nextRequest, GitHubResponse<T> nextResponse) {
         GitHubRequest result = null;
-        String link = nextResponse.header("Link");
-        if (link != null) {
-            for (String token : link.split(", ")) {
-                if (token.endsWith("rel=\"next\"")) {
-                    // found the next page. This should look something like
-                    // <https://api.github.com/repos?page=3&per_page=100>; rel="next"
-                    int idx = token.indexOf('>');
-                    result = nextRequest.toBuilder().setRawUrlPath(token.substring(1, idx)).build();
-                    break;
-                }
-            }
+        String url = findLinkUrl(nextResponse, "next");
+        if (url != null) {
+            result = nextRequest.toBuilder().setRawUrlPath(url).build();
         }
         return result;
     }
 
+    private CompletableFuture<GitHubResponse<T>> sendAsync(GitHubRequest pageRequest) {
+        URL url = pageRequest.url();
+        return client
+                .sendRequestAsync(pageRequest, (connectorResponse) -> GitHubResponse.parseBody(connectorResponse, type))
+                .handle((response, e) -> {
+                    if (e != null) {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null
+                                ? e.getCause()
+                                : e;
+                        // Same exception as the non-prefetching fetch() throws
+                        throw new GHException("Failed to retrieve " + url, cause);
+                    }
+                    return response;
+                });
+    }
+
+    private CompletableFuture<GitHubResponse<T>> sendNextAsync(GitHubResponse<T> previousResponse) {
+        GitHubRequest pageRequest = previousResponse == null ? null : findNextURL(request, previousResponse);
+        if (pageRequest == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return sendAsync(pageRequest);
+    }
 }
@@ -0,0 +1,64 @@
+package org.kohsuke.github;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+import javax.annotation.CheckForNull;
+
+/**
+ * A value parsed from a string field of a GitHub object, such as a timestamp or a URL, kept so that the getter of the
+ * value does not parse the field again on each call.
+ * <p>
+ * The field is kept as it was read, and may change when the object is refreshed. The value remembers the string it was
+ * parsed from, and is parsed again if the field no longer holds that string. Values are immutable, so objects can keep
+ * them in plain fields: threads that race see either an older value, which is checked again, or a complete one.
+ * </p>
+ *
+ * @param <T>
+ *            the type of the value
+ */
+final class GitHubParsedValue<T> {
+
+    /**
+     * Gets the value parsed from a field, parsing it if the previous value was parsed from another string.
+     *
+     * @param <T>
+     *            the type of the value
+     * @param previous
+     *            the value returned by the previous call for the field, if any
+     * @param source
+     *            the current content of the field
+     * @param parser
+     *            parses the field, which should be a method reference so that no lambda is allocated for each call
+     * @return the value, to pass as {@code previous} to the next call
+     */
+    static <T> GitHubParsedValue<T> of(@CheckForNull GitHubParsedValue<T> previous,
+            @CheckForNull String source,
+            Function<String, T> parser) {
+        if (previous != null && Objects.equals(previous.source, source)) {
+            return previous;
+        }
+        return new GitHubParsedValue<>(source, parser.apply(source));
+    }
+
+    @CheckForNull
+    private final String source;
+
+    @CheckForNull
+    private final T value;
+
+    private GitHubParsedValue(@CheckForNull String source, @CheckForNull T value) {
+        this.source = source;
+        this.value = value;
+    }
+
+    /**
+     * Gets the value.
+     *
+     * @return the value, {@code null} if the field was
+     */
+    @CheckForNull
+    T get() {
+        return value;
+    }
+}
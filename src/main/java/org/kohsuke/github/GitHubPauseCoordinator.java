@@ -0,0 +1,347 @@
+package org.kohsuke.github;
+
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+import org.kohsuke.github.internal.Fingerprints;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import static java.util.logging.Level.FINE;
+
+/**
+ * Holds requests while a secondary rate limit (abuse limit) is being waited out.
+ * <p>
+ * When a request is rejected by a secondary rate limit, the {@link GitHubAbuseLimitHandler} is called for that request
+ * only. Every other request sent with the same credential in the meantime would be rejected as well, and might extend
+ * the penalty. While the handler of the rejected request runs, requests with the same credential are held until the
+ * time given by the {@code Retry-After} header has passed, or until the handler returns, whichever is first. If the
+ * handler returns a delay from {@link GitHubAbuseLimitHandler#retryAfter(GitHubConnectorResponse)}, they are held
+ * until that delay has passed instead. When several handlers run for the same credential, a delay returned by one of
+ * them is waited out even if another one returns earlier with a shorter delay or none.
+ * </p>
+ * <p>
+ * Each {@link GitHub} instance has its own coordinator by default. To pause every instance that uses the same
+ * credential, pass a single coordinator to {@link GitHubBuilder#withPauseCoordinator(GitHubPauseCoordinator)} for each
+ * of them.
+ * </p>
+ */
+public final class GitHubPauseCoordinator {
+
+    /**
+     * A pause for one credential.
+     */
+    private static final class Pause {
+        private int activeHandlers = 0;
+        private long deadlineNanos;
+        /** The latest end of the delays returned by the handlers that already returned. */
+        private long delayedUntilNanos;
+
+        Pause(long deadlineNanos, long startNanos) {
+            this.deadlineNanos = deadlineNanos;
+            this.delayedUntilNanos = startNanos;
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(GitHubPauseCoordinator.class.getName());
+
+    /**
+     * Reduces the {@code Authorization} header to a SHA-256 fingerprint, so that credentials are not kept by the
+     * coordinator.
+     */
+    private static String credentialKey(@CheckForNull String authorization) {
+        return authorization == null ? "" : Fingerprints.sha256(authorization);
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long pauseCount = 0;
+
+    private long pausedNanos = 0;
+
+    /** Only changed with the lock held, but read without it to skip the fingerprint when nothing is paused. */
+    private final Map<String, Pause> pauses = new ConcurrentHashMap<>();
+
+    private final Condition resumed = lock.newCondition();
+
+    /**
+     * Creates a coordinator.
+     */
+    public GitHubPauseCoordinator() {
+    }
+
+    /**
+     * Gets the number of secondary rate limit responses that paused requests.
+     *
+     * @return the pause count
+     */
+    public long getPauseCount() {
+        lock.lock();
+        try {
+            return pauseCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the total time requests were held before being sent. Time spent by several requests at once is added up.
+     *
+     * @return the paused time
+     */
+    @Nonnull
+    public Duration getPausedTime() {
+        lock.lock();
+        try {
+            return Duration.ofNanos(pausedNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether requests with a credential are currently held.
+     *
+     * @param authorization
+     *            the {@code Authorization} header of the requests, {@code null} for anonymous requests
+     * @return {@code true} if requests are held
+     */
+    public boolean isPaused(@CheckForNull String authorization) {
+        if (pauses.isEmpty()) {
+            return false;
+        }
+        String key = credentialKey(authorization);
+        lock.lock();
+        try {
+            Pause pause = activePause(key);
+            return pause != null && pause.deadlineNanos - System.nanoTime() > 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets how long requests with a credential are still held, without waiting.
+     *
+     * @param authorization
+     *            the {@code Authorization} header of the request
+     * @return the remaining time, zero if requests are not held
+     */
+    @Nonnull
+    Duration remainingPause(@CheckForNull String authorization) {
+        if (pauses.isEmpty()) {
+            return Duration.ZERO;
+        }
+        String key = credentialKey(authorization);
+        lock.lock();
+        try {
+            Pause pause = activePause(key);
+            long remaining = pause == null ? 0 : pause.deadlineNanos - System.nanoTime();
+            return remaining > 0 ? Duration.ofNanos(remaining) : Duration.ZERO;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until requests with a credential are no longer held.
+     *
+     * @param authorization
+     *            the {@code Authorization} header of the request
+     * @throws InterruptedIOException
+     *             if the thread was interrupted while waiting
+     */
+    void awaitResume(@CheckForNull String authorization) throws InterruptedIOException {
+        if (pauses.isEmpty()) {
+            return;
+        }
+        String key = credentialKey(authorization);
+        lock.lock();
+        try {
+            Pause pause = activePause(key);
+            if (pause == null) {
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                while (pause != null) {
+                    long remaining = pause.deadlineNanos - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    resumed.awaitNanos(remaining);
+                    pause = activePause(key);
+                }
+            } catch (InterruptedException e) {
+                throw (InterruptedIOException) new InterruptedIOException().initCause(e);
+            } finally {
+                pausedNanos += System.nanoTime() - start;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Holds requests with the credential of a response while its secondary rate limit is handled.
+     *
+     * @param connectorResponse
+     *            the response rejected by a secondary rate limit
+     * @return the fingerprint of the credential, to pass to {@link #resume(String)}
+     */
+    String pause(@Nonnull GitHubConnectorResponse connectorResponse) {
+        String key = credentialKey(connectorResponse.request().header("Authorization"));
+        long waitMillis;
+        try {
+            waitMillis = GitHubAbuseLimitHandler.parseWaitTime(connectorResponse);
+        } catch (RuntimeException e) {
+            LOGGER.log(FINE, "Unable to parse the wait time of a secondary rate limit response", e);
+            waitMillis = GitHubAbuseLimitHandler.DEFAULT_WAIT_MILLIS;
+        }
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        lock.lock();
+        try {
+            // pauses that ended after a delay are only removed when looked up, drop those of other credentials
+            long now = System.nanoTime();
+            pauses.values().removeIf(other -> other.activeHandlers <= 0 && other.deadlineNanos - now <= 0);
+            pauseCount++;
+            Pause pause = pauses.computeIfAbsent(key, k -> new Pause(deadlineNanos, now));
+            if (deadlineNanos - pause.deadlineNanos > 0) {
+                pause.deadlineNanos = deadlineNanos;
+            }
+            pause.activeHandlers++;
+        } finally {
+            lock.unlock();
+        }
+        return key;
+    }
+
+    /**
+     * Ends the pause started by {@link #pause(GitHubConnectorResponse)} once its handler has returned. Requests stay
+     * held while the handlers of other responses for the same credential are running.
+     *
+     * @param key
+     *            the fingerprint returned by {@link #pause(GitHubConnectorResponse)}
+     */
+    void resume(@Nonnull String key) {
+        resume(key, Duration.ZERO);
+    }
+
+    /**
+     * Ends the pause started by {@link #pause(GitHubConnectorResponse)} once its handler has returned, holding requests
+     * for the delay the handler asked for.
+     *
+     * @param key
+     *            the fingerprint returned by {@link #pause(GitHubConnectorResponse)}
+     * @param delay
+     *            how long requests stay held, zero to let them through once no other handler is running
+     */
+    void resume(@Nonnull String key, @Nonnull Duration delay) {
+        lock.lock();
+        try {
+            Pause pause = pauses.get(key);
+            if (pause == null) {
+                return;
+            }
+            long now = System.nanoTime();
+            if (!delay.isZero() && !delay.isNegative() && now + delay.toNanos() - pause.delayedUntilNanos > 0) {
+                pause.delayedUntilNanos = now + delay.toNanos();
+            }
+            if (--pause.activeHandlers > 0) {
+                // the other handlers are still running, but the delay returned by this one must be waited out
+                if (pause.delayedUntilNanos - pause.deadlineNanos > 0) {
+                    pause.deadlineNanos = pause.delayedUntilNanos;
+                }
+                return;
+            }
+            // once every handler returned, requests are only held for the longest delay they returned
+            pause.deadlineNanos = pause.delayedUntilNanos;
+            if (pause.deadlineNanos - now <= 0) {
+                pauses.remove(key);
+            }
+            // held requests wake up, and wait again until the new deadline if there is one
+            resumed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds the time a request was held to the paused time, when it waited for a pause without
+     * {@link #awaitResume(String)}.
+     *
+     * @param held
+     *            the time the request was held
+     */
+    void recordPausedTime(@Nonnull Duration held) {
+        if (held.isZero() || held.isNegative()) {
+            return;
+        }
+        lock.lock();
+        try {
+            pausedNanos += held.toNanos();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the pause of a credential, removing it if it ended. Must be called with the lock held.
+     */
+    @CheckForNull
+    private Pause activePause(@Nonnull String key) {
+        Pause pause = pauses.get(key);
+        if (pause != null && pause.activeHandlers <= 0 && pause.deadlineNanos - System.nanoTime() <= 0) {
+            pauses.remove(key);
+            return null;
+        }
+        return pause;
+    }
+
+    /**
+     * Gets the number of credentials with a pause that has not been removed yet.
+     *
+     * @return the number of credentials
+     */
+    int getPausedCredentialCount() {
+        lock.lock();
+        try {
+            return pauses.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs the handler of a secondary rate limit response while holding the other requests with its credential.
+     *
+     * @param connectorResponse
+     *            the response rejected by a secondary rate limit
+     * @param handler
+     *            the handler
+     * @return the time to wait before retrying, returned by the handler
+     * @throws IOException
+     *             if thrown by the handler
+     */
+    @Nonnull
+    Duration whilePaused(@Nonnull GitHubConnectorResponse connectorResponse, @Nonnull GitHubAbuseLimitHandler handler)
+            throws IOException {
+        String key = pause(connectorResponse);
+        Duration delay = Duration.ZERO;
+        try {
+            delay = handler.retryAfter(connectorResponse);
+            return delay;
+        } finally {
+            resume(key, delay);
+        }
+    }
+}
@@ -2,9 +2,11 @@ package org.kohsuke.github;
 
 import java.io.IOException;
 import java.io.InterruptedIOException;
+import java.time.Duration;
 import java.util.Objects;
 import java.util.logging.Logger;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 
 // TODO: Auto-generated Javadoc
@@ -101,6 +103,47 @@ class GitHubRateLimitChecker {
         }
     }
 
+    /**
+     * Checks whether an extra request may be sent right away, for optional requests like hedges.
+     * <p>
+     * Unlike {@link #getWaitTime(GitHubClient, RateLimitTarget, String)} this never waits nor requests the rate
+     * limit: only the rate limit reported by responses is used. A {@link RateLimitChecker} that does not support
+     * {@link RateLimitChecker#getWaitTime(GHRateLimit.Record)} lets no extra request through. Nothing is counted
+     * against the rate limit until {@link #reserveNow(GitHubClient, RateLimitTarget)} is called for a request that is
+     * sent.
+     * </p>
+     *
+     * @param client
+     *            the {@link GitHubClient} to check
+     * @param rateLimitTarget
+     *            the {@link RateLimitTarget} to check against
+     * @return {@code true} if the request may be sent without waiting
+     */
+    boolean canSendNow(GitHubClient client, @Nonnull RateLimitTarget rateLimitTarget) {
+        RateLimitChecker guard = selectChecker(rateLimitTarget);
+        if (guard == RateLimitChecker.NONE) {
+            return true;
+        }
+        Duration waitTime = guard.peekWaitTime(client.currentRateLimit().getRecord(rateLimitTarget));
+        return waitTime != null && waitTime.isZero();
+    }
+
+    /**
+     * Counts an extra request let through by {@link #canSendNow(GitHubClient, RateLimitTarget)} that is being sent,
+     * for the {@link RateLimitChecker}s that take a share of the quota for each request.
+     *
+     * @param client
+     *            the {@link GitHubClient} to check
+     * @param rateLimitTarget
+     *            the {@link RateLimitTarget} to check against
+     */
+    void reserveNow(GitHubClient client, @Nonnull RateLimitTarget rateLimitTarget) {
+        RateLimitChecker guard = selectChecker(rateLimitTarget);
+        if (guard != RateLimitChecker.NONE) {
+            guard.getWaitTime(client.currentRateLimit().getRecord(rateLimitTarget));
+        }
+    }
+
     /**
      * Checks whether there is sufficient requests remaining within this client's rate limit quota to make the current
      * request.
@@ -138,14 +181,52 @@ class GitHubRateLimitChecker {
      *             if there is an I/O error
      */
     void checkRateLimit(GitHubClient client, @Nonnull RateLimitTarget rateLimitTarget) throws IOException {
+        checkRateLimit(client, rateLimitTarget, null, client.getEncodedAuthorization());
+    }
+
+    /**
+     * Checks the rate limit like {@link #checkRateLimit(GitHubClient, RateLimitTarget)}, without waiting past the
+     * {@link RequestDeadline} of a request.
+     * <p>
+     * If the request has a deadline and the {@link RateLimitChecker} supports
+     * {@link RateLimitChecker#getWaitTime(GHRateLimit.Record)}, the wait fails right away when it would last past the
+     * deadline and ends when the request is cancelled. Otherwise the deadline is checked between the calls to
+     * {@link RateLimitChecker#checkRateLimit(GHRateLimit.Record, long)}.
+     * </p>
+     *
+     * @param client
+     *            the {@link GitHubClient} to check
+     * @param rateLimitTarget
+     *            the {@link RateLimitTarget} to check against
+     * @param request
+     *            the request about to be sent, {@code null} if it has no deadline
+     * @param authorization
+     *            the {@code Authorization} header of the request, {@code null} for anonymous requests
+     * @throws IOException
+     *             if there is an I/O error, or a {@link RequestCancelledException} if the deadline passed or was
+     *             cancelled
+     */
+    void checkRateLimit(GitHubClient client,
+            @Nonnull RateLimitTarget rateLimitTarget,
+            @CheckForNull GitHubRequest request,
+            @CheckForNull String authorization) throws IOException {
         RateLimitChecker guard = selectChecker(rateLimitTarget);
         if (guard == RateLimitChecker.NONE) {
             return;
         }
 
         // For the first rate limit, accept the current limit if a valid one is already present.
-        GHRateLimit rateLimit = client.rateLimit(rateLimitTarget);
+        GHRateLimit rateLimit = client.rateLimit(rateLimitTarget, authorization);
         GHRateLimit.Record rateLimitRecord = rateLimit.getRecord(rateLimitTarget);
+        RequestDeadline deadline = request != null ? request.deadline() : null;
+        if (deadline != null) {
+            deadline.check(request.url());
+            Duration waitTime = guard.getWaitTime(rateLimitRecord);
+            if (waitTime != null) {
+                deadline.sleep(waitTime, request.url());
+                return;
+            }
+        }
         long waitCount = 0;
         try {
             while (guard.checkRateLimit(rateLimitRecord, waitCount)) {
@@ -155,7 +236,11 @@ class GitHubRateLimitChecker {
                 // called {@link RateLimitChecker} sleeps.
                 // Reset time is only accurate to the second, so adding a one second buffer for safety is a good idea.
                 // This also keeps polling clients from querying too often.
-                Thread.sleep(1000);
+                if (deadline != null) {
+                    deadline.sleep(Duration.ofSeconds(1), request.url());
+                } else {
+                    Thread.sleep(1000);
+                }
 
                 // After the first wait, always request a new rate limit from the server.
                 rateLimit = client.getRateLimit(rateLimitTarget);
@@ -166,6 +251,43 @@ class GitHubRateLimitChecker {
         }
     }
 
+    /**
+     * Gets how long a request must wait before being sent, without waiting, for asynchronous requests.
+     * <p>
+     * If the {@link RateLimitChecker} for the target does not support
+     * {@link RateLimitChecker#getWaitTime(GHRateLimit.Record)}, this falls back to
+     * {@link #checkRateLimit(GitHubClient, RateLimitTarget, GitHubRequest, String)}, which waits on the calling
+     * thread.
+     * </p>
+     *
+     * @param client
+     *            the {@link GitHubClient} to check
+     * @param rateLimitTarget
+     *            the {@link RateLimitTarget} to check against
+     * @param authorization
+     *            the {@code Authorization} header of the request, {@code null} for anonymous requests
+     * @return the time to wait before sending the request
+     * @throws IOException
+     *             if there is an I/O error
+     */
+    @Nonnull
+    Duration getWaitTime(GitHubClient client,
+            @Nonnull RateLimitTarget rateLimitTarget,
+            @CheckForNull String authorization) throws IOException {
+        RateLimitChecker guard = selectChecker(rateLimitTarget);
+        if (guard == RateLimitChecker.NONE) {
+            return Duration.ZERO;
+        }
+        GHRateLimit.Record rateLimitRecord = client.rateLimit(rateLimitTarget, authorization)
+                .getRecord(rateLimitTarget);
+        Duration waitTime = guard.getWaitTime(rateLimitRecord);
+        if (waitTime == null) {
+            checkRateLimit(client, rateLimitTarget, null, authorization);
+            return Duration.ZERO;
+        }
+        return waitTime;
+    }
+
     /**
      * Constructs a new {@link GitHubRateLimitChecker} with a new checker for a particular target.
      *
@@ -51,6 +51,11 @@ public abstract class GitHubRateLimitHandler extends GitHubConnectorResponseErro
                 throw (InterruptedIOException) new InterruptedIOException().initCause(ex);
             }
         }
+
+        @Override
+        public Duration retryAfter(GitHubConnectorResponse connectorResponse) {
+            return Duration.ofMillis(parseWaitTime(connectorResponse));
+        }
     };
 
     /**
@@ -81,6 +86,28 @@ public abstract class GitHubRateLimitHandler extends GitHubConnectorResponseErro
      */
     public abstract void onError(@Nonnull GitHubConnectorResponse connectorResponse) throws IOException;
 
+    /**
+     * Called when the library encounters HTTP error indicating that the API rate limit has been exceeded, to decide
+     * how long to wait before the request is sent again.
+     *
+     * <p>
+     * Unlike {@link #onError(GitHubConnectorResponse)}, this method should not wait itself: the library waits for the
+     * returned time, on a timer for asynchronous requests. Any exception thrown from this method will cause the
+     * request to fail. The default implementation calls {@link #onError(GitHubConnectorResponse)} and retries right
+     * after it returns, so that existing handlers keep working.
+     *
+     * @param connectorResponse
+     *            Response information for this request.
+     * @return the time to wait before sending the request again
+     * @throws IOException
+     *             the io exception
+     */
+    @Nonnull
+    public Duration retryAfter(@Nonnull GitHubConnectorResponse connectorResponse) throws IOException {
+        onError(connectorResponse);
+        return Duration.ZERO;
+    }
+
     /**
      * Checks if is error.
      *
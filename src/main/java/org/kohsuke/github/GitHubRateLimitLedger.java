@@ -0,0 +1,325 @@
+package org.kohsuke.github;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import static java.util.logging.Level.WARNING;
+
+/**
+ * Shares the observed rate limits between processes on the same host through a memory-mapped file.
+ * <p>
+ * Each {@link GitHub} instance tracks the rate limit from the headers of its own responses. When several processes use
+ * the same credential, each of them only sees the requests it made itself until its next response, and together they
+ * overrun the quota. With a ledger, every observed rate limit is also written to the file, and the rate limit used by
+ * the {@link RateLimitChecker}s is merged with the one found in the file, so that every process sees the lowest
+ * remaining count reported to any of them.
+ * </p>
+ * <p>
+ * The file holds a fixed number of slots, one per credential and {@link RateLimitTarget}. Slots are claimed and updated
+ * with compare-and-set operations on the mapped memory, without locks. Credentials are identified by a hash of the
+ * {@code Authorization} header, which is never written to the file. Tokens that differ but share a quota, like the
+ * installation tokens of one GitHub App installation created by different processes, can share slots through
+ * {@link #forCredential(String)}. A slot whose rate limit has reset is taken over by the next credential that needs
+ * one, so that rotated tokens do not fill the file. Once all slots hold a current rate limit, rate limits of other
+ * credentials are not shared.
+ * </p>
+ *
+ * @see GitHubBuilder#withRateLimitLedger(GitHubRateLimitLedger)
+ */
+public final class GitHubRateLimitLedger {
+
+    /** The number of slots of a new ledger file. */
+    public static final int DEFAULT_SLOTS = 1024;
+
+    private static final int HEADER_BYTES = 16;
+
+    private static final Logger LOGGER = Logger.getLogger(GitHubRateLimitLedger.class.getName());
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private static final long MAGIC = 0x4748524c4c454447L;
+
+    /** The state of a slot being taken over, which neither readers nor writers use. */
+    private static final long RECLAIMING = -1L;
+
+    private static final int SLOT_BYTES = 24;
+
+    private static long hash(@Nonnull String credential, @Nonnull RateLimitTarget rateLimitTarget) {
+        // FNV-1a
+        long hash = 0xcbf29ce484222325L;
+        byte[] bytes = (credential + '\n' + rateLimitTarget.name()).getBytes(StandardCharsets.UTF_8);
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        // zero marks a free slot
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static boolean isReset(long state, long nowEpochSeconds) {
+        return state != 0 && state != RECLAIMING && resetEpochSeconds(state) < nowEpochSeconds;
+    }
+
+    private static RateLimitTarget normalize(RateLimitTarget rateLimitTarget) {
+        // Requests without a specific target count against the core rate limit
+        return rateLimitTarget == RateLimitTarget.NONE ? RateLimitTarget.CORE : rateLimitTarget;
+    }
+
+    private static long pack(long resetEpochSeconds, int remaining) {
+        return (resetEpochSeconds << 32) | (remaining & 0xffffffffL);
+    }
+
+    private static int remaining(long state) {
+        return (int) state;
+    }
+
+    private static long resetEpochSeconds(long state) {
+        return state >>> 32;
+    }
+
+    private final ByteBuffer buffer;
+
+    /** Whether it was reported that all slots are taken, shared with the views of this ledger. */
+    private final AtomicBoolean fullReported;
+
+    @CheckForNull
+    private final String credentialKey;
+
+    private final int slots;
+
+    /**
+     * Opens or creates a ledger file with {@link #DEFAULT_SLOTS} slots.
+     *
+     * @param file
+     *            the ledger file, shared by the processes
+     * @throws IOException
+     *             if the file cannot be opened, or is not a ledger file
+     */
+    public GitHubRateLimitLedger(@Nonnull Path file) throws IOException {
+        this(file, DEFAULT_SLOTS);
+    }
+
+    /**
+     * Opens or creates a ledger file. If the file exists, its number of slots is kept.
+     *
+     * @param file
+     *            the ledger file, shared by the processes
+     * @param slots
+     *            the number of slots if the file is created
+     * @throws IOException
+     *             if the file cannot be opened, or is not a ledger file
+     */
+    public GitHubRateLimitLedger(@Nonnull Path file, int slots) throws IOException {
+        if (slots < 1) {
+            throw new IllegalArgumentException("A ledger needs at least one slot");
+        }
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // The lock only guards the creation of the file, slots are updated without it
+            FileLock lock = channel.lock();
+            try {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.nativeOrder());
+                if (channel.size() == 0) {
+                    header.putLong(MAGIC).putLong(slots).flip();
+                    channel.write(header, 0);
+                    channel.write(ByteBuffer.allocate(1), HEADER_BYTES + (long) slots * SLOT_BYTES - 1);
+                    channel.force(true);
+                } else {
+                    channel.read(header, 0);
+                    header.flip();
+                    if (header.remaining() < HEADER_BYTES || header.getLong() != MAGIC) {
+                        throw new IOException("Not a rate limit ledger: " + file);
+                    }
+                    slots = (int) header.getLong();
+                    if (channel.size() < HEADER_BYTES + (long) slots * SLOT_BYTES) {
+                        throw new IOException("Truncated rate limit ledger: " + file);
+                    }
+                }
+                MappedByteBuffer mapped = channel
+                        .map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) slots * SLOT_BYTES);
+                this.buffer = mapped.order(ByteOrder.nativeOrder());
+            } finally {
+                lock.release();
+            }
+        }
+        this.slots = slots;
+        this.credentialKey = null;
+        this.fullReported = new AtomicBoolean();
+    }
+
+    private GitHubRateLimitLedger(@Nonnull GitHubRateLimitLedger ledger, @Nonnull String credentialKey) {
+        this.buffer = ledger.buffer;
+        this.slots = ledger.slots;
+        this.credentialKey = credentialKey;
+        this.fullReported = ledger.fullReported;
+    }
+
+    /**
+     * Returns a view of this ledger that records the rate limits of all requests under one name, whatever their
+     * {@code Authorization} header. Use it when the credentials change but their quota does not, for instance with
+     * the installation tokens of a GitHub App installation.
+     *
+     * @param credentialKey
+     *            the name of the quota, the same in every process sharing it
+     * @return the view
+     */
+    @Nonnull
+    public GitHubRateLimitLedger forCredential(@Nonnull String credentialKey) {
+        return new GitHubRateLimitLedger(this, credentialKey);
+    }
+
+    /**
+     * Finds the slot of a credential and target. When claiming, a free slot is taken, or else the first slot on the way
+     * whose rate limit has reset.
+     *
+     * @return the offset of the slot, or {@code -1} if there is none and it was not to be claimed, or all slots are
+     *         taken
+     */
+    private int findSlot(long key, boolean claim) {
+        int start = (int) Long.remainderUnsigned(key, slots);
+        long nowEpochSeconds = System.currentTimeMillis() / 1000;
+        int reclaimable = -1;
+        for (int i = 0; i < slots; i++) {
+            int offset = HEADER_BYTES + ((start + i) % slots) * SLOT_BYTES;
+            long slotKey = (long) LONG.getVolatile(buffer, offset);
+            if (slotKey == key) {
+                return offset;
+            }
+            if (slotKey == 0) {
+                if (!claim) {
+                    return -1;
+                }
+                if (reclaimable >= 0 && reclaim(reclaimable, key, nowEpochSeconds)) {
+                    return reclaimable;
+                }
+                if (LONG.compareAndSet(buffer, offset, 0L, key)) {
+                    return offset;
+                }
+                if ((long) LONG.getVolatile(buffer, offset) == key) {
+                    // claimed for the same key by someone else
+                    return offset;
+                }
+            } else if (claim && reclaimable < 0
+                    && isReset((long) LONG.getVolatile(buffer, offset + 8), nowEpochSeconds)) {
+                // only taken if the key is not found further on
+                reclaimable = offset;
+            }
+        }
+        if (reclaimable >= 0 && reclaim(reclaimable, key, nowEpochSeconds)) {
+            return reclaimable;
+        }
+        if (claim && fullReported.compareAndSet(false, true)) {
+            LOGGER.log(WARNING,
+                    "All {0} slots of the rate limit ledger hold a current rate limit, the rate limits of other"
+                            + " credentials are not shared",
+                    slots);
+        }
+        return -1;
+    }
+
+    private long key(@CheckForNull String authorization, @Nonnull RateLimitTarget rateLimitTarget) {
+        String credential = credentialKey != null ? credentialKey : authorization == null ? "" : authorization;
+        return hash(credential, normalize(rateLimitTarget));
+    }
+
+    /**
+     * Takes over a slot whose rate limit has reset. The state is set aside first, so that only one process replaces
+     * the key, and the slot stays in place so that other keys are still found past it.
+     *
+     * @return {@code true} if the slot now belongs to {@code key}
+     */
+    private boolean reclaim(int offset, long key, long nowEpochSeconds) {
+        long state = (long) LONG.getVolatile(buffer, offset + 8);
+        if (!isReset(state, nowEpochSeconds) || !LONG.compareAndSet(buffer, offset + 8, state, RECLAIMING)) {
+            return false;
+        }
+        LONG.setVolatile(buffer, offset, key);
+        LONG.setVolatile(buffer, offset + 8, 0L);
+        return true;
+    }
+
+    /**
+     * Reads the rate limit recorded for a credential.
+     *
+     * @param authorization
+     *            the {@code Authorization} header of the requests, {@code null} for anonymous requests
+     * @param rateLimitTarget
+     *            the rate limit
+     * @return the rate limit, or {@code null} if none was recorded
+     */
+    @CheckForNull
+    GHRateLimit.Record read(@CheckForNull String authorization, @Nonnull RateLimitTarget rateLimitTarget) {
+        long key = key(authorization, rateLimitTarget);
+        int offset = findSlot(key, false);
+        if (offset < 0) {
+            return null;
+        }
+        long state = (long) LONG.getVolatile(buffer, offset + 8);
+        int limit = (int) (long) LONG.getVolatile(buffer, offset + 16);
+        if (state == 0 || state == RECLAIMING || (long) LONG.getVolatile(buffer, offset) != key) {
+            // nothing recorded yet, or the slot was taken over by another credential meanwhile
+            return null;
+        }
+        return new GHRateLimit.Record(limit, remaining(state), resetEpochSeconds(state));
+    }
+
+    /**
+     * Records an observed rate limit, unless the ledger already holds a more recent one: a later reset, or the same
+     * reset with fewer remaining requests.
+     *
+     * @param authorization
+     *            the {@code Authorization} header of the request, {@code null} for anonymous requests
+     * @param rateLimitTarget
+     *            the rate limit
+     * @param observed
+     *            the observed rate limit
+     */
+    void record(@CheckForNull String authorization,
+            @Nonnull RateLimitTarget rateLimitTarget,
+            @Nonnull GHRateLimit.Record observed) {
+        if (observed instanceof GHRateLimit.UnknownLimitRecord) {
+            return;
+        }
+        long key = key(authorization, rateLimitTarget);
+        int offset = findSlot(key, true);
+        if (offset < 0) {
+            return;
+        }
+        // The limit is written first, so that a reader seeing the new state also sees its limit
+        LONG.setVolatile(buffer, offset + 16, (long) observed.getLimit());
+        long update = pack(observed.getResetEpochSeconds(), observed.getRemaining());
+        long current;
+        do {
+            current = (long) LONG.getVolatile(buffer, offset + 8);
+            if (current == RECLAIMING) {
+                // the slot is being taken over by another credential
+                return;
+            }
+            if (current != 0 && (resetEpochSeconds(current) > resetEpochSeconds(update)
+                    || (resetEpochSeconds(current) == resetEpochSeconds(update)
+                            && remaining(current) <= remaining(update)))) {
+                return;
+            }
+        } while (!LONG.compareAndSet(buffer, offset + 8, current, update));
+        if ((long) LONG.getVolatile(buffer, offset) != key) {
+            // the slot was taken over by another credential meanwhile, do not leave this rate limit to it
+            LONG.compareAndSet(buffer, offset + 8, update, 0L);
+        }
+    }
+}
@@ -16,7 +16,10 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -82,6 +85,9 @@ public class GitHubRequest implements GitHubConnectorRequest {
 
         private byte[] body;
 
+        @CheckForNull
+        private RequestDeadline deadline;
+
         private boolean forceBody;
 
         /**
@@ -101,6 +107,9 @@ public class GitHubRequest implements GitHubConnectorRequest {
         @Nonnull
         private String method;
 
+        @CheckForNull
+        private RequestPriority priority;
+
         @Nonnull
         private RateLimitTarget rateLimitTarget;
         @Nonnull
@@ -113,6 +122,8 @@ public class GitHubRequest implements GitHubConnectorRequest {
                 @Nonnull String urlPath,
                 @Nonnull String method,
                 @Nonnull RateLimitTarget rateLimitTarget,
+                @CheckForNull RequestPriority priority,
+                @CheckForNull RequestDeadline deadline,
                 @CheckForNull byte[] body,
                 boolean forceBody) {
             this.args = new ArrayList<>(args);
@@ -126,6 +137,8 @@ public class GitHubRequest implements GitHubConnectorRequest {
             this.urlPath = urlPath;
             this.method = method;
             this.rateLimitTarget = rateLimitTarget;
+            this.priority = priority;
+            this.deadline = deadline;
             this.body = body;
             this.forceBody = forceBody;
         }
@@ -142,6 +155,8 @@ public class GitHubRequest implements GitHubConnectorRequest {
                     "GET",
                     RateLimitTarget.CORE,
                     null,
+                    null,
+                    null,
                     false);
         }
 
@@ -160,6 +175,8 @@ public class GitHubRequest implements GitHubConnectorRequest {
                     urlPath,
                     method,
                     rateLimitTarget,
+                    priority != null ? priority : RequestPriority.current(),
+                    deadline != null ? deadline : RequestDeadline.current(),
                     body,
                     forceBody);
         }
@@ -176,6 +193,19 @@ public class GitHubRequest implements GitHubConnectorRequest {
             return (B) this;
         }
 
+        /**
+         * Sets the deadline of the request, overriding the deadline of the current {@link RequestDeadline#enter()
+         * scope}.
+         *
+         * @param deadline
+         *            the deadline. Default is none.
+         * @return the request builder
+         */
+        public B deadline(@Nonnull RequestDeadline deadline) {
+            this.deadline = deadline;
+            return (B) this;
+        }
+
         /**
          * Small number of GitHub APIs use HTTP methods somewhat inconsistently, and use a body where it's not expected.
          * Normally whether parameters go as query parameters or a body depends on the HTTP verb in use, but this method
@@ -225,6 +255,19 @@ public class GitHubRequest implements GitHubConnectorRequest {
             return (B) this;
         }
 
+        /**
+         * Sets the priority of the request, overriding the priority of the current
+         * {@link RequestPriority#enter() scope}.
+         *
+         * @param priority
+         *            the priority. Default is {@link RequestPriority#NORMAL}.
+         * @return the request builder
+         */
+        public B priority(@Nonnull RequestPriority priority) {
+            this.priority = priority;
+            return (B) this;
+        }
+
         /**
          * Method requester.
          *
@@ -623,6 +666,12 @@ public class GitHubRequest implements GitHubConnectorRequest {
     private final List<Entry> args;
     private final byte[] body;
 
+    @CheckForNull
+    private final CompletableFuture<Void> cancellation;
+
+    @CheckForNull
+    private final RequestDeadline deadline;
+
     private final boolean forceBody;
 
     private final Map<String, List<String>> headers;
@@ -631,6 +680,8 @@ public class GitHubRequest implements GitHubConnectorRequest {
 
     private final String method;
 
+    private final RequestPriority priority;
+
     private final RateLimitTarget rateLimitTarget;
 
     private final URL url;
@@ -645,6 +696,8 @@ public class GitHubRequest implements GitHubConnectorRequest {
             @Nonnull String urlPath,
             @Nonnull String method,
             @Nonnull RateLimitTarget rateLimitTarget,
+            @Nonnull RequestPriority priority,
+            @CheckForNull RequestDeadline deadline,
             @CheckForNull byte[] body,
             boolean forceBody) {
         this.args = Collections.unmodifiableList(new ArrayList<>(args));
@@ -658,6 +711,9 @@ public class GitHubRequest implements GitHubConnectorRequest {
         this.urlPath = urlPath;
         this.method = method;
         this.rateLimitTarget = rateLimitTarget;
+        this.priority = priority;
+        this.deadline = deadline;
+        this.cancellation = deadline != null ? deadline.newCancellation() : null;
         this.body = body;
         this.forceBody = forceBody;
         String tailApiUrl = buildTailApiUrl();
@@ -709,6 +765,17 @@ public class GitHubRequest implements GitHubConnectorRequest {
         return body != null ? new ByteArrayInputStream(body) : null;
     }
 
+    /**
+     * A stage that completes when the {@link #deadline()} of this request is cancelled.
+     *
+     * @return the cancellation stage, or {@code null} if this request has no deadline.
+     */
+    @Override
+    @CheckForNull
+    public CompletionStage<Void> cancellation() {
+        return cancellation;
+    }
+
     /**
      * The content type to be sent by this request.
      *
@@ -719,6 +786,16 @@ public class GitHubRequest implements GitHubConnectorRequest {
         return header("Content-type");
     }
 
+    /**
+     * The deadline of this request.
+     *
+     * @return the deadline, or {@code null} if this request has none.
+     */
+    @CheckForNull
+    public RequestDeadline deadline() {
+        return deadline;
+    }
+
     /**
      * Whether arguments for this request should be included in the URL or in the body of the request.
      *
@@ -767,6 +844,16 @@ public class GitHubRequest implements GitHubConnectorRequest {
         return method;
     }
 
+    /**
+     * The priority of this request.
+     *
+     * @return the priority
+     */
+    @Nonnull
+    public RequestPriority priority() {
+        return priority;
+    }
+
     /**
      * The rate limit target for this request.
      *
@@ -777,6 +864,17 @@ public class GitHubRequest implements GitHubConnectorRequest {
         return rateLimitTarget;
     }
 
+    /**
+     * The time left before the {@link #deadline()} of this request passes.
+     *
+     * @return the time left, or {@code null} if the time of this request is not limited.
+     */
+    @Override
+    @CheckForNull
+    public Duration timeout() {
+        return deadline != null ? deadline.getRemaining() : null;
+    }
+
     /**
      * The {@link URL} for this request. This is the actual URL the {@link GitHubClient} will send this request to.
      *
@@ -838,6 +936,8 @@ public class GitHubRequest implements GitHubConnectorRequest {
                 urlPath,
                 method,
                 rateLimitTarget,
+                priority,
+                deadline,
                 body,
                 forceBody);
     }
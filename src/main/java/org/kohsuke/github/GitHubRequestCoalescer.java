@@ -0,0 +1,208 @@
+package org.kohsuke.github;
+
+import org.apache.commons.io.IOUtils;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+import org.kohsuke.github.function.FunctionThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import static java.net.HttpURLConnection.HTTP_OK;
+
+/**
+ * GitHubRequestCoalescer sends identical concurrent {@code GET} requests only once.
+ * <p>
+ * The first caller sends the request. Callers that send a request with the same URL and headers, including the
+ * {@code Authorization} header, while it is in flight wait for it instead. If the response is a {@code 200}, its body
+ * is read into memory and each waiting caller receives its own copy, so that every caller parses its own objects.
+ * Otherwise, or if the first request fails, the waiting callers send their requests themselves, so that errors are
+ * handled per caller. A waiting caller stops waiting once the {@link RequestDeadline} of its request passes or is
+ * cancelled.
+ * </p>
+ * <p>
+ * When nobody is waiting, the response is returned as-is and its body is not buffered.
+ * </p>
+ */
+class GitHubRequestCoalescer {
+
+    /**
+     * A request in flight.
+     */
+    private static final class Flight {
+        private int followers = 0;
+        private final CompletableFuture<SharedResponse> result = new CompletableFuture<>();
+    }
+
+    /**
+     * A copy of a shared response, returned to one caller.
+     */
+    private static final class SharedConnectorResponse extends GitHubConnectorResponse {
+
+        private final byte[] body;
+
+        SharedConnectorResponse(@Nonnull GitHubConnectorRequest request, @Nonnull SharedResponse shared) {
+            super(request, shared.statusCode, shared.headers);
+            this.body = shared.body;
+        }
+
+        @Override
+        protected InputStream rawBodyStream() throws IOException {
+            return new ByteArrayInputStream(body);
+        }
+    }
+
+    /**
+     * The status, headers and decoded body of a response shared between callers.
+     */
+    private static final class SharedResponse {
+        private final byte[] body;
+        private final Map<String, List<String>> headers;
+        private final int statusCode;
+
+        SharedResponse(int statusCode, Map<String, List<String>> headers, byte[] body) {
+            this.statusCode = statusCode;
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+
+    private static String coalescingKey(GitHubConnectorRequest request) {
+        StringBuilder key = new StringBuilder(request.url().toString());
+        TreeMap<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(request.allHeaders());
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            key.append('\n').append(header.getKey()).append(": ").append(header.getValue());
+        }
+        return key.toString();
+    }
+
+    private static boolean isCoalescable(GitHubConnectorRequest request) {
+        return "GET".equals(request.method()) && !request.hasBody();
+    }
+
+    private final Map<String, Flight> flights = new HashMap<>();
+
+    /**
+     * Instantiates a new request coalescer.
+     */
+    GitHubRequestCoalescer() {
+    }
+
+    /**
+     * Stops following a flight, so that its response is not buffered for a caller that no longer waits.
+     */
+    private void abandon(Flight flight) {
+        synchronized (flights) {
+            flight.followers--;
+        }
+    }
+
+    @CheckForNull
+    private SharedResponse await(Flight flight, GitHubConnectorRequest request) throws IOException {
+        try {
+            // the result is shared with the other followers, only this caller's copy is given up on
+            return RequestDeadline.await(flight.result.copy(), request);
+        } catch (InterruptedException e) {
+            abandon(flight);
+            throw (IOException) new InterruptedIOException().initCause(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RequestCancelledException) {
+                abandon(flight);
+                throw (RequestCancelledException) e.getCause();
+            }
+            // The result is never completed exceptionally
+            return null;
+        }
+    }
+
+    private GitHubConnectorResponse lead(String key,
+            Flight flight,
+            GitHubConnectorRequest request,
+            FunctionThrows<GitHubConnectorRequest, GitHubConnectorResponse, IOException> sender) throws IOException {
+        SharedResponse shared = null;
+        try {
+            GitHubConnectorResponse response = sender.apply(request);
+            int followers;
+            synchronized (flights) {
+                flights.remove(key, flight);
+                followers = flight.followers;
+            }
+            if (followers == 0 || response.statusCode() != HTTP_OK) {
+                return response;
+            }
+
+            try (InputStream body = response.bodyStream()) {
+                // The body is decoded when read, so the headers describing its encoding no longer apply
+                TreeMap<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                for (Map.Entry<String, List<String>> header : response.allHeaders().entrySet()) {
+                    if (header.getKey() != null) {
+                        headers.put(header.getKey(), header.getValue());
+                    }
+                }
+                headers.remove("Content-Encoding");
+                headers.remove("Content-Length");
+                shared = new SharedResponse(response.statusCode(), headers, IOUtils.toByteArray(body));
+            } finally {
+                IOUtils.closeQuietly(response);
+            }
+            return new SharedConnectorResponse(request, shared);
+        } finally {
+            synchronized (flights) {
+                flights.remove(key, flight);
+            }
+            flight.result.complete(shared);
+        }
+    }
+
+    /**
+     * Sends a request, or waits for an identical request that is already in flight.
+     *
+     * @param request
+     *            the request
+     * @param sender
+     *            sends the request if it is not coalesced
+     * @return the response
+     * @throws IOException
+     *             if the request failed
+     */
+    @Nonnull
+    GitHubConnectorResponse send(@Nonnull GitHubConnectorRequest request,
+            @Nonnull FunctionThrows<GitHubConnectorRequest, GitHubConnectorResponse, IOException> sender)
+            throws IOException {
+        if (!isCoalescable(request)) {
+            return sender.apply(request);
+        }
+
+        String key = coalescingKey(request);
+        Flight flight;
+        boolean leader;
+        synchronized (flights) {
+            flight = flights.get(key);
+            leader = flight == null;
+            if (leader) {
+                flight = new Flight();
+                flights.put(key, flight);
+            } else {
+                flight.followers++;
+            }
+        }
+
+        if (!leader) {
+            SharedResponse shared = await(flight, request);
+            return shared == null ? sender.apply(request) : new SharedConnectorResponse(request, shared);
+        }
+        return lead(key, flight, request, sender);
+    }
+}
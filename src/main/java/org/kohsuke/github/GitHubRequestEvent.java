@@ -0,0 +1,225 @@
+package org.kohsuke.github;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.net.URL;
+import java.time.Duration;
+import java.util.Map;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * A step in the life of a request, passed to a {@link GitHubRequestListener}.
+ * <p>
+ * All the events of a request, including those of its retries and redirects, share its {@link #getRequestId()}. Times
+ * are measured with {@link System#nanoTime()}: {@link #getElapsedNanos()} since the request started and
+ * {@link #getDurationNanos()} since the previous event of the request, which is the time the step this event ends
+ * took.
+ * </p>
+ *
+ * @see GitHubBuilder#withRequestListener(GitHubRequestListener)
+ */
+public final class GitHubRequestEvent {
+
+    private final int attempt;
+
+    private final long bodyBytes;
+
+    private final long durationNanos;
+
+    private final long elapsedNanos;
+
+    @CheckForNull
+    private final Throwable error;
+
+    @Nonnull
+    private final String method;
+
+    @Nonnull
+    private final Map<String, String> rateLimitHeaders;
+
+    private final long requestId;
+
+    @CheckForNull
+    private final Duration retryDelay;
+
+    private final int statusCode;
+
+    @Nonnull
+    private final URL url;
+
+    @Nonnull
+    private final String urlTemplate;
+
+    /**
+     * Instantiates a new request event.
+     *
+     * @param requestId
+     *            the id of the request
+     * @param attempt
+     *            the number of the attempt, from {@code 1}
+     * @param method
+     *            the method of the request
+     * @param url
+     *            the URL of the request
+     * @param urlTemplate
+     *            the template of the URL
+     * @param elapsedNanos
+     *            the time since the request started
+     * @param durationNanos
+     *            the time since the previous event
+     * @param statusCode
+     *            the status of the response, {@code -1} if none
+     * @param rateLimitHeaders
+     *            the rate limit headers of the response
+     * @param bodyBytes
+     *            the size of the body of the response, {@code -1} if not read
+     * @param retryDelay
+     *            the time to wait before retrying, if retrying
+     * @param error
+     *            the error, if failing or retrying because of an error
+     */
+    GitHubRequestEvent(long requestId,
+            int attempt,
+            @Nonnull String method,
+            @Nonnull URL url,
+            @Nonnull String urlTemplate,
+            long elapsedNanos,
+            long durationNanos,
+            int statusCode,
+            @Nonnull Map<String, String> rateLimitHeaders,
+            long bodyBytes,
+            @CheckForNull Duration retryDelay,
+            @CheckForNull Throwable error) {
+        this.requestId = requestId;
+        this.attempt = attempt;
+        this.method = method;
+        this.url = url;
+        this.urlTemplate = urlTemplate;
+        this.elapsedNanos = elapsedNanos;
+        this.durationNanos = durationNanos;
+        this.statusCode = statusCode;
+        this.rateLimitHeaders = rateLimitHeaders;
+        this.bodyBytes = bodyBytes;
+        this.retryDelay = retryDelay;
+        this.error = error;
+    }
+
+    /**
+     * Gets the number of the attempt this event belongs to. Retries and redirects are new attempts.
+     *
+     * @return the attempt, from {@code 1}, or {@code 0} before the first attempt
+     */
+    public int getAttempt() {
+        return attempt;
+    }
+
+    /**
+     * Gets the size of the body of the response, as received from the connector.
+     *
+     * @return the number of bytes, or {@code -1} until the body was parsed
+     */
+    public long getBodyBytes() {
+        return bodyBytes;
+    }
+
+    /**
+     * Gets the time since the previous event of the request.
+     *
+     * @return the duration of the step this event ends, in nanoseconds
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * Gets the time since the request started.
+     *
+     * @return the elapsed time, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Gets the error the request failed with, or is retried because of.
+     *
+     * @return the error, or {@code null} if there is none
+     */
+    @CheckForNull
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Gets the method of the request.
+     *
+     * @return the method, such as {@code GET}
+     */
+    @Nonnull
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Gets the {@code X-RateLimit-*} headers of the response, such as {@code X-RateLimit-Remaining} and
+     * {@code X-RateLimit-Used}.
+     *
+     * @return the headers by case-insensitive name, empty if there is no response or it had none
+     */
+    @Nonnull
+    @SuppressFBWarnings(value = { "EI_EXPOSE_REP" }, justification = "Unmodifiable map")
+    public Map<String, String> getRateLimitHeaders() {
+        return rateLimitHeaders;
+    }
+
+    /**
+     * Gets the id of the request, shared by all its events and unique within the process.
+     *
+     * @return the id
+     */
+    public long getRequestId() {
+        return requestId;
+    }
+
+    /**
+     * Gets the time the request waits before being retried.
+     *
+     * @return the delay, or {@code null} if this is not a retry event
+     */
+    @CheckForNull
+    public Duration getRetryDelay() {
+        return retryDelay;
+    }
+
+    /**
+     * Gets the status of the response.
+     *
+     * @return the status code, or {@code -1} if no response was received
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Gets the URL of the request, which is the URL redirected to after a redirect.
+     *
+     * @return the URL
+     */
+    @Nonnull
+    public URL getUrl() {
+        return url;
+    }
+
+    /**
+     * Gets the template of the endpoint of the request, such as {@code /repos/{owner}/{repo}/pulls}, to group the
+     * requests for different resources of the same endpoint.
+     *
+     * @return the template of the path of the URL
+     */
+    @Nonnull
+    public String getUrlTemplate() {
+        return urlTemplate;
+    }
+}
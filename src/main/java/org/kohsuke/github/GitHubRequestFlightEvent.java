@@ -0,0 +1,67 @@
+package org.kohsuke.github;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A JDK Flight Recorder event for a request to the GitHub API, from its start to its body being parsed or its failure,
+ * retries and redirects included.
+ * <p>
+ * The duration is split into the time waited for the rate limit and before retries, the time the connector took to
+ * get the responses and the time spent parsing the body. The stack trace is the caller's for blocking requests.
+ * </p>
+ *
+ * @see GitHubRequestTrace
+ */
+@Name("org.kohsuke.github.Request")
+@Label("GitHub API Request")
+@Category({ "GitHub API" })
+@Description("A request to the GitHub API, retries and redirects included")
+final class GitHubRequestFlightEvent extends Event {
+
+    @Label("Body Size")
+    @DataAmount
+    long bodyBytes;
+
+    @Label("Error")
+    String error;
+
+    @Label("Method")
+    String method;
+
+    @Label("Network Time")
+    @Description("Time the connector took to get the responses")
+    @Timespan
+    long networkTime;
+
+    @Label("Parse Time")
+    @Description("Time spent parsing the body of the response")
+    @Timespan
+    long parseTime;
+
+    @Label("Rate Limit Remaining")
+    int rateLimitRemaining;
+
+    @Label("Rate Limit Wait")
+    @Description("Time waited for the rate limit and before retries")
+    @Timespan
+    long rateLimitWait;
+
+    @Label("Retries")
+    @Description("Attempts after the first, redirects included")
+    int retries;
+
+    @Label("Status Code")
+    int statusCode;
+
+    @Label("URL")
+    String url;
+
+    @Label("URL Template")
+    String urlTemplate;
+}
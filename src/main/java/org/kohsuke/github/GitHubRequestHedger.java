@@ -0,0 +1,153 @@
+package org.kohsuke.github;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Hedges {@code GET} requests: when no response arrived after a delay, the same request is sent again and whichever
+ * response arrives first is used. This cuts the latency of the few requests that take much longer than the others,
+ * at the cost of some extra requests.
+ * <p>
+ * The delay is a percentile of the recent response times, so that only the slowest requests are hedged, and never
+ * shorter than a minimum. Until enough responses were timed, requests are not hedged. Each request adds
+ * {@code maximumHedgeRatio} to a budget and each hedge takes one from it, so that no more than that fraction of the
+ * requests is hedged over time. A hedge is also only sent if the {@link RateLimitChecker} of the request would let a
+ * request through right away, and counts against it like any other request. The response that loses the race is
+ * closed when it arrives.
+ * </p>
+ *
+ * @see GitHubBuilder#withRequestHedger(GitHubRequestHedger)
+ */
+public final class GitHubRequestHedger {
+
+    /** The number of hedges the budget starts with and can hold. */
+    public static final int BUDGET_CAPACITY = 10;
+
+    private static final int MINIMUM_SAMPLES = 64;
+
+    private static final int SAMPLES = 512;
+
+    private double budget = BUDGET_CAPACITY;
+
+    private long delayNanos = -1;
+
+    private long hedges = 0;
+
+    private final Object lock = new Object();
+
+    private final double maximumHedgeRatio;
+
+    private final long minimumDelayNanos;
+
+    private final double percentile;
+
+    private long sampleCount = 0;
+
+    private final long[] samples = new long[SAMPLES];
+
+    /**
+     * Creates a request hedger.
+     *
+     * @param percentile
+     *            the percentile of the response times after which a request is hedged, between {@code 0} and
+     *            {@code 1}, for instance {@code 0.95}
+     * @param minimumDelay
+     *            the shortest delay before a request is hedged
+     * @param maximumHedgeRatio
+     *            the fraction of the requests that may be hedged, between {@code 0} and {@code 1}
+     */
+    public GitHubRequestHedger(double percentile, @Nonnull Duration minimumDelay, double maximumHedgeRatio) {
+        if (percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 1");
+        }
+        if (minimumDelay.isNegative()) {
+            throw new IllegalArgumentException("Minimum delay must not be negative");
+        }
+        if (maximumHedgeRatio < 0 || maximumHedgeRatio > 1) {
+            throw new IllegalArgumentException("Maximum hedge ratio must be between 0 and 1");
+        }
+        this.percentile = percentile;
+        this.minimumDelayNanos = minimumDelay.toNanos();
+        this.maximumHedgeRatio = maximumHedgeRatio;
+    }
+
+    /**
+     * Gets the delay after which requests are hedged.
+     *
+     * @return the delay, or {@code null} if not enough responses were timed yet
+     */
+    @CheckForNull
+    public Duration getDelay() {
+        synchronized (lock) {
+            return delayNanos < 0 ? null : Duration.ofNanos(Math.max(minimumDelayNanos, delayNanos));
+        }
+    }
+
+    /**
+     * Gets the number of hedges sent.
+     *
+     * @return the number of requests sent again because their response was late
+     */
+    public long getHedges() {
+        synchronized (lock) {
+            return hedges;
+        }
+    }
+
+    /**
+     * Takes a hedge from the budget.
+     *
+     * @return {@code true} if the budget allowed the hedge
+     */
+    boolean acquireHedge() {
+        synchronized (lock) {
+            if (budget < 1) {
+                return false;
+            }
+            budget--;
+            hedges++;
+            return true;
+        }
+    }
+
+    /**
+     * Times a response.
+     *
+     * @param latencyNanos
+     *            the time between sending the request and receiving the response
+     */
+    void recordLatency(long latencyNanos) {
+        synchronized (lock) {
+            samples[(int) (sampleCount % SAMPLES)] = latencyNanos;
+            sampleCount++;
+            // the percentile moves slowly, sorting the samples now and then is enough
+            if (sampleCount >= MINIMUM_SAMPLES && sampleCount % (MINIMUM_SAMPLES / 4) == 0) {
+                long[] sorted = Arrays.copyOf(samples, (int) Math.min(sampleCount, SAMPLES));
+                Arrays.sort(sorted);
+                delayNanos = sorted[(int) Math.min(sorted.length - 1, Math.floor(sorted.length * percentile))];
+            }
+        }
+    }
+
+    /**
+     * Adds a request to the budget.
+     */
+    void recordRequest() {
+        synchronized (lock) {
+            budget = Math.min(BUDGET_CAPACITY, budget + maximumHedgeRatio);
+        }
+    }
+
+    /**
+     * Returns a hedge taken by {@link #acquireHedge()} that was not sent.
+     */
+    void releaseHedge() {
+        synchronized (lock) {
+            budget = Math.min(BUDGET_CAPACITY, budget + 1);
+            hedges--;
+        }
+    }
+}
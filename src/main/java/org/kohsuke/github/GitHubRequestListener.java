@@ -0,0 +1,103 @@
+package org.kohsuke.github;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Receives the steps in the life of the requests sent by a {@link GitHub} instance, to trace or time them.
+ * <p>
+ * For each request, {@link #onStart(GitHubRequestEvent)} is called first. Each attempt to send it is then made of
+ * {@link #onRateLimitWait(GitHubRequestEvent)}, once the request is let through by the rate limit checks,
+ * {@link #onSend(GitHubRequestEvent)}, {@link #onHeaders(GitHubRequestEvent)} when the response arrives and
+ * {@link #onBodyParsed(GitHubRequestEvent)} when its body was read. An attempt may end with
+ * {@link #onRetry(GitHubRequestEvent)} or {@link #onRedirect(GitHubRequestEvent)} instead, after which the next attempt
+ * starts, and the request may end with {@link #onFailure(GitHubRequestEvent)} at any point.
+ * </p>
+ * <p>
+ * Methods are called on the thread sending the request, or the thread completing it for asynchronous requests, so they
+ * should return quickly. Exceptions they throw are logged and ignored. The default implementations do nothing.
+ * </p>
+ *
+ * @see GitHubBuilder#withRequestListener(GitHubRequestListener)
+ */
+public abstract class GitHubRequestListener {
+
+    /**
+     * Create default GitHubRequestListener instance
+     */
+    public GitHubRequestListener() {
+    }
+
+    /**
+     * Called once the body of the response was read. The duration is the time it took to parse it.
+     *
+     * @param event
+     *            the event
+     */
+    public void onBodyParsed(@Nonnull GitHubRequestEvent event) {
+    }
+
+    /**
+     * Called when the request fails, with the error it fails with.
+     *
+     * @param event
+     *            the event
+     */
+    public void onFailure(@Nonnull GitHubRequestEvent event) {
+    }
+
+    /**
+     * Called when the status and headers of the response arrived. The duration is the time the connector took.
+     *
+     * @param event
+     *            the event
+     */
+    public void onHeaders(@Nonnull GitHubRequestEvent event) {
+    }
+
+    /**
+     * Called once the rate limit checks let the request through. The duration is the time the request waited for
+     * the rate limit, the request scheduler and secondary rate limit pauses.
+     *
+     * @param event
+     *            the event
+     */
+    public void onRateLimitWait(@Nonnull GitHubRequestEvent event) {
+    }
+
+    /**
+     * Called when the response redirects the request, which is sent again to another URL.
+     *
+     * @param event
+     *            the event
+     */
+    public void onRedirect(@Nonnull GitHubRequestEvent event) {
+    }
+
+    /**
+     * Called when the request is going to be sent again, with the time it waits before and the error it is retried
+     * because of, if any.
+     *
+     * @param event
+     *            the event
+     */
+    public void onRetry(@Nonnull GitHubRequestEvent event) {
+    }
+
+    /**
+     * Called when the request is handed to the connector.
+     *
+     * @param event
+     *            the event
+     */
+    public void onSend(@Nonnull GitHubRequestEvent event) {
+    }
+
+    /**
+     * Called when the request starts, before anything else.
+     *
+     * @param event
+     *            the event
+     */
+    public void onStart(@Nonnull GitHubRequestEvent event) {
+    }
+}
@@ -0,0 +1,307 @@
+package org.kohsuke.github;
+
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Schedules requests by {@link RequestPriority}, so that background work sharing a credential does not starve the
+ * requests someone is waiting for.
+ * <p>
+ * A slice of the rate limit is reserved for {@link RequestPriority#HIGH} requests: {@link RequestPriority#BULK}
+ * requests wait for the reset once the remaining requests fall to the reserve, and {@link RequestPriority#NORMAL}
+ * requests once they fall to half of it. High priority requests are only held by the {@link RateLimitChecker}s and
+ * the rate limit handler, like any request without a scheduler.
+ * </p>
+ * <p>
+ * The scheduler can also limit the number of requests in flight, keeping some of them for high priority requests.
+ * When a request finishes, waiting requests are let through by priority, so bulk requests yield first. Requests stop
+ * waiting once their {@link RequestDeadline} passes or is cancelled.
+ * </p>
+ *
+ * @see GitHubBuilder#withRequestScheduler(GitHubRequestScheduler)
+ */
+public final class GitHubRequestScheduler {
+
+    private static final long QUOTA_POLL_MILLIS = 1000;
+
+    private int inFlight = 0;
+
+    private final Object lock = new Object();
+
+    private final int maximumConcurrency;
+
+    private final int reservedConcurrency;
+
+    private final double reservedQuota;
+
+    private final Map<RequestPriority, Deque<CompletableFuture<Void>>> waiters = new EnumMap<>(RequestPriority.class);
+
+    /**
+     * Creates a scheduler that reserves a slice of the rate limit, without limiting concurrency.
+     *
+     * @param reservedQuota
+     *            the fraction of the rate limit reserved for high priority requests, between {@code 0} and {@code 1}
+     */
+    public GitHubRequestScheduler(double reservedQuota) {
+        this(reservedQuota, Integer.MAX_VALUE, 0);
+    }
+
+    /**
+     * Creates a scheduler that reserves a slice of the rate limit and of the requests in flight.
+     *
+     * @param reservedQuota
+     *            the fraction of the rate limit reserved for high priority requests, between {@code 0} and {@code 1}
+     * @param maximumConcurrency
+     *            the number of requests allowed in flight, at least {@code 1}
+     * @param reservedConcurrency
+     *            how many of them only high priority requests may use, lower than {@code maximumConcurrency}
+     */
+    public GitHubRequestScheduler(double reservedQuota, int maximumConcurrency, int reservedConcurrency) {
+        if (reservedQuota < 0 || reservedQuota > 1) {
+            throw new IllegalArgumentException("Reserved quota must be between 0 and 1");
+        }
+        if (maximumConcurrency < 1) {
+            throw new IllegalArgumentException("Maximum concurrency must be at least 1");
+        }
+        if (reservedConcurrency < 0 || reservedConcurrency >= maximumConcurrency) {
+            throw new IllegalArgumentException("Reserved concurrency must be between 0 and the maximum concurrency");
+        }
+        this.reservedQuota = reservedQuota;
+        this.maximumConcurrency = maximumConcurrency;
+        this.reservedConcurrency = reservedConcurrency;
+        for (RequestPriority priority : RequestPriority.values()) {
+            waiters.put(priority, new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Gets the number of requests in flight.
+     *
+     * @return the number of requests holding a permit
+     */
+    public int getInFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    /**
+     * Gets the number of requests of a priority waiting to be sent.
+     *
+     * @param priority
+     *            the priority
+     * @return the number of waiting requests
+     */
+    public int getWaiting(@Nonnull RequestPriority priority) {
+        synchronized (lock) {
+            return waiters.get(priority).size();
+        }
+    }
+
+    private int capacity(RequestPriority priority) {
+        return priority == RequestPriority.HIGH ? maximumConcurrency : maximumConcurrency - reservedConcurrency;
+    }
+
+    /**
+     * Grants a permit right away if one is free for the priority and no request of the same or a higher priority is
+     * waiting, or adds a waiter to the queue of the priority. A waiter that is given up on leaves the queue.
+     */
+    private CompletableFuture<Void> enqueue(RequestPriority priority) {
+        CompletableFuture<Void> waiter;
+        synchronized (lock) {
+            boolean queued = false;
+            for (RequestPriority other : RequestPriority.values()) {
+                queued |= !waiters.get(other).isEmpty();
+                if (other == priority) {
+                    break;
+                }
+            }
+            if (!queued && inFlight < capacity(priority)) {
+                inFlight++;
+                return CompletableFuture.completedFuture(null);
+            }
+            waiter = new CompletableFuture<>();
+            waiters.get(priority).add(waiter);
+        }
+        waiter.whenComplete((permit, throwable) -> {
+            if (throwable != null) {
+                synchronized (lock) {
+                    waiters.get(priority).remove(waiter);
+                }
+            }
+        });
+        return waiter;
+    }
+
+    private void grantPermits() {
+        List<CompletableFuture<Void>> granted = new ArrayList<>();
+        synchronized (lock) {
+            for (RequestPriority priority : RequestPriority.values()) {
+                Deque<CompletableFuture<Void>> queue = waiters.get(priority);
+                while (!queue.isEmpty() && inFlight < capacity(priority)) {
+                    granted.add(queue.poll());
+                    inFlight++;
+                }
+                if (!queue.isEmpty()) {
+                    // lower priorities wait behind this one
+                    break;
+                }
+            }
+        }
+        for (CompletableFuture<Void> waiter : granted) {
+            if (!waiter.complete(null)) {
+                // the waiter gave up
+                release();
+            }
+        }
+    }
+
+    /**
+     * Waits for a permit to send a request.
+     *
+     * @param priority
+     *            the priority of the request
+     * @param request
+     *            the request, for its deadline
+     * @throws InterruptedIOException
+     *             if the thread was interrupted while waiting
+     * @throws RequestCancelledException
+     *             if the deadline of the request passed or was cancelled while waiting
+     */
+    void acquire(@Nonnull RequestPriority priority, @Nonnull GitHubConnectorRequest request)
+            throws InterruptedIOException, RequestCancelledException {
+        CompletableFuture<Void> permit = enqueue(priority);
+        try {
+            RequestDeadline.await(permit, request);
+        } catch (InterruptedException e) {
+            permit.cancel(false);
+            if (!permit.isCompletedExceptionally()) {
+                release();
+            }
+            throw (InterruptedIOException) new InterruptedIOException().initCause(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RequestCancelledException) {
+                throw (RequestCancelledException) e.getCause();
+            }
+            throw new IllegalStateException("Permits are only completed exceptionally when given up on", e);
+        }
+    }
+
+    /**
+     * Requests a permit to send a request.
+     *
+     * @param priority
+     *            the priority of the request
+     * @param request
+     *            the request, for its deadline
+     * @return a future that completes once the permit is granted, or with a {@link RequestCancelledException} if the
+     *         deadline of the request passes or is cancelled first
+     */
+    @Nonnull
+    CompletableFuture<Void> acquireAsync(@Nonnull RequestPriority priority, @Nonnull GitHubConnectorRequest request) {
+        return RequestDeadline.bound(enqueue(priority), request);
+    }
+
+    /**
+     * Waits until a request may use the rate limit, leaving the reserved slice to requests of higher priority.
+     *
+     * @param client
+     *            the client, to get the rate limit from
+     * @param request
+     *            the request, for its rate limit, priority and deadline
+     * @throws InterruptedIOException
+     *             if the thread was interrupted while waiting
+     * @throws RequestCancelledException
+     *             if the deadline of the request passed or was cancelled while waiting
+     */
+    void awaitQuota(@Nonnull GitHubClient client, @Nonnull GitHubRequest request)
+            throws InterruptedIOException, RequestCancelledException {
+        Duration wait = getQuotaWait(client, request);
+        while (!wait.isZero()) {
+            try {
+                Thread.sleep(wait.toMillis());
+            } catch (InterruptedException e) {
+                throw (InterruptedIOException) new InterruptedIOException().initCause(e);
+            }
+            wait = getQuotaWait(client, request);
+        }
+    }
+
+    /**
+     * Gets how long a request must wait before checking again whether it may use the rate limit, without waiting.
+     * <p>
+     * The wait ends at the reset, or earlier so that a renewed rate limit reported by other requests is noticed.
+     * </p>
+     *
+     * @param client
+     *            the client, to get the rate limit from
+     * @param request
+     *            the request, for its rate limit, priority and deadline
+     * @return the time to wait, zero if the request may use the rate limit now
+     * @throws RequestCancelledException
+     *             if the deadline of the request passed, was cancelled or is before the reset
+     */
+    @Nonnull
+    Duration getQuotaWait(@Nonnull GitHubClient client, @Nonnull GitHubRequest request)
+            throws RequestCancelledException {
+        RateLimitTarget rateLimitTarget = request.rateLimitTarget();
+        RequestPriority priority = request.priority();
+        if (priority == RequestPriority.HIGH || rateLimitTarget == RateLimitTarget.NONE || reservedQuota == 0) {
+            return Duration.ZERO;
+        }
+        // Only the rate limit reported by responses is used, an unknown or expired one does not hold requests
+        GHRateLimit.Record record = client.currentRateLimit().getRecord(rateLimitTarget);
+        if (record.isExpired() || hasQuota(record, priority)) {
+            return Duration.ZERO;
+        }
+        long untilReset = record.getResetInstant().toEpochMilli() - System.currentTimeMillis();
+        RequestDeadline deadline = request.deadline();
+        if (deadline != null) {
+            // the quota is only renewed at the reset, fail now if that is past the deadline
+            deadline.checkWait(Duration.ofMillis(Math.max(0, untilReset)), request.url());
+        }
+        return Duration.ofMillis(Math.max(1, Math.min(QUOTA_POLL_MILLIS, untilReset)));
+    }
+
+    /**
+     * Checks whether a request may use the rate limit.
+     *
+     * @param record
+     *            the current rate limit
+     * @param priority
+     *            the priority of the request
+     * @return {@code true} if more requests remain than are reserved for higher priorities
+     */
+    boolean hasQuota(@Nonnull GHRateLimit.Record record, @Nonnull RequestPriority priority) {
+        if (priority == RequestPriority.HIGH) {
+            return true;
+        }
+        double reserve = Math.ceil(record.getLimit() * reservedQuota);
+        if (priority == RequestPriority.NORMAL) {
+            reserve /= 2;
+        }
+        return record.getRemaining() > reserve;
+    }
+
+    /**
+     * Returns a permit after a request was sent.
+     */
+    void release() {
+        synchronized (lock) {
+            inFlight--;
+        }
+        grantPermits();
+    }
+}
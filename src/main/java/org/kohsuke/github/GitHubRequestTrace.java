@@ -0,0 +1,330 @@
+package org.kohsuke.github;
+
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.net.URL;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.logging.Logger;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import static java.util.logging.Level.WARNING;
+
+/**
+ * Follows a request through its attempts, giving it an id for the logs, reporting its steps to a
+ * {@link GitHubRequestListener}, if there is one, and recording it as a {@link GitHubRequestFlightEvent} while the JDK
+ * Flight Recorder records it.
+ * <p>
+ * The events of a request happen one after the other, but the steps of an asynchronous request may run on different
+ * threads, so the state is guarded by the trace.
+ * </p>
+ */
+final class GitHubRequestTrace {
+
+    /**
+     * The steps of a request, with the listener method reporting them.
+     */
+    private enum Step {
+        START(GitHubRequestListener::onStart),
+        RATE_LIMIT_WAIT(GitHubRequestListener::onRateLimitWait),
+        SEND(GitHubRequestListener::onSend),
+        HEADERS(GitHubRequestListener::onHeaders),
+        BODY_PARSED(GitHubRequestListener::onBodyParsed),
+        RETRY(GitHubRequestListener::onRetry),
+        REDIRECT(GitHubRequestListener::onRedirect),
+        FAILURE(GitHubRequestListener::onFailure);
+
+        private final BiConsumer<GitHubRequestListener, GitHubRequestEvent> callback;
+
+        Step(BiConsumer<GitHubRequestListener, GitHubRequestEvent> callback) {
+            this.callback = callback;
+        }
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(GitHubRequestTrace.class.getName());
+
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    private static final String RATE_LIMIT_HEADER_PREFIX = "x-ratelimit-";
+
+    private static Map<String, String> rateLimitHeaders(@Nonnull GitHubConnectorResponse connectorResponse) {
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, List<String>> header : connectorResponse.allHeaders().entrySet()) {
+            String name = header.getKey();
+            if (name != null
+                    && name.regionMatches(true, 0, RATE_LIMIT_HEADER_PREFIX, 0, RATE_LIMIT_HEADER_PREFIX.length())
+                    && !header.getValue().isEmpty()) {
+                headers.put(name, header.getValue().get(0));
+            }
+        }
+        return headers.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(headers);
+    }
+
+    private int attempt = 0;
+
+    private long bodyBytes = -1;
+
+    @CheckForNull
+    private GitHubRequestFlightEvent flightEvent;
+
+    private final long id = NEXT_ID.incrementAndGet();
+
+    private long lastNanos;
+
+    @CheckForNull
+    private final GitHubRequestListener listener;
+
+    @Nonnull
+    private String method;
+
+    private long networkNanos = 0;
+
+    private long parseNanos = 0;
+
+    @Nonnull
+    private Map<String, String> rateLimitHeaders = Collections.emptyMap();
+
+    private long rateLimitWaitNanos = 0;
+
+    // whether the steps are reported or timed at all
+    private final boolean traced;
+
+    private final long startNanos;
+
+    private int statusCode = -1;
+
+    @Nonnull
+    private URL url;
+
+    @CheckForNull
+    private String urlTemplate;
+
+    /**
+     * Starts the trace of a request.
+     *
+     * @param listener
+     *            the listener to report to, or {@code null} to only give the request an id
+     * @param request
+     *            the request
+     */
+    GitHubRequestTrace(@CheckForNull GitHubRequestListener listener, @Nonnull GitHubRequest request) {
+        this.listener = listener;
+        this.flightEvent = GitHubFlightRecorder.beginRequest();
+        this.traced = listener != null || flightEvent != null;
+        this.method = request.method();
+        this.url = request.url();
+        this.startNanos = System.nanoTime();
+        this.lastNanos = startNanos;
+    }
+
+    /**
+     * Gets the id of the request, for the logs.
+     *
+     * @return the id, unique within the process
+     */
+    @Nonnull
+    String getId() {
+        return Long.toHexString(id);
+    }
+
+    /**
+     * Starts an attempt to send the request.
+     *
+     * @param connectorRequest
+     *            the request to send, which changes with redirects
+     */
+    synchronized void attempt(@Nonnull GitHubConnectorRequest connectorRequest) {
+        attempt++;
+        statusCode = -1;
+        rateLimitHeaders = Collections.emptyMap();
+        bodyBytes = -1;
+        if (!connectorRequest.url().equals(url)) {
+            url = connectorRequest.url();
+            urlTemplate = null;
+        }
+        method = connectorRequest.method();
+    }
+
+    /**
+     * Reports that the body of the response was parsed.
+     *
+     * @param connectorResponse
+     *            the response
+     */
+    void bodyParsed(@Nonnull GitHubConnectorResponse connectorResponse) {
+        if (!traced) {
+            return;
+        }
+        synchronized (this) {
+            bodyBytes = connectorResponse.bodyBytesRead();
+        }
+        fire(Step.BODY_PARSED, null, null);
+        commitFlightEvent(null);
+    }
+
+    /**
+     * Reports that the request failed.
+     *
+     * @param error
+     *            the error the request fails with
+     */
+    void failure(@Nonnull Throwable error) {
+        if (!traced) {
+            return;
+        }
+        synchronized (this) {
+            if (statusCode == -1 && error instanceof HttpException) {
+                statusCode = ((HttpException) error).getResponseCode();
+            }
+        }
+        fire(Step.FAILURE, null, error);
+        commitFlightEvent(error);
+    }
+
+    /**
+     * Reports that the response arrived.
+     *
+     * @param connectorResponse
+     *            the response
+     */
+    void headers(@Nonnull GitHubConnectorResponse connectorResponse) {
+        if (!traced) {
+            return;
+        }
+        synchronized (this) {
+            statusCode = connectorResponse.statusCode();
+            rateLimitHeaders = rateLimitHeaders(connectorResponse);
+        }
+        fire(Step.HEADERS, null, null);
+    }
+
+    /**
+     * Reports that the rate limit checks let the request through.
+     */
+    void rateLimitWait() {
+        fire(Step.RATE_LIMIT_WAIT, null, null);
+    }
+
+    /**
+     * Reports that the request is redirected.
+     */
+    void redirect() {
+        fire(Step.REDIRECT, null, null);
+    }
+
+    /**
+     * Reports that the request is going to be sent again.
+     *
+     * @param delay
+     *            the time to wait before
+     * @param cause
+     *            the error the request is retried because of, if any
+     */
+    void retry(@Nonnull Duration delay, @CheckForNull Throwable cause) {
+        fire(Step.RETRY, delay, cause);
+    }
+
+    /**
+     * Reports that the request is handed to the connector.
+     */
+    void send() {
+        fire(Step.SEND, null, null);
+    }
+
+    /**
+     * Reports that the request started.
+     */
+    void start() {
+        fire(Step.START, null, null);
+    }
+
+    private void commitFlightEvent(@CheckForNull Throwable error) {
+        GitHubRequestFlightEvent event;
+        synchronized (this) {
+            event = flightEvent;
+            // a request is only recorded once
+            flightEvent = null;
+            if (event == null) {
+                return;
+            }
+            event.end();
+            if (!event.shouldCommit()) {
+                return;
+            }
+            event.method = method;
+            event.url = url.toString();
+            event.urlTemplate = urlTemplate;
+            event.statusCode = statusCode;
+            event.bodyBytes = bodyBytes;
+            event.rateLimitRemaining = parseRateLimitRemaining();
+            event.retries = attempt - 1;
+            event.rateLimitWait = rateLimitWaitNanos;
+            event.networkTime = networkNanos;
+            event.parseTime = parseNanos;
+            event.error = error == null ? null : error.toString();
+        }
+        event.commit();
+    }
+
+    private void fire(@Nonnull Step step, @CheckForNull Duration retryDelay, @CheckForNull Throwable error) {
+        if (!traced) {
+            return;
+        }
+        GitHubRequestEvent event;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long duration = now - lastNanos;
+            lastNanos = now;
+            if (step == Step.RATE_LIMIT_WAIT) {
+                rateLimitWaitNanos += duration;
+            } else if (step == Step.HEADERS) {
+                networkNanos += duration;
+            } else if (step == Step.BODY_PARSED) {
+                parseNanos += duration;
+            }
+            if (urlTemplate == null) {
+                urlTemplate = GitHubUrlTemplate.of(url.getPath());
+            }
+            if (listener == null) {
+                return;
+            }
+            event = new GitHubRequestEvent(id,
+                    attempt,
+                    method,
+                    url,
+                    urlTemplate,
+                    now - startNanos,
+                    duration,
+                    statusCode,
+                    rateLimitHeaders,
+                    bodyBytes,
+                    retryDelay,
+                    error);
+        }
+        try {
+            step.callback.accept(listener, event);
+        } catch (RuntimeException e) {
+            LOGGER.log(WARNING, "Request listener failed", e);
+        }
+    }
+
+    private int parseRateLimitRemaining() {
+        String remaining = rateLimitHeaders.get("X-RateLimit-Remaining");
+        if (remaining == null) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(remaining.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
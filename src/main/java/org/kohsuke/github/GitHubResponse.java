@@ -1,7 +1,6 @@
 package org.kohsuke.github;
 
 import com.fasterxml.jackson.core.JsonParseException;
-import com.fasterxml.jackson.databind.InjectableValues;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import org.apache.commons.io.IOUtils;
 import org.kohsuke.github.connector.GitHubConnectorResponse;
@@ -35,6 +34,31 @@ class GitHubResponse<T> {
 
     private static final Logger LOGGER = Logger.getLogger(GitHubResponse.class.getName());
 
+    /**
+     * Logs the body of a response that could not be deserialized.
+     *
+     * The body text is only available if the response was rereadable when it was parsed, which is the case for error
+     * responses and whenever {@link Level#FINE} logging is enabled.
+     */
+    private static void logDeserializationFailure(GitHubConnectorResponse connectorResponse) {
+        LOGGER.log(Level.FINE, () -> {
+            String data = connectorResponse.isBodyStreamRereadable()
+                    ? getBodyAsStringOrNull(connectorResponse)
+                    : "(response body not retained)";
+            return "Failed to deserialize: " + data;
+        });
+    }
+
+    /**
+     * Response bodies are streamed straight into the parser. Only keep a copy of the raw body text when it could be
+     * logged after a parsing failure.
+     */
+    private static void retainBodyForLogging(GitHubConnectorResponse connectorResponse) {
+        if (LOGGER.isLoggable(Level.FINE)) {
+            connectorResponse.setBodyStreamRereadable();
+        }
+    }
+
     /**
      * Gets the body of the response as a {@link String}.
      *
@@ -93,15 +117,11 @@ class GitHubResponse<T> {
             }
         }
 
-        String data = getBodyAsString(connectorResponse);
-        try {
-            InjectableValues.Std inject = new InjectableValues.Std();
-            inject.addValue(GitHubConnectorResponse.class, connectorResponse);
-
-            return GitHubClient.getMappingObjectReader(connectorResponse).forType(type).readValue(data);
+        retainBodyForLogging(connectorResponse);
+        try (InputStream inputStream = connectorResponse.bodyStream()) {
+            return GitHubClient.getMappingObjectReader(connectorResponse, type).readValue(inputStream);
         } catch (JsonMappingException | JsonParseException e) {
-            String message = "Failed to deserialize: " + data;
-            LOGGER.log(Level.FINE, message);
+            logDeserializationFailure(connectorResponse);
             throw e;
         }
     }
@@ -122,12 +142,13 @@ class GitHubResponse<T> {
     @CheckForNull
     static <T> T parseBody(GitHubConnectorResponse connectorResponse, T instance) throws IOException {
 
-        String data = getBodyAsString(connectorResponse);
-        try {
-            return GitHubClient.getMappingObjectReader(connectorResponse).withValueToUpdate(instance).readValue(data);
+        retainBodyForLogging(connectorResponse);
+        try (InputStream inputStream = connectorResponse.bodyStream()) {
+            return GitHubClient.getMappingObjectReader(connectorResponse)
+                    .withValueToUpdate(instance)
+                    .readValue(inputStream);
         } catch (JsonMappingException | JsonParseException e) {
-            String message = "Failed to deserialize: " + data;
-            LOGGER.log(Level.FINE, message);
+            logDeserializationFailure(connectorResponse);
             throw e;
         }
     }
@@ -0,0 +1,220 @@
+package org.kohsuke.github;
+
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Retries requests that failed for reasons expected to be transient: connection errors, and {@code 502 Bad Gateway},
+ * {@code 503 Service Unavailable} and {@code 504 Gateway Timeout} responses to idempotent requests.
+ * <p>
+ * Retries are delayed with exponential backoff and full jitter: before retry {@code n} the request waits a random time
+ * between zero and {@code min(maximumDelay, baseDelay * 2^n)}, so that clients failing at the same time do not retry
+ * at the same time. Requests that may have reached the server are only retried if their method is idempotent, a
+ * connection that could not be established is retried whatever the method.
+ * </p>
+ * <p>
+ * A retry budget keeps retries from multiplying the load on a server that is already failing. Each request adds
+ * {@code retryBudgetRatio} to the budget and each retry takes one from it, so that over time no more than that
+ * fraction of the requests is retried. The budget holds up to {@value #BUDGET_CAPACITY} retries, which lets a few
+ * retries through before any request was made. When the budget is spent, failures are reported right away. One policy
+ * can be passed to the builders of several {@link GitHub} instances, so that they share the budget.
+ * </p>
+ *
+ * @see GitHubBuilder#withRetryPolicy(GitHubRetryPolicy)
+ */
+public final class GitHubRetryPolicy {
+
+    /** The number of retries the budget starts with and can hold. */
+    public static final int BUDGET_CAPACITY = 10;
+
+    private static boolean isIdempotent(@Nonnull String method) {
+        switch (method) {
+            case "GET" :
+            case "HEAD" :
+            case "OPTIONS" :
+            case "PUT" :
+            case "DELETE" :
+                return true;
+            default :
+                return false;
+        }
+    }
+
+    private final Duration baseDelay;
+
+    private double budget = BUDGET_CAPACITY;
+
+    private final Object lock = new Object();
+
+    private final Duration maximumDelay;
+
+    private final int maximumRetries;
+
+    private final double retryBudgetRatio;
+
+    /**
+     * Creates a retry policy.
+     *
+     * @param maximumRetries
+     *            the number of times a request is retried at most, at least {@code 0}
+     * @param baseDelay
+     *            the upper bound of the delay before the first retry, doubled for each further retry
+     * @param maximumDelay
+     *            the highest upper bound of the delay, not shorter than {@code baseDelay}
+     * @param retryBudgetRatio
+     *            the fraction of the requests that may be retried, between {@code 0} and {@code 1}
+     */
+    public GitHubRetryPolicy(int maximumRetries,
+            @Nonnull Duration baseDelay,
+            @Nonnull Duration maximumDelay,
+            double retryBudgetRatio) {
+        if (maximumRetries < 0) {
+            throw new IllegalArgumentException("Maximum retries must not be negative");
+        }
+        if (baseDelay.isNegative() || maximumDelay.compareTo(baseDelay) < 0) {
+            throw new IllegalArgumentException("Delays must not be negative and the maximum not below the base");
+        }
+        if (retryBudgetRatio < 0 || retryBudgetRatio > 1) {
+            throw new IllegalArgumentException("Retry budget ratio must be between 0 and 1");
+        }
+        this.maximumRetries = maximumRetries;
+        this.baseDelay = baseDelay;
+        this.maximumDelay = maximumDelay;
+        this.retryBudgetRatio = retryBudgetRatio;
+    }
+
+    /**
+     * Gets the number of retries left in the budget.
+     *
+     * @return the number of retries that may be made before more requests are sent
+     */
+    public int getAvailableRetries() {
+        synchronized (lock) {
+            return (int) budget;
+        }
+    }
+
+    /**
+     * Gets the upper bound of the delay before the first retry.
+     *
+     * @return the base delay
+     */
+    @Nonnull
+    public Duration getBaseDelay() {
+        return baseDelay;
+    }
+
+    /**
+     * Gets the highest upper bound of the delay before a retry.
+     *
+     * @return the maximum delay
+     */
+    @Nonnull
+    public Duration getMaximumDelay() {
+        return maximumDelay;
+    }
+
+    /**
+     * Gets the number of times a request is retried at most.
+     *
+     * @return the maximum number of retries
+     */
+    public int getMaximumRetries() {
+        return maximumRetries;
+    }
+
+    /**
+     * Gets the fraction of the requests that may be retried.
+     *
+     * @return the retry budget ratio
+     */
+    public double getRetryBudgetRatio() {
+        return retryBudgetRatio;
+    }
+
+    /**
+     * Takes a retry from the budget.
+     *
+     * @return {@code true} if the budget allowed the retry
+     */
+    boolean acquireRetry() {
+        synchronized (lock) {
+            if (budget < 1) {
+                return false;
+            }
+            budget--;
+            return true;
+        }
+    }
+
+    /**
+     * Picks the delay before a retry.
+     *
+     * @param retry
+     *            the number of retries already made for the request
+     * @return a random delay between zero and the backoff for the retry
+     */
+    @Nonnull
+    Duration backoff(int retry) {
+        long baseMillis = baseDelay.toMillis();
+        long ceilingMillis = maximumDelay.toMillis();
+        // stop doubling once the maximum is reached, so that the shift cannot overflow
+        for (int i = 0; i < retry && baseMillis < ceilingMillis; i++) {
+            baseMillis <<= 1;
+        }
+        ceilingMillis = Math.min(ceilingMillis, baseMillis);
+        return Duration.ofMillis(ceilingMillis <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceilingMillis + 1));
+    }
+
+    /**
+     * Checks whether a request that failed to complete should be retried.
+     *
+     * @param connectorRequest
+     *            the request
+     * @param e
+     *            the error
+     * @return {@code true} for connection errors, unless the request is not idempotent and may have reached the server
+     */
+    boolean isRetryable(@Nonnull GitHubConnectorRequest connectorRequest, @Nonnull IOException e) {
+        if (e instanceof ConnectException || e instanceof HttpConnectTimeoutException
+                || e instanceof UnknownHostException) {
+            // the request was never sent
+            return true;
+        }
+        return (e instanceof SocketException || e instanceof SocketTimeoutException)
+                && isIdempotent(connectorRequest.method());
+    }
+
+    /**
+     * Checks whether a request should be retried because of its response.
+     *
+     * @param connectorResponse
+     *            the response
+     * @return {@code true} for {@code 502}, {@code 503} and {@code 504} responses to idempotent requests
+     */
+    boolean isRetryable(@Nonnull GitHubConnectorResponse connectorResponse) {
+        int statusCode = connectorResponse.statusCode();
+        return (statusCode == 502 || statusCode == 503 || statusCode == 504)
+                && isIdempotent(connectorResponse.request().method());
+    }
+
+    /**
+     * Adds a request to the budget.
+     */
+    void recordRequest() {
+        synchronized (lock) {
+            budget = Math.min(BUDGET_CAPACITY, budget + retryBudgetRatio);
+        }
+    }
+}
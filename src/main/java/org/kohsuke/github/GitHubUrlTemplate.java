@@ -0,0 +1,135 @@
+package org.kohsuke.github;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Turns the path of a request into the template of its endpoint, such as {@code /repos/{owner}/{repo}/pulls}, so that
+ * requests for different resources of the same endpoint can be grouped.
+ * <p>
+ * The paths are built by concatenation, so the template is guessed from the path: the segments following the
+ * collections known to be keyed by name are replaced by parameters, as are numbers and commit SHAs. Unknown names are
+ * kept as they are.
+ * </p>
+ */
+final class GitHubUrlTemplate {
+
+    /** Collections followed by the names of their items, with the parameters the names stand for. */
+    private static final Map<String, String[]> NAMED = new HashMap<>();
+
+    /** Collections followed by the numbers of their items, with the parameter the numbers stand for. */
+    private static final Map<String, String> NUMBERED = new HashMap<>();
+
+    /** Collections followed by a name that may contain slashes, which takes the rest of the path. */
+    private static final Map<String, String> REST = new HashMap<>();
+
+    static {
+        NAMED.put("repos", new String[] { "{owner}", "{repo}" });
+        NAMED.put("users", new String[] { "{username}" });
+        NAMED.put("orgs", new String[] { "{org}" });
+        NAMED.put("enterprises", new String[] { "{enterprise}" });
+        NAMED.put("teams", new String[] { "{team_slug}" });
+        NAMED.put("members", new String[] { "{username}" });
+        NAMED.put("collaborators", new String[] { "{username}" });
+        NAMED.put("assignees", new String[] { "{assignee}" });
+        NAMED.put("following", new String[] { "{username}" });
+        NAMED.put("gists", new String[] { "{gist_id}" });
+        NAMED.put("branches", new String[] { "{branch}" });
+        NAMED.put("labels", new String[] { "{name}" });
+        NAMED.put("tags", new String[] { "{tag}" });
+        NAMED.put("commits", new String[] { "{sha}" });
+        NAMED.put("blobs", new String[] { "{sha}" });
+        NAMED.put("trees", new String[] { "{sha}" });
+        NAMED.put("compare", new String[] { "{basehead}" });
+        NAMED.put("environments", new String[] { "{environment_name}" });
+        NAMED.put("workflows", new String[] { "{workflow_id}" });
+        NAMED.put("packages", new String[] { "{package_type}", "{package_name}" });
+
+        NUMBERED.put("pulls", "{pull_number}");
+        NUMBERED.put("issues", "{issue_number}");
+        NUMBERED.put("milestones", "{milestone_number}");
+        NUMBERED.put("comments", "{comment_id}");
+        NUMBERED.put("releases", "{release_id}");
+        NUMBERED.put("hooks", "{hook_id}");
+        NUMBERED.put("deployments", "{deployment_id}");
+        NUMBERED.put("installations", "{installation_id}");
+        NUMBERED.put("runs", "{run_id}");
+        NUMBERED.put("jobs", "{job_id}");
+        NUMBERED.put("artifacts", "{artifact_id}");
+        NUMBERED.put("check-runs", "{check_run_id}");
+        NUMBERED.put("check-suites", "{check_suite_id}");
+
+        REST.put("contents", "{path}");
+        REST.put("ref", "{ref}");
+        REST.put("refs", "{ref}");
+    }
+
+    /**
+     * Gets the template of the endpoint a path belongs to.
+     *
+     * @param path
+     *            the path of the request, without the query
+     * @return the template
+     */
+    @Nonnull
+    static String of(@Nonnull String path) {
+        String[] segments = path.split("/", -1);
+        StringBuilder template = new StringBuilder(path.length());
+        for (int i = 1; i < segments.length; i++) {
+            String segment = segments[i];
+            template.append('/');
+            String rest = REST.get(segment);
+            String[] named = NAMED.get(segment);
+            String numbered = NUMBERED.get(segment);
+            if (rest != null && i + 1 < segments.length) {
+                template.append(segment).append('/').append(rest);
+                break;
+            } else if (named != null) {
+                template.append(segment);
+                for (int j = 0; j < named.length && i + 1 < segments.length; j++) {
+                    template.append('/').append(named[j]);
+                    i++;
+                }
+            } else if (numbered != null && i + 1 < segments.length && isNumber(segments[i + 1])) {
+                template.append(segment).append('/').append(numbered);
+                i++;
+            } else if (isNumber(segment)) {
+                template.append("{id}");
+            } else if (isSha(segment)) {
+                template.append("{sha}");
+            } else {
+                template.append(segment);
+            }
+        }
+        return template.length() == 0 ? "/" : template.toString();
+    }
+
+    private static boolean isNumber(String segment) {
+        if (segment.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < segment.length(); i++) {
+            if (!Character.isDigit(segment.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSha(String segment) {
+        if (segment.length() != 40) {
+            return false;
+        }
+        for (int i = 0; i < segment.length(); i++) {
+            if (Character.digit(segment.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private GitHubUrlTemplate() {
+    }
+}
@@ -9,6 +9,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 
 // TODO: Auto-generated Javadoc
@@ -21,11 +22,22 @@ import javax.annotation.Nonnull;
  *            the type of items on each page
  */
 public abstract class PagedIterable<T> implements Iterable<T> {
+    /**
+     * Deadline of the requests for all pages. {@code null} is default (none).
+     */
+    @CheckForNull
+    private RequestDeadline deadline;
+
     /**
      * Page size. 0 is default.
      */
     private int pageSize = 0;
 
+    /**
+     * Number of pages to request ahead of the page being consumed. 0 is default (no prefetching).
+     */
+    private int prefetchDepth = 0;
+
     /**
      * Instantiate a PagedIterable.
      */
@@ -76,6 +88,32 @@ public abstract class PagedIterable<T> implements Iterable<T> {
         return Collections.unmodifiableList(Arrays.asList(this.toArray()));
     }
 
+    /**
+     * Eagerly retrieve all items, requesting several pages at the same time where possible, and return the result in
+     * a list.
+     *
+     * <p>
+     * For listings whose pages are numbered, the number of pages is known once the first page has been retrieved. The
+     * remaining pages are then requested with up to {@code concurrency} requests in flight and reassembled in order.
+     * Listings that cannot be retrieved this way are walked one page at a time, the same as {@link #toList()}.
+     *
+     * <p>
+     * As with {@link #toList()}, if the listing changes while it is being retrieved, items may be missing or repeated.
+     *
+     * @param concurrency
+     *            the maximum number of requests in flight at the same time
+     * @return the list
+     * @throws IOException
+     *             if an I/O Exception occurs
+     */
+    @Nonnull
+    public List<T> toListParallel(int concurrency) throws IOException {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be at least 1");
+        }
+        return toList();
+    }
+
     /**
      * Eagerly walk {@link Iterable} and return the result in a set.
      *
@@ -88,6 +126,23 @@ public abstract class PagedIterable<T> implements Iterable<T> {
         return Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(this.toArray())));
     }
 
+    /**
+     * Sets the deadline of the requests for all pages.
+     *
+     * <p>
+     * Once the deadline has passed or was cancelled, iterators fail to request more pages with a
+     * {@link RequestCancelledException} wrapped in a {@link GHException}. This overrides the deadline of the
+     * {@link RequestDeadline#enter() scope} this iterable was created in.
+     *
+     * @param deadline
+     *            the deadline
+     * @return the paged iterable
+     */
+    public PagedIterable<T> withDeadline(@Nonnull RequestDeadline deadline) {
+        this.deadline = deadline;
+        return this;
+    }
+
     /**
      * Sets the pagination size.
      *
@@ -103,6 +158,27 @@ public abstract class PagedIterable<T> implements Iterable<T> {
         return this;
     }
 
+    /**
+     * Enables background prefetching of following pages.
+     *
+     * <p>
+     * When set to non-zero, iterators request up to this many following pages while the caller is still processing
+     * the current page, instead of requesting each page only after the previous one has been consumed. The rate limit
+     * checker is consulted before each prefetch request. Pages that are prefetched but never consumed still count
+     * against the rate limit, so keep this small.
+     *
+     * @param depth
+     *            the number of pages to request ahead, {@code 0} to disable prefetching
+     * @return the paged iterable
+     */
+    public PagedIterable<T> withPrefetch(int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Prefetch depth must not be negative");
+        }
+        this.prefetchDepth = depth;
+        return this;
+    }
+
     /**
      * Concatenates a list of arrays into a single array.
      *
@@ -162,4 +238,33 @@ public abstract class PagedIterable<T> implements Iterable<T> {
         }
     }
 
+    /**
+     * Sets the deadline of this iterable on the request for the first page, which the requests for the following
+     * pages are built from.
+     *
+     * @param request
+     *            the request for the first page
+     * @return the request with the deadline of this iterable, or the same request if none was set
+     */
+    GitHubRequest applyDeadline(GitHubRequest request) {
+        return deadline == null ? request : request.toBuilder().deadline(deadline).build();
+    }
+
+    /**
+     * Gets the pagination size.
+     *
+     * @return the page size, {@code 0} for the server default
+     */
+    int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Gets the number of pages iterators should request ahead of the page being consumed.
+     *
+     * @return the prefetch depth, {@code 0} if prefetching is disabled
+     */
+    int getPrefetchDepth() {
+        return prefetchDepth;
+    }
 }
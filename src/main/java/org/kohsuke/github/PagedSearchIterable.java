@@ -57,7 +57,8 @@ public class PagedSearchIterable<T> extends PagedIterable<T> {
     @Override
     public PagedIterator<T> _iterator(int pageSize) {
         final Iterator<T[]> adapter = adapt(
-                GitHubPageIterator.create(root.getClient(), receiverType, request, pageSize));
+                GitHubPageIterator
+                        .create(root.getClient(), receiverType, applyDeadline(request), pageSize, getPrefetchDepth()));
         return new PagedIterator<T>(adapter, null);
     }
 
@@ -81,6 +82,18 @@ public class PagedSearchIterable<T> extends PagedIterable<T> {
         return result.incompleteResults;
     }
 
+    /**
+     * With deadline paged search iterable.
+     *
+     * @param deadline
+     *            the deadline
+     * @return the paged search iterable
+     */
+    @Override
+    public PagedSearchIterable<T> withDeadline(@Nonnull RequestDeadline deadline) {
+        return (PagedSearchIterable<T>) super.withDeadline(deadline);
+    }
+
     /**
      * With page size.
      *
@@ -93,6 +106,18 @@ public class PagedSearchIterable<T> extends PagedIterable<T> {
         return (PagedSearchIterable<T>) super.withPageSize(size);
     }
 
+    /**
+     * With prefetch paged search iterable.
+     *
+     * @param depth
+     *            the depth
+     * @return the paged search iterable
+     */
+    @Override
+    public PagedSearchIterable<T> withPrefetch(int depth) {
+        return (PagedSearchIterable<T>) super.withPrefetch(depth);
+    }
+
     private void populate() {
         if (result == null)
             iterator().hasNext();
@@ -1,9 +1,13 @@
 package org.kohsuke.github;
 
+import java.time.Duration;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.annotation.CheckForNull;
+
 // TODO: Auto-generated Javadoc
 /**
  * A GitHub API Rate Limit Checker called before each request
@@ -62,6 +66,234 @@ public abstract class RateLimitChecker {
             return false;
         }
 
+        /**
+         * Gets the time to wait for the reset if the remaining requests are at or below the limit.
+         *
+         * @param record
+         *            the record
+         * @return the time to wait
+         */
+        @Override
+        protected Duration getWaitTime(GHRateLimit.Record record) {
+            if (record.getRemaining() <= sleepAtOrBelow) {
+                return getTimeUntilReset(record);
+            }
+            return Duration.ZERO;
+        }
+
+    }
+
+    /**
+     * A {@link RateLimitChecker} that spreads the remaining requests over the time left until the rate limit resets.
+     * <p>
+     * Instead of letting requests run at full speed until the quota is exhausted and then stopping until the reset,
+     * requests are delayed so that the remaining quota lasts until the reset. All threads sending requests through the
+     * same checker share one token bucket: up to {@code burst} requests may be sent at once after an idle period, and
+     * beyond that requests are spaced evenly at the allowed rate.
+     * </p>
+     * <p>
+     * The allowed rate is computed by {@link #getAllowedRate(GHRateLimit.Record, Duration)}, which spends the quota
+     * evenly by default. Override it to spend the quota following a different curve. When no more than
+     * {@code reserve} requests remain, requests wait until the rate limit resets, as with {@link LiteralValue}.
+     * </p>
+     */
+    public static class Pacing extends RateLimitChecker {
+        private final int burst;
+
+        private boolean hasNextSlot = false;
+
+        private long nextSlotNanos;
+
+        private final int reserve;
+
+        private final TimeSource time;
+
+        /**
+         * Instantiates a pacing checker that uses the whole quota and allows bursts of ten requests.
+         */
+        public Pacing() {
+            this(0, 10);
+        }
+
+        /**
+         * Instantiates a pacing checker.
+         *
+         * @param reserve
+         *            the number of requests kept back from pacing. Requests wait for the reset once no more than this
+         *            number of requests remain.
+         * @param burst
+         *            the number of requests that may be sent at once after an idle period
+         */
+        public Pacing(int reserve, int burst) {
+            this(reserve, burst, TimeSource.SYSTEM);
+        }
+
+        /**
+         * Instantiates a pacing checker with another source of time.
+         *
+         * @param reserve
+         *            the number of requests kept back from pacing
+         * @param burst
+         *            the number of requests that may be sent at once after an idle period
+         * @param time
+         *            the source of time
+         */
+        Pacing(int reserve, int burst, TimeSource time) {
+            if (reserve < 0) {
+                throw new IllegalArgumentException("Reserve must not be negative");
+            }
+            if (burst < 1) {
+                throw new IllegalArgumentException("Burst must be at least 1");
+            }
+            this.reserve = reserve;
+            this.burst = burst;
+            this.time = time;
+        }
+
+        /**
+         * Waits for the next request slot. Only returns {@code true} if it waited for the rate limit to reset.
+         *
+         * @param record
+         *            the record
+         * @param count
+         *            the count
+         * @return true, if it waited for the rate limit to reset
+         * @throws InterruptedException
+         *             the interrupted exception
+         */
+        @Override
+        protected boolean checkRateLimit(GHRateLimit.Record record, long count) throws InterruptedException {
+            long waitNanos = nextSlot(record, true);
+            if (waitNanos < 0) {
+                return sleepUntilReset(record);
+            }
+            if (waitNanos > 0) {
+                time.sleep(waitNanos);
+            }
+            return false;
+        }
+
+        /**
+         * Gets the time to wait for the next request slot, or for the reset once the quota is used up.
+         *
+         * @param record
+         *            the record
+         * @return the time to wait
+         */
+        @Override
+        protected Duration getWaitTime(GHRateLimit.Record record) {
+            long waitNanos = nextSlot(record, true);
+            return waitNanos < 0 ? getTimeUntilReset(record) : Duration.ofNanos(waitNanos);
+        }
+
+        /**
+         * Gets the time to wait for the next request slot, or for the reset once the quota is used up, without taking
+         * the slot.
+         *
+         * @param record
+         *            the record
+         * @return the time to wait
+         */
+        @Override
+        protected Duration peekWaitTime(GHRateLimit.Record record) {
+            long waitNanos = nextSlot(record, false);
+            return waitNanos < 0 ? getTimeUntilReset(record) : Duration.ofNanos(waitNanos);
+        }
+
+        /**
+         * Finds the next request slot.
+         *
+         * @param take
+         *            whether to take the slot, so that the following request gets the slot after it
+         * @return the nanoseconds to wait for the slot, or {@code -1} if requests must wait for the reset
+         */
+        private long nextSlot(GHRateLimit.Record record, boolean take) {
+            if (record.getRemaining() <= reserve) {
+                return -1;
+            }
+            long millisToReset = record.getResetInstant().toEpochMilli() - time.currentTimeMillis();
+            if (millisToReset <= 0) {
+                // the quota has already been renewed
+                return 0;
+            }
+            double rate = getAllowedRate(record, Duration.ofMillis(millisToReset));
+            if (!(rate > 0)) {
+                return -1;
+            }
+
+            long intervalNanos = (long) Math.min(Long.MAX_VALUE / (2L * burst), TimeUnit.SECONDS.toNanos(1) / rate);
+            long waitNanos;
+            synchronized (this) {
+                long now = time.nanoTime();
+                // an idle bucket fills up to the burst size
+                long earliestSlot = now - intervalNanos * (burst - 1);
+                long slot = !hasNextSlot || nextSlotNanos - earliestSlot < 0 ? earliestSlot : nextSlotNanos;
+                if (take) {
+                    nextSlotNanos = slot + intervalNanos;
+                    hasNextSlot = true;
+                }
+                waitNanos = slot - now;
+            }
+            // never wait past the reset, the quota is renewed then
+            return Math.max(0, Math.min(waitNanos, TimeUnit.MILLISECONDS.toNanos(millisToReset)));
+        }
+
+        /**
+         * Gets the number of requests per second allowed until the rate limit resets.
+         * <p>
+         * The default implementation spends the requests above the reserve evenly over the time left. Subclasses can
+         * override this method to spend them following another curve, for example faster at the beginning of the rate
+         * limit window. Returning zero or less makes requests wait until the rate limit resets.
+         * </p>
+         *
+         * @param record
+         *            the current rate limit record
+         * @param timeToReset
+         *            the time left until the rate limit resets, always positive
+         * @return the allowed number of requests per second
+         */
+        protected double getAllowedRate(GHRateLimit.Record record, Duration timeToReset) {
+            return (record.getRemaining() - reserve) * 1000.0 / timeToReset.toMillis();
+        }
+    }
+
+    /**
+     * The clocks and the sleep used by {@link Pacing}, which tests replace to check the waits without sleeping.
+     */
+    static class TimeSource {
+
+        /** The time of the system. */
+        static final TimeSource SYSTEM = new TimeSource();
+
+        /**
+         * Gets the current time.
+         *
+         * @return the milliseconds since the epoch
+         */
+        long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+
+        /**
+         * Gets the time of a monotonic clock.
+         *
+         * @return the nanoseconds since an arbitrary origin
+         */
+        long nanoTime() {
+            return System.nanoTime();
+        }
+
+        /**
+         * Waits.
+         *
+         * @param nanos
+         *            the nanoseconds to wait
+         * @throws InterruptedException
+         *             the interrupted exception
+         */
+        void sleep(long nanos) throws InterruptedException {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
     }
 
     /** The Constant NONE. */
@@ -110,6 +342,66 @@ public abstract class RateLimitChecker {
         return false;
     }
 
+    /**
+     * Gets the time until a rate limit resets, with one more second for safety, without waiting.
+     *
+     * @param record
+     *            the record
+     * @return the time to wait, zero if the rate limit has already been reset
+     */
+    protected final Duration getTimeUntilReset(GHRateLimit.Record record) {
+        long waitMilliseconds = record.getResetInstant().toEpochMilli() - System.currentTimeMillis();
+        if (waitMilliseconds <= 0) {
+            return Duration.ZERO;
+        }
+        LOGGER.log(Level.INFO,
+                () -> String.format(
+                        "GitHub API - Current quota has %d remaining of %d. Delaying request until quota reset at %tT.",
+                        record.getRemaining(),
+                        record.getLimit(),
+                        Date.from(record.getResetInstant())));
+        // Reset time is only accurate to the second
+        return Duration.ofMillis(waitMilliseconds + 1000);
+    }
+
+    /**
+     * Decides, without waiting, how long the current request should wait before being sent. This is used for
+     * asynchronous requests, which wait on a timer instead of holding a thread.
+     *
+     * <p>
+     * Unlike {@link #checkRateLimit(GHRateLimit.Record, long)}, the request is sent once the returned time has passed,
+     * without checking the rate limit again. Implementations that can only wait by sleeping return {@code null}, which
+     * is the default: {@link #checkRateLimit(GHRateLimit.Record, long)} is then called on the thread sending the
+     * request.
+     * </p>
+     *
+     * @param rateLimitRecord
+     *            the current {@link GHRateLimit.Record} to check against.
+     * @return the time to wait, {@link Duration#ZERO} to send the request now, or {@code null} if not supported
+     */
+    @CheckForNull
+    protected Duration getWaitTime(GHRateLimit.Record rateLimitRecord) {
+        return null;
+    }
+
+    /**
+     * Gets the time {@link #getWaitTime(GHRateLimit.Record)} would return, without counting a request. This is used
+     * to decide whether an optional request, like a hedge, may be sent.
+     *
+     * <p>
+     * The default implementation calls {@link #getWaitTime(GHRateLimit.Record)}. Implementations whose
+     * {@link #getWaitTime(GHRateLimit.Record)} takes a share of the quota for the request must override this method.
+     * </p>
+     *
+     * @param rateLimitRecord
+     *            the current {@link GHRateLimit.Record} to check against.
+     * @return the time to wait, {@link Duration#ZERO} to send the request now, or {@code null} if not supported
+     */
+    @CheckForNull
+    protected Duration peekWaitTime(GHRateLimit.Record rateLimitRecord) {
+        return getWaitTime(rateLimitRecord);
+    }
+
     /**
      * Sleep until reset.
      *
@@ -0,0 +1,20 @@
+package org.kohsuke.github;
+
+/**
+ * Thrown when a request is given up because its {@link RequestDeadline} passed or was cancelled, before or while it
+ * was sent.
+ *
+ * @see RequestDeadline
+ */
+public class RequestCancelledException extends GHIOException {
+
+    /**
+     * Instantiates a new request cancelled exception.
+     *
+     * @param message
+     *            the message
+     */
+    public RequestCancelledException(String message) {
+        super(message);
+    }
+}
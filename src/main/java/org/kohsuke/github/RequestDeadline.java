@@ -0,0 +1,384 @@
+package org.kohsuke.github;
+
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * A time limit and cancellation token for requests, so that work nobody waits for anymore can be given up.
+ * <p>
+ * Requests with a deadline fail with a {@link RequestCancelledException} once it has passed or was
+ * {@link #cancel() cancelled}: before being sent, instead of waiting for the rate limit, a secondary rate limit or a
+ * retry that would last past the deadline, and while being sent, as connectors limit the time of the exchange to what
+ * is left and abort it when cancelled. Retries and redirects of a request share its deadline.
+ * </p>
+ * <p>
+ * The deadline of a single request can be set with {@link Requester#deadline(RequestDeadline)} and the deadline of all
+ * the pages of a {@link PagedIterable} with {@link PagedIterable#withDeadline(RequestDeadline)}. To set the deadline of
+ * all requests made by the current thread in a block of code, including the requests made through {@link GHObject}s,
+ * use a scope:
+ * </p>
+ *
+ * <pre>
+ * try (RequestDeadline.Scope scope = RequestDeadline.after(Duration.ofSeconds(10)).enter()) {
+ *     repository.getPullRequests(GHIssueState.OPEN);
+ * }
+ * </pre>
+ */
+public final class RequestDeadline {
+
+    /**
+     * Restores the previous deadline of the thread when closed.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final RequestDeadline previous;
+
+        private Scope(RequestDeadline previous) {
+            this.previous = previous;
+        }
+
+        /**
+         * Restores the deadline in effect before the scope was entered.
+         */
+        @Override
+        public void close() {
+            CURRENT.set(previous);
+        }
+    }
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Creates a deadline that passes after a duration.
+     *
+     * @param timeout
+     *            the time requests may take from now, waits and retries included
+     * @return the deadline
+     */
+    @Nonnull
+    public static RequestDeadline after(@Nonnull Duration timeout) {
+        return new RequestDeadline(true, System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * Creates a deadline that passes at an instant.
+     *
+     * @param instant
+     *            the instant after which requests fail
+     * @return the deadline
+     */
+    @Nonnull
+    public static RequestDeadline at(@Nonnull Instant instant) {
+        return after(Duration.between(Instant.now(), instant));
+    }
+
+    /**
+     * Waits for a future a request depends on, giving up once the deadline of the request passes or is cancelled.
+     *
+     * @param <T>
+     *            the type of the result
+     * @param waiter
+     *            the future, completed with a {@link RequestCancelledException} when given up on
+     * @param request
+     *            the request
+     * @return the result of the future
+     * @throws InterruptedException
+     *             if the thread was interrupted while waiting
+     * @throws ExecutionException
+     *             if the future completed exceptionally, with a {@link RequestCancelledException} when given up on
+     */
+    static <T> T await(@Nonnull CompletableFuture<T> waiter, @Nonnull GitHubConnectorRequest request)
+            throws InterruptedException, ExecutionException {
+        RequestDeadline deadline = of(request);
+        if (deadline == null) {
+            return waiter.get();
+        }
+        deadline.giveUpWhenCancelled(waiter, request);
+        while (true) {
+            try {
+                if (!deadline.timed) {
+                    return waiter.get();
+                }
+                return waiter.get(Math.max(0, deadline.deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                deadline.giveUp(waiter, request.url());
+            }
+        }
+    }
+
+    /**
+     * Gives up on a future a request depends on once the deadline of the request passes or is cancelled, without
+     * waiting for it.
+     *
+     * @param <T>
+     *            the type of the result
+     * @param waiter
+     *            the future, completed with a {@link RequestCancelledException} when given up on
+     * @param request
+     *            the request
+     * @return the future
+     */
+    @Nonnull
+    static <T> CompletableFuture<T> bound(@Nonnull CompletableFuture<T> waiter,
+            @Nonnull GitHubConnectorRequest request) {
+        RequestDeadline deadline = of(request);
+        if (deadline == null || waiter.isDone()) {
+            return waiter;
+        }
+        deadline.giveUpWhenCancelled(waiter, request);
+        if (deadline.timed) {
+            CompletableFuture
+                    .delayedExecutor(Math.max(0, deadline.deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS)
+                    .execute(() -> deadline.giveUp(waiter, request.url()));
+        }
+        return waiter;
+    }
+
+    /**
+     * Creates a deadline that never passes, to cancel requests without limiting their time.
+     *
+     * @return the deadline
+     */
+    @Nonnull
+    public static RequestDeadline cancellable() {
+        return new RequestDeadline(false, 0);
+    }
+
+    /**
+     * Gets the deadline of the requests made by the current thread.
+     *
+     * @return the deadline of the innermost scope, or {@code null} if there is none
+     */
+    @CheckForNull
+    public static RequestDeadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Gets the deadline of a request.
+     *
+     * @param request
+     *            the request
+     * @return the deadline, or {@code null} if the request has none
+     */
+    @CheckForNull
+    static RequestDeadline of(@Nonnull GitHubConnectorRequest request) {
+        return request instanceof GitHubRequest ? ((GitHubRequest) request).deadline() : null;
+    }
+
+    // the futures handed to connectors, dropped along with the requests they belong to
+    private final Set<CompletableFuture<Void>> cancellations = Collections.newSetFromMap(new WeakHashMap<>());
+
+    private boolean cancelled = false;
+
+    private final long deadlineNanos;
+
+    private final boolean timed;
+
+    private RequestDeadline(boolean timed, long deadlineNanos) {
+        this.timed = timed;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Cancels the requests with this deadline. Requests being sent are aborted and requests sent later fail right
+     * away.
+     */
+    public void cancel() {
+        List<CompletableFuture<Void>> pending;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            pending = new ArrayList<>(cancellations);
+            cancellations.clear();
+            notifyAll();
+        }
+        for (CompletableFuture<Void> cancellation : pending) {
+            cancellation.complete(null);
+        }
+    }
+
+    /**
+     * Makes this the deadline of the requests built by the current thread until the returned scope is closed.
+     *
+     * @return the scope, to be closed on the same thread
+     */
+    @Nonnull
+    public Scope enter() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(this);
+        return scope;
+    }
+
+    /**
+     * Gets the time left before the deadline passes.
+     *
+     * @return the time left, {@link Duration#ZERO} once passed, or {@code null} for a deadline that never passes
+     */
+    @CheckForNull
+    public Duration getRemaining() {
+        if (!timed) {
+            return null;
+        }
+        return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * Checks whether the requests with this deadline were cancelled.
+     *
+     * @return {@code true} if {@link #cancel()} was called
+     */
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Checks whether the deadline has passed.
+     *
+     * @return {@code true} if the time is up, whether or not the requests were cancelled
+     */
+    public boolean isExpired() {
+        return timed && deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Fails if a request may no longer be sent.
+     *
+     * @param url
+     *            the URL of the request, for the message
+     * @throws RequestCancelledException
+     *             if the deadline has passed or was cancelled
+     */
+    void check(@Nonnull URL url) throws RequestCancelledException {
+        check(url, null);
+    }
+
+    /**
+     * Fails if a request may no longer be sent, reporting why it failed if it was being sent.
+     *
+     * @param url
+     *            the URL of the request, for the message
+     * @param cause
+     *            the error the request failed with, since the connector may have given up on it because of this
+     *            deadline
+     * @throws RequestCancelledException
+     *             if the deadline has passed or was cancelled
+     */
+    void check(@Nonnull URL url, @CheckForNull Throwable cause) throws RequestCancelledException {
+        String message;
+        if (isCancelled()) {
+            message = "Request to " + url + " was cancelled";
+        } else if (isExpired()) {
+            message = "Deadline of request to " + url + " has passed";
+        } else {
+            return;
+        }
+        throw (RequestCancelledException) new RequestCancelledException(message).initCause(cause);
+    }
+
+    /**
+     * Fails if a request may no longer be sent, or would be after waiting.
+     *
+     * @param delay
+     *            the time the request would wait before being sent
+     * @param url
+     *            the URL of the request, for the message
+     * @throws RequestCancelledException
+     *             if the deadline has passed, was cancelled or would pass while waiting
+     */
+    void checkWait(@Nonnull Duration delay, @Nonnull URL url) throws RequestCancelledException {
+        check(url);
+        if (timed && delay.toNanos() >= deadlineNanos - System.nanoTime()) {
+            throw new RequestCancelledException(
+                    "Deadline of request to " + url + " would pass while waiting " + delay.toMillis() + " ms");
+        }
+    }
+
+    /**
+     * Completes a future a request depends on with a {@link RequestCancelledException} if the deadline has passed or
+     * was cancelled.
+     */
+    private void giveUp(@Nonnull CompletableFuture<?> waiter, @Nonnull URL url) {
+        try {
+            check(url);
+        } catch (RequestCancelledException e) {
+            waiter.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Gives up on a future a request depends on when the request is cancelled. The cancellation stage of the request
+     * is used rather than a new one, as it lives as long as the request.
+     */
+    private void giveUpWhenCancelled(@Nonnull CompletableFuture<?> waiter, @Nonnull GitHubConnectorRequest request) {
+        CompletionStage<Void> cancellation = request.cancellation();
+        if (cancellation != null) {
+            cancellation.thenRun(() -> giveUp(waiter, request.url()));
+        }
+    }
+
+    /**
+     * Creates a future that completes when the requests with this deadline are cancelled.
+     *
+     * @return the future, completed already if they were
+     */
+    @Nonnull
+    CompletableFuture<Void> newCancellation() {
+        CompletableFuture<Void> cancellation = new CompletableFuture<>();
+        synchronized (this) {
+            if (!cancelled) {
+                cancellations.add(cancellation);
+                return cancellation;
+            }
+        }
+        cancellation.complete(null);
+        return cancellation;
+    }
+
+    /**
+     * Waits before sending a request, failing right away if the deadline would pass while waiting and as soon as the
+     * requests are cancelled.
+     *
+     * @param delay
+     *            the time to wait
+     * @param url
+     *            the URL of the request, for the message
+     * @throws RequestCancelledException
+     *             if the deadline has passed, was cancelled or would pass while waiting
+     * @throws InterruptedIOException
+     *             if the thread was interrupted while waiting
+     */
+    void sleep(@Nonnull Duration delay, @Nonnull URL url) throws RequestCancelledException, InterruptedIOException {
+        checkWait(delay, url);
+        long endNanos = System.nanoTime() + delay.toNanos();
+        synchronized (this) {
+            try {
+                for (long left = delay.toNanos(); left > 0 && !cancelled; left = endNanos - System.nanoTime()) {
+                    TimeUnit.NANOSECONDS.timedWait(this, left);
+                }
+            } catch (InterruptedException e) {
+                throw (InterruptedIOException) new InterruptedIOException().initCause(e);
+            }
+        }
+        check(url);
+    }
+}
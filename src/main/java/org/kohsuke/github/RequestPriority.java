@@ -0,0 +1,82 @@
+package org.kohsuke.github;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Specifies the priority of a request for the {@link GitHubRequestScheduler}.
+ * <p>
+ * The priority of a single request can be set with {@link Requester#priority(RequestPriority)}. To set the priority of
+ * all requests made by the current thread in a block of code, including the requests made through {@link GHObject}s
+ * and for the next pages of {@link PagedIterable}s built in it, use a scope:
+ * </p>
+ *
+ * <pre>
+ * try (RequestPriority.Scope scope = RequestPriority.BULK.enter()) {
+ *     for (GHRepository repository : organization.listRepositories()) {
+ *         // ...
+ *     }
+ * }
+ * </pre>
+ *
+ * @see GitHubBuilder#withRequestScheduler(GitHubRequestScheduler)
+ */
+public enum RequestPriority {
+    /**
+     * Requests that someone is waiting for, which may use the quota and concurrency reserved by the scheduler.
+     */
+    HIGH,
+
+    /**
+     * The default priority.
+     */
+    NORMAL,
+
+    /**
+     * Background requests, which yield to the others first.
+     */
+    BULK;
+
+    /**
+     * Restores the previous priority of the thread when closed.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final RequestPriority previous;
+
+        private Scope(RequestPriority previous) {
+            this.previous = previous;
+        }
+
+        /**
+         * Restores the priority in effect before the scope was entered.
+         */
+        @Override
+        public void close() {
+            CURRENT.set(previous);
+        }
+    }
+
+    private static final ThreadLocal<RequestPriority> CURRENT = ThreadLocal.withInitial(() -> NORMAL);
+
+    /**
+     * Gets the priority of the requests made by the current thread.
+     *
+     * @return the priority of the innermost scope, or {@link #NORMAL}
+     */
+    @Nonnull
+    public static RequestPriority current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes this the priority of the requests built by the current thread until the returned scope is closed.
+     *
+     * @return the scope, to be closed on the same thread
+     */
+    @Nonnull
+    public Scope enter() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(this);
+        return scope;
+    }
+}
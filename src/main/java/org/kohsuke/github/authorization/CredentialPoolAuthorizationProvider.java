@@ -0,0 +1,237 @@
+package org.kohsuke.github.authorization;
+
+import org.kohsuke.github.GHRateLimit;
+import org.kohsuke.github.RateLimitTarget;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nonnull;
+
+/**
+ * An {@link AuthorizationProvider} that spreads requests over a pool of credentials, such as several personal access
+ * tokens or app installations, to get their combined rate limit from one {@link org.kohsuke.github.GitHub} instance.
+ * <p>
+ * The remaining requests of each credential are tracked per {@link RateLimitTarget} from the rate limit headers of the
+ * responses. Each request uses the credential with the most remaining requests for its rate limit. Credentials that
+ * have not been used yet, or whose rate limit has been reset since, are preferred so that their quota is learned. When
+ * a credential is exhausted, requests fail over to the others. Once all of them are exhausted, the credential whose
+ * rate limit resets first is used, and the configured rate limit handler decides how to wait.
+ * </p>
+ * <p>
+ * All credentials should have access to the resources requested through the pool, since any of them may be used for
+ * any request. {@link org.kohsuke.github.GitHub#lastRateLimit()} and the configured
+ * {@link org.kohsuke.github.RateLimitChecker} only see the rate limit of the credential used last.
+ * </p>
+ */
+public class CredentialPoolAuthorizationProvider implements RateLimitAwareAuthorizationProvider {
+
+    /**
+     * The last observed rate limit of a credential for one target.
+     */
+    private static final class Quota {
+        private final int remaining;
+        private final long resetEpochSeconds;
+
+        Quota(int remaining, long resetEpochSeconds) {
+            this.remaining = remaining;
+            this.resetEpochSeconds = resetEpochSeconds;
+        }
+    }
+
+    private static RateLimitTarget normalize(RateLimitTarget rateLimitTarget) {
+        // Requests without a specific target count against the core rate limit
+        return rateLimitTarget == RateLimitTarget.NONE ? RateLimitTarget.CORE : rateLimitTarget;
+    }
+
+    private final String[] authorizationByIndex;
+
+    /** The latest credentials of each provider, which replace the previous ones when a provider rotates them. */
+    private final Map<String, Integer> indexByAuthorization = new ConcurrentHashMap<>();
+
+    private int nextIndex = 0;
+
+    private final List<AuthorizationProvider> providers;
+
+    private final List<Map<RateLimitTarget, Quota>> quotas;
+
+    /**
+     * Creates a pool of credentials.
+     *
+     * @param providers
+     *            the providers of the pooled credentials
+     */
+    public CredentialPoolAuthorizationProvider(@Nonnull List<? extends AuthorizationProvider> providers) {
+        if (providers.isEmpty()) {
+            throw new IllegalArgumentException("At least one credential is required");
+        }
+        this.providers = Collections.unmodifiableList(new ArrayList<>(providers));
+        this.authorizationByIndex = new String[providers.size()];
+        this.quotas = new ArrayList<>();
+        for (int i = 0; i < providers.size(); i++) {
+            quotas.add(new EnumMap<>(RateLimitTarget.class));
+        }
+    }
+
+    /**
+     * Returns the credentials with the most remaining requests for the {@link RateLimitTarget#CORE} rate limit.
+     *
+     * @return encoded authorization string, can be null
+     * @throws IOException
+     *             if none of the pooled providers returned credentials
+     */
+    @Override
+    public String getEncodedAuthorization() throws IOException {
+        return getEncodedAuthorization(RateLimitTarget.CORE);
+    }
+
+    /**
+     * Returns the credentials with the most remaining requests for a rate limit. If the provider of those credentials
+     * fails, the next best credentials are used.
+     *
+     * @param rateLimitTarget
+     *            the rate limit the request counts against
+     * @return encoded authorization string, can be null
+     * @throws IOException
+     *             if none of the pooled providers returned credentials
+     */
+    @Override
+    public String getEncodedAuthorization(@Nonnull RateLimitTarget rateLimitTarget) throws IOException {
+        IOException failure = null;
+        for (int index : rank(normalize(rateLimitTarget))) {
+            try {
+                String authorization = providers.get(index).getEncodedAuthorization();
+                if (authorization != null) {
+                    remember(index, authorization);
+                }
+                return authorization;
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * Gets the pooled providers.
+     *
+     * @return the providers, in the order they were given
+     */
+    @Nonnull
+    public List<AuthorizationProvider> getProviders() {
+        return providers;
+    }
+
+    /**
+     * Gets the last observed number of remaining requests of a pooled credential.
+     *
+     * @param index
+     *            the index of the credential's provider in {@link #getProviders()}
+     * @param rateLimitTarget
+     *            the rate limit
+     * @return the remaining requests, or {@code -1} if unknown or reset since they were observed
+     */
+    public synchronized int getRemaining(int index, @Nonnull RateLimitTarget rateLimitTarget) {
+        Quota quota = quotas.get(index).get(normalize(rateLimitTarget));
+        if (quota == null || isReset(quota, System.currentTimeMillis())) {
+            return -1;
+        }
+        return quota.remaining;
+    }
+
+    /**
+     * Records the rate limit observed for a pooled credential.
+     *
+     * @param encodedAuthorization
+     *            the credentials the request was sent with
+     * @param rateLimitTarget
+     *            the rate limit the request counted against
+     * @param rateLimitRecord
+     *            the rate limit reported by the response
+     */
+    @Override
+    public void noteRateLimit(@Nonnull String encodedAuthorization,
+            @Nonnull RateLimitTarget rateLimitTarget,
+            @Nonnull GHRateLimit.Record rateLimitRecord) {
+        Integer index = indexByAuthorization.get(encodedAuthorization);
+        if (index == null) {
+            return;
+        }
+        Quota observed = new Quota(rateLimitRecord.getRemaining(), rateLimitRecord.getResetEpochSeconds());
+        synchronized (this) {
+            // Responses may arrive out of order, keep the most recent information
+            quotas.get(index).merge(normalize(rateLimitTarget), observed, (current, update) -> {
+                if (update.resetEpochSeconds > current.resetEpochSeconds
+                        || (update.resetEpochSeconds == current.resetEpochSeconds
+                                && update.remaining <= current.remaining)) {
+                    return update;
+                }
+                return current;
+            });
+        }
+    }
+
+    private boolean isReset(Quota quota, long nowMillis) {
+        return quota.resetEpochSeconds * 1000 <= nowMillis;
+    }
+
+    /**
+     * Orders the credentials from the most to the least remaining requests. Credentials with the same number of
+     * remaining requests are taken in turns, unless they are exhausted.
+     */
+    private synchronized List<Integer> rank(RateLimitTarget rateLimitTarget) {
+        List<Integer> ranked = new ArrayList<>(providers.size());
+        for (int i = 0; i < providers.size(); i++) {
+            ranked.add((nextIndex + i) % providers.size());
+        }
+        nextIndex = (nextIndex + 1) % providers.size();
+        // one time for the whole sort, so that a reset passing during it cannot make the order inconsistent
+        long nowMillis = System.currentTimeMillis();
+        ranked.sort((a, b) -> {
+            Quota quotaA = quotas.get(a).get(rateLimitTarget);
+            Quota quotaB = quotas.get(b).get(rateLimitTarget);
+            long headroomA = headroom(quotaA, nowMillis);
+            long headroomB = headroom(quotaB, nowMillis);
+            if (headroomA != headroomB || headroomA == Long.MAX_VALUE) {
+                // unknown quotas and quotas that were renewed are all alike, they are taken in turns
+                return Long.compare(headroomB, headroomA);
+            }
+            // all else being equal, prefer the quota that is renewed first
+            int reset = Long.compare(quotaA.resetEpochSeconds, quotaB.resetEpochSeconds);
+            if (reset != 0 || quotaA.remaining > 0) {
+                return reset;
+            }
+            // exhausted credentials are not taken in turns, so that failing over does not go back and forth
+            return Integer.compare(a, b);
+        });
+        return ranked;
+    }
+
+    private long headroom(Quota quota, long nowMillis) {
+        return quota == null || isReset(quota, nowMillis) ? Long.MAX_VALUE : quota.remaining;
+    }
+
+    /**
+     * Remembers which provider returned credentials, forgetting the credentials it returned before so that providers
+     * minting new tokens, such as app installations, do not fill the map.
+     */
+    private synchronized void remember(int index, String authorization) {
+        String previous = authorizationByIndex[index];
+        if (!authorization.equals(previous)) {
+            if (previous != null) {
+                indexByAuthorization.remove(previous, index);
+            }
+            authorizationByIndex[index] = authorization;
+            indexByAuthorization.put(authorization, index);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.kohsuke.github.authorization;
+
+import org.kohsuke.github.GHRateLimit;
+import org.kohsuke.github.RateLimitTarget;
+
+import java.io.IOException;
+
+import javax.annotation.Nonnull;
+
+/**
+ * An {@link AuthorizationProvider} that chooses credentials based on the rate limits observed for them.
+ * <p>
+ * {@link #getEncodedAuthorization(RateLimitTarget)} is called instead of {@link #getEncodedAuthorization()} for each
+ * request, with the rate limit the request counts against. The rate limit headers of every response are reported to
+ * {@link #noteRateLimit(String, RateLimitTarget, GHRateLimit.Record)}. When a request is rejected because its rate
+ * limit is exhausted, it is sent again with the credentials returned for it next, if they are different.
+ * </p>
+ *
+ * @see CredentialPoolAuthorizationProvider
+ */
+public interface RateLimitAwareAuthorizationProvider extends AuthorizationProvider {
+
+    /**
+     * Returns the credentials to be used for a request that counts against a rate limit.
+     *
+     * @param rateLimitTarget
+     *            the rate limit the request counts against
+     * @return encoded authorization string, can be null
+     * @throws IOException
+     *             on any error that prevents the provider from returning a valid authorization
+     */
+    String getEncodedAuthorization(@Nonnull RateLimitTarget rateLimitTarget) throws IOException;
+
+    /**
+     * Called with the rate limit reported in the headers of a response.
+     *
+     * @param encodedAuthorization
+     *            the credentials the request was sent with
+     * @param rateLimitTarget
+     *            the rate limit the request counted against
+     * @param rateLimitRecord
+     *            the rate limit reported by the response
+     */
+    void noteRateLimit(@Nonnull String encodedAuthorization,
+            @Nonnull RateLimitTarget rateLimitTarget,
+            @Nonnull GHRateLimit.Record rateLimitRecord);
+}
@@ -0,0 +1,30 @@
+package org.kohsuke.github.connector;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link GitHubConnector} that can also send requests without blocking the calling thread.
+ * <p>
+ * When the connector configured for a {@link org.kohsuke.github.GitHub} instance implements this interface, requests
+ * that are sent asynchronously (for example, prefetching the next page of a paged listing) do not hold a thread while
+ * waiting for the server. Connectors that only implement {@link GitHubConnector} are still supported; their
+ * {@link GitHubConnector#send(GitHubConnectorRequest)} method is called from a background thread instead.
+ */
+public interface AsyncGitHubConnector extends GitHubConnector {
+
+    /**
+     * Sends a request and asynchronously retrieves a raw response for processing.
+     *
+     * Implementers follow the same rules as {@link GitHubConnector#send(GitHubConnectorRequest)}. The returned future
+     * completes once the response is available. The body of the completed response must be readable without blocking
+     * on network I/O, since it may be read by a thread that is shared with other requests.
+     *
+     * Failures are reported by completing the returned future exceptionally, usually with an
+     * {@link java.io.IOException}. Implementations should not throw from this method.
+     *
+     * @param connectorRequest
+     *            the request data to be sent.
+     * @return a future that completes with the GitHubConnectorResponse for the request
+     */
+    CompletableFuture<GitHubConnectorResponse> sendAsync(GitHubConnectorRequest connectorRequest);
+}
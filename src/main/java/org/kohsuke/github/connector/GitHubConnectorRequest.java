@@ -2,8 +2,10 @@ package org.kohsuke.github.connector;
 
 import java.io.InputStream;
 import java.net.URL;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -39,6 +41,16 @@ public interface GitHubConnectorRequest {
     @CheckForNull
     InputStream body();
 
+    /**
+     * Gets a stage that completes when this request is cancelled. Connectors should abort the exchange when it does.
+     *
+     * @return the cancellation stage, or {@code null} if this request cannot be cancelled.
+     */
+    @CheckForNull
+    default CompletionStage<Void> cancellation() {
+        return null;
+    }
+
     /**
      * Get the content type for the body of this request.
      *
@@ -74,6 +86,17 @@ public interface GitHubConnectorRequest {
     @Nonnull
     String method();
 
+    /**
+     * Gets the time left to send this request and receive its response. Connectors should give up on the exchange
+     * once it is over.
+     *
+     * @return the time left, or {@code null} if the time of this request is not limited.
+     */
+    @CheckForNull
+    default Duration timeout() {
+        return null;
+    }
+
     /**
      * Gets the url for this request.
      *
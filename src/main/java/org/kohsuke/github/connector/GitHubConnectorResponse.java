@@ -5,6 +5,7 @@ import org.apache.commons.io.IOUtils;
 
 import java.io.ByteArrayInputStream;
 import java.io.Closeable;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -13,6 +14,7 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.GZIPInputStream;
 
 import javax.annotation.CheckForNull;
@@ -61,10 +63,46 @@ public abstract class GitHubConnectorResponse implements Closeable {
         }
     }
 
+    /**
+     * Counts the bytes read from the raw body stream.
+     */
+    private final class CountingInputStream extends FilterInputStream {
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                bodyBytesRead.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                bodyBytesRead.addAndGet(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            bodyBytesRead.addAndGet(skipped);
+            return skipped;
+        }
+    }
+
     private static final Comparator<String> nullableCaseInsensitiveComparator = Comparator
             .nullsFirst(String.CASE_INSENSITIVE_ORDER);
 
     private byte[] bodyBytes = null;
+    private final AtomicLong bodyBytesRead = new AtomicLong();
     private InputStream bodyStream = null;
     private boolean bodyStreamCalled = false;
     @Nonnull
@@ -112,6 +150,16 @@ public abstract class GitHubConnectorResponse implements Closeable {
         return headers;
     }
 
+    /**
+     * The number of bytes of the body read so far, as returned by {@link #rawBodyStream()} and before the
+     * {@code Content-Encoding} is decoded.
+     *
+     * @return the number of bytes read
+     */
+    public long bodyBytesRead() {
+        return bodyBytesRead.get();
+    }
+
     /**
      * The response body as an {@link InputStream}.
      *
@@ -140,7 +188,8 @@ public abstract class GitHubConnectorResponse implements Closeable {
                     throw new IOException("Response body not rereadable");
                 }
             } else {
-                bodyStream = wrapStream(rawBodyStream());
+                InputStream rawBodyStream = rawBodyStream();
+                bodyStream = wrapStream(rawBodyStream == null ? null : new CountingInputStream(rawBodyStream));
                 bodyStreamCalled = true;
             }
 
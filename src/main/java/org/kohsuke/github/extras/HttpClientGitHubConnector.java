@@ -2,10 +2,12 @@ package org.kohsuke.github.extras;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.apache.commons.io.IOUtils;
+import org.kohsuke.github.connector.AsyncGitHubConnector;
 import org.kohsuke.github.connector.GitHubConnector;
 import org.kohsuke.github.connector.GitHubConnectorRequest;
 import org.kohsuke.github.connector.GitHubConnectorResponse;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InterruptedIOException;
@@ -13,19 +15,30 @@ import java.net.URISyntaxException;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 
 /**
  * {@link GitHubConnector} for {@link HttpClient}.
+ * <p>
+ * Also implements {@link AsyncGitHubConnector} using {@link HttpClient#sendAsync(HttpRequest,
+ * HttpResponse.BodyHandler)}.
+ * <p>
+ * The {@link GitHubConnectorRequest#timeout()} of a request becomes its {@link HttpRequest#timeout()}, and the exchange
+ * is aborted when its {@link GitHubConnectorRequest#cancellation()} completes.
  *
  * @author Liam Newman
  */
 @SuppressFBWarnings(value = { "CT_CONSTRUCTOR_THROW" }, justification = "Basic validation")
-public class HttpClientGitHubConnector implements GitHubConnector {
+public class HttpClientGitHubConnector implements AsyncGitHubConnector {
 
     /**
      * Initial response information when a response is initially received and before the body is processed.
@@ -34,13 +47,14 @@ public class HttpClientGitHubConnector implements GitHubConnector {
      */
     private static class HttpClientGitHubConnectorResponse extends GitHubConnectorResponse {
 
-        @Nonnull
-        private final HttpResponse<InputStream> response;
+        @CheckForNull
+        private final InputStream body;
 
         protected HttpClientGitHubConnectorResponse(@Nonnull GitHubConnectorRequest request,
-                @Nonnull HttpResponse<InputStream> response) {
+                @Nonnull HttpResponse<?> response,
+                @CheckForNull InputStream body) {
             super(request, response.statusCode(), response.headers().map());
-            this.response = response;
+            this.body = body;
         }
 
         @Override
@@ -51,7 +65,7 @@ public class HttpClientGitHubConnector implements GitHubConnector {
         @CheckForNull
         @Override
         protected InputStream rawBodyStream() throws IOException {
-            return response.body();
+            return body;
         }
     }
 
@@ -86,6 +100,68 @@ public class HttpClientGitHubConnector implements GitHubConnector {
 
     @Override
     public GitHubConnectorResponse send(GitHubConnectorRequest connectorRequest) throws IOException {
+        HttpRequest request = buildRequest(connectorRequest);
+        CompletionStage<Void> cancellation = connectorRequest.cancellation();
+
+        try {
+            if (cancellation == null) {
+                HttpResponse<InputStream> httpResponse = client.send(request,
+                        HttpResponse.BodyHandlers.ofInputStream());
+                return new HttpClientGitHubConnectorResponse(connectorRequest, httpResponse, httpResponse.body());
+            }
+            // only an asynchronous exchange can be aborted, from Java 16 on; before that the call returns right away
+            CompletableFuture<HttpResponse<InputStream>> pending = client.sendAsync(request,
+                    HttpResponse.BodyHandlers.ofInputStream());
+            cancellation.thenRun(() -> pending.cancel(true));
+            try {
+                HttpResponse<InputStream> httpResponse = pending.get();
+                return new HttpClientGitHubConnectorResponse(connectorRequest, httpResponse, httpResponse.body());
+            } catch (InterruptedException e) {
+                pending.cancel(true);
+                throw e;
+            }
+        } catch (InterruptedException e) {
+            throw (InterruptedIOException) new InterruptedIOException(e.getMessage()).initCause(e);
+        } catch (CancellationException e) {
+            throw new IOException("Canceled", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Sends a request using {@link HttpClient#sendAsync(HttpRequest, HttpResponse.BodyHandler)}.
+     *
+     * The response body is fully received before the returned future completes, so it can be read without blocking.
+     *
+     * @param connectorRequest
+     *            the request data to be sent.
+     * @return a future that completes with the GitHubConnectorResponse for the request
+     */
+    @Override
+    public CompletableFuture<GitHubConnectorResponse> sendAsync(GitHubConnectorRequest connectorRequest) {
+        HttpRequest request;
+        try {
+            request = buildRequest(connectorRequest);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<HttpResponse<byte[]>> pending = client.sendAsync(request,
+                HttpResponse.BodyHandlers.ofByteArray());
+        CompletionStage<Void> cancellation = connectorRequest.cancellation();
+        if (cancellation != null) {
+            cancellation.thenRun(() -> pending.cancel(true));
+        }
+        return pending.thenApply(httpResponse -> new HttpClientGitHubConnectorResponse(connectorRequest,
+                httpResponse,
+                new ByteArrayInputStream(httpResponse.body())));
+    }
+
+    private HttpRequest buildRequest(GitHubConnectorRequest connectorRequest) throws IOException {
         HttpRequest.Builder builder = HttpRequest.newBuilder();
         try {
             builder.uri(connectorRequest.url().toURI());
@@ -106,13 +182,12 @@ public class HttpClientGitHubConnector implements GitHubConnector {
         }
         builder.method(connectorRequest.method(), publisher);
 
-        HttpRequest request = builder.build();
-
-        try {
-            HttpResponse<InputStream> httpResponse = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
-            return new HttpClientGitHubConnectorResponse(connectorRequest, httpResponse);
-        } catch (InterruptedException e) {
-            throw (InterruptedIOException) new InterruptedIOException(e.getMessage()).initCause(e);
+        Duration timeout = connectorRequest.timeout();
+        if (timeout != null) {
+            // the timeout must be positive, an exhausted one times out right away
+            builder.timeout(timeout.isZero() ? Duration.ofNanos(1) : timeout);
         }
+
+        return builder.build();
     }
 }
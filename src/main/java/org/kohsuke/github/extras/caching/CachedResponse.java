@@ -0,0 +1,100 @@
+package org.kohsuke.github.extras.caching;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * A successful response kept by a {@link ResponseCacheStore}: its headers, including the validators used for
+ * conditional requests, and its decoded body.
+ */
+public final class CachedResponse {
+
+    @Nonnull
+    private final byte[] body;
+
+    @Nonnull
+    private final Map<String, List<String>> headers;
+
+    /**
+     * Creates a cached response.
+     *
+     * @param headers
+     *            the response headers. Header names are case-insensitive.
+     * @param body
+     *            the decoded response body
+     */
+    @SuppressFBWarnings(value = { "EI_EXPOSE_REP2" }, justification = "Body is not modified after construction")
+    public CachedResponse(@Nonnull Map<String, List<String>> headers, @Nonnull byte[] body) {
+        TreeMap<String, List<String>> caseInsensitiveMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null) {
+                caseInsensitiveMap.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
+            }
+        }
+        this.headers = Collections.unmodifiableMap(caseInsensitiveMap);
+        this.body = body;
+    }
+
+    /**
+     * Gets the decoded response body.
+     *
+     * @return the body. Must not be modified.
+     */
+    @Nonnull
+    @SuppressFBWarnings(value = { "EI_EXPOSE_REP" }, justification = "Avoids copying large bodies")
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * Gets the entity tag of the response.
+     *
+     * @return the value of the {@code ETag} header, or {@code null}
+     */
+    @CheckForNull
+    public String getETag() {
+        return header("ETag");
+    }
+
+    /**
+     * Gets the response headers.
+     *
+     * @return an unmodifiable, case-insensitive map of the response headers
+     */
+    @Nonnull
+    @SuppressFBWarnings(value = { "EI_EXPOSE_REP" }, justification = "Unmodifiable map of unmodifiable lists")
+    public Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Gets the last modification date of the response.
+     *
+     * @return the value of the {@code Last-Modified} header, or {@code null}
+     */
+    @CheckForNull
+    public String getLastModified() {
+        return header("Last-Modified");
+    }
+
+    /**
+     * Gets the value of a header field.
+     *
+     * @param name
+     *            the name of the header field.
+     * @return the value of the header field, or {@code null} if the header isn't set.
+     */
+    @CheckForNull
+    public String header(String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+}
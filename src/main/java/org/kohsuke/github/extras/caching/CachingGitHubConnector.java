@@ -0,0 +1,418 @@
+package org.kohsuke.github.extras.caching;
+
+import org.apache.commons.io.IOUtils;
+import org.kohsuke.github.GitHubCacheStatistics;
+import org.kohsuke.github.connector.AsyncGitHubConnector;
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+import org.kohsuke.github.internal.Fingerprints;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static java.util.logging.Level.FINE;
+
+/**
+ * A {@link GitHubConnector} that adds conditional request caching to any other connector.
+ * <p>
+ * Successful {@code GET} responses that carry an {@code ETag} or {@code Last-Modified} header are kept in a
+ * {@link ResponseCacheStore}. When the same resource is requested again, the request is sent with
+ * {@code If-None-Match} or {@code If-Modified-Since}, and if GitHub answers {@code 304 Not Modified} the stored body is
+ * returned instead. Conditional requests answered with {@code 304} do not count against the primary rate limit. See
+ * <a href="https://docs.github.com/en/rest/using-the-rest-api/best-practices-for-using-the-rest-api#use-conditional-requests-if-appropriate">conditional
+ * requests</a>.
+ * </p>
+ * <p>
+ * Responses are stored per URL, {@code Accept} header and credential, so responses are never shared between
+ * credentials. Requests with {@code Cache-Control: no-cache} are always revalidated in full.
+ * </p>
+ *
+ * <pre>
+ * GitHub gitHub = new GitHubBuilder()
+ *         .withConnector(new CachingGitHubConnector(new HttpClientGitHubConnector(),
+ *                 new InMemoryResponseCacheStore(50 * 1024 * 1024)))
+ *         .build();
+ * </pre>
+ */
+public class CachingGitHubConnector implements AsyncGitHubConnector {
+
+    /**
+     * A response served from the cache, or read into memory to be stored in the cache.
+     */
+    private static class CachedGitHubConnectorResponse extends GitHubConnectorResponse {
+
+        private final byte[] body;
+
+        CachedGitHubConnectorResponse(@Nonnull GitHubConnectorRequest request,
+                @Nonnull Map<String, List<String>> headers,
+                @Nonnull byte[] body) {
+            super(request, HTTP_OK, headers);
+            this.body = body;
+        }
+
+        @Override
+        protected InputStream rawBodyStream() throws IOException {
+            return new ByteArrayInputStream(body);
+        }
+    }
+
+    /**
+     * A request with conditional request headers added.
+     */
+    private static class ConditionalRequest implements GitHubConnectorRequest {
+
+        private final GitHubConnectorRequest delegate;
+
+        private final Map<String, List<String>> headers;
+
+        ConditionalRequest(GitHubConnectorRequest delegate, CachedResponse cached) {
+            this.delegate = delegate;
+            TreeMap<String, List<String>> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            map.putAll(delegate.allHeaders());
+            if (cached.getETag() != null) {
+                map.put("If-None-Match", Collections.singletonList(cached.getETag()));
+            }
+            if (cached.getLastModified() != null) {
+                map.put("If-Modified-Since", Collections.singletonList(cached.getLastModified()));
+            }
+            this.headers = Collections.unmodifiableMap(map);
+        }
+
+        @Nonnull
+        @Override
+        public Map<String, List<String>> allHeaders() {
+            return headers;
+        }
+
+        @CheckForNull
+        @Override
+        public InputStream body() {
+            return delegate.body();
+        }
+
+        @CheckForNull
+        @Override
+        public CompletionStage<Void> cancellation() {
+            return delegate.cancellation();
+        }
+
+        @CheckForNull
+        @Override
+        public String contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public boolean hasBody() {
+            return delegate.hasBody();
+        }
+
+        @CheckForNull
+        @Override
+        public String header(String name) {
+            List<String> values = headers.get(name);
+            return values == null || values.isEmpty() ? null : values.get(0);
+        }
+
+        @Nonnull
+        @Override
+        public String method() {
+            return delegate.method();
+        }
+
+        @CheckForNull
+        @Override
+        public Duration timeout() {
+            return delegate.timeout();
+        }
+
+        @Nonnull
+        @Override
+        public URL url() {
+            return delegate.url();
+        }
+    }
+
+    /**
+     * The state of one request through this connector.
+     */
+    private static class Exchange {
+        @CheckForNull
+        private final CachedResponse cached;
+        @CheckForNull
+        private final String key;
+        @Nonnull
+        private final GitHubConnectorRequest request;
+        @Nonnull
+        private final GitHubConnectorRequest sent;
+
+        Exchange(@Nonnull GitHubConnectorRequest request,
+                @CheckForNull String key,
+                @CheckForNull CachedResponse cached) {
+            this.request = request;
+            this.key = key;
+            this.cached = cached;
+            this.sent = cached == null ? request : new ConditionalRequest(request, cached);
+        }
+    }
+
+    /**
+     * Passes a response through unchanged, except that it reports the original request rather than the conditional
+     * request that was sent.
+     */
+    private static class RequestOverridingResponse extends GitHubConnectorResponse {
+
+        private final GitHubConnectorResponse delegate;
+
+        RequestOverridingResponse(@Nonnull GitHubConnectorRequest request, @Nonnull GitHubConnectorResponse delegate) {
+            super(request, delegate.statusCode(), delegate.allHeaders());
+            this.delegate = delegate;
+        }
+
+        @Nonnull
+        @Override
+        public InputStream bodyStream() throws IOException {
+            return delegate.bodyStream();
+        }
+
+        @Override
+        public void close() throws IOException {
+            super.close();
+            delegate.close();
+        }
+
+        @Override
+        public boolean isBodyStreamRereadable() {
+            return delegate.isBodyStreamRereadable();
+        }
+
+        @Override
+        public void setBodyStreamRereadable() {
+            delegate.setBodyStreamRereadable();
+        }
+
+        @Override
+        protected InputStream rawBodyStream() throws IOException {
+            throw new IllegalStateException("Body is read from the delegate response");
+        }
+    }
+
+    /**
+     * Describe the body as it was received, and do not apply to the decoded body that is stored. Names are matched
+     * case-insensitively, as HTTP/2 sends them in lower case.
+     */
+    private static final Set<String> BODY_ENCODING_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    /**
+     * Runs {@link GitHubConnector#send(GitHubConnectorRequest)} for delegates that do not implement
+     * {@link AsyncGitHubConnector}.
+     */
+    private static final Executor BLOCKING_SEND_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "github-api-caching-connector");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final Logger LOGGER = Logger.getLogger(CachingGitHubConnector.class.getName());
+
+    static {
+        BODY_ENCODING_HEADERS.addAll(Arrays.asList("Content-Encoding", "Content-Length", "Transfer-Encoding"));
+    }
+
+    /**
+     * Computes the key of the stored response for a request.
+     *
+     * The {@code Authorization} header is reduced to a SHA-256 fingerprint, so that credentials are never part of a
+     * key.
+     *
+     * @param request
+     *            the request
+     * @return the key
+     */
+    static String cacheKey(GitHubConnectorRequest request) {
+        String authorization = request.header("Authorization");
+        String fingerprint = authorization == null ? "" : Fingerprints.sha256(authorization);
+        String accept = request.header("Accept");
+        return request.url() + " " + (accept == null ? "" : accept) + " " + fingerprint;
+    }
+
+    private static Map<String, List<String>> withoutBodyEncodingHeaders(Map<String, List<String>> headers) {
+        TreeMap<String, List<String>> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            if (entry.getKey() != null && !BODY_ENCODING_HEADERS.contains(entry.getKey())) {
+                result.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    private final GitHubConnector delegate;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final ResponseCacheStore store;
+
+    /**
+     * Creates a caching connector.
+     *
+     * @param delegate
+     *            the connector that sends requests to GitHub
+     * @param store
+     *            where responses are kept
+     */
+    public CachingGitHubConnector(@Nonnull GitHubConnector delegate, @Nonnull ResponseCacheStore store) {
+        this.delegate = delegate;
+        this.store = store;
+    }
+
+    /**
+     * Gets the cache statistics of this connector.
+     * <p>
+     * A hit is a cacheable request answered from the store after GitHub confirmed it was not modified. A miss is a
+     * cacheable request that needed a full response. Evictions and size are reported by the store.
+     * </p>
+     *
+     * @return the statistics
+     */
+    public GitHubCacheStatistics getStatistics() {
+        return new GitHubCacheStatistics(hitCount.get(), missCount.get(), store.getEvictionCount(), store.getSize());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public GitHubConnectorResponse send(GitHubConnectorRequest connectorRequest) throws IOException {
+        Exchange exchange = prepare(connectorRequest);
+        return complete(exchange, delegate.send(exchange.sent));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<GitHubConnectorResponse> sendAsync(GitHubConnectorRequest connectorRequest) {
+        Exchange exchange;
+        try {
+            exchange = prepare(connectorRequest);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<GitHubConnectorResponse> pending;
+        if (delegate instanceof AsyncGitHubConnector) {
+            pending = ((AsyncGitHubConnector) delegate).sendAsync(exchange.sent);
+        } else {
+            pending = new CompletableFuture<>();
+            CompletableFuture<GitHubConnectorResponse> result = pending;
+            BLOCKING_SEND_EXECUTOR.execute(() -> {
+                try {
+                    result.complete(delegate.send(exchange.sent));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        }
+
+        return pending.thenApply(response -> {
+            try {
+                return complete(exchange, response);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    private GitHubConnectorResponse complete(Exchange exchange, GitHubConnectorResponse response) throws IOException {
+        if (exchange.key == null) {
+            return response;
+        }
+
+        int statusCode = response.statusCode();
+        if (statusCode == HTTP_NOT_MODIFIED && exchange.cached != null) {
+            hitCount.incrementAndGet();
+            try {
+                // Headers of the 304 response, such as the rate limit, replace those that were stored
+                Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                headers.putAll(exchange.cached.getHeaders());
+                headers.putAll(withoutBodyEncodingHeaders(response.allHeaders()));
+                return new CachedGitHubConnectorResponse(exchange.request, headers, exchange.cached.getBody());
+            } finally {
+                IOUtils.closeQuietly(response);
+            }
+        }
+
+        missCount.incrementAndGet();
+        if (statusCode == HTTP_OK && (response.header("ETag") != null || response.header("Last-Modified") != null)) {
+            byte[] body;
+            try (InputStream stream = response.bodyStream()) {
+                body = IOUtils.toByteArray(stream);
+            } finally {
+                IOUtils.closeQuietly(response);
+            }
+            Map<String, List<String>> headers = withoutBodyEncodingHeaders(response.allHeaders());
+            try {
+                store.put(exchange.key, new CachedResponse(headers, body));
+            } catch (IOException e) {
+                // The response is still good even if it could not be stored
+                LOGGER.log(FINE, "Failed to store response for " + exchange.request.url(), e);
+            }
+            return new CachedGitHubConnectorResponse(exchange.request, headers, body);
+        }
+
+        if (exchange.cached != null && (statusCode == HTTP_OK || statusCode == HTTP_NOT_FOUND)) {
+            // The stored response can no longer be revalidated
+            try {
+                store.remove(exchange.key);
+            } catch (IOException e) {
+                // The response is still good even if the stored one could not be removed
+                LOGGER.log(FINE, "Failed to remove stored response for " + exchange.request.url(), e);
+            }
+        }
+        return exchange.sent == exchange.request ? response : new RequestOverridingResponse(exchange.request, response);
+    }
+
+    private Exchange prepare(GitHubConnectorRequest request) throws IOException {
+        if (!"GET".equals(request.method()) || request.header("If-None-Match") != null
+                || request.header("If-Modified-Since") != null) {
+            // not cacheable, or the caller handles conditional requests itself
+            return new Exchange(request, null, null);
+        }
+        String key = cacheKey(request);
+        CachedResponse cached = null;
+        if (!"no-cache".equals(request.header("Cache-Control"))) {
+            try {
+                cached = store.get(key);
+            } catch (IOException e) {
+                LOGGER.log(FINE, "Failed to read stored response for " + request.url(), e);
+            }
+        }
+        return new Exchange(request, key, cached);
+    }
+}
@@ -0,0 +1,651 @@
+package org.kohsuke.github.extras.caching;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * A {@link ResponseCacheStore} that keeps responses in a directory, so that they survive restarts.
+ * <p>
+ * Responses are appended to segment files, and located through a hash index that is memory-mapped from the
+ * {@code index} file. Replacing or removing a response leaves the old record in its segment until the total size of
+ * the segments exceeds the limit. The segments are then compacted: live records are copied to new segments and the
+ * oldest ones are dropped until the live data fits in half of the limit.
+ * </p>
+ * <p>
+ * A directory can only be used by one store at a time; a second store, in this or another process, fails to open it.
+ * If the index is missing or was not written completely, it is rebuilt from the segments when the store is opened.
+ * </p>
+ */
+public class DiskResponseCacheStore implements ResponseCacheStore, Closeable {
+
+    /**
+     * The location of a record in the segments.
+     */
+    private static class Location {
+        private final long hash;
+        private final int length;
+        private final long offset;
+        private final int segment;
+
+        Location(long hash, int segment, long offset, int length) {
+            this.hash = hash;
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * A decoded record.
+     */
+    private static class Record {
+        private final String key;
+        private final CachedResponse response;
+
+        Record(String key, CachedResponse response) {
+            this.key = key;
+            this.response = response;
+        }
+    }
+
+    private static final int INDEX_HEADER_BYTES = 16;
+
+    private static final int INDEX_MAGIC = 0x47484349;
+
+    private static final String INDEX_NAME = "index";
+
+    private static final int INDEX_VERSION = 1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final int RECORD_HEADER_BYTES = 12;
+
+    private static final int RECORD_MAGIC = 0x47484352;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+
+    private static final String SEGMENT_SUFFIX = ".dat";
+
+    private static final int SLOT_BYTES = 24;
+
+    /** Marks a slot whose entry was removed, so that probing continues past it. */
+    private static final int TOMBSTONE = -1;
+
+    private static Record decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        String key = in.readUTF();
+        if (in.readBoolean()) {
+            return new Record(key, null);
+        }
+        int headerCount = in.readInt();
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (int i = 0; i < headerCount; i++) {
+            String name = in.readUTF();
+            int valueCount = in.readInt();
+            List<String> values = new ArrayList<>(valueCount);
+            for (int j = 0; j < valueCount; j++) {
+                values.add(in.readUTF());
+            }
+            headers.put(name, values);
+        }
+        byte[] body = new byte[in.readInt()];
+        in.readFully(body);
+        return new Record(key, new CachedResponse(headers, body));
+    }
+
+    private static ByteBuffer encode(String key, @CheckForNull CachedResponse response) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(key);
+        out.writeBoolean(response == null);
+        if (response != null) {
+            out.writeInt(response.getHeaders().size());
+            for (Map.Entry<String, List<String>> header : response.getHeaders().entrySet()) {
+                out.writeUTF(header.getKey());
+                out.writeInt(header.getValue().size());
+                for (String value : header.getValue()) {
+                    out.writeUTF(value);
+                }
+            }
+            out.writeInt(response.getBody().length);
+            out.write(response.getBody());
+        }
+        out.flush();
+        byte[] data = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(data);
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + data.length);
+        record.putInt(RECORD_MAGIC).putInt((int) crc.getValue()).putInt(data.length).put(data);
+        record.flip();
+        return record;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the key. Zero marks an empty slot, so it is never returned.
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException();
+            }
+        }
+        buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+    }
+
+    private int activeSegment = -1;
+
+    private int capacity;
+
+    private final Path directory;
+
+    private long evictionCount = 0;
+
+    private MappedByteBuffer index;
+
+    private final FileChannel indexChannel;
+
+    private long liveBytes = 0;
+
+    private long liveCount = 0;
+
+    private final FileLock lock;
+
+    private final long maximumBytes;
+
+    private final long maximumSegmentBytes;
+
+    private final TreeMap<Integer, FileChannel> segments = new TreeMap<>();
+
+    private long totalBytes = 0;
+
+    private int usedSlots = 0;
+
+    /**
+     * Opens a store, creating the directory if needed.
+     *
+     * @param directory
+     *            the directory that holds the index and segment files
+     * @param maximumBytes
+     *            the size of the segment files, in bytes, above which they are compacted
+     * @throws IOException
+     *             if the directory could not be opened, or is in use by another store
+     */
+    public DiskResponseCacheStore(@Nonnull Path directory, long maximumBytes) throws IOException {
+        if (maximumBytes <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        this.directory = directory;
+        this.maximumBytes = maximumBytes;
+        this.maximumSegmentBytes = Math.max(1, maximumBytes / 8);
+
+        Files.createDirectories(directory);
+        indexChannel = FileChannel.open(directory.resolve(INDEX_NAME),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        FileLock acquired = null;
+        try {
+            try {
+                acquired = indexChannel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                acquired = null;
+            }
+            if (acquired == null) {
+                throw new IOException("Cache directory " + directory + " is in use by another store");
+            }
+            openSegments();
+            if (!loadIndex()) {
+                rebuildIndex();
+            }
+        } catch (IOException | RuntimeException e) {
+            closeChannels();
+            indexChannel.close();
+            throw e;
+        }
+        lock = acquired;
+    }
+
+    /**
+     * Writes the index to disk and closes the store.
+     *
+     * @throws IOException
+     *             if the files could not be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!indexChannel.isOpen()) {
+            return;
+        }
+        index.force();
+        closeChannels();
+        lock.release();
+        indexChannel.close();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @CheckForNull
+    @Override
+    public synchronized CachedResponse get(@Nonnull String key) throws IOException {
+        int slot = findSlot(key, hash(key));
+        if (slot < 0) {
+            return null;
+        }
+        Record record = readRecord(location(slot));
+        if (record == null || record.response == null) {
+            // The record did not survive an earlier crash
+            removeSlot(slot);
+            return null;
+        }
+        return record.response;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized long getSize() {
+        return liveCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void put(@Nonnull String key, @Nonnull CachedResponse response) throws IOException {
+        long hash = hash(key);
+        Location location = append(hash, encode(key, response));
+        int existing = findSlot(key, hash);
+        if (existing >= 0) {
+            removeSlot(existing);
+        }
+        insert(location);
+        if (totalBytes > maximumBytes) {
+            compact();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void remove(@Nonnull String key) throws IOException {
+        long hash = hash(key);
+        int slot = findSlot(key, hash);
+        if (slot >= 0) {
+            // Record the removal, so that it is not undone if the index is rebuilt
+            append(hash, encode(key, null));
+            removeSlot(slot);
+        }
+    }
+
+    private Location append(long hash, ByteBuffer record) throws IOException {
+        int length = record.remaining();
+        FileChannel channel = segments.get(activeSegment);
+        if (channel == null || (channel.size() > 0 && channel.size() + length > maximumSegmentBytes)) {
+            channel = openSegment(activeSegment + 1);
+        }
+        long offset = channel.size();
+        writeFully(channel, record, offset);
+        totalBytes += length;
+        return new Location(hash, activeSegment, offset, length);
+    }
+
+    private void clearIndex(int newCapacity) throws IOException {
+        capacity = newCapacity;
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER_BYTES + (long) capacity * SLOT_BYTES);
+        usedSlots = 0;
+        writeIndexHeader(0);
+        for (int position = INDEX_HEADER_BYTES; position < index.capacity(); position += 8) {
+            index.putLong(position, 0);
+        }
+        liveCount = 0;
+        liveBytes = 0;
+    }
+
+    private void closeChannels() throws IOException {
+        for (FileChannel channel : segments.values()) {
+            channel.close();
+        }
+        segments.clear();
+    }
+
+    /**
+     * Copies the live records to new segments, dropping the oldest ones until they fit in half of the limit.
+     */
+    private void compact() throws IOException {
+        List<Location> live = liveLocations();
+        live.sort(Comparator.<Location>comparingInt(location -> location.segment)
+                .thenComparingLong(location -> location.offset));
+        long keptBytes = liveBytes;
+        int first = 0;
+        while (first < live.size() && keptBytes > maximumBytes / 2) {
+            keptBytes -= live.get(first).length;
+            first++;
+        }
+        evictionCount += first;
+
+        List<Integer> oldSegments = new ArrayList<>(segments.keySet());
+        List<Location> kept = new ArrayList<>(live.size() - first);
+        openSegment(activeSegment + 1);
+        for (Location location : live.subList(first, live.size())) {
+            ByteBuffer record = ByteBuffer.allocate(location.length);
+            readFully(segments.get(location.segment), record, location.offset);
+            kept.add(append(location.hash, record));
+        }
+        for (Integer segment : oldSegments) {
+            FileChannel channel = segments.remove(segment);
+            totalBytes -= channel.size();
+            channel.close();
+            Files.delete(segmentPath(segment));
+        }
+
+        clearIndex(capacity);
+        for (Location location : kept) {
+            insert(location);
+        }
+        writeIndexHeader(INDEX_MAGIC);
+    }
+
+    private int findSlot(String key, long hash) throws IOException {
+        int slot = homeSlot(hash);
+        for (int probes = 0; probes < capacity; probes++) {
+            long slotHash = index.getLong(slotPosition(slot));
+            if (slotHash == 0) {
+                return -1;
+            }
+            if (slotHash == hash && index.getInt(slotPosition(slot) + 8) != TOMBSTONE) {
+                if (key.equals(readKey(location(slot)))) {
+                    return slot;
+                }
+            }
+            slot = (slot + 1) % capacity;
+        }
+        return -1;
+    }
+
+    private int homeSlot(long hash) {
+        return (int) Long.remainderUnsigned(hash, capacity);
+    }
+
+    private void insert(Location location) throws IOException {
+        if ((usedSlots + 1) * 10L > capacity * 7L) {
+            List<Location> live = liveLocations();
+            clearIndex(capacity * 2);
+            for (Location existing : live) {
+                insertSlot(existing);
+            }
+            writeIndexHeader(INDEX_MAGIC);
+        }
+        insertSlot(location);
+    }
+
+    private void insertSlot(Location location) {
+        int slot = homeSlot(location.hash);
+        while (index.getLong(slotPosition(slot)) != 0 && index.getInt(slotPosition(slot) + 8) != TOMBSTONE) {
+            slot = (slot + 1) % capacity;
+        }
+        int position = slotPosition(slot);
+        if (index.getLong(position) == 0) {
+            usedSlots++;
+        }
+        index.putInt(position + 8, location.segment);
+        index.putInt(position + 12, location.length);
+        index.putLong(position + 16, location.offset);
+        index.putLong(position, location.hash);
+        index.putInt(12, usedSlots);
+        liveCount++;
+        liveBytes += location.length;
+    }
+
+    private List<Location> liveLocations() {
+        List<Location> live = new ArrayList<>();
+        for (int slot = 0; slot < capacity; slot++) {
+            if (index.getLong(slotPosition(slot)) != 0 && index.getInt(slotPosition(slot) + 8) != TOMBSTONE) {
+                live.add(location(slot));
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Maps the existing index, if it was completely written and matches the segments.
+     */
+    private boolean loadIndex() throws IOException {
+        long size = indexChannel.size();
+        if (size < INDEX_HEADER_BYTES) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_BYTES);
+        readFully(indexChannel, header, 0);
+        int storedCapacity = header.getInt(8);
+        if (header.getInt(0) != INDEX_MAGIC || header.getInt(4) != INDEX_VERSION || storedCapacity <= 0
+                || size < INDEX_HEADER_BYTES + (long) storedCapacity * SLOT_BYTES) {
+            return false;
+        }
+        capacity = storedCapacity;
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER_BYTES + (long) capacity * SLOT_BYTES);
+        usedSlots = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            if (index.getLong(slotPosition(slot)) != 0) {
+                usedSlots++;
+            }
+        }
+        for (Location location : liveLocations()) {
+            FileChannel channel = segments.get(location.segment);
+            if (channel == null || location.offset + location.length > channel.size()) {
+                return false;
+            }
+            liveCount++;
+            liveBytes += location.length;
+        }
+        return true;
+    }
+
+    private Location location(int slot) {
+        int position = slotPosition(slot);
+        return new Location(index.getLong(position),
+                index.getInt(position + 8),
+                index.getLong(position + 16),
+                index.getInt(position + 12));
+    }
+
+    private FileChannel openSegment(int segment) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segments.put(segment, channel);
+        activeSegment = Math.max(activeSegment, segment);
+        return channel;
+    }
+
+    private void openSegments() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    int segment = Integer.parseInt(
+                            name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                    totalBytes += openSegment(segment).size();
+                } catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+    }
+
+    @CheckForNull
+    private String readKey(Location location) throws IOException {
+        FileChannel channel = segments.get(location.segment);
+        if (channel == null || location.length < RECORD_HEADER_BYTES + 2
+                || location.offset + location.length > channel.size()) {
+            return null;
+        }
+        ByteBuffer keyLength = ByteBuffer.allocate(2);
+        readFully(channel, keyLength, location.offset + RECORD_HEADER_BYTES);
+        int length = 2 + (keyLength.getShort(0) & 0xffff);
+        if (RECORD_HEADER_BYTES + length > location.length) {
+            return null;
+        }
+        ByteBuffer key = ByteBuffer.allocate(length);
+        readFully(channel, key, location.offset + RECORD_HEADER_BYTES);
+        try {
+            return new DataInputStream(new ByteArrayInputStream(key.array())).readUTF();
+        } catch (UTFDataFormatException e) {
+            return null;
+        }
+    }
+
+    @CheckForNull
+    private Record readRecord(Location location) throws IOException {
+        FileChannel channel = segments.get(location.segment);
+        if (channel == null || location.length < RECORD_HEADER_BYTES
+                || location.offset + location.length > channel.size()) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(location.length);
+        readFully(channel, buffer, location.offset);
+        return readRecord(buffer);
+    }
+
+    @CheckForNull
+    private Record readRecord(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < RECORD_HEADER_BYTES || buffer.getInt() != RECORD_MAGIC) {
+            return null;
+        }
+        int crc = buffer.getInt();
+        int length = buffer.getInt();
+        if (length != buffer.remaining()) {
+            return null;
+        }
+        byte[] data = new byte[length];
+        buffer.get(data);
+        CRC32 actual = new CRC32();
+        actual.update(data);
+        if ((int) actual.getValue() != crc) {
+            return null;
+        }
+        return decode(data);
+    }
+
+    /**
+     * Recreates the index by reading every segment in order. A record that was not written completely ends its
+     * segment, which is truncated there.
+     */
+    private void rebuildIndex() throws IOException {
+        clearIndex(INITIAL_CAPACITY);
+        for (Map.Entry<Integer, FileChannel> segment : segments.entrySet()) {
+            FileChannel channel = segment.getValue();
+            long offset = 0;
+            while (offset < channel.size()) {
+                Record record = null;
+                int length = 0;
+                if (channel.size() - offset >= RECORD_HEADER_BYTES) {
+                    ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+                    readFully(channel, header, offset);
+                    long dataLength = header.getInt(8);
+                    if (dataLength >= 0 && offset + RECORD_HEADER_BYTES + dataLength <= channel.size()) {
+                        length = (int) (RECORD_HEADER_BYTES + dataLength);
+                        ByteBuffer buffer = ByteBuffer.allocate(length);
+                        readFully(channel, buffer, offset);
+                        record = readRecord(buffer);
+                    }
+                }
+                if (record == null) {
+                    totalBytes -= channel.size() - offset;
+                    channel.truncate(offset);
+                    break;
+                }
+                long hash = hash(record.key);
+                int existing = findSlot(record.key, hash);
+                if (existing >= 0) {
+                    removeSlot(existing);
+                }
+                if (record.response != null) {
+                    insert(new Location(hash, segment.getKey(), offset, length));
+                }
+                offset += length;
+            }
+        }
+        writeIndexHeader(INDEX_MAGIC);
+    }
+
+    private void removeSlot(int slot) {
+        int position = slotPosition(slot);
+        liveCount--;
+        liveBytes -= index.getInt(position + 12);
+        index.putInt(position + 8, TOMBSTONE);
+    }
+
+    private Path segmentPath(int segment) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private int slotPosition(int slot) {
+        return INDEX_HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+    /**
+     * Writes the index header. A magic number of zero marks the index as incomplete while it is being rebuilt.
+     */
+    private void writeIndexHeader(int magic) {
+        index.putInt(4, INDEX_VERSION);
+        index.putInt(8, capacity);
+        index.putInt(12, usedSlots);
+        index.putInt(0, magic);
+    }
+}
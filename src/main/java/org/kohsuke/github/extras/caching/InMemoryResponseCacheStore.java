@@ -0,0 +1,95 @@
+package org.kohsuke.github.extras.caching;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * A {@link ResponseCacheStore} that keeps responses in memory, evicting the least recently used ones once the total
+ * size of the stored bodies exceeds a limit.
+ */
+public class InMemoryResponseCacheStore implements ResponseCacheStore {
+
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long evictionCount = 0;
+
+    private final long maximumBytes;
+
+    private long totalBytes = 0;
+
+    /**
+     * Creates a store.
+     *
+     * @param maximumBytes
+     *            the maximum total size of the stored response bodies, in bytes
+     */
+    public InMemoryResponseCacheStore(long maximumBytes) {
+        if (maximumBytes <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        this.maximumBytes = maximumBytes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @CheckForNull
+    @Override
+    public synchronized CachedResponse get(@Nonnull String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized long getSize() {
+        return entries.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Responses larger than the maximum size of this store are not stored.
+     */
+    @Override
+    public synchronized void put(@Nonnull String key, @Nonnull CachedResponse response) {
+        remove(key);
+        long size = response.getBody().length;
+        if (size > maximumBytes) {
+            return;
+        }
+        entries.put(key, response);
+        totalBytes += size;
+
+        Iterator<Map.Entry<String, CachedResponse>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maximumBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().getBody().length;
+            eldest.remove();
+            evictionCount++;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void remove(@Nonnull String key) {
+        CachedResponse removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.getBody().length;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.kohsuke.github.extras.caching;
+
+import java.io.IOException;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Storage for the responses kept by {@link CachingGitHubConnector}.
+ * <p>
+ * Keys are computed by the connector from the request URL, {@code Accept} header and a fingerprint of the
+ * {@code Authorization} header, so that responses are never shared between credentials. Implementations must be
+ * thread-safe, and may drop entries at any time to stay within their limits.
+ */
+public interface ResponseCacheStore {
+
+    /**
+     * Gets a stored response.
+     *
+     * @param key
+     *            the key
+     * @return the response, or {@code null} if there is none
+     * @throws IOException
+     *             if the store could not be read
+     */
+    @CheckForNull
+    CachedResponse get(@Nonnull String key) throws IOException;
+
+    /**
+     * Gets the number of entries dropped to stay within the limits of this store.
+     *
+     * @return the eviction count
+     */
+    long getEvictionCount();
+
+    /**
+     * Gets the number of entries currently stored.
+     *
+     * @return the number of entries
+     */
+    long getSize();
+
+    /**
+     * Stores a response, replacing any response stored with the same key.
+     *
+     * @param key
+     *            the key
+     * @param response
+     *            the response
+     * @throws IOException
+     *             if the store could not be written
+     */
+    void put(@Nonnull String key, @Nonnull CachedResponse response) throws IOException;
+
+    /**
+     * Removes a stored response, if present.
+     *
+     * @param key
+     *            the key
+     * @throws IOException
+     *             if the store could not be written
+     */
+    void remove(@Nonnull String key) throws IOException;
+}
@@ -8,9 +8,11 @@ import org.kohsuke.github.connector.GitHubConnectorResponse;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.CheckForNull;
@@ -22,6 +24,10 @@ import javax.annotation.Nonnull;
  * Unlike {@link #DEFAULT}, OkHttp supports response caching. Making a conditional request against GitHub API and
  * receiving a 304 response does not count against the rate limit. See
  * http://developer.github.com/v3/#conditional-requests
+ * <p>
+ * The {@link GitHubConnectorRequest#timeout()} of a request becomes the {@link Call#timeout()} of its call, which also
+ * covers reading the response body, and the call is cancelled when its
+ * {@link GitHubConnectorRequest#cancellation()} completes.
  *
  * @author Liam Newman
  */
@@ -121,7 +127,17 @@ public class OkHttpGitHubConnector implements GitHubConnector {
         }
         builder.method(request.method(), body);
         Request okhttpRequest = builder.build();
-        Response okhttpResponse = client.newCall(okhttpRequest).execute();
+        Call call = client.newCall(okhttpRequest);
+        Duration timeout = request.timeout();
+        if (timeout != null) {
+            // a timeout of zero means none, an exhausted one times out right away
+            call.timeout().timeout(Math.max(1, timeout.toNanos()), TimeUnit.NANOSECONDS);
+        }
+        CompletionStage<Void> cancellation = request.cancellation();
+        if (cancellation != null) {
+            cancellation.thenRun(call::cancel);
+        }
+        Response okhttpResponse = call.execute();
 
         return new OkHttpGitHubConnectorResponse(request, okhttpResponse);
     }
@@ -0,0 +1,41 @@
+package org.kohsuke.github.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Utils for fingerprints, which identify values such as credentials without keeping them.
+ */
+public final class Fingerprints {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Returns the SHA-256 digest of a value, in lower case hexadecimal.
+     *
+     * @param value
+     *            the value, encoded in UTF-8
+     * @return the fingerprint
+     */
+    @Nonnull
+    public static String sha256(@Nonnull String value) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required to be supported", e);
+        }
+        char[] hex = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            hex[2 * i] = HEX_DIGITS[(digest[i] >> 4) & 0xf];
+            hex[2 * i + 1] = HEX_DIGITS[digest[i] & 0xf];
+        }
+        return new String(hex);
+    }
+
+    private Fingerprints() {
+    }
+}
@@ -0,0 +1,200 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+import org.kohsuke.github.authorization.AuthorizationProvider;
+import org.kohsuke.github.authorization.CredentialPoolAuthorizationProvider;
+import org.kohsuke.github.authorization.ImmutableAuthorizationProvider;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Unit tests for {@link CredentialPoolAuthorizationProvider}.
+ */
+public class CredentialPoolAuthorizationProviderTest extends AbstractGitHubWireMockTest {
+
+    private static final String RESET = Long.toString(Instant.now().plusSeconds(3600).getEpochSecond());
+
+    private static CredentialPoolAuthorizationProvider pool() {
+        return new CredentialPoolAuthorizationProvider(Arrays.asList(ImmutableAuthorizationProvider.fromOauthToken("a"),
+                ImmutableAuthorizationProvider.fromOauthToken("b")));
+    }
+
+    private static String tokens(ScriptedGitHubConnector connector) {
+        return connector.getRequests()
+                .stream()
+                .map(request -> request.header("Authorization"))
+                .collect(Collectors.joining(","));
+    }
+
+    private static GitHub withPool(CredentialPoolAuthorizationProvider pool, ScriptedGitHubConnector connector)
+            throws IOException {
+        return new GitHubBuilder().withEndpoint("https://api.example.com")
+                .withAuthorizationProvider(pool)
+                .withConnector(connector)
+                .withRateLimitHandler(GitHubRateLimitHandler.FAIL)
+                .build();
+    }
+
+    /**
+     * Create default CredentialPoolAuthorizationProviderTest instance
+     */
+    public CredentialPoolAuthorizationProviderTest() {
+    }
+
+    /**
+     * Each credential is tried once, then requests go to the credential with the most remaining requests.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void routesByRemainingQuota() throws Exception {
+        CredentialPoolAuthorizationProvider pool = pool();
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(request -> {
+            String remaining = "token a".equals(request.header("Authorization")) ? "10" : "100";
+            return ScriptedGitHubConnector.response(request,
+                    200,
+                    "{\"login\":\"octocat\",\"id\":1}",
+                    "X-RateLimit-Limit",
+                    "5000",
+                    "X-RateLimit-Remaining",
+                    remaining,
+                    "X-RateLimit-Reset",
+                    RESET);
+        });
+        GitHub github = withPool(pool, connector);
+
+        for (int i = 0; i < 4; i++) {
+            github.getUser("octocat" + i);
+        }
+        assertThat(tokens(connector), equalTo("token a,token b,token b,token b"));
+        assertThat(pool.getRemaining(0, RateLimitTarget.CORE), equalTo(10));
+        assertThat(pool.getRemaining(1, RateLimitTarget.NONE), equalTo(100));
+        assertThat(pool.getRemaining(1, RateLimitTarget.SEARCH), equalTo(-1));
+    }
+
+    /**
+     * A request rejected because its credential is exhausted is sent again with another credential.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void failsOverWhenExhausted() throws Exception {
+        CredentialPoolAuthorizationProvider pool = pool();
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(request -> {
+            if ("token a".equals(request.header("Authorization"))) {
+                return ScriptedGitHubConnector.response(request,
+                        403,
+                        "{\"message\":\"API rate limit exceeded\"}",
+                        "X-RateLimit-Limit",
+                        "5000",
+                        "X-RateLimit-Remaining",
+                        "0",
+                        "X-RateLimit-Reset",
+                        RESET);
+            }
+            return ScriptedGitHubConnector.response(request, 200, "{\"login\":\"octocat\",\"id\":1}");
+        });
+        GitHub github = withPool(pool, connector);
+
+        assertThat(github.getUser("octocat").getLogin(), equalTo("octocat"));
+        assertThat(tokens(connector), equalTo("token a,token b"));
+
+        // with every credential exhausted, the rate limit handler is called
+        ScriptedGitHubConnector exhausted = new ScriptedGitHubConnector(request -> ScriptedGitHubConnector
+                .response(request, 403, "{}", "X-RateLimit-Remaining", "0", "X-RateLimit-Reset", RESET));
+        GitHub exhaustedGitHub = withPool(new CredentialPoolAuthorizationProvider(
+                Collections.singletonList(ImmutableAuthorizationProvider.fromOauthToken("a"))), exhausted);
+        assertThrows(IOException.class, () -> exhaustedGitHub.getUser("octocat"));
+        assertThat(exhausted.getRequests().size(), equalTo(1));
+    }
+
+    /**
+     * Credentials whose quota was renewed are taken in turns like those without a known quota, whenever their quota was
+     * renewed, and large pools mixing both can be ranked.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void renewedQuotasTakenInTurns() throws Exception {
+        CredentialPoolAuthorizationProvider pool = pool();
+        long past = Instant.now().minusSeconds(3600).getEpochSecond();
+        assertThat(pool.getEncodedAuthorization(RateLimitTarget.CORE), equalTo("token a"));
+        assertThat(pool.getEncodedAuthorization(RateLimitTarget.CORE), equalTo("token b"));
+        pool.noteRateLimit("token a", RateLimitTarget.CORE, new GHRateLimit.Record(5000, 0, past + 60));
+        pool.noteRateLimit("token b", RateLimitTarget.CORE, new GHRateLimit.Record(5000, 0, past));
+        assertThat(pool.getEncodedAuthorization(RateLimitTarget.CORE), equalTo("token a"));
+        assertThat(pool.getEncodedAuthorization(RateLimitTarget.CORE), equalTo("token b"));
+
+        AuthorizationProvider[] providers = new AuthorizationProvider[64];
+        for (int i = 0; i < providers.length; i++) {
+            providers[i] = ImmutableAuthorizationProvider.fromOauthToken("t" + i);
+        }
+        CredentialPoolAuthorizationProvider large = new CredentialPoolAuthorizationProvider(Arrays.asList(providers));
+        for (int i = 0; i < providers.length; i++) {
+            assertThat(large.getEncodedAuthorization(RateLimitTarget.CORE), equalTo("token t" + i));
+        }
+        for (int i = 0; i < providers.length; i += 2) {
+            // renewed quotas, with resets in decreasing order, between unknown ones
+            large.noteRateLimit("token t" + i, RateLimitTarget.CORE, new GHRateLimit.Record(5000, 0, past - i));
+        }
+        for (int i = 0; i < providers.length; i++) {
+            assertThat(large.getEncodedAuthorization(RateLimitTarget.CORE), equalTo("token t" + i));
+        }
+    }
+
+    /**
+     * Providers that rotate their credentials only have their latest credentials tracked.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void tracksLatestRotatedCredentials() throws Exception {
+        AtomicInteger tokens = new AtomicInteger();
+        AuthorizationProvider rotating = () -> "token rotated-" + tokens.incrementAndGet();
+        CredentialPoolAuthorizationProvider pool = new CredentialPoolAuthorizationProvider(
+                Collections.singletonList(rotating));
+        GHRateLimit.Record record = new GHRateLimit.Record(5000, 42, Long.parseLong(RESET));
+
+        assertThat(pool.getEncodedAuthorization(RateLimitTarget.CORE), equalTo("token rotated-1"));
+        assertThat(pool.getEncodedAuthorization(RateLimitTarget.CORE), equalTo("token rotated-2"));
+        pool.noteRateLimit("token rotated-1", RateLimitTarget.CORE, record);
+        assertThat(pool.getRemaining(0, RateLimitTarget.CORE), equalTo(-1));
+        pool.noteRateLimit("token rotated-2", RateLimitTarget.CORE, record);
+        assertThat(pool.getRemaining(0, RateLimitTarget.CORE), equalTo(42));
+    }
+
+    /**
+     * A failing provider is skipped, and an empty pool is rejected.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void skipsFailingProvider() throws Exception {
+        AuthorizationProvider failing = () -> {
+            throw new IOException("unavailable");
+        };
+        CredentialPoolAuthorizationProvider pool = new CredentialPoolAuthorizationProvider(
+                Arrays.asList(failing, ImmutableAuthorizationProvider.fromOauthToken("b")));
+
+        assertThat(pool.getEncodedAuthorization(RateLimitTarget.CORE), equalTo("token b"));
+        assertThat(pool.getEncodedAuthorization(RateLimitTarget.CORE), equalTo("token b"));
+        assertThrows(IOException.class,
+                () -> new CredentialPoolAuthorizationProvider(Collections.singletonList(failing))
+                        .getEncodedAuthorization());
+        assertThrows(IllegalArgumentException.class,
+                () -> new CredentialPoolAuthorizationProvider(Collections.<AuthorizationProvider>emptyList()));
+    }
+}
@@ -0,0 +1,176 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Unit tests for {@link GitHubCircuitBreaker}.
+ */
+public class GitHubCircuitBreakerTest extends AbstractGitHubWireMockTest {
+
+    private static final String HOST = "api.example.com";
+
+    private static GitHub scripted(ScriptedGitHubConnector connector, GitHubCircuitBreaker circuitBreaker)
+            throws Exception {
+        return new GitHubBuilder().withEndpoint("https://" + HOST)
+                .withOAuthToken("token", "octocat")
+                .withConnector(connector)
+                .withCircuitBreaker(circuitBreaker)
+                .build();
+    }
+
+    /**
+     * Create default GitHubCircuitBreakerTest instance
+     */
+    public GitHubCircuitBreakerTest() {
+    }
+
+    /**
+     * Consecutive server errors open the circuit, which then fails requests without sending them.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void opensAfterConsecutiveFailures() throws Exception {
+        GitHubCircuitBreaker circuitBreaker = new GitHubCircuitBreaker(3, Duration.ofMinutes(1), 1);
+        AtomicInteger status = new AtomicInteger(500);
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(
+                request -> ScriptedGitHubConnector.response(request, status.get(), "{\"login\":\"closed\",\"id\":1}"));
+        GitHub github = scripted(connector, circuitBreaker);
+
+        assertThrows(HttpException.class, () -> github.getUser("failing1"));
+        assertThrows(HttpException.class, () -> github.getUser("failing2"));
+        assertThat(circuitBreaker.getFailures(HOST), equalTo(2));
+        // a response from the host resets the count
+        status.set(404);
+        assertThrows(GHFileNotFoundException.class, () -> github.getUser("missing"));
+        assertThat(circuitBreaker.getFailures(HOST), equalTo(0));
+
+        status.set(503);
+        for (int i = 0; i < 3; i++) {
+            int attempt = i;
+            assertThrows(HttpException.class, () -> github.getUser("unavailable" + attempt));
+        }
+        assertThat(circuitBreaker.getState(HOST), equalTo(GitHubCircuitBreaker.State.OPEN));
+        assertThat(circuitBreaker.getStates().get(HOST), equalTo(GitHubCircuitBreaker.State.OPEN));
+        assertThat(circuitBreaker.getState("other.example.com"), equalTo(GitHubCircuitBreaker.State.CLOSED));
+
+        int sent = connector.getRequests().size();
+        CircuitOpenException e = assertThrows(CircuitOpenException.class, () -> github.getUser("fast"));
+        assertThat(e.getHost(), equalTo(HOST));
+        assertThat(connector.getRequests(), hasSize(sent));
+    }
+
+    /**
+     * Once the open duration is over, a probe is let through, closing the circuit when it succeeds and opening it
+     * again when it fails.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void probesWhenHalfOpen() throws Exception {
+        GitHubCircuitBreaker circuitBreaker = new GitHubCircuitBreaker(1, Duration.ofMillis(50), 1);
+        ScriptedGitHubConnector connector = ScriptedGitHubConnector.inOrder(request -> {
+            throw new ConnectException("refused");
+        },
+                request -> ScriptedGitHubConnector.response(request, 502, "{}"),
+                request -> ScriptedGitHubConnector.response(request, 200, "{\"login\":\"probe\",\"id\":1}"));
+        GitHub github = scripted(connector, circuitBreaker);
+
+        assertThrows(HttpException.class, () -> github.getUser("refused"));
+        assertThat(circuitBreaker.getState(HOST), equalTo(GitHubCircuitBreaker.State.OPEN));
+        assertThrows(CircuitOpenException.class, () -> github.getUser("fast"));
+
+        Thread.sleep(60);
+        assertThat(circuitBreaker.getState(HOST), equalTo(GitHubCircuitBreaker.State.HALF_OPEN));
+        assertThrows(HttpException.class, () -> github.getUser("failedProbe"));
+        assertThat(circuitBreaker.getState(HOST), equalTo(GitHubCircuitBreaker.State.OPEN));
+
+        Thread.sleep(60);
+        assertThat(github.getUser("probe").getLogin(), equalTo("probe"));
+        assertThat(circuitBreaker.getState(HOST), equalTo(GitHubCircuitBreaker.State.CLOSED));
+        assertThat(connector.getRequests(), hasSize(3));
+    }
+
+    /**
+     * Timeouts count as failures, while requests given up by their caller neither count nor take the probe slot of a
+     * half open circuit.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void givenUpRequestsAreNeutral() throws Exception {
+        GitHubCircuitBreaker circuitBreaker = new GitHubCircuitBreaker(2, Duration.ofMillis(50), 1);
+        RequestDeadline deadline = RequestDeadline.cancellable();
+        ScriptedGitHubConnector connector = ScriptedGitHubConnector.inOrder(request -> {
+            throw new HttpTimeoutException("request timed out");
+        }, request -> {
+            throw new IOException("Canceled");
+        }, request -> {
+            throw new ConnectException("refused");
+        }, request -> {
+            throw new IOException("Canceled");
+        }, request -> {
+            // the exchange of a cancelled request may end with any error
+            deadline.cancel();
+            throw new SocketTimeoutException("read timed out");
+        }, request -> ScriptedGitHubConnector.response(request, 200, "{\"login\":\"probe\",\"id\":1}"));
+        GitHub github = scripted(connector, circuitBreaker);
+
+        assertThrows(IOException.class, () -> github.getUser("timeout"));
+        assertThat(circuitBreaker.getFailures(HOST), equalTo(1));
+        assertThrows(IOException.class, () -> github.getUser("cancelled"));
+        assertThat(circuitBreaker.getFailures(HOST), equalTo(1));
+        assertThrows(IOException.class, () -> github.getUser("refused"));
+        assertThat(circuitBreaker.getState(HOST), equalTo(GitHubCircuitBreaker.State.OPEN));
+
+        Thread.sleep(60);
+        assertThrows(IOException.class, () -> github.getUser("cancelledProbe"));
+        assertThat(circuitBreaker.getState(HOST), equalTo(GitHubCircuitBreaker.State.HALF_OPEN));
+        assertThrows(IOException.class,
+                () -> github.createRequest().withUrlPath("/users/deadline").deadline(deadline).fetch(GHUser.class));
+        assertThat(circuitBreaker.getState(HOST), equalTo(GitHubCircuitBreaker.State.HALF_OPEN));
+        assertThat(github.getUser("probe").getLogin(), equalTo("probe"));
+        assertThat(circuitBreaker.getState(HOST), equalTo(GitHubCircuitBreaker.State.CLOSED));
+        assertThat(connector.getRequests(), hasSize(6));
+    }
+
+    /**
+     * Asynchronous requests fail fast as well.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void asyncRequestsFailFast() throws Exception {
+        GitHubCircuitBreaker circuitBreaker = new GitHubCircuitBreaker(1, Duration.ofMinutes(1), 1);
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(
+                request -> ScriptedGitHubConnector.response(request, 504, "{}"));
+        GitHub github = scripted(connector, circuitBreaker);
+        GitHubRequest request = GitHubRequest.newBuilder()
+                .withApiUrl("https://" + HOST)
+                .withUrlPath("/users/async")
+                .build();
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> github.getClient().sendRequestAsync(request, response -> response.statusCode()).join());
+        assertThat(e.getCause(), instanceOf(HttpException.class));
+        e = assertThrows(CompletionException.class,
+                () -> github.getClient().sendRequestAsync(request, response -> response.statusCode()).join());
+        assertThat(e.getCause(), instanceOf(CircuitOpenException.class));
+        assertThat(connector.getRequests(), hasSize(1));
+    }
+}
@@ -0,0 +1,120 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+import org.kohsuke.github.connector.GitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Tests for {@link GitHubClient#sendRequestAsync(GitHubRequest, GitHubClient.BodyHandler)}.
+ */
+public class GitHubClientAsyncTest extends AbstractGitHubWireMockTest {
+
+    private static final String USER_JSON = "{\"login\":\"octocat\",\"id\":1}";
+
+    /**
+     * Create default GitHubClientAsyncTest instance
+     */
+    public GitHubClientAsyncTest() {
+    }
+
+    /**
+     * The response body is parsed on completion.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void sendRequestAsync() throws Exception {
+        ScriptedGitHubConnector connector = ScriptedGitHubConnector
+                .inOrder(request -> ScriptedGitHubConnector.response(request, 200, USER_JSON));
+        GitHub gitHub = new GitHubBuilder().withEndpoint("https://api.example.com").withConnector(connector).build();
+
+        GitHubResponse<GHUser> response = gitHub.getClient()
+                .sendRequestAsync(gitHub.createRequest().withUrlPath("/user").build(),
+                        r -> GitHubResponse.parseBody(r, GHUser.class))
+                .get();
+
+        assertThat(response.statusCode(), equalTo(200));
+        assertThat(response.body().getLogin(), equalTo("octocat"));
+        assertThat(connector.getRequests().size(), equalTo(1));
+    }
+
+    /**
+     * Connectors that only support blocking sends are called from a background thread.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void sendRequestAsyncBlockingConnector() throws Exception {
+        Thread caller = Thread.currentThread();
+        GitHubConnector connector = request -> {
+            assertThat(Thread.currentThread(), not(sameInstance(caller)));
+            return ScriptedGitHubConnector.response(request, 200, USER_JSON);
+        };
+        GitHub gitHub = new GitHubBuilder().withEndpoint("https://api.example.com").withConnector(connector).build();
+
+        GitHubResponse<GHUser> response = gitHub.getClient()
+                .sendRequestAsync(gitHub.createRequest().withUrlPath("/user").build(),
+                        r -> GitHubResponse.parseBody(r, GHUser.class))
+                .get();
+
+        assertThat(response.body().getLogin(), equalTo("octocat"));
+    }
+
+    /**
+     * Redirects are followed and the Authorization header is dropped for other hosts.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void sendRequestAsyncRedirect() throws Exception {
+        ScriptedGitHubConnector connector = ScriptedGitHubConnector.inOrder(
+                request -> ScriptedGitHubConnector
+                        .response(request, 302, "", "Location", "https://elsewhere.example.com/user"),
+                request -> ScriptedGitHubConnector.response(request, 200, USER_JSON));
+        GitHub gitHub = new GitHubBuilder().withEndpoint("https://api.example.com")
+                .withOAuthToken("token", "octocat")
+                .withConnector(connector)
+                .build();
+
+        GitHubResponse<GHUser> response = gitHub.getClient()
+                .sendRequestAsync(gitHub.createRequest().withUrlPath("/user").build(),
+                        r -> GitHubResponse.parseBody(r, GHUser.class))
+                .get();
+
+        assertThat(response.body().getLogin(), equalTo("octocat"));
+        List<GitHubConnectorRequest> requests = connector.getRequests();
+        assertThat(requests.size(), equalTo(2));
+        assertThat(requests.get(0).header("Authorization"), equalTo("token token"));
+        assertThat(requests.get(1).url().toString(), equalTo("https://elsewhere.example.com/user"));
+        assertThat(requests.get(1).header("Authorization"), nullValue());
+    }
+
+    /**
+     * Errors complete the future exceptionally with the same exception the blocking call would throw.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void sendRequestAsyncError() throws Exception {
+        ScriptedGitHubConnector connector = ScriptedGitHubConnector
+                .inOrder(request -> ScriptedGitHubConnector.response(request, 404, "{\"message\":\"Not Found\"}"));
+        GitHub gitHub = new GitHubBuilder().withEndpoint("https://api.example.com").withConnector(connector).build();
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> gitHub.getClient()
+                        .sendRequestAsync(gitHub.createRequest().withUrlPath("/user").build(),
+                                r -> GitHubResponse.parseBody(r, GHUser.class))
+                        .get());
+        assertThat(e.getCause(), instanceOf(GHFileNotFoundException.class));
+    }
+}
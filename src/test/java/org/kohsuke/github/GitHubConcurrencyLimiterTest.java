@@ -0,0 +1,149 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Unit tests for {@link GitHubConcurrencyLimiter}.
+ */
+public class GitHubConcurrencyLimiterTest extends AbstractGitHubWireMockTest {
+
+    private static GitHubRequest request() throws Exception {
+        return GitHubRequest.newBuilder().withApiUrl("https://api.example.com").build();
+    }
+
+    private static GitHubConnectorResponse response(int statusCode, String... headers) throws Exception {
+        return ScriptedGitHubConnector.response(request(), statusCode, "{}", headers);
+    }
+
+    /**
+     * Create default GitHubConcurrencyLimiterTest instance
+     */
+    public GitHubConcurrencyLimiterTest() {
+    }
+
+    /**
+     * Requests over the limit wait until a permit is returned.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void waitsForPermit() throws Exception {
+        GitHubConcurrencyLimiter limiter = new GitHubConcurrencyLimiter(1, 1);
+        limiter.acquire(request());
+        long startNanos = System.nanoTime();
+        CompletableFuture<Void> waiting = limiter.acquireAsync(request());
+
+        assertThat(waiting.isDone(), is(false));
+        assertThat(limiter.getWaiting(), equalTo(1));
+
+        limiter.release(startNanos, response(200));
+        assertThat(waiting.isDone(), is(true));
+        assertThat(limiter.getInFlight(), equalTo(1));
+        assertThat(limiter.getWaiting(), equalTo(0));
+    }
+
+    /**
+     * Requests stop waiting for a permit once their deadline passes or is cancelled, and leave the queue.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void givesUpAtDeadline() throws Exception {
+        GitHubConcurrencyLimiter limiter = new GitHubConcurrencyLimiter(1, 1);
+        limiter.acquire(request());
+
+        GitHubRequest timed = GitHubRequest.newBuilder()
+                .withApiUrl("https://api.example.com")
+                .deadline(RequestDeadline.after(Duration.ofMillis(50)))
+                .build();
+        assertThrows(RequestCancelledException.class, () -> limiter.acquire(timed));
+        assertThat(limiter.getWaiting(), equalTo(0));
+
+        RequestDeadline deadline = RequestDeadline.cancellable();
+        CompletableFuture<Void> waiting = limiter.acquireAsync(
+                GitHubRequest.newBuilder().withApiUrl("https://api.example.com").deadline(deadline).build());
+        assertThat(limiter.getWaiting(), equalTo(1));
+        deadline.cancel();
+        ExecutionException e = assertThrows(ExecutionException.class, waiting::get);
+        assertThat(e.getCause(), instanceOf(RequestCancelledException.class));
+        assertThat(limiter.getWaiting(), equalTo(0));
+
+        limiter.release(System.nanoTime(), response(200));
+        assertThat(limiter.getInFlight(), equalTo(0));
+    }
+
+    /**
+     * The limit grows while responses are healthy, and is halved once for a burst of rejected requests.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void additiveIncreaseMultiplicativeDecrease() throws Exception {
+        GitHubConcurrencyLimiter limiter = new GitHubConcurrencyLimiter(2, 8);
+        for (int round = 0; round < 20; round++) {
+            int permits = limiter.getLimit();
+            for (int i = 0; i < permits; i++) {
+                limiter.acquire(request());
+            }
+            for (int i = 0; i < permits; i++) {
+                // a steady latency of about 10ms
+                limiter.release(System.nanoTime() - 10_000_000, response(200));
+            }
+        }
+        assertThat(limiter.getLimit(), equalTo(8));
+
+        long[] starts = new long[4];
+        for (int i = 0; i < starts.length; i++) {
+            limiter.acquire(request());
+            starts[i] = System.nanoTime();
+        }
+        for (long start : starts) {
+            limiter.release(start, response(429, "Retry-After", "60"));
+        }
+        assertThat(limiter.getLimit(), equalTo(4));
+
+        limiter.acquire(request());
+        limiter.release(System.nanoTime(), response(403, "gh-limited-by", "secondary"));
+        assertThat(limiter.getLimit(), equalTo(2));
+
+        limiter.acquire(request());
+        limiter.release(System.nanoTime(), response(403, "gh-limited-by", "secondary"));
+        assertThat(limiter.getLimit(), equalTo(2));
+        assertThat(limiter.getInFlight(), equalTo(0));
+    }
+
+    /**
+     * Requests sent through a {@link GitHub} instance take and return permits.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void usedByClient() throws Exception {
+        GitHubConcurrencyLimiter limiter = new GitHubConcurrencyLimiter(1, 4);
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(request -> {
+            assertThat(limiter.getInFlight(), equalTo(1));
+            return ScriptedGitHubConnector.response(request, 200, "{\"login\":\"octocat\",\"id\":1}");
+        });
+        GitHub github = new GitHubBuilder().withEndpoint("https://api.example.com")
+                .withOAuthToken("token", "octocat")
+                .withConnector(connector)
+                .withConcurrencyLimiter(limiter)
+                .build();
+
+        github.getUser("octocat");
+        assertThat(limiter.getInFlight(), equalTo(0));
+        assertThrows(IllegalArgumentException.class, () -> new GitHubConcurrencyLimiter(2, 1));
+    }
+}
@@ -0,0 +1,108 @@
+package org.kohsuke.github;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Unit tests for the JDK Flight Recorder events of requests and pages.
+ */
+public class GitHubFlightRecorderTest extends AbstractGitHubWireMockTest {
+
+    private static final String API_URL = "https://api.example.com";
+
+    private static List<RecordedEvent> events(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> result = new ArrayList<>();
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(name)) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Create default GitHubFlightRecorderTest instance
+     */
+    public GitHubFlightRecorderTest() {
+    }
+
+    /**
+     * Requests and pages are recorded with their endpoint, status, size and timings.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void recordsRequestsAndPages() throws Exception {
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(request -> request.url()
+                .toString()
+                .endsWith("page=2")
+                        ? ScriptedGitHubConnector.response(request,
+                                200,
+                                "[{\"login\":\"user3\"}]",
+                                "X-RateLimit-Remaining",
+                                "4998")
+                        : ScriptedGitHubConnector.response(request,
+                                200,
+                                "[{\"login\":\"user1\"},{\"login\":\"user2\"}]",
+                                "X-RateLimit-Remaining",
+                                "4999",
+                                "Link",
+                                "<" + API_URL + "/orgs/github/members?page=2>; rel=\"next\""));
+        GitHub github = new GitHubBuilder().withEndpoint(API_URL)
+                .withOAuthToken("token", "octocat")
+                .withConnector(connector)
+                .build();
+
+        Path file = Files.createTempFile("github-api", ".jfr");
+        List<RecordedEvent> recorded;
+        try (Recording recording = new Recording()) {
+            recording.enable("org.kohsuke.github.Request");
+            recording.enable("org.kohsuke.github.Page");
+            recording.start();
+            List<GHUser> users = github.createRequest()
+                    .withUrlPath("/orgs/github/members")
+                    .toIterable(GHUser[].class, null)
+                    .toList();
+            assertThat(users, hasSize(3));
+            recording.stop();
+            recording.dump(file);
+            recorded = RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        List<RecordedEvent> requests = events(recorded, "org.kohsuke.github.Request");
+        assertThat(requests, hasSize(2));
+        RecordedEvent first = requests.get(0);
+        assertThat(first.getString("method"), equalTo("GET"));
+        assertThat(first.getString("urlTemplate"), equalTo("/orgs/{org}/members"));
+        assertThat(first.getInt("statusCode"), equalTo(200));
+        assertThat(first.getInt("rateLimitRemaining"), equalTo(4999));
+        assertThat(first.getInt("retries"), equalTo(0));
+        assertThat(first.getLong("bodyBytes"), greaterThan(0L));
+        assertThat(first.getDuration().toNanos(),
+                greaterThanOrEqualTo(first.getDuration("networkTime").toNanos()
+                        + first.getDuration("parseTime").toNanos()));
+        assertThat(first.getString("error"), nullValue());
+
+        List<RecordedEvent> pages = events(recorded, "org.kohsuke.github.Page");
+        assertThat(pages, hasSize(2));
+        assertThat(pages.get(0).getInt("page"), equalTo(1));
+        assertThat(pages.get(0).getInt("items"), equalTo(2));
+        assertThat(pages.get(0).getBoolean("lastPage"), is(false));
+        assertThat(pages.get(1).getInt("page"), equalTo(2));
+        assertThat(pages.get(1).getInt("items"), equalTo(1));
+        assertThat(pages.get(1).getBoolean("lastPage"), is(true));
+        assertThat(pages.get(1).getString("url"), equalTo(API_URL + "/orgs/github/members?page=2"));
+    }
+}
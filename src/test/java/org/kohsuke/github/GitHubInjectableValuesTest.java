@@ -0,0 +1,84 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Unit tests for {@link GitHubInjectableValues}.
+ */
+public class GitHubInjectableValuesTest extends AbstractGitHubWireMockTest {
+
+    private static final String REPOSITORY = "{\"id\":1,\"name\":\"github-api\",\"full_name\":\"hub4j/github-api\","
+            + "\"owner\":{\"login\":\"hub4j\",\"id\":2}}";
+
+    /**
+     * Create default GitHubInjectableValuesTest instance
+     */
+    public GitHubInjectableValuesTest() {
+    }
+
+    /**
+     * The cached readers of each type inject the root and the response of each call, and the values of its request.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void injectsValuesOfEachCall() throws Exception {
+        GitHub github = GitHub.offline();
+        GitHub other = GitHub.offline();
+        GitHubConnectorResponse first = ScriptedGitHubConnector.response(
+                github.createRequest().withUrlPath("/repos/hub4j/github-api").build(),
+                200,
+                REPOSITORY,
+                "ETag",
+                "first");
+        GitHubConnectorResponse second = ScriptedGitHubConnector.response(
+                other.createRequest().withUrlPath("/repos/hub4j/github-api").build(),
+                200,
+                REPOSITORY,
+                "ETag",
+                "second");
+
+        GHRepository repository = GitHubResponse.parseBody(first, GHRepository.class);
+        assertThat(repository.root(), sameInstance(github));
+        assertThat(repository.getResponseHeaderFields().get("ETag"), contains("first"));
+        repository = GitHubResponse.parseBody(second, GHRepository.class);
+        assertThat(repository.root(), sameInstance(other));
+        assertThat(repository.getResponseHeaderFields().get("ETag"), contains("second"));
+
+        GHRepository[] repositories = GitHubClient.getMappingObjectReader(github, GHRepository[].class)
+                .readValue("[" + REPOSITORY + "]");
+        assertThat(repositories[0].root(), sameInstance(github));
+        assertThat(repositories[0].getResponseHeaderFields(), nullValue());
+    }
+
+    /**
+     * Values a type needs and the request did not inject fail the read, as they did with
+     * {@link com.fasterxml.jackson.databind.InjectableValues.Std}.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void failsWithoutValueOfRequest() throws Exception {
+        GitHub github = GitHub.offline();
+        String compare = "{\"status\":\"ahead\",\"ahead_by\":1,\"behind_by\":0,\"total_commits\":1,\"commits\":[]}";
+
+        GHCompare injected = GitHubResponse.parseBody(ScriptedGitHubConnector.response(github.createRequest()
+                .injectMappingValue("GHCompare_usePaginatedCommits", false)
+                .withUrlPath("/repos/hub4j/github-api/compare/main...feature")
+                .build(), 200, compare), GHCompare.class);
+        assertThat(injected.getAheadBy(), equalTo(1));
+
+        GitHubConnectorResponse missing = ScriptedGitHubConnector.response(
+                github.createRequest().withUrlPath("/repos/hub4j/github-api/compare/main...feature").build(),
+                200,
+                compare);
+        Exception e = assertThrows(Exception.class, () -> GitHubResponse.parseBody(missing, GHCompare.class));
+        assertThat(e.getMessage(), containsString("GHCompare_usePaginatedCommits"));
+    }
+}
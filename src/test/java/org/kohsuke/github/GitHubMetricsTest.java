@@ -0,0 +1,183 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Unit tests for {@link GitHubMetrics}.
+ */
+public class GitHubMetricsTest extends AbstractGitHubWireMockTest {
+
+    private static final String API_URL = "https://api.example.com";
+
+    private static GitHubMetrics.EndpointSnapshot find(List<GitHubMetrics.EndpointSnapshot> snapshot,
+            String method,
+            String urlTemplate) {
+        for (GitHubMetrics.EndpointSnapshot endpoint : snapshot) {
+            if (endpoint.getMethod().equals(method) && endpoint.getUrlTemplate().equals(urlTemplate)) {
+                return endpoint;
+            }
+        }
+        throw new AssertionError("No metrics for " + method + " " + urlTemplate);
+    }
+
+    /**
+     * Create default GitHubMetricsTest instance
+     */
+    public GitHubMetricsTest() {
+    }
+
+    /**
+     * Requests are recorded per method and endpoint template, with their statuses, retries, body sizes and the quota
+     * they used.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void recordsPerEndpoint() throws Exception {
+        String body = "{\"login\":\"octocat\",\"id\":1}";
+        ScriptedGitHubConnector connector = ScriptedGitHubConnector.inOrder(
+                request -> ScriptedGitHubConnector.response(request,
+                        200,
+                        body,
+                        "X-RateLimit-Used",
+                        "10",
+                        "X-RateLimit-Reset",
+                        "1700000000"),
+                request -> {
+                    throw new SocketTimeoutException("timed out");
+                },
+                request -> ScriptedGitHubConnector.response(request,
+                        200,
+                        body,
+                        "X-RateLimit-Used",
+                        "13",
+                        "X-RateLimit-Reset",
+                        "1700000000"),
+                request -> ScriptedGitHubConnector.response(request,
+                        404,
+                        "{\"message\":\"Not Found\"}",
+                        "X-RateLimit-Used",
+                        "14",
+                        "X-RateLimit-Reset",
+                        "1700000000"),
+                request -> ScriptedGitHubConnector.response(request,
+                        200,
+                        "{\"number\":1,\"id\":1}",
+                        "X-RateLimit-Used",
+                        "1",
+                        "X-RateLimit-Reset",
+                        "1700000000",
+                        "X-RateLimit-Resource",
+                        "search"));
+        GitHubMetrics metrics = new GitHubMetrics();
+        GitHub github = new GitHubBuilder().withEndpoint(API_URL)
+                .withOAuthToken("token", "octocat")
+                .withConnector(connector)
+                .withMetrics(metrics)
+                .withRetryPolicy(new GitHubRetryPolicy(2, Duration.ofMillis(1), Duration.ofMillis(5), 1))
+                .build();
+
+        github.createRequest().withUrlPath("/users/octocat").fetch(GHUser.class);
+        github.createRequest().withUrlPath("/users/hubot").fetch(GHUser.class);
+        assertThrows(IOException.class, () -> github.createRequest().withUrlPath("/users/missing").fetch(GHUser.class));
+        github.createRequest()
+                .method("PATCH")
+                .withUrlPath("/repos/octocat/hello-world/pulls/1")
+                .fetch(GHPullRequest.class);
+
+        List<GitHubMetrics.EndpointSnapshot> snapshot = metrics.snapshot();
+        assertThat(snapshot, hasSize(2));
+        GitHubMetrics.EndpointSnapshot users = find(snapshot, "GET", "/users/{username}");
+        assertThat(users.getRequests(), equalTo(3L));
+        assertThat(users.getFailures(), equalTo(1L));
+        assertThat(users.getRetries(), equalTo(1L));
+        assertThat(users.getStatusCodes().get(200), equalTo(2L));
+        assertThat(users.getStatusCodes().get(404), equalTo(1L));
+        // the first response only counts itself, then the increases of X-RateLimit-Used
+        assertThat(users.getRateLimitUsed(), equalTo(1L + 3L + 1L));
+        assertThat(users.getLatency().getCount(), equalTo(3L));
+        assertThat(users.getLatency().getMin(), greaterThan(0L));
+        assertThat(users.getBodyBytes().getCount(), equalTo(2L));
+        assertThat(users.getBodyBytes().getMax(), equalTo((long) body.length()));
+
+        GitHubMetrics.EndpointSnapshot pulls = find(snapshot, "PATCH", "/repos/{owner}/{repo}/pulls/{pull_number}");
+        assertThat(pulls.getRequests(), equalTo(1L));
+        assertThat(pulls.getRateLimitUsed(), equalTo(1L));
+    }
+
+    /**
+     * Percentiles are accurate within the width of a bucket, and values land in the bucket they belong to.
+     */
+    @Test
+    public void histogramPercentiles() {
+        for (long value : new long[] { 0, 1, 31, 32, 33, 63, 64, 1000, 123456789, Long.MAX_VALUE }) {
+            int index = GitHubMetrics.Histogram.index(value);
+            assertThat(GitHubMetrics.Histogram.highestValue(index), greaterThanOrEqualTo(value));
+            if (index > 0) {
+                assertThat(GitHubMetrics.Histogram.highestValue(index - 1), lessThan(value));
+            }
+        }
+
+        GitHubMetrics.Histogram histogram = new GitHubMetrics.Histogram();
+        assertThat(histogram.snapshot().getValueAtPercentile(50), equalTo(0L));
+        for (long value = 1; value <= 10000; value++) {
+            histogram.record(value * 1000);
+        }
+        GitHubMetrics.HistogramSnapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getCount(), equalTo(10000L));
+        assertThat(snapshot.getMin(), equalTo(1000L));
+        assertThat(snapshot.getMax(), equalTo(10000000L));
+        assertThat(snapshot.getMean(), closeTo(5000500.0, 0.1));
+        assertThat((double) snapshot.getValueAtPercentile(50), closeTo(5000000.0, 5000000.0 * 0.07));
+        assertThat((double) snapshot.getValueAtPercentile(99), closeTo(9900000.0, 9900000.0 * 0.07));
+        assertThat(snapshot.getValueAtPercentile(100), equalTo(10000000L));
+        assertThat(snapshot.getValueAtPercentile(0), equalTo(1000L));
+    }
+
+    /**
+     * The exporter set on the builder receives snapshots periodically.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void exportsPeriodically() throws Exception {
+        CountDownLatch exports = new CountDownLatch(2);
+        AtomicReference<List<GitHubMetrics.EndpointSnapshot>> exported = new AtomicReference<>();
+        GitHubMetricsExporter exporter = new GitHubMetricsExporter() {
+            @Override
+            public void export(List<GitHubMetrics.EndpointSnapshot> snapshot) {
+                exported.set(snapshot);
+                exports.countDown();
+            }
+
+            @Override
+            public Duration getInterval() {
+                return Duration.ofMillis(20);
+            }
+        };
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(
+                request -> ScriptedGitHubConnector.response(request, 200, "{\"login\":\"octocat\",\"id\":1}"));
+        GitHub github = new GitHubBuilder().withEndpoint(API_URL)
+                .withOAuthToken("token", "octocat")
+                .withConnector(connector)
+                .withMetricsExporter(exporter)
+                .build();
+
+        github.createRequest().withUrlPath("/users/octocat").fetch(GHUser.class);
+        assertThat(exports.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(find(exported.get(), "GET", "/users/{username}").getRequests(), equalTo(1L));
+    }
+}
@@ -0,0 +1,149 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Unit tests for {@link GitHubObjectCache}.
+ */
+public class GitHubObjectCacheTest extends AbstractGitHubWireMockTest {
+
+    /**
+     * Create default GitHubObjectCacheTest instance
+     */
+    public GitHubObjectCacheTest() {
+    }
+
+    /**
+     * Least recently used entries are evicted first.
+     */
+    @Test
+    public void maximumSize() {
+        GitHubObjectCache<String> cache = new GitHubObjectCache<>(2, null);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        assertThat(cache.get("a"), equalTo("A"));
+        cache.put("c", "C");
+
+        assertThat(cache.get("b"), nullValue());
+        assertThat(cache.get("a"), equalTo("A"));
+        assertThat(cache.get("c"), equalTo("C"));
+
+        GitHubCacheStatistics statistics = cache.getStatistics();
+        assertThat(statistics.getHitCount(), equalTo(3L));
+        assertThat(statistics.getMissCount(), equalTo(1L));
+        assertThat(statistics.getEvictionCount(), equalTo(1L));
+        assertThat(statistics.getSize(), equalTo(2L));
+    }
+
+    /**
+     * Expired entries are not returned.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void timeToLive() throws Exception {
+        GitHubObjectCache<String> cache = new GitHubObjectCache<>(0, Duration.ofMillis(20));
+        cache.put("a", "A");
+        assertThat(cache.putIfAbsent("a", "other"), equalTo("A"));
+
+        Thread.sleep(50);
+        assertThat(cache.putIfAbsent("a", "A2"), nullValue());
+        assertThat(cache.get("a"), equalTo("A2"));
+
+        GitHubCacheStatistics statistics = cache.getStatistics();
+        assertThat(statistics.getHitCount(), equalTo(2L));
+        assertThat(statistics.getMissCount(), equalTo(1L));
+        assertThat(statistics.getEvictionCount(), equalTo(1L));
+        assertThat(statistics.getHitRate(), closeTo(2.0 / 3.0, 0.001));
+    }
+
+    /**
+     * Large caches are split into segments that together keep no more than the maximum size, and can be used from many
+     * threads at once.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void segmentedMaximumSize() throws Exception {
+        GitHubObjectCache<String> cache = new GitHubObjectCache<>(1000, null);
+        for (int i = 0; i < 5000; i++) {
+            cache.put("k" + i, "v" + i);
+        }
+        GitHubCacheStatistics statistics = cache.getStatistics();
+        assertThat(statistics.getSize(), lessThanOrEqualTo(1000L));
+        assertThat(statistics.getSize(), greaterThan(900L));
+        assertThat(statistics.getEvictionCount(), equalTo(5000L - statistics.getSize()));
+
+        cache.clear();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    String name = "k" + (i % 500);
+                    if (cache.get(name) == null) {
+                        cache.putIfAbsent(name, "v");
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        statistics = cache.getStatistics();
+        assertThat(statistics.getSize(), equalTo(500L));
+        // each miss of get() is followed by a call to putIfAbsent()
+        assertThat(statistics.getHitCount() + statistics.getMissCount(),
+                greaterThanOrEqualTo(threads.length * 10000L));
+    }
+
+    /**
+     * Unlimited caches keep everything until cleared.
+     */
+    @Test
+    public void unlimited() {
+        GitHubObjectCache<String> cache = new GitHubObjectCache<>(0, null);
+        for (int i = 0; i < 1000; i++) {
+            cache.put("k" + i, "v" + i);
+        }
+        assertThat(cache.getStatistics().getSize(), equalTo(1000L));
+        assertThat(cache.getStatistics().getEvictionCount(), equalTo(0L));
+
+        cache.clear();
+        assertThat(cache.get("k1"), nullValue());
+        assertThat(cache.getStatistics().getSize(), equalTo(0L));
+    }
+
+    /**
+     * Users fetched through a limited {@link GitHub} instance are fetched again once evicted.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void gitHubUserCache() throws Exception {
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(request -> {
+            String login = request.url().getPath().substring("/users/".length());
+            return ScriptedGitHubConnector.response(request, 200, "{\"login\":\"" + login + "\"}");
+        });
+        GitHub gitHub = new GitHubBuilder().withEndpoint("https://api.example.com")
+                .withConnector(connector)
+                .withObjectCacheLimits(1, null)
+                .build();
+
+        GHUser first = gitHub.getUser("first");
+        assertThat(gitHub.getUser("first"), sameInstance(first));
+        gitHub.getUser("second");
+        assertThat(gitHub.getUser("first"), not(sameInstance(first)));
+
+        assertThat(connector.getRequests().size(), equalTo(3));
+        assertThat(gitHub.getUserCacheStatistics().getEvictionCount(), equalTo(2L));
+        assertThat(gitHub.getUserCacheStatistics().getSize(), equalTo(1L));
+    }
+}
@@ -0,0 +1,83 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Unit tests for {@link GitHubParsedValue} and the parsing of timestamps.
+ */
+public class GitHubParsedValueTest extends AbstractGitHubWireMockTest {
+
+    private static final String ISSUE = "{\"id\":1,\"number\":1,"
+            + "\"url\":\"https://api.github.com/repos/hub4j/github-api/issues/1\","
+            + "\"created_at\":\"%s\",\"updated_at\":\"2024-02-29T23:59:59Z\",\"closed_at\":null}";
+
+    /**
+     * Create default GitHubParsedValueTest instance
+     */
+    public GitHubParsedValueTest() {
+    }
+
+    /**
+     * Timestamps in the usual format of GitHub are parsed as {@link DateTimeFormatter#ISO_OFFSET_DATE_TIME} would, and
+     * other formats and invalid timestamps are still left to it.
+     */
+    @Test
+    public void parsesTimestamps() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            Instant instant = Instant.ofEpochSecond(random.nextInt(Integer.MAX_VALUE) * 2L - Integer.MAX_VALUE);
+            String timestamp = DateTimeFormatter.ISO_INSTANT.format(instant);
+            assertThat(timestamp, GitHubClient.parseInstant(timestamp), equalTo(instant));
+        }
+        assertThat(GitHubClient.parseInstant("2024-02-29T00:00:00Z"), equalTo(Instant.parse("2024-02-29T00:00:00Z")));
+        assertThat(GitHubClient.parseInstant("2024-03-01T10:15:30+01:00"),
+                equalTo(Instant.parse("2024-03-01T09:15:30Z")));
+        assertThat(GitHubClient.parseInstant("2024-03-01T10:15:30.123Z"),
+                equalTo(Instant.parse("2024-03-01T10:15:30.123Z")));
+        assertThat(GitHubClient.parseInstant("2024-03-01t10:15:30z"), equalTo(Instant.parse("2024-03-01T10:15:30Z")));
+        assertThat(GitHubClient.parseInstant(null), nullValue());
+
+        assertThrows(DateTimeParseException.class, () -> GitHubClient.parseInstant("2023-02-29T00:00:00Z"));
+        assertThrows(DateTimeParseException.class, () -> GitHubClient.parseInstant("2024-13-01T00:00:00Z"));
+        assertThrows(DateTimeParseException.class, () -> GitHubClient.parseInstant("2024-01-01T24:00:00Z"));
+        assertThrows(DateTimeParseException.class, () -> GitHubClient.parseInstant("2024-01-0aT00:00:00Z"));
+    }
+
+    /**
+     * Getters parse their field once, and again after the object is refreshed with a different value.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void memoizesUntilFieldChanges() throws Exception {
+        GitHub github = GitHub.offline();
+        GHIssue issue = GitHubClient.getMappingObjectReader(github, GHIssue.class)
+                .readValue(String.format(ISSUE, "2024-01-01T00:00:00Z"));
+
+        Instant createdAt = issue.getCreatedAt();
+        assertThat(createdAt, equalTo(Instant.parse("2024-01-01T00:00:00Z")));
+        assertThat(issue.getCreatedAt(), sameInstance(createdAt));
+        assertThat(issue.getUrl(), sameInstance(issue.getUrl()));
+        assertThat(issue.getUpdatedAt(), equalTo(Instant.parse("2024-02-29T23:59:59Z")));
+        assertThat(issue.getClosedAt(), nullValue());
+        assertThat(issue.getClosedAt(), nullValue());
+
+        GitHubClient.getMappingObjectReader(github)
+                .withValueToUpdate(issue)
+                .readValue(String.format(ISSUE, "2024-06-01T12:00:00Z"));
+        assertThat(issue.getCreatedAt(), equalTo(Instant.parse("2024-06-01T12:00:00Z")));
+        assertThat(issue.getUpdatedAt(), equalTo(Instant.parse("2024-02-29T23:59:59Z")));
+
+        String json = GitHub.getMappingObjectWriter().writeValueAsString(issue);
+        assertThat(json, not(containsString("parsed")));
+    }
+}
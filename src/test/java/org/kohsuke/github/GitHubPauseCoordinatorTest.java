@@ -0,0 +1,230 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.*;
+import static org.kohsuke.github.ScriptedGitHubConnector.response;
+
+/**
+ * Unit tests for {@link GitHubPauseCoordinator}.
+ */
+public class GitHubPauseCoordinatorTest extends AbstractGitHubWireMockTest {
+
+    private static GitHubConnectorResponse secondaryLimitResponse(String authorization, String retryAfter)
+            throws Exception {
+        GitHubRequest request = GitHubRequest.newBuilder()
+                .withApiUrl("https://api.example.com")
+                .withUrlPath("/repos/hub4j/github-api")
+                .setHeader("Authorization", authorization)
+                .build();
+        return response(request, 403, "{}", "Retry-After", retryAfter, "gh-limited-by", "secondary");
+    }
+
+    /**
+     * Create default GitHubPauseCoordinatorTest instance
+     */
+    public GitHubPauseCoordinatorTest() {
+    }
+
+    /**
+     * Requests with the same credential are held while the handler runs, others are not.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void holdsRequestsWithSameCredential() throws Exception {
+        GitHubPauseCoordinator coordinator = new GitHubPauseCoordinator();
+        CountDownLatch handlerStarted = new CountDownLatch(1);
+        CountDownLatch releaseHandler = new CountDownLatch(1);
+        GitHubAbuseLimitHandler handler = new GitHubAbuseLimitHandler() {
+            @Override
+            public void onError(GitHubConnectorResponse connectorResponse) {
+                handlerStarted.countDown();
+                try {
+                    releaseHandler.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        GitHubConnectorResponse limited = secondaryLimitResponse("token one", "60");
+
+        CompletableFuture<Void> handling = CompletableFuture.runAsync(() -> {
+            try {
+                coordinator.whilePaused(limited, handler);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        handlerStarted.await(10, TimeUnit.SECONDS);
+        assertThat(coordinator.isPaused("token one"), is(true));
+        assertThat(coordinator.isPaused("token two"), is(false));
+
+        // another credential is not held
+        coordinator.awaitResume("token two");
+        assertThat(coordinator.getPausedTime(), equalTo(Duration.ZERO));
+
+        CompletableFuture<Void> held = CompletableFuture.runAsync(() -> {
+            try {
+                coordinator.awaitResume("token one");
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertThat(held.isDone(), is(false));
+
+        releaseHandler.countDown();
+        handling.get(10, TimeUnit.SECONDS);
+        held.get(10, TimeUnit.SECONDS);
+
+        assertThat(coordinator.isPaused("token one"), is(false));
+        assertThat(coordinator.getPauseCount(), equalTo(1L));
+        assertThat(coordinator.getPausedTime(), greaterThanOrEqualTo(Duration.ofMillis(100)));
+    }
+
+    /**
+     * Requests are not held past the time given by the response.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void pauseEndsAtDeadline() throws Exception {
+        GitHubPauseCoordinator coordinator = new GitHubPauseCoordinator();
+        String authorization = coordinator.pause(secondaryLimitResponse("token one", "1"));
+        try {
+            long start = System.nanoTime();
+            coordinator.awaitResume("token one");
+            long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertThat(waitedMillis, greaterThanOrEqualTo(900L));
+            assertThat(waitedMillis, lessThan(5000L));
+            assertThat(coordinator.isPaused("token one"), is(false));
+        } finally {
+            coordinator.resume(authorization);
+        }
+    }
+
+    /**
+     * Requests are held for the delay returned by a handler that does not wait itself.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void holdsForReturnedDelay() throws Exception {
+        GitHubPauseCoordinator coordinator = new GitHubPauseCoordinator();
+        GitHubAbuseLimitHandler handler = new GitHubAbuseLimitHandler() {
+            @Override
+            public void onError(GitHubConnectorResponse connectorResponse) {
+                throw new AssertionError("retryAfter should be called instead");
+            }
+
+            @Override
+            public Duration retryAfter(GitHubConnectorResponse connectorResponse) {
+                return Duration.ofMillis(300);
+            }
+        };
+
+        long start = System.nanoTime();
+        Duration delay = coordinator.whilePaused(secondaryLimitResponse("token one", "60"), handler);
+        assertThat(delay, equalTo(Duration.ofMillis(300)));
+        assertThat(coordinator.isPaused("token one"), is(true));
+        assertThat(coordinator.remainingPause("token one"), lessThanOrEqualTo(Duration.ofMillis(300)));
+        assertThat(coordinator.remainingPause("token two"), equalTo(Duration.ZERO));
+
+        coordinator.awaitResume("token one");
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertThat(waitedMillis, greaterThanOrEqualTo(250L));
+        assertThat(waitedMillis, lessThan(5000L));
+        assertThat(coordinator.isPaused("token one"), is(false));
+        assertThat(coordinator.getPausedCredentialCount(), equalTo(0));
+    }
+
+    /**
+     * A pause that ended after a delay is dropped when another credential is paused, even if it is never looked up.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void dropsEndedPauses() throws Exception {
+        GitHubPauseCoordinator coordinator = new GitHubPauseCoordinator();
+        coordinator.resume(coordinator.pause(secondaryLimitResponse("token one", "60")), Duration.ofMillis(1));
+        Thread.sleep(50);
+
+        String authorization = coordinator.pause(secondaryLimitResponse("token two", "60"));
+        assertThat(coordinator.getPausedCredentialCount(), equalTo(1));
+        assertThat(coordinator.isPaused("token two"), is(true));
+        coordinator.resume(authorization);
+        assertThat(coordinator.getPausedCredentialCount(), equalTo(0));
+    }
+
+    /**
+     * A delay returned by a handler is waited out even if another handler for the same credential returns later
+     * without a delay.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void keepsLongestDelay() throws Exception {
+        GitHubPauseCoordinator coordinator = new GitHubPauseCoordinator();
+        String first = coordinator.pause(secondaryLimitResponse("token one", "1"));
+        String second = coordinator.pause(secondaryLimitResponse("token one", "1"));
+
+        coordinator.resume(first, Duration.ofSeconds(60));
+        assertThat(coordinator.remainingPause("token one"), greaterThan(Duration.ofSeconds(50)));
+        coordinator.resume(second, Duration.ZERO);
+        assertThat(coordinator.isPaused("token one"), is(true));
+        assertThat(coordinator.remainingPause("token one"), greaterThan(Duration.ofSeconds(50)));
+    }
+
+    /**
+     * The time requests wait for a pause is counted when they wait on a timer or until their deadline, without
+     * {@link GitHubPauseCoordinator#awaitResume(String)}.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void countsPausedTimeOfEveryWait() throws Exception {
+        GitHubPauseCoordinator coordinator = new GitHubPauseCoordinator();
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(
+                request -> response(request, 200, "{\"login\":\"octocat\",\"id\":1}"));
+        GitHub github = new GitHubBuilder().withEndpoint("https://api.example.com")
+                .withOAuthToken("token", "octocat")
+                .withConnector(connector)
+                .withPauseCoordinator(coordinator)
+                .build();
+        // a first request loads the classes of the async path, which must not eat into the pause measured below
+        github.getClient()
+                .sendRequestAsync(github.createRequest().withUrlPath("/user").build(),
+                        r -> GitHubResponse.parseBody(r, GHUser.class))
+                .get(10, TimeUnit.SECONDS);
+
+        coordinator.resume(coordinator.pause(secondaryLimitResponse("token token", "60")), Duration.ofMillis(300));
+        github.getClient()
+                .sendRequestAsync(github.createRequest().withUrlPath("/user").build(),
+                        r -> GitHubResponse.parseBody(r, GHUser.class))
+                .get(10, TimeUnit.SECONDS);
+        assertThat(coordinator.getPausedTime(), greaterThanOrEqualTo(Duration.ofMillis(250)));
+
+        coordinator.resume(coordinator.pause(secondaryLimitResponse("token token", "60")), Duration.ofMillis(300));
+        github.getClient()
+                .sendRequest(github.createRequest()
+                        .withUrlPath("/user")
+                        .deadline(RequestDeadline.after(Duration.ofSeconds(10)))
+                        .build(), r -> GitHubResponse.parseBody(r, GHUser.class));
+        assertThat(coordinator.getPausedTime(), greaterThanOrEqualTo(Duration.ofMillis(500)));
+        assertThat(connector.getRequests(), hasSize(3));
+    }
+}
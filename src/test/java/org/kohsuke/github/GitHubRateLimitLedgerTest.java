@@ -0,0 +1,222 @@
+package org.kohsuke.github;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kohsuke.github.authorization.AuthorizationProvider;
+import org.kohsuke.github.authorization.CredentialPoolAuthorizationProvider;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Unit tests for {@link GitHubRateLimitLedger}.
+ */
+public class GitHubRateLimitLedgerTest extends AbstractGitHubWireMockTest {
+
+    private static final long RESET = Instant.now().plusSeconds(3600).getEpochSecond();
+
+    private Path file;
+
+    /**
+     * Create default GitHubRateLimitLedgerTest instance
+     */
+    public GitHubRateLimitLedgerTest() {
+    }
+
+    /**
+     * Creates the ledger file path.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    @Before
+    public void createFile() throws IOException {
+        file = Files.createTempFile("github-api-ledger", ".dat");
+        Files.delete(file);
+    }
+
+    /**
+     * Deletes the ledger file.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    @After
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Ledgers opened on the same file see each other's records, and only more recent records replace older ones.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void sharesRecordsThroughFile() throws Exception {
+        GitHubRateLimitLedger first = new GitHubRateLimitLedger(file, 16);
+        GitHubRateLimitLedger second = new GitHubRateLimitLedger(file);
+
+        assertThat(second.read("token a", RateLimitTarget.CORE), nullValue());
+        first.record("token a", RateLimitTarget.CORE, new GHRateLimit.Record(5000, 4000, RESET));
+        second.record("token a", RateLimitTarget.NONE, new GHRateLimit.Record(5000, 4500, RESET));
+
+        GHRateLimit.Record record = second.read("token a", RateLimitTarget.CORE);
+        assertThat(record.getLimit(), equalTo(5000));
+        assertThat(record.getRemaining(), equalTo(4000));
+        assertThat(record.getResetEpochSeconds(), equalTo(RESET));
+
+        // a later reset wins even with more remaining requests
+        first.record("token a", RateLimitTarget.CORE, new GHRateLimit.Record(5000, 4999, RESET + 3600));
+        assertThat(second.read("token a", RateLimitTarget.CORE).getRemaining(), equalTo(4999));
+
+        assertThat(second.read("token b", RateLimitTarget.CORE), nullValue());
+        assertThat(second.read("token a", RateLimitTarget.SEARCH), nullValue());
+        assertThat(new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1), not(containsString("token")));
+    }
+
+    /**
+     * A slot whose rate limit has reset is taken over by another credential, and records of other credentials are
+     * dropped once every slot holds a current rate limit.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void reclaimsResetSlots() throws Exception {
+        GitHubRateLimitLedger ledger = new GitHubRateLimitLedger(file, 2);
+        long past = Instant.now().minusSeconds(3600).getEpochSecond();
+        ledger.record("token a", RateLimitTarget.CORE, new GHRateLimit.Record(5000, 4000, RESET));
+        ledger.record("token b", RateLimitTarget.CORE, new GHRateLimit.Record(5000, 10, past));
+
+        ledger.record("token c", RateLimitTarget.CORE, new GHRateLimit.Record(5000, 4500, RESET));
+        assertThat(ledger.read("token c", RateLimitTarget.CORE).getRemaining(), equalTo(4500));
+        assertThat(ledger.read("token b", RateLimitTarget.CORE), nullValue());
+        assertThat(ledger.read("token a", RateLimitTarget.CORE).getRemaining(), equalTo(4000));
+
+        ledger.record("token d", RateLimitTarget.CORE, new GHRateLimit.Record(5000, 4500, RESET));
+        assertThat(ledger.read("token d", RateLimitTarget.CORE), nullValue());
+        assertThat(ledger.read("token c", RateLimitTarget.CORE).getRemaining(), equalTo(4500));
+    }
+
+    /**
+     * Concurrent updates keep the lowest remaining count, and a view shares one slot across credentials.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void concurrentUpdatesAndSharedCredential() throws Exception {
+        GitHubRateLimitLedger ledger = new GitHubRateLimitLedger(file, 4);
+        List<CompletableFuture<Void>> updates = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            updates.add(CompletableFuture.runAsync(() -> {
+                for (int remaining = 1000 + offset; remaining > 0; remaining -= 4) {
+                    ledger.record("token a", RateLimitTarget.CORE, new GHRateLimit.Record(5000, remaining, RESET));
+                }
+            }));
+        }
+        CompletableFuture.allOf(updates.toArray(new CompletableFuture<?>[0])).get();
+        assertThat(ledger.read("token a", RateLimitTarget.CORE).getRemaining(), equalTo(1));
+
+        GitHubRateLimitLedger installation = ledger.forCredential("installation-1");
+        installation.record("token x", RateLimitTarget.CORE, new GHRateLimit.Record(5000, 10, RESET));
+        assertThat(installation.read("token y", RateLimitTarget.CORE).getRemaining(), equalTo(10));
+
+        // once the slots are taken, other credentials are not recorded
+        for (int i = 0; i < 8; i++) {
+            ledger.record("token " + i, RateLimitTarget.CORE, new GHRateLimit.Record(5000, 10, RESET));
+        }
+        assertThat(ledger.read("token a", RateLimitTarget.CORE).getRemaining(), equalTo(1));
+
+        Path bad = file.resolveSibling(file.getFileName() + ".bad");
+        Files.write(bad, new byte[32]);
+        try {
+            assertThrows(IOException.class, () -> new GitHubRateLimitLedger(bad));
+        } finally {
+            Files.delete(bad);
+        }
+    }
+
+    /**
+     * The rate limit observed by one {@link GitHub} instance is seen by another one using the same file.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void usedByClient() throws Exception {
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(request -> ScriptedGitHubConnector.response(
+                request,
+                200,
+                "{\"login\":\"octocat\",\"id\":1}",
+                "X-RateLimit-Limit",
+                "5000",
+                "X-RateLimit-Remaining",
+                "42",
+                "X-RateLimit-Reset",
+                Long.toString(RESET)));
+        GitHub github = new GitHubBuilder().withEndpoint("https://api.example.com")
+                .withOAuthToken("token", "octocat")
+                .withConnector(connector)
+                .withRateLimitLedger(new GitHubRateLimitLedger(file))
+                .build();
+        github.getUser("octocat");
+
+        // the other instance must not need to ask GitHub
+        ScriptedGitHubConnector failing = ScriptedGitHubConnector.inOrder();
+        GitHub other = new GitHubBuilder().withEndpoint("https://api.example.com")
+                .withOAuthToken("token", "octocat")
+                .withConnector(failing)
+                .withRateLimitLedger(new GitHubRateLimitLedger(file))
+                .build();
+        assertThat(other.getClient().rateLimit(RateLimitTarget.CORE).getCore().getRemaining(), equalTo(42));
+        assertThat(failing.getRequests(), empty());
+    }
+
+    /**
+     * The rate limit is read for the credentials of the request, without asking the provider for credentials again.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void readsWithRequestCredentials() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        AuthorizationProvider provider = () -> "token rotated-" + calls.incrementAndGet();
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(request -> ScriptedGitHubConnector.response(
+                request,
+                request.url().getPath().equals("/rate_limit") ? 404 : 200,
+                "{\"login\":\"octocat\",\"id\":1}",
+                "X-RateLimit-Limit",
+                "5000",
+                "X-RateLimit-Remaining",
+                "42",
+                "X-RateLimit-Reset",
+                Long.toString(RESET)));
+        GitHub github = new GitHubBuilder().withEndpoint("https://api.example.com")
+                .withAuthorizationProvider(
+                        new CredentialPoolAuthorizationProvider(Collections.singletonList(provider)))
+                .withConnector(connector)
+                .withRateLimitChecker(new RateLimitChecker.LiteralValue(0))
+                .withRateLimitLedger(new GitHubRateLimitLedger(file))
+                .build();
+        github.getUser("octocat");
+        github.getUser("hubot");
+
+        assertThat(calls.get(), equalTo(connector.getRequests().size()));
+    }
+}
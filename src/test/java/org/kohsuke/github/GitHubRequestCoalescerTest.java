@@ -0,0 +1,160 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+import static org.kohsuke.github.ScriptedGitHubConnector.response;
+
+/**
+ * Unit tests for {@link GitHubRequestCoalescer}.
+ */
+public class GitHubRequestCoalescerTest extends AbstractGitHubWireMockTest {
+
+    private static final int CALLERS = 4;
+
+    private static final String REPOSITORY_BODY = "{\"id\":1,\"name\":\"github-api\","
+            + "\"full_name\":\"hub4j/github-api\",\"owner\":{\"login\":\"hub4j\"}}";
+
+    /**
+     * Create default GitHubRequestCoalescerTest instance
+     */
+    public GitHubRequestCoalescerTest() {
+    }
+
+    /**
+     * Identical concurrent requests are sent once, and each caller gets its own parsed object.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void identicalRequestsSentOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(request -> {
+            await(release);
+            return response(request, 200, REPOSITORY_BODY);
+        });
+        GitHub github = createGitHub(connector);
+
+        List<GHRepository> repositories = new ArrayList<>();
+        for (Future<GHRepository> future : callConcurrently(release,
+                () -> github.getRepository("hub4j/github-api"))) {
+            repositories.add(future.get(10, TimeUnit.SECONDS));
+        }
+
+        assertThat(connector.getRequests(), hasSize(1));
+        for (GHRepository repository : repositories) {
+            assertThat(repository.getFullName(), equalTo("hub4j/github-api"));
+        }
+        assertThat(repositories.get(0), not(sameInstance(repositories.get(1))));
+    }
+
+    /**
+     * Callers waiting for a response that is not successful send their own requests.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void failedResponseNotShared() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(request -> {
+            await(release);
+            return response(request, 404, "{\"message\":\"Not Found\"}");
+        });
+        GitHub github = createGitHub(connector);
+
+        for (Future<GHRepository> future : callConcurrently(release,
+                () -> github.getRepository("hub4j/github-api"))) {
+            Exception e = assertThrows(Exception.class, () -> future.get(10, TimeUnit.SECONDS));
+            assertThat(e.getCause(), instanceOf(GHFileNotFoundException.class));
+        }
+        assertThat(connector.getRequests(), hasSize(CALLERS));
+    }
+
+    /**
+     * A caller waiting for an identical request gives up once its deadline passes, while the first caller still gets
+     * its response.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void followerGivesUpAtDeadline() throws Exception {
+        CountDownLatch sent = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(request -> {
+            sent.countDown();
+            await(release);
+            return response(request, 200, REPOSITORY_BODY);
+        });
+        GitHub github = createGitHub(connector);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<GHRepository> leader = executor.submit(() -> github.getRepository("hub4j/github-api"));
+            assertThat(sent.await(10, TimeUnit.SECONDS), is(true));
+
+            assertThrows(RequestCancelledException.class,
+                    () -> github.createRequest()
+                            .withUrlPath("/repos/hub4j/github-api")
+                            .deadline(RequestDeadline.after(Duration.ofMillis(100)))
+                            .fetch(GHRepository.class));
+            release.countDown();
+            assertThat(leader.get(10, TimeUnit.SECONDS).getFullName(), equalTo("hub4j/github-api"));
+            assertThat(connector.getRequests(), hasSize(1));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private void await(CountDownLatch latch) throws IOException {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private List<Future<GHRepository>> callConcurrently(CountDownLatch release,
+            Callable<GHRepository> call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            CountDownLatch started = new CountDownLatch(CALLERS);
+            List<Future<GHRepository>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(executor.submit(() -> {
+                    started.countDown();
+                    return call.call();
+                }));
+            }
+            started.await(10, TimeUnit.SECONDS);
+            // give the callers time to reach the connector
+            Thread.sleep(200);
+            release.countDown();
+            return futures;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private GitHub createGitHub(ScriptedGitHubConnector connector) throws IOException {
+        return new GitHubBuilder().withEndpoint("https://api.example.com")
+                .withOAuthToken("token", "octocat")
+                .withConnector(connector)
+                .withRequestCoalescing(true)
+                .build();
+    }
+}
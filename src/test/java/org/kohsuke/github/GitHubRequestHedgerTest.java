@@ -0,0 +1,151 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+import org.kohsuke.github.connector.AsyncGitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Unit tests for {@link GitHubRequestHedger}.
+ */
+public class GitHubRequestHedgerTest extends AbstractGitHubWireMockTest {
+
+    /**
+     * Answers right away, except for the requests marked as slow.
+     */
+    private static final class SlowConnector implements AsyncGitHubConnector {
+
+        private final Set<Integer> slow = ConcurrentHashMap.newKeySet();
+
+        private final AtomicInteger sent = new AtomicInteger();
+
+        @Override
+        public GitHubConnectorResponse send(GitHubConnectorRequest connectorRequest) throws IOException {
+            return sendAsync(connectorRequest).join();
+        }
+
+        @Override
+        public CompletableFuture<GitHubConnectorResponse> sendAsync(GitHubConnectorRequest connectorRequest) {
+            GitHubConnectorResponse response = ScriptedGitHubConnector
+                    .response(connectorRequest, 200, "{\"login\":\"hedged\",\"id\":1}");
+            if (slow.contains(sent.incrementAndGet())) {
+                return CompletableFuture.supplyAsync(() -> response,
+                        CompletableFuture.delayedExecutor(2, TimeUnit.SECONDS));
+            }
+            return CompletableFuture.completedFuture(response);
+        }
+    }
+
+    private static GitHubRequest request(String method) {
+        return GitHubRequest.newBuilder()
+                .withApiUrl("https://api.example.com")
+                .withUrlPath("/users/hedged")
+                .method(method)
+                .build();
+    }
+
+    /**
+     * Create default GitHubRequestHedgerTest instance
+     */
+    public GitHubRequestHedgerTest() {
+    }
+
+    /**
+     * A late {@code GET} is sent again and the first response is used.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void hedgesLateGet() throws Exception {
+        GitHubRequestHedger hedger = new GitHubRequestHedger(0.95, Duration.ofMillis(50), 0.05);
+        SlowConnector connector = new SlowConnector();
+        GitHub github = new GitHubBuilder().withEndpoint("https://api.example.com")
+                .withOAuthToken("token", "octocat")
+                .withConnector(connector)
+                .withRequestHedger(hedger)
+                .build();
+
+        assertThat(hedger.getDelay(), nullValue());
+        for (int i = 0; i < 64; i++) {
+            github.getClient().sendRequest(request("GET"), null);
+        }
+        assertThat(hedger.getDelay(), equalTo(Duration.ofMillis(50)));
+        assertThat(hedger.getHedges(), equalTo(0L));
+
+        connector.slow.add(65);
+        long start = System.nanoTime();
+        GitHubResponse<GHUser> response = github.getClient()
+                .sendRequest(request("GET"), r -> GitHubResponse.parseBody(r, GHUser.class));
+        assertThat(response.body().getLogin(), equalTo("hedged"));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), lessThan(1500L));
+        assertThat(connector.sent.get(), equalTo(66));
+        assertThat(hedger.getHedges(), equalTo(1L));
+
+        // requests that are not idempotent are never hedged
+        connector.slow.add(67);
+        start = System.nanoTime();
+        github.getClient().sendRequest(request("POST"), null);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), greaterThanOrEqualTo(1500L));
+        assertThat(connector.sent.get(), equalTo(67));
+        assertThat(hedger.getHedges(), equalTo(1L));
+    }
+
+    /**
+     * Hedges are limited by the budget, which grows with the requests.
+     */
+    @Test
+    public void budgetLimitsHedges() {
+        GitHubRequestHedger hedger = new GitHubRequestHedger(0.5, Duration.ZERO, 0.5);
+        for (int i = 0; i < GitHubRequestHedger.BUDGET_CAPACITY; i++) {
+            assertThat(hedger.acquireHedge(), is(true));
+        }
+        assertThat(hedger.acquireHedge(), is(false));
+        hedger.recordRequest();
+        assertThat(hedger.acquireHedge(), is(false));
+        hedger.recordRequest();
+        assertThat(hedger.acquireHedge(), is(true));
+        assertThat(hedger.getHedges(), equalTo((long) GitHubRequestHedger.BUDGET_CAPACITY + 1));
+        // a hedge that is not sent goes back to the budget
+        hedger.releaseHedge();
+        assertThat(hedger.getHedges(), equalTo((long) GitHubRequestHedger.BUDGET_CAPACITY));
+        assertThat(hedger.acquireHedge(), is(true));
+        assertThat(hedger.acquireHedge(), is(false));
+    }
+
+    /**
+     * Hedges are only sent when the rate limit checker would let a request through right away.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void hedgesCountAgainstRateLimitChecker() throws Exception {
+        GitHub github = new GitHubBuilder().withEndpoint("https://api.example.com")
+                .withConnector(new SlowConnector())
+                .build();
+        RateLimitChecker waiting = new RateLimitChecker() {
+            @Override
+            protected Duration getWaitTime(GHRateLimit.Record rateLimitRecord) {
+                return Duration.ofSeconds(1);
+            }
+        };
+        GitHubRateLimitChecker checker = new GitHubRateLimitChecker();
+
+        assertThat(checker.canSendNow(github.getClient(), RateLimitTarget.CORE), is(true));
+        assertThat(checker.with(waiting, RateLimitTarget.CORE).canSendNow(github.getClient(), RateLimitTarget.CORE),
+                is(false));
+        assertThat(checker.with(new RateLimitChecker() {
+        }, RateLimitTarget.CORE).canSendNow(github.getClient(), RateLimitTarget.CORE), is(false));
+    }
+}
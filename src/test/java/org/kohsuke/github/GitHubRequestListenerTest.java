@@ -0,0 +1,218 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Unit tests for {@link GitHubRequestListener}.
+ */
+public class GitHubRequestListenerTest extends AbstractGitHubWireMockTest {
+
+    /**
+     * Records the events it receives, prefixed by their name.
+     */
+    private static class RecordingListener extends GitHubRequestListener {
+
+        private final List<GitHubRequestEvent> events = new ArrayList<>();
+
+        private final List<String> names = new ArrayList<>();
+
+        @Override
+        public void onBodyParsed(GitHubRequestEvent event) {
+            record("bodyParsed", event);
+        }
+
+        @Override
+        public void onFailure(GitHubRequestEvent event) {
+            record("failure", event);
+        }
+
+        @Override
+        public void onHeaders(GitHubRequestEvent event) {
+            record("headers", event);
+        }
+
+        @Override
+        public void onRateLimitWait(GitHubRequestEvent event) {
+            record("rateLimitWait", event);
+        }
+
+        @Override
+        public void onRedirect(GitHubRequestEvent event) {
+            record("redirect", event);
+        }
+
+        @Override
+        public void onRetry(GitHubRequestEvent event) {
+            record("retry", event);
+        }
+
+        @Override
+        public void onSend(GitHubRequestEvent event) {
+            record("send", event);
+        }
+
+        @Override
+        public void onStart(GitHubRequestEvent event) {
+            record("start", event);
+        }
+
+        private synchronized void record(String name, GitHubRequestEvent event) {
+            names.add(name);
+            events.add(event);
+        }
+    }
+
+    private static final String API_URL = "https://api.example.com";
+
+    private static GitHub scripted(ScriptedGitHubConnector connector, GitHubRequestListener listener)
+            throws Exception {
+        return new GitHubBuilder().withEndpoint(API_URL)
+                .withOAuthToken("token", "octocat")
+                .withConnector(connector)
+                .withRequestListener(listener)
+                .build();
+    }
+
+    /**
+     * Create default GitHubRequestListenerTest instance
+     */
+    public GitHubRequestListenerTest() {
+    }
+
+    /**
+     * A successful request reports each of its steps, with the template, status and rate limit headers.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void reportsSteps() throws Exception {
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(request -> ScriptedGitHubConnector.response(
+                request,
+                200,
+                "{\"number\":42,\"id\":1}",
+                "X-RateLimit-Limit",
+                "5000",
+                "X-RateLimit-Remaining",
+                "4990",
+                "X-RateLimit-Used",
+                "10"));
+        RecordingListener listener = new RecordingListener();
+        GitHub github = scripted(connector, listener);
+
+        github.createRequest().withUrlPath("/repos/octocat/hello-world/pulls/42").fetch(GHPullRequest.class);
+
+        assertThat(listener.names, contains("start", "rateLimitWait", "send", "headers", "bodyParsed"));
+        GitHubRequestEvent headers = listener.events.get(3);
+        assertThat(headers.getMethod(), equalTo("GET"));
+        assertThat(headers.getAttempt(), equalTo(1));
+        assertThat(headers.getUrlTemplate(), equalTo("/repos/{owner}/{repo}/pulls/{pull_number}"));
+        assertThat(headers.getStatusCode(), equalTo(200));
+        assertThat(headers.getRateLimitHeaders().get("x-ratelimit-used"), equalTo("10"));
+        assertThat(headers.getRateLimitHeaders().get("X-RateLimit-Remaining"), equalTo("4990"));
+        assertThat(listener.events.get(0).getStatusCode(), equalTo(-1));
+        long elapsed = 0;
+        for (GitHubRequestEvent event : listener.events) {
+            assertThat(event.getRequestId(), equalTo(headers.getRequestId()));
+            assertThat(event.getElapsedNanos(), greaterThanOrEqualTo(elapsed));
+            assertThat(event.getDurationNanos(), equalTo(event.getElapsedNanos() - elapsed));
+            elapsed = event.getElapsedNanos();
+        }
+
+        github.createRequest().withUrlPath("/users/octocat").fetch(GHUser.class);
+        assertThat(listener.events.get(5).getRequestId(), not(equalTo(headers.getRequestId())));
+        assertThat(listener.events.get(5).getUrlTemplate(), equalTo("/users/{username}"));
+    }
+
+    /**
+     * Retries, redirects and failures are reported, for blocking and asynchronous requests.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void reportsRetriesRedirectsAndFailures() throws Exception {
+        ScriptedGitHubConnector connector = ScriptedGitHubConnector.inOrder(request -> {
+            throw new SocketTimeoutException("timed out");
+        },
+                request -> ScriptedGitHubConnector.response(request, 301, "", "Location", API_URL + "/users/moved"),
+                request -> ScriptedGitHubConnector.response(request, 200, "{\"login\":\"moved\",\"id\":1}"),
+                request -> ScriptedGitHubConnector.response(request, 404, "{\"message\":\"Not Found\"}"),
+                request -> ScriptedGitHubConnector.response(request, 404, "{\"message\":\"Not Found\"}"));
+        RecordingListener listener = new RecordingListener();
+        GitHub github = new GitHubBuilder().withEndpoint(API_URL)
+                .withOAuthToken("token", "octocat")
+                .withConnector(connector)
+                .withRequestListener(listener)
+                .withRetryPolicy(new GitHubRetryPolicy(2, Duration.ofMillis(1), Duration.ofMillis(5), 1))
+                .build();
+
+        github.createRequest().withUrlPath("/users/octocat").fetch(GHUser.class);
+        assertThat(listener.names,
+                contains("start",
+                        "rateLimitWait",
+                        "send",
+                        "retry",
+                        "rateLimitWait",
+                        "send",
+                        "headers",
+                        "redirect",
+                        "rateLimitWait",
+                        "send",
+                        "headers",
+                        "bodyParsed"));
+        assertThat(listener.events.get(3).getError(), instanceOf(SocketTimeoutException.class));
+        assertThat(listener.events.get(3).getRetryDelay(), notNullValue());
+        assertThat(listener.events.get(7).getStatusCode(), equalTo(301));
+        assertThat(listener.events.get(11).getAttempt(), equalTo(3));
+        assertThat(listener.events.get(11).getUrl().getPath(), equalTo("/users/moved"));
+
+        listener.names.clear();
+        listener.events.clear();
+        assertThrows(IOException.class, () -> github.createRequest().withUrlPath("/users/missing").fetch(GHUser.class));
+        assertThat(listener.names.get(listener.names.size() - 1), equalTo("failure"));
+        GitHubRequestEvent failure = listener.events.get(listener.events.size() - 1);
+        assertThat(failure.getStatusCode(), equalTo(404));
+        assertThat(failure.getError(), instanceOf(GHFileNotFoundException.class));
+
+        listener.names.clear();
+        listener.events.clear();
+        GitHubRequest request = GitHubRequest.newBuilder().withApiUrl(API_URL).withUrlPath("/users/gone").build();
+        CompletionException async = assertThrows(CompletionException.class,
+                () -> github.getClient()
+                        .sendRequestAsync(request, response -> GitHubResponse.parseBody(response, GHUser.class))
+                        .join());
+        assertThat(async.getCause(), instanceOf(GHFileNotFoundException.class));
+        assertThat(listener.names, contains("start", "rateLimitWait", "send", "headers", "failure"));
+        assertThat(listener.events.get(listener.events.size() - 1).getStatusCode(), equalTo(404));
+    }
+
+    /**
+     * Paths are turned into the templates of their endpoints.
+     */
+    @Test
+    public void urlTemplates() {
+        assertThat(GitHubUrlTemplate.of("/repos/octocat/hello-world/pulls"), equalTo("/repos/{owner}/{repo}/pulls"));
+        assertThat(GitHubUrlTemplate.of("/repos/octocat/hello-world/issues/12/comments"),
+                equalTo("/repos/{owner}/{repo}/issues/{issue_number}/comments"));
+        assertThat(GitHubUrlTemplate.of("/repos/octocat/hello-world/contents/src/main/App.java"),
+                equalTo("/repos/{owner}/{repo}/contents/{path}"));
+        assertThat(GitHubUrlTemplate.of("/repos/octocat/hello-world/commits/6dcb09b5b57875f334f61aebed695e2e4193db5e"),
+                equalTo("/repos/{owner}/{repo}/commits/{sha}"));
+        assertThat(GitHubUrlTemplate.of("/repositories/1296269"), equalTo("/repositories/{id}"));
+        assertThat(GitHubUrlTemplate.of("/orgs/github/teams/justice-league/members"),
+                equalTo("/orgs/{org}/teams/{team_slug}/members"));
+        assertThat(GitHubUrlTemplate.of("/user/repos"), equalTo("/user/repos"));
+        assertThat(GitHubUrlTemplate.of(""), equalTo("/"));
+    }
+}
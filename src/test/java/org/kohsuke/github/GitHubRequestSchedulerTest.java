@@ -0,0 +1,228 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Unit tests for {@link GitHubRequestScheduler} and {@link RequestPriority}.
+ */
+public class GitHubRequestSchedulerTest extends AbstractGitHubWireMockTest {
+
+    private static GitHubRequest request() throws Exception {
+        return GitHubRequest.newBuilder().withApiUrl("https://api.example.com").build();
+    }
+
+    /**
+     * Create default GitHubRequestSchedulerTest instance
+     */
+    public GitHubRequestSchedulerTest() {
+    }
+
+    /**
+     * Waiting requests are let through by priority, and reserved permits are only used by high priority requests.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void grantsPermitsByPriority() throws Exception {
+        GitHubRequestScheduler scheduler = new GitHubRequestScheduler(0, 2, 1);
+
+        scheduler.acquire(RequestPriority.NORMAL, request());
+        CompletableFuture<Void> normal = scheduler.acquireAsync(RequestPriority.NORMAL, request());
+        scheduler.acquire(RequestPriority.HIGH, request());
+        CompletableFuture<Void> bulk = scheduler.acquireAsync(RequestPriority.BULK, request());
+        CompletableFuture<Void> high = scheduler.acquireAsync(RequestPriority.HIGH, request());
+        assertThat(scheduler.getInFlight(), equalTo(2));
+        assertThat(scheduler.getWaiting(RequestPriority.NORMAL), equalTo(1));
+
+        scheduler.release();
+        assertThat(high.isDone(), is(true));
+        assertThat(normal.isDone(), is(false));
+
+        scheduler.release();
+        assertThat(normal.isDone(), is(false));
+        scheduler.release();
+        assertThat(normal.isDone(), is(true));
+        assertThat(bulk.isDone(), is(false));
+        scheduler.release();
+        assertThat(bulk.isDone(), is(true));
+        scheduler.release();
+        assertThat(scheduler.getInFlight(), equalTo(0));
+
+        assertThrows(IllegalArgumentException.class, () -> new GitHubRequestScheduler(0, 2, 2));
+        assertThrows(IllegalArgumentException.class, () -> new GitHubRequestScheduler(1.5));
+    }
+
+    /**
+     * Requests stop waiting for a permit once their deadline passes or is cancelled, and leave the queue.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void givesUpAtDeadline() throws Exception {
+        GitHubRequestScheduler scheduler = new GitHubRequestScheduler(0, 1, 0);
+        scheduler.acquire(RequestPriority.NORMAL, request());
+
+        GitHubRequest timed = GitHubRequest.newBuilder()
+                .withApiUrl("https://api.example.com")
+                .deadline(RequestDeadline.after(Duration.ofMillis(50)))
+                .build();
+        assertThrows(RequestCancelledException.class, () -> scheduler.acquire(RequestPriority.HIGH, timed));
+        assertThat(scheduler.getWaiting(RequestPriority.HIGH), equalTo(0));
+
+        RequestDeadline deadline = RequestDeadline.cancellable();
+        CompletableFuture<Void> bulk = scheduler.acquireAsync(RequestPriority.BULK,
+                GitHubRequest.newBuilder().withApiUrl("https://api.example.com").deadline(deadline).build());
+        assertThat(scheduler.getWaiting(RequestPriority.BULK), equalTo(1));
+        deadline.cancel();
+        ExecutionException e = assertThrows(ExecutionException.class, bulk::get);
+        assertThat(e.getCause(), instanceOf(RequestCancelledException.class));
+        assertThat(scheduler.getWaiting(RequestPriority.BULK), equalTo(0));
+
+        scheduler.release();
+        assertThat(scheduler.getInFlight(), equalTo(0));
+    }
+
+    /**
+     * Bulk requests leave the reserved slice of the rate limit, normal requests half of it.
+     */
+    @Test
+    public void reservesQuota() {
+        GitHubRequestScheduler scheduler = new GitHubRequestScheduler(0.1);
+        long reset = Instant.now().plusSeconds(3600).getEpochSecond();
+
+        assertThat(scheduler.hasQuota(new GHRateLimit.Record(5000, 501, reset), RequestPriority.BULK), is(true));
+        assertThat(scheduler.hasQuota(new GHRateLimit.Record(5000, 500, reset), RequestPriority.BULK), is(false));
+        assertThat(scheduler.hasQuota(new GHRateLimit.Record(5000, 500, reset), RequestPriority.NORMAL), is(true));
+        assertThat(scheduler.hasQuota(new GHRateLimit.Record(5000, 250, reset), RequestPriority.NORMAL), is(false));
+        assertThat(scheduler.hasQuota(new GHRateLimit.Record(5000, 0, reset), RequestPriority.HIGH), is(true));
+    }
+
+    /**
+     * The priority is taken from the enclosing scope unless set on the request, and is kept for the next pages.
+     */
+    @Test
+    public void priorityScope() {
+        GitHubRequest.Builder<?> builder = GitHubRequest.newBuilder().withApiUrl("https://api.example.com");
+        assertThat(builder.build().priority(), equalTo(RequestPriority.NORMAL));
+        try (RequestPriority.Scope scope = RequestPriority.BULK.enter()) {
+            GitHubRequest request = builder.build();
+            assertThat(request.priority(), equalTo(RequestPriority.BULK));
+            try (RequestPriority.Scope inner = RequestPriority.HIGH.enter()) {
+                assertThat(request.toBuilder().build().priority(), equalTo(RequestPriority.BULK));
+                assertThat(builder.build().priority(), equalTo(RequestPriority.HIGH));
+            }
+            assertThat(builder.priority(RequestPriority.HIGH).build().priority(), equalTo(RequestPriority.HIGH));
+        }
+        assertThat(RequestPriority.current(), equalTo(RequestPriority.NORMAL));
+    }
+
+    /**
+     * Once the quota falls into the reserve, bulk requests wait while high priority requests are sent.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void bulkRequestsYield() throws Exception {
+        long reset = Instant.now().plusSeconds(3600).getEpochSecond();
+        AtomicInteger sent = new AtomicInteger();
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(request -> {
+            // the second response reports a renewed rate limit
+            boolean renewed = sent.incrementAndGet() > 1;
+            return ScriptedGitHubConnector.response(request,
+                    200,
+                    "{\"login\":\"octocat\",\"id\":1}",
+                    "X-RateLimit-Limit",
+                    "5000",
+                    "X-RateLimit-Remaining",
+                    renewed ? "4999" : "100",
+                    "X-RateLimit-Reset",
+                    Long.toString(renewed ? reset + 3600 : reset));
+        });
+        GitHub github = new GitHubBuilder().withEndpoint("https://api.example.com")
+                .withOAuthToken("token", "octocat")
+                .withConnector(connector)
+                .withRequestScheduler(new GitHubRequestScheduler(0.1))
+                .build();
+        github.getUser("octocat0");
+
+        CompletableFuture<GHUser> bulk = CompletableFuture.supplyAsync(() -> {
+            try (RequestPriority.Scope scope = RequestPriority.BULK.enter()) {
+                return github.getUser("octocat1");
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(200);
+        assertThat(bulk.isDone(), is(false));
+        assertThat(sent.get(), equalTo(1));
+
+        try (RequestPriority.Scope scope = RequestPriority.HIGH.enter()) {
+            github.getUser("octocat2");
+        }
+        assertThat(bulk.get(10, TimeUnit.SECONDS).getLogin(), equalTo("octocat"));
+        assertThat(sent.get(), equalTo(3));
+    }
+
+    /**
+     * Asynchronous bulk requests wait for the quota on a timer, without holding the calling thread.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void asyncBulkRequestsYieldWithoutBlocking() throws Exception {
+        long reset = Instant.now().plusSeconds(3600).getEpochSecond();
+        AtomicInteger sent = new AtomicInteger();
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(request -> {
+            // the second response reports a renewed rate limit
+            boolean renewed = sent.incrementAndGet() > 1;
+            return ScriptedGitHubConnector.response(request,
+                    200,
+                    "{\"login\":\"octocat\",\"id\":1}",
+                    "X-RateLimit-Limit",
+                    "5000",
+                    "X-RateLimit-Remaining",
+                    renewed ? "4999" : "100",
+                    "X-RateLimit-Reset",
+                    Long.toString(renewed ? reset + 3600 : reset));
+        });
+        GitHub github = new GitHubBuilder().withEndpoint("https://api.example.com")
+                .withOAuthToken("token", "octocat")
+                .withConnector(connector)
+                .withRequestScheduler(new GitHubRequestScheduler(0.1))
+                .build();
+        github.getUser("octocat0");
+
+        CompletableFuture<CompletableFuture<GitHubResponse<GHUser>>> call = CompletableFuture.supplyAsync(
+                () -> github.getClient()
+                        .sendRequestAsync(
+                                github.createRequest()
+                                        .withUrlPath("/users/octocat1")
+                                        .priority(RequestPriority.BULK)
+                                        .build(),
+                                r -> GitHubResponse.parseBody(r, GHUser.class)));
+        CompletableFuture<GitHubResponse<GHUser>> bulk = call.get(1, TimeUnit.SECONDS);
+        Thread.sleep(200);
+        assertThat(bulk.isDone(), is(false));
+        assertThat(sent.get(), equalTo(1));
+
+        try (RequestPriority.Scope scope = RequestPriority.HIGH.enter()) {
+            github.getUser("octocat2");
+        }
+        assertThat(bulk.get(10, TimeUnit.SECONDS).body().getLogin(), equalTo("octocat"));
+        assertThat(sent.get(), equalTo(3));
+    }
+}
@@ -0,0 +1,137 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Unit tests for {@link GitHubRetryPolicy}.
+ */
+public class GitHubRetryPolicyTest extends AbstractGitHubWireMockTest {
+
+    private static GitHub scripted(ScriptedGitHubConnector connector, GitHubRetryPolicy retryPolicy)
+            throws Exception {
+        return new GitHubBuilder().withEndpoint("https://api.example.com")
+                .withOAuthToken("token", "octocat")
+                .withConnector(connector)
+                .withRetryPolicy(retryPolicy)
+                .build();
+    }
+
+    /**
+     * Create default GitHubRetryPolicyTest instance
+     */
+    public GitHubRetryPolicyTest() {
+    }
+
+    /**
+     * Backoff is jittered between zero and the exponential bound, which stops growing at the maximum.
+     */
+    @Test
+    public void backoffIsJitteredAndCapped() {
+        GitHubRetryPolicy policy = new GitHubRetryPolicy(3, Duration.ofMillis(100), Duration.ofMillis(350), 0.1);
+        for (int i = 0; i < 100; i++) {
+            assertThat(policy.backoff(0), lessThanOrEqualTo(Duration.ofMillis(100)));
+            assertThat(policy.backoff(1), lessThanOrEqualTo(Duration.ofMillis(200)));
+            assertThat(policy.backoff(2), lessThanOrEqualTo(Duration.ofMillis(350)));
+            assertThat(policy.backoff(100), lessThanOrEqualTo(Duration.ofMillis(350)));
+        }
+        assertThat(new GitHubRetryPolicy(3, Duration.ZERO, Duration.ZERO, 0.1).backoff(5), equalTo(Duration.ZERO));
+    }
+
+    /**
+     * Gateway errors to idempotent requests and connection errors are retried, other failures are not.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void retriesTransientFailures() throws Exception {
+        GitHubRetryPolicy policy = new GitHubRetryPolicy(3, Duration.ofMillis(1), Duration.ofMillis(5), 0.1);
+        ScriptedGitHubConnector connector = ScriptedGitHubConnector.inOrder(request -> {
+            throw new ConnectException("refused");
+        },
+                request -> ScriptedGitHubConnector.response(request, 502, "{}"),
+                request -> ScriptedGitHubConnector.response(request, 503, "{}"),
+                request -> ScriptedGitHubConnector.response(request, 200, "{\"login\":\"retried\",\"id\":1}"));
+        GitHub github = scripted(connector, policy);
+
+        assertThat(github.getUser("retried").getLogin(), equalTo("retried"));
+        assertThat(connector.getRequests(), hasSize(4));
+
+        // a POST is not retried once it may have reached the server
+        connector = ScriptedGitHubConnector.inOrder(request -> {
+            throw new SocketTimeoutException("read timed out");
+        });
+        github = scripted(connector, policy);
+        Requester requester = github.createRequest().method("POST").withUrlPath("/user/repos");
+        assertThrows(HttpException.class, () -> requester.send());
+        assertThat(connector.getRequests(), hasSize(1));
+
+        // gateway errors are reported once the policy allows no more retries
+        ScriptedGitHubConnector gateway = new ScriptedGitHubConnector(
+                request -> ScriptedGitHubConnector.response(request, 504, "{}"));
+        GitHub gatewayGitHub = scripted(gateway, policy);
+        HttpException e = assertThrows(HttpException.class, () -> gatewayGitHub.getUser("gateway"));
+        assertThat(e.getResponseCode(), equalTo(504));
+        assertThat(gateway.getRequests(), hasSize(4));
+    }
+
+    /**
+     * Once the budget is spent, failures are reported without retrying until more requests were made.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void budgetLimitsRetries() throws Exception {
+        GitHubRetryPolicy policy = new GitHubRetryPolicy(100, Duration.ZERO, Duration.ZERO, 0.5);
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(
+                request -> ScriptedGitHubConnector.response(request, 503, "{}"));
+        GitHub github = scripted(connector, policy);
+
+        for (int i = 0; i < 3; i++) {
+            int attempt = i;
+            assertThrows(HttpException.class, () -> github.getUser("unavailable" + attempt));
+        }
+        // the first request spends the 10 retries of the budget, the next ones earn half a retry each
+        assertThat(connector.getRequests(), hasSize(11 + 1 + 2));
+        assertThat(policy.getAvailableRetries(), equalTo(0));
+
+        ScriptedGitHubConnector spent = new ScriptedGitHubConnector(
+                request -> ScriptedGitHubConnector.response(request, 503, "{}"));
+        GitHub spentGitHub = scripted(spent, policy);
+        assertThrows(HttpException.class, () -> spentGitHub.getUser("spent"));
+        assertThat(spent.getRequests(), hasSize(1));
+    }
+
+    /**
+     * Asynchronous requests retry connection errors on a timer.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void asyncRetriesConnectionErrors() throws Exception {
+        GitHubRetryPolicy policy = new GitHubRetryPolicy(2, Duration.ofMillis(1), Duration.ofMillis(5), 0.1);
+        ScriptedGitHubConnector connector = ScriptedGitHubConnector.inOrder(request -> {
+            throw new ConnectException("refused");
+        }, request -> ScriptedGitHubConnector.response(request, 200, "{\"login\":\"async\",\"id\":1}"));
+        GitHubRequest request = GitHubRequest.newBuilder()
+                .withApiUrl("https://api.example.com")
+                .withUrlPath("/users/async")
+                .build();
+
+        GitHubResponse<GHUser> response = scripted(connector, policy).getClient()
+                .sendRequestAsync(request, r -> GitHubResponse.parseBody(r, GHUser.class))
+                .get(10, TimeUnit.SECONDS);
+        assertThat(response.body().getLogin(), equalTo("async"));
+        assertThat(connector.getRequests(), hasSize(2));
+    }
+}
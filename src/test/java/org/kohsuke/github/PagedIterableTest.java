@@ -0,0 +1,197 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Unit tests for {@link PagedIterable} retrieval modes, using a scripted connector.
+ */
+public class PagedIterableTest extends AbstractGitHubWireMockTest {
+
+    private static final String API_URL = "https://api.example.com";
+
+    private static final int PAGES = 4;
+
+    /**
+     * Serves {@link #PAGES} pages of two users each, with GitHub style "Link" headers.
+     */
+    private static GitHubConnectorResponse page(GitHubConnectorRequest request) throws IOException {
+        String query = request.url().getQuery();
+        int page = 1;
+        for (String parameter : query == null ? new String[0] : query.split("&")) {
+            if (parameter.startsWith("page=")) {
+                page = Integer.parseInt(parameter.substring("page=".length()));
+            }
+        }
+        if (page == 3 && request.url().getPath().endsWith("/broken")) {
+            return ScriptedGitHubConnector.response(request, 500, "{\"message\":\"Server Error\"}");
+        }
+
+        String base = API_URL + request.url().getPath() + "?per_page=2&page=";
+        if (request.url().getPath().endsWith("/cursor")) {
+            // cursor based pagination does not number pages or link the last one
+            base = API_URL + request.url().getPath() + "?per_page=2&after=cursor";
+            if (query != null && query.contains("after=cursor")) {
+                page = Integer.parseInt(query.substring(query.indexOf("after=cursor") + "after=cursor".length()));
+            }
+        }
+        List<String> links = new ArrayList<>();
+        if (page < PAGES) {
+            links.add("<" + base + (page + 1) + ">; rel=\"next\"");
+            if (!request.url().getPath().endsWith("/cursor")) {
+                links.add("<" + base + PAGES + ">; rel=\"last\"");
+            }
+        }
+        if (page > 1) {
+            links.add("<" + base + 1 + ">; rel=\"first\"");
+            links.add("<" + base + (page - 1) + ">; rel=\"prev\"");
+        }
+        String body = "[{\"login\":\"user" + (page * 2 - 1) + "\"},{\"login\":\"user" + (page * 2) + "\"}]";
+        return links.isEmpty()
+                ? ScriptedGitHubConnector.response(request, 200, body)
+                : ScriptedGitHubConnector.response(request, 200, body, "Link", String.join(", ", links));
+    }
+
+    /**
+     * Create default PagedIterableTest instance
+     */
+    public PagedIterableTest() {
+    }
+
+    /**
+     * Pages are requested concurrently and reassembled in order.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void toListParallel() throws Exception {
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(PagedIterableTest::page);
+        GitHub gitHub = new GitHubBuilder().withEndpoint(API_URL).withConnector(connector).build();
+        List<String> initialized = new ArrayList<>();
+
+        List<GHUser> users = gitHub.createRequest()
+                .withUrlPath("/users")
+                .toIterable(GHUser[].class, item -> initialized.add(item.getLogin()))
+                .withPageSize(2)
+                .toListParallel(3);
+
+        assertThat(users.stream().map(GHUser::getLogin).collect(Collectors.toList()),
+                contains("user1", "user2", "user3", "user4", "user5", "user6", "user7", "user8"));
+        assertThat(initialized.size(), equalTo(8));
+        assertThat(connector.getRequests().size(), equalTo(PAGES));
+    }
+
+    /**
+     * Listings without numbered pages are retrieved one page at a time.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void toListParallelCursor() throws Exception {
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(PagedIterableTest::page);
+        GitHub gitHub = new GitHubBuilder().withEndpoint(API_URL).withConnector(connector).build();
+
+        List<GHUser> users = gitHub.createRequest()
+                .withUrlPath("/cursor")
+                .toIterable(GHUser[].class, null)
+                .withPageSize(2)
+                .toListParallel(3);
+
+        assertThat(users.stream().map(GHUser::getLogin).collect(Collectors.toList()),
+                contains("user1", "user2", "user3", "user4", "user5", "user6", "user7", "user8"));
+        assertThat(connector.getRequests().size(), equalTo(PAGES));
+    }
+
+    /**
+     * A failed page fails the whole retrieval with the underlying exception.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void toListParallelFailure() throws Exception {
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(PagedIterableTest::page);
+        GitHub gitHub = new GitHubBuilder().withEndpoint(API_URL).withConnector(connector).build();
+
+        assertThrows(HttpException.class,
+                () -> gitHub.createRequest()
+                        .withUrlPath("/broken")
+                        .toIterable(GHUser[].class, null)
+                        .withPageSize(2)
+                        .toListParallel(2));
+    }
+
+    /**
+     * Prefetching returns the same items in the same order and does not request past the last page.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void withPrefetch() throws Exception {
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(PagedIterableTest::page);
+        GitHub gitHub = new GitHubBuilder().withEndpoint(API_URL).withConnector(connector).build();
+
+        List<GHUser> users = gitHub.createRequest()
+                .withUrlPath("/users")
+                .toIterable(GHUser[].class, null)
+                .withPageSize(2)
+                .withPrefetch(2)
+                .toList();
+
+        assertThat(users.stream().map(GHUser::getLogin).collect(Collectors.toList()),
+                contains("user1", "user2", "user3", "user4", "user5", "user6", "user7", "user8"));
+        assertThat(connector.getRequests().size(), equalTo(PAGES));
+    }
+
+    /**
+     * A failed prefetched page is reported when the iterator reaches it.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void withPrefetchFailure() throws Exception {
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(PagedIterableTest::page);
+        GitHub gitHub = new GitHubBuilder().withEndpoint(API_URL).withConnector(connector).build();
+
+        PagedIterator<GHUser> iterator = gitHub.createRequest()
+                .withUrlPath("/broken")
+                .toIterable(GHUser[].class, null)
+                .withPageSize(2)
+                .withPrefetch(3)
+                .iterator();
+
+        assertThat(iterator.nextPage().size(), equalTo(2));
+        assertThat(iterator.nextPage().size(), equalTo(2));
+        GHException e = assertThrows(GHException.class, () -> iterator.nextPage());
+        assertThat(e.getCause(), instanceOf(HttpException.class));
+    }
+
+    /**
+     * Negative prefetch depths are rejected.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void withPrefetchNegative() throws Exception {
+        GitHub gitHub = new GitHubBuilder().withEndpoint(API_URL)
+                .withConnector(new ScriptedGitHubConnector(PagedIterableTest::page))
+                .build();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> gitHub.createRequest().withUrlPath("/users").toIterable(GHUser[].class, null).withPrefetch(-1));
+    }
+}
@@ -0,0 +1,143 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Unit tests for {@link RateLimitChecker.Pacing}.
+ */
+public class RateLimitCheckerPacingTest extends AbstractGitHubWireMockTest {
+
+    /**
+     * A time that only passes when the checker sleeps.
+     */
+    private static final class FakeTime extends RateLimitChecker.TimeSource {
+
+        /** A whole second, as reset times are. */
+        private static final long START_MILLIS = 1_700_000_000_000L;
+
+        private long nanos;
+
+        @Override
+        long currentTimeMillis() {
+            return START_MILLIS + TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+
+        @Override
+        long nanoTime() {
+            return nanos;
+        }
+
+        @Override
+        void sleep(long nanos) {
+            this.nanos += nanos;
+        }
+
+        GHRateLimit.Record record(int remaining, Duration timeToReset) {
+            return new GHRateLimit.Record(5000,
+                    remaining,
+                    TimeUnit.MILLISECONDS.toSeconds(START_MILLIS + timeToReset.toMillis()));
+        }
+    }
+
+    private static long elapsedMillis(RateLimitChecker checker,
+            FakeTime time,
+            GHRateLimit.Record record,
+            int requests) throws InterruptedException {
+        long start = time.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            assertThat(checker.checkRateLimit(record, 0), is(false));
+        }
+        return TimeUnit.NANOSECONDS.toMillis(time.nanoTime() - start);
+    }
+
+    /**
+     * Create default RateLimitCheckerPacingTest instance
+     */
+    public RateLimitCheckerPacingTest() {
+    }
+
+    /**
+     * Requests beyond the burst are spaced evenly over the time left until the reset.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void spacesRequestsEvenly() throws Exception {
+        FakeTime time = new FakeTime();
+        // 100 requests left for 10 seconds: one request every 100ms
+        GHRateLimit.Record record = time.record(100, Duration.ofSeconds(10));
+        RateLimitChecker checker = new RateLimitChecker.Pacing(0, 2, time);
+
+        assertThat(elapsedMillis(checker, time, record, 2), equalTo(0L));
+        // the time left shrinks as requests wait, so the spacing tightens a little
+        long elapsed = elapsedMillis(checker, time, record, 3);
+        assertThat(elapsed, greaterThanOrEqualTo(290L));
+        assertThat(elapsed, lessThanOrEqualTo(300L));
+    }
+
+    /**
+     * The allowed rate can follow another curve.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void customCurve() throws Exception {
+        FakeTime time = new FakeTime();
+        GHRateLimit.Record record = time.record(100, Duration.ofSeconds(10));
+        RateLimitChecker checker = new RateLimitChecker.Pacing(0, 1, time) {
+            @Override
+            protected double getAllowedRate(GHRateLimit.Record record, Duration timeToReset) {
+                // twice the even rate
+                return 2 * super.getAllowedRate(record, timeToReset);
+            }
+        };
+
+        // one request every 50ms
+        long elapsed = elapsedMillis(checker, time, record, 4);
+        assertThat(elapsed, greaterThanOrEqualTo(145L));
+        assertThat(elapsed, lessThanOrEqualTo(150L));
+    }
+
+    /**
+     * Peeking at the wait time does not take a slot, so only the requests that are sent are paced.
+     */
+    @Test
+    public void peekDoesNotTakeSlots() {
+        FakeTime time = new FakeTime();
+        // 100 requests left for 10 seconds: one request every 100ms
+        GHRateLimit.Record record = time.record(100, Duration.ofSeconds(10));
+        RateLimitChecker checker = new RateLimitChecker.Pacing(0, 1, time);
+
+        assertThat(checker.peekWaitTime(record), equalTo(Duration.ZERO));
+        assertThat(checker.getWaitTime(record), equalTo(Duration.ZERO));
+        assertThat(checker.peekWaitTime(record), equalTo(Duration.ofMillis(100)));
+        assertThat(checker.peekWaitTime(record), equalTo(Duration.ofMillis(100)));
+        assertThat(checker.getWaitTime(record), equalTo(Duration.ofMillis(100)));
+        assertThat(checker.peekWaitTime(record), equalTo(Duration.ofMillis(200)));
+    }
+
+    /**
+     * Requests are not paced once the quota has been renewed, and arguments are validated.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void noPacingAfterReset() throws Exception {
+        FakeTime time = new FakeTime();
+        GHRateLimit.Record record = time.record(1, Duration.ofSeconds(-10));
+        RateLimitChecker checker = new RateLimitChecker.Pacing(0, 1, time);
+
+        assertThat(elapsedMillis(checker, time, record, 5), equalTo(0L));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitChecker.Pacing(-1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitChecker.Pacing(0, 0));
+    }
+}
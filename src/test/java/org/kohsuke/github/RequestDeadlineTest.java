@@ -0,0 +1,195 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Unit tests for {@link RequestDeadline}.
+ */
+public class RequestDeadlineTest extends AbstractGitHubWireMockTest {
+
+    private static final String API_URL = "https://api.example.com";
+
+    private static GitHub scripted(ScriptedGitHubConnector connector) throws Exception {
+        return new GitHubBuilder().withEndpoint(API_URL)
+                .withOAuthToken("token", "octocat")
+                .withConnector(connector)
+                .withRateLimitHandler(new GitHubRateLimitHandler() {
+                    @Override
+                    public void onError(GitHubConnectorResponse connectorResponse) {
+                        throw new AssertionError("retryAfter should be called instead");
+                    }
+
+                    @Override
+                    public Duration retryAfter(GitHubConnectorResponse connectorResponse) {
+                        return Duration.ofSeconds(30);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Create default RequestDeadlineTest instance
+     */
+    public RequestDeadlineTest() {
+    }
+
+    /**
+     * Requests are not sent once their deadline has passed or was cancelled, and the time left is passed to the
+     * connector.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void failsBeforeSending() throws Exception {
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(
+                request -> ScriptedGitHubConnector.response(request, 200, "{\"login\":\"deadline\",\"id\":1}"));
+        GitHub github = scripted(connector);
+
+        RequestDeadline passed = RequestDeadline.at(Instant.now().minusSeconds(1));
+        assertThat(passed.isExpired(), is(true));
+        assertThat(passed.getRemaining(), equalTo(Duration.ZERO));
+        assertThrows(RequestCancelledException.class,
+                () -> github.createRequest().withUrlPath("/users/passed").deadline(passed).fetch(GHUser.class));
+
+        RequestDeadline cancelled = RequestDeadline.cancellable();
+        assertThat(cancelled.getRemaining(), nullValue());
+        cancelled.cancel();
+        try (RequestDeadline.Scope scope = cancelled.enter()) {
+            assertThrows(RequestCancelledException.class, () -> github.getUser("cancelled"));
+        }
+        assertThat(RequestDeadline.current(), nullValue());
+        assertThat(connector.getRequests(), empty());
+
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofMinutes(1));
+        github.createRequest().withUrlPath("/users/timed").deadline(deadline).fetch(GHUser.class);
+        assertThat(connector.getRequests(), hasSize(1));
+        assertThat(connector.getRequests().get(0).timeout(), lessThanOrEqualTo(Duration.ofMinutes(1)));
+        assertThat(connector.getRequests().get(0).timeout(), greaterThan(Duration.ofSeconds(50)));
+        assertThat(connector.getRequests().get(0).cancellation(), notNullValue());
+    }
+
+    /**
+     * A retry that would wait past the deadline fails right away.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void failsInsteadOfWaitingPastDeadline() throws Exception {
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(request -> ScriptedGitHubConnector
+                .response(request, 403, "{}", "X-RateLimit-Limit", "5000", "X-RateLimit-Remaining", "0"));
+        GitHub github = scripted(connector);
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofSeconds(5));
+
+        long start = System.nanoTime();
+        RequestCancelledException e = assertThrows(RequestCancelledException.class,
+                () -> github.createRequest().withUrlPath("/users/limited").deadline(deadline).fetch(GHUser.class));
+        assertThat(e.getMessage(), containsString("would pass while waiting"));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), lessThan(2000L));
+        assertThat(connector.getRequests(), hasSize(1));
+
+        GitHubRequest request = GitHubRequest.newBuilder()
+                .withApiUrl(API_URL)
+                .withUrlPath("/users/limitedAsync")
+                .deadline(deadline)
+                .build();
+        CompletionException async = assertThrows(CompletionException.class,
+                () -> github.getClient().sendRequestAsync(request, null).join());
+        assertThat(async.getCause(), instanceOf(RequestCancelledException.class));
+    }
+
+    /**
+     * Cancelling a deadline aborts the requests being sent.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void cancelAbortsRequestInFlight() throws Exception {
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(request -> {
+            // a connector that waits for the server until the request is cancelled
+            request.cancellation().toCompletableFuture().join();
+            throw new IOException("Canceled");
+        });
+        GitHub github = scripted(connector);
+        RequestDeadline deadline = RequestDeadline.cancellable();
+        CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS).execute(deadline::cancel);
+
+        RequestCancelledException e = assertThrows(RequestCancelledException.class,
+                () -> github.createRequest().withUrlPath("/users/slow").deadline(deadline).fetch(GHUser.class));
+        assertThat(e.getCause().getMessage(), equalTo("Canceled"));
+        assertThat(deadline.isCancelled(), is(true));
+        assertThat(connector.getRequests(), hasSize(1));
+    }
+
+    /**
+     * The deadline of a {@link PagedIterable} applies to the requests for all of its pages.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void pagedIterableDeadline() throws Exception {
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(request -> request.url()
+                .toString()
+                .endsWith("page=2")
+                        ? ScriptedGitHubConnector.response(request, 200, "[{\"login\":\"user3\"}]")
+                        : ScriptedGitHubConnector.response(request,
+                                200,
+                                "[{\"login\":\"user1\"},{\"login\":\"user2\"}]",
+                                "Link",
+                                "<" + API_URL + "/users?page=2>; rel=\"next\""));
+        GitHub github = scripted(connector);
+        RequestDeadline deadline = RequestDeadline.cancellable();
+
+        Iterator<GHUser> users = github.createRequest()
+                .withUrlPath("/users")
+                .toIterable(GHUser[].class, null)
+                .withDeadline(deadline)
+                .iterator();
+        assertThat(users.next().getLogin(), equalTo("user1"));
+        assertThat(users.next().getLogin(), equalTo("user2"));
+        deadline.cancel();
+        GHException e = assertThrows(GHException.class, users::hasNext);
+        assertThat(e.getCause(), instanceOf(RequestCancelledException.class));
+        assertThat(connector.getRequests(), hasSize(1));
+        assertThat(connector.getRequests().get(0).cancellation().toCompletableFuture().isDone(), is(true));
+    }
+
+    /**
+     * Search results keep their type when given a deadline, and their requests are sent with it.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void pagedSearchIterableDeadline() throws Exception {
+        String body = "{\"total_count\":3,\"incomplete_results\":false,\"items\":[{\"login\":\"user1\"}]}";
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(
+                request -> ScriptedGitHubConnector.response(request, 200, body));
+        GitHub github = scripted(connector);
+        RequestDeadline deadline = RequestDeadline.cancellable();
+
+        PagedSearchIterable<GHUser> users = github.searchUsers()
+                .q("user")
+                .list()
+                .withDeadline(deadline)
+                .withPageSize(1);
+        assertThat(users.getTotalCount(), equalTo(3));
+        assertThat(connector.getRequests(), hasSize(1));
+        assertThat(connector.getRequests().get(0).cancellation(), notNullValue());
+    }
+}
@@ -0,0 +1,132 @@
+package org.kohsuke.github;
+
+import org.junit.Test;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Unit tests for waits decided by {@link GitHubRateLimitHandler#retryAfter(GitHubConnectorResponse)},
+ * {@link GitHubAbuseLimitHandler#retryAfter(GitHubConnectorResponse)} and
+ * {@link RateLimitChecker#getWaitTime(GHRateLimit.Record)}.
+ */
+public class RetryAfterTest extends AbstractGitHubWireMockTest {
+
+    private static GitHubConnectorResponse rateLimited(long resetEpochSeconds) {
+        GitHubRequest request = GitHubRequest.newBuilder().withApiUrl("https://api.example.com").build();
+        return ScriptedGitHubConnector.response(request,
+                403,
+                "{}",
+                "X-RateLimit-Remaining",
+                "0",
+                "X-RateLimit-Reset",
+                Long.toString(resetEpochSeconds));
+    }
+
+    /**
+     * Create default RetryAfterTest instance
+     */
+    public RetryAfterTest() {
+    }
+
+    /**
+     * The waiting handlers return the wait time instead of sleeping.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void waitHandlersReturnDelay() throws Exception {
+        long start = System.nanoTime();
+        Duration rateLimitDelay = GitHubRateLimitHandler.WAIT
+                .retryAfter(rateLimited(Instant.now().getEpochSecond() + 30));
+        GitHubRequest request = GitHubRequest.newBuilder().withApiUrl("https://api.example.com").build();
+        Duration abuseDelay = GitHubAbuseLimitHandler.WAIT
+                .retryAfter(ScriptedGitHubConnector.response(request, 429, "{}", "Retry-After", "20"));
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), lessThan(1000L));
+        assertThat(rateLimitDelay, greaterThan(Duration.ofSeconds(28)));
+        assertThat(rateLimitDelay, lessThanOrEqualTo(Duration.ofSeconds(30)));
+        assertThat(abuseDelay, equalTo(Duration.ofSeconds(20)));
+    }
+
+    /**
+     * Checkers decide how long to wait without waiting.
+     */
+    @Test
+    public void checkersReturnWaitTime() {
+        long reset = Instant.now().getEpochSecond() + 10;
+        RateLimitChecker literal = new RateLimitChecker.LiteralValue(10);
+        assertThat(literal.getWaitTime(new GHRateLimit.Record(5000, 11, reset)), equalTo(Duration.ZERO));
+        assertThat(literal.getWaitTime(new GHRateLimit.Record(5000, 10, reset)), greaterThan(Duration.ofSeconds(9)));
+
+        // 100 requests left for 10 seconds: one request every 100ms after the burst
+        RateLimitChecker pacing = new RateLimitChecker.Pacing(0, 1);
+        GHRateLimit.Record record = new GHRateLimit.Record(5000, 100, reset);
+        assertThat(pacing.getWaitTime(record), equalTo(Duration.ZERO));
+        assertThat(pacing.getWaitTime(record), greaterThan(Duration.ofMillis(50)));
+        assertThat(RateLimitChecker.NONE.getWaitTime(record), nullValue());
+    }
+
+    /**
+     * Asynchronous requests wait for the delay returned by the handler on a timer.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void asyncRetryWaitsOnTimer() throws Exception {
+        AtomicInteger sent = new AtomicInteger();
+        ScriptedGitHubConnector connector = new ScriptedGitHubConnector(request -> sent.incrementAndGet() == 1
+                ? ScriptedGitHubConnector.response(request,
+                        403,
+                        "{}",
+                        "X-RateLimit-Remaining",
+                        "0",
+                        "X-RateLimit-Reset",
+                        Long.toString(Instant.now().getEpochSecond() + 1))
+                : ScriptedGitHubConnector.response(request, 200, "{\"login\":\"octocat\",\"id\":1}"));
+        GitHub github = new GitHubBuilder().withEndpoint("https://api.example.com")
+                .withOAuthToken("token", "octocat")
+                .withConnector(connector)
+                .withRateLimitHandler(new GitHubRateLimitHandler() {
+                    @Override
+                    public void onError(GitHubConnectorResponse connectorResponse) {
+                        throw new AssertionError("retryAfter should be called instead");
+                    }
+
+                    @Override
+                    public Duration retryAfter(GitHubConnectorResponse connectorResponse) {
+                        return Duration.ofMillis(300);
+                    }
+                })
+                .build();
+        GitHubRequest request = GitHubRequest.newBuilder()
+                .withApiUrl("https://api.example.com")
+                .withUrlPath("/users/octocat")
+                .build();
+
+        long start = System.nanoTime();
+        CompletableFuture<GitHubResponse<GHUser>> pending = github.getClient()
+                .sendRequestAsync(request, response -> GitHubResponse.parseBody(response, GHUser.class));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), lessThan(250L));
+        assertThat(pending.isDone(), is(false));
+
+        assertThat(pending.get(10, TimeUnit.SECONDS).body().getLogin(), equalTo("octocat"));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), greaterThanOrEqualTo(300L));
+        assertThat(sent.get(), equalTo(2));
+
+        // the blocking path waits for the same delay
+        sent.set(0);
+        start = System.nanoTime();
+        github.getClient().sendRequest(request, null);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), greaterThanOrEqualTo(300L));
+        assertThat(sent.get(), equalTo(2));
+    }
+}
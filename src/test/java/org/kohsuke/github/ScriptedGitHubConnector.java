@@ -0,0 +1,147 @@
+package org.kohsuke.github;
+
+import org.kohsuke.github.connector.AsyncGitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+import org.kohsuke.github.function.FunctionThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A connector that answers requests from a script instead of a server.
+ *
+ * Useful for unit tests of the request pipeline that don't need recorded WireMock data.
+ */
+public class ScriptedGitHubConnector implements AsyncGitHubConnector {
+
+    /**
+     * A canned response.
+     */
+    public static class ScriptedResponse extends GitHubConnectorResponse {
+
+        private final byte[] body;
+
+        /**
+         * Instantiates a new scripted response.
+         *
+         * @param request
+         *            the request
+         * @param statusCode
+         *            the status code
+         * @param headers
+         *            the headers
+         * @param body
+         *            the body
+         */
+        public ScriptedResponse(@Nonnull GitHubConnectorRequest request,
+                int statusCode,
+                @Nonnull Map<String, List<String>> headers,
+                String body) {
+            super(request, statusCode, headers);
+            this.body = body == null ? null : body.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        protected InputStream rawBodyStream() throws IOException {
+            return body == null ? null : new ByteArrayInputStream(body);
+        }
+    }
+
+    /**
+     * Creates a connector that returns the given responses in order, then fails.
+     *
+     * @param responses
+     *            produce the responses in order
+     * @return the connector
+     */
+    @SafeVarargs
+    public static ScriptedGitHubConnector inOrder(
+            FunctionThrows<GitHubConnectorRequest, GitHubConnectorResponse, IOException>... responses) {
+        ConcurrentLinkedQueue<FunctionThrows<GitHubConnectorRequest, GitHubConnectorResponse, IOException>> queue = new ConcurrentLinkedQueue<>();
+        Collections.addAll(queue, responses);
+        return new ScriptedGitHubConnector(request -> {
+            FunctionThrows<GitHubConnectorRequest, GitHubConnectorResponse, IOException> next = queue.poll();
+            if (next == null) {
+                throw new IOException("No more scripted responses for " + request.url());
+            }
+            return next.apply(request);
+        });
+    }
+
+    /**
+     * Creates a response with the given status, body and header name/value pairs.
+     *
+     * @param request
+     *            the request
+     * @param statusCode
+     *            the status code
+     * @param body
+     *            the body
+     * @param headers
+     *            header names and values, alternating
+     * @return the response
+     */
+    public static GitHubConnectorResponse response(GitHubConnectorRequest request,
+            int statusCode,
+            String body,
+            String... headers) {
+        Map<String, List<String>> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i + 1 < headers.length; i += 2) {
+            map.put(headers[i], Collections.singletonList(headers[i + 1]));
+        }
+        return new ScriptedResponse(request, statusCode, map, body);
+    }
+
+    private final List<GitHubConnectorRequest> requests = Collections.synchronizedList(new ArrayList<>());
+
+    private final FunctionThrows<GitHubConnectorRequest, GitHubConnectorResponse, IOException> script;
+
+    /**
+     * Instantiates a new scripted connector.
+     *
+     * @param script
+     *            produces the response for each request
+     */
+    public ScriptedGitHubConnector(
+            FunctionThrows<GitHubConnectorRequest, GitHubConnectorResponse, IOException> script) {
+        this.script = script;
+    }
+
+    /**
+     * The requests received so far.
+     *
+     * @return the requests
+     */
+    public List<GitHubConnectorRequest> getRequests() {
+        synchronized (requests) {
+            return new ArrayList<>(requests);
+        }
+    }
+
+    @Override
+    public GitHubConnectorResponse send(GitHubConnectorRequest connectorRequest) throws IOException {
+        requests.add(connectorRequest);
+        return script.apply(connectorRequest);
+    }
+
+    @Override
+    public CompletableFuture<GitHubConnectorResponse> sendAsync(GitHubConnectorRequest connectorRequest) {
+        try {
+            return CompletableFuture.completedFuture(send(connectorRequest));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package org.kohsuke.github.extras.caching;
+
+import org.junit.Test;
+import org.kohsuke.github.AbstractGitHubWireMockTest;
+import org.kohsuke.github.GHUser;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.GitHubBuilder;
+import org.kohsuke.github.GitHubCacheStatistics;
+import org.kohsuke.github.ScriptedGitHubConnector;
+import org.kohsuke.github.connector.GitHubConnectorRequest;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.Matchers.*;
+import static org.kohsuke.github.ScriptedGitHubConnector.response;
+
+/**
+ * Unit tests for {@link CachingGitHubConnector}.
+ */
+public class CachingGitHubConnectorTest extends AbstractGitHubWireMockTest {
+
+    private static final String USER_BODY = "{\"login\":\"octocat\",\"id\":1,\"name\":\"The Octocat\"}";
+
+    /**
+     * Create default CachingGitHubConnectorTest instance
+     */
+    public CachingGitHubConnectorTest() {
+    }
+
+    /**
+     * A 304 response is answered with the stored body.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void notModifiedServedFromStore() throws Exception {
+        ScriptedGitHubConnector scripted = ScriptedGitHubConnector.inOrder(
+                request -> response(request, 200, USER_BODY, "ETag", "\"abc\"", "X-RateLimit-Remaining", "4999"),
+                request -> response(request, 304, null, "ETag", "\"abc\"", "X-RateLimit-Remaining", "4999"));
+        CachingGitHubConnector connector = new CachingGitHubConnector(scripted,
+                new InMemoryResponseCacheStore(1024 * 1024));
+        GitHub github = new GitHubBuilder().withEndpoint("https://api.example.com")
+                .withOAuthToken("token", "octocat")
+                .withConnector(connector)
+                .build();
+
+        GHUser first = github.getUser("octocat");
+        github.refreshCache();
+        GHUser second = github.getUser("octocat");
+
+        assertThat(first.getName(), equalTo("The Octocat"));
+        assertThat(second.getName(), equalTo("The Octocat"));
+        List<GitHubConnectorRequest> requests = scripted.getRequests();
+        assertThat(requests, hasSize(2));
+        assertThat(requests.get(0).header("If-None-Match"), nullValue());
+        assertThat(requests.get(1).header("If-None-Match"), equalTo("\"abc\""));
+
+        GitHubCacheStatistics statistics = connector.getStatistics();
+        assertThat(statistics.getHitCount(), equalTo(1L));
+        assertThat(statistics.getMissCount(), equalTo(1L));
+        assertThat(statistics.getSize(), equalTo(1L));
+    }
+
+    /**
+     * A stored response that cannot be removed does not fail the response that replaced it.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void failedRemoveKeepsResponse() throws Exception {
+        ScriptedGitHubConnector scripted = ScriptedGitHubConnector.inOrder(
+                request -> response(request, 200, USER_BODY, "ETag", "\"abc\""),
+                request -> response(request, 200, USER_BODY));
+        InMemoryResponseCacheStore stored = new InMemoryResponseCacheStore(1024 * 1024);
+        CachingGitHubConnector connector = new CachingGitHubConnector(scripted, new ResponseCacheStore() {
+            @Override
+            public CachedResponse get(String key) {
+                return stored.get(key);
+            }
+
+            @Override
+            public long getEvictionCount() {
+                return stored.getEvictionCount();
+            }
+
+            @Override
+            public long getSize() {
+                return stored.getSize();
+            }
+
+            @Override
+            public void put(String key, CachedResponse response) {
+                stored.put(key, response);
+            }
+
+            @Override
+            public void remove(String key) throws IOException {
+                throw new IOException("Disk failure");
+            }
+        });
+        GitHub github = new GitHubBuilder().withEndpoint("https://api.example.com")
+                .withOAuthToken("token", "octocat")
+                .withConnector(connector)
+                .build();
+
+        github.getUser("octocat");
+        github.refreshCache();
+        GHUser second = github.getUser("octocat");
+
+        assertThat(second.getName(), equalTo("The Octocat"));
+        assertThat(scripted.getRequests(), hasSize(2));
+    }
+
+    /**
+     * Bodies are stored decoded, without the encoding headers of the response even when their names are in lower
+     * case, as with HTTP/2, so they are not decoded again when served.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void gzippedBodyWithLowerCaseHeaders() throws Exception {
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+            out.write(USER_BODY.getBytes(StandardCharsets.UTF_8));
+        }
+        ScriptedGitHubConnector scripted = ScriptedGitHubConnector.inOrder(request -> {
+            Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            headers.put("content-encoding", Collections.singletonList("gzip"));
+            headers.put("content-length", Collections.singletonList(String.valueOf(gzipped.size())));
+            headers.put("etag", Collections.singletonList("\"abc\""));
+            return new GitHubConnectorResponse(request, 200, headers) {
+                @Override
+                protected InputStream rawBodyStream() throws IOException {
+                    return new ByteArrayInputStream(gzipped.toByteArray());
+                }
+            };
+        }, request -> response(request, 304, null, "content-encoding", "gzip", "etag", "\"abc\""));
+        CachingGitHubConnector connector = new CachingGitHubConnector(scripted,
+                new InMemoryResponseCacheStore(1024 * 1024));
+        GitHub github = new GitHubBuilder().withEndpoint("https://api.example.com")
+                .withOAuthToken("token", "octocat")
+                .withConnector(connector)
+                .build();
+
+        assertThat(github.getUser("octocat").getName(), equalTo("The Octocat"));
+        github.refreshCache();
+        assertThat(github.getUser("octocat").getName(), equalTo("The Octocat"));
+        assertThat(connector.getStatistics().getHitCount(), equalTo(1L));
+    }
+
+    /**
+     * Stored responses are not shared between credentials.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void storeNotSharedBetweenCredentials() throws Exception {
+        ScriptedGitHubConnector scripted = new ScriptedGitHubConnector(
+                request -> response(request, 200, USER_BODY, "ETag", "\"abc\""));
+        InMemoryResponseCacheStore store = new InMemoryResponseCacheStore(1024 * 1024);
+        GitHub first = new GitHubBuilder().withEndpoint("https://api.example.com")
+                .withOAuthToken("first", "octocat")
+                .withConnector(new CachingGitHubConnector(scripted, store))
+                .build();
+        GitHub second = new GitHubBuilder().withEndpoint("https://api.example.com")
+                .withOAuthToken("second", "octocat")
+                .withConnector(new CachingGitHubConnector(scripted, store))
+                .build();
+
+        first.getUser("octocat");
+        second.getUser("octocat");
+
+        List<GitHubConnectorRequest> requests = scripted.getRequests();
+        assertThat(requests, hasSize(2));
+        assertThat(requests.get(1).header("If-None-Match"), nullValue());
+        assertThat(store.getSize(), equalTo(2L));
+    }
+
+    /**
+     * The in-memory store evicts the least recently used responses first.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void inMemoryStoreEviction() throws Exception {
+        InMemoryResponseCacheStore store = new InMemoryResponseCacheStore(10);
+        store.put("a", new CachedResponse(Collections.emptyMap(), new byte[4]));
+        store.put("b", new CachedResponse(Collections.emptyMap(), new byte[4]));
+        assertThat(store.get("a"), notNullValue());
+        store.put("c", new CachedResponse(Collections.emptyMap(), new byte[4]));
+
+        assertThat(store.get("b"), nullValue());
+        assertThat(store.get("a"), notNullValue());
+        assertThat(store.get("c"), notNullValue());
+        assertThat(store.getEvictionCount(), equalTo(1L));
+        assertThat(store.getSize(), equalTo(2L));
+    }
+}
@@ -0,0 +1,155 @@
+package org.kohsuke.github.extras.caching;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kohsuke.github.AbstractGitHubWireMockTest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Unit tests for {@link DiskResponseCacheStore}.
+ */
+public class DiskResponseCacheStoreTest extends AbstractGitHubWireMockTest {
+
+    private static CachedResponse response(String etag, String body) {
+        Map<String, List<String>> headers = Collections.singletonMap("ETag", Collections.singletonList(etag));
+        return new CachedResponse(headers, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String body(CachedResponse response) {
+        return new String(response.getBody(), StandardCharsets.UTF_8);
+    }
+
+    private Path directory;
+
+    /**
+     * Create default DiskResponseCacheStoreTest instance
+     */
+    public DiskResponseCacheStoreTest() {
+    }
+
+    /**
+     * Creates the cache directory.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("github-api-cache");
+    }
+
+    /**
+     * Deletes the cache directory.
+     *
+     * @throws IOException
+     *             Signals that an I/O exception has occurred.
+     */
+    @After
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    /**
+     * Stored responses are still there after the store is reopened.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void survivesReopen() throws Exception {
+        try (DiskResponseCacheStore store = new DiskResponseCacheStore(directory, 1024 * 1024)) {
+            store.put("a", response("\"1\"", "first"));
+            store.put("b", response("\"2\"", "second"));
+            store.put("a", response("\"3\"", "replaced"));
+            store.remove("b");
+        }
+
+        try (DiskResponseCacheStore store = new DiskResponseCacheStore(directory, 1024 * 1024)) {
+            assertThat(store.getSize(), equalTo(1L));
+            assertThat(body(store.get("a")), equalTo("replaced"));
+            assertThat(store.get("a").getETag(), equalTo("\"3\""));
+            assertThat(store.get("b"), nullValue());
+        }
+    }
+
+    /**
+     * A missing index is rebuilt from the segments, honoring replacements and removals.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void rebuildsIndex() throws Exception {
+        try (DiskResponseCacheStore store = new DiskResponseCacheStore(directory, 1024 * 1024)) {
+            for (int i = 0; i < 2000; i++) {
+                store.put("key" + i, response("\"" + i + "\"", "body" + i));
+            }
+            store.put("key1", response("\"new\"", "replaced"));
+            store.remove("key2");
+        }
+        Files.delete(directory.resolve("index"));
+
+        try (DiskResponseCacheStore store = new DiskResponseCacheStore(directory, 1024 * 1024)) {
+            assertThat(store.getSize(), equalTo(1999L));
+            assertThat(body(store.get("key0")), equalTo("body0"));
+            assertThat(body(store.get("key1")), equalTo("replaced"));
+            assertThat(store.get("key2"), nullValue());
+            assertThat(body(store.get("key1999")), equalTo("body1999"));
+        }
+    }
+
+    /**
+     * Segments are compacted once they exceed the limit, dropping the oldest responses.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void compaction() throws Exception {
+        String body = String.join("", Collections.nCopies(100, "x"));
+        try (DiskResponseCacheStore store = new DiskResponseCacheStore(directory, 4096)) {
+            for (int i = 0; i < 100; i++) {
+                store.put("key" + i, response("\"" + i + "\"", body));
+            }
+
+            assertThat(store.getEvictionCount(), greaterThan(0L));
+            assertThat(store.get("key0"), nullValue());
+            assertThat(body(store.get("key99")), equalTo(body));
+            long segmentBytes;
+            try (Stream<Path> files = Files.list(directory)) {
+                segmentBytes = files.filter(file -> file.getFileName().toString().startsWith("segment-"))
+                        .mapToLong(file -> file.toFile().length())
+                        .sum();
+            }
+            assertThat(segmentBytes, lessThanOrEqualTo(4096L));
+        }
+    }
+
+    /**
+     * A directory cannot be used by two stores at once.
+     *
+     * @throws Exception
+     *             the exception
+     */
+    @Test
+    public void directoryInUse() throws Exception {
+        try (DiskResponseCacheStore store = new DiskResponseCacheStore(directory, 1024)) {
+            assertThrows(IOException.class, () -> new DiskResponseCacheStore(directory, 1024));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.kohsuke.github.internal;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * The Class FingerprintsTest.
+ */
+public class FingerprintsTest {
+
+    /**
+     * Create default FingerprintsTest instance
+     */
+    public FingerprintsTest() {
+    }
+
+    /**
+     * Test sha256.
+     */
+    @Test
+    public void testSha256() {
+        assertThat(Fingerprints.sha256(""),
+                equalTo("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855"));
+        assertThat(Fingerprints.sha256("abc"),
+                equalTo("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad"));
+    }
+}